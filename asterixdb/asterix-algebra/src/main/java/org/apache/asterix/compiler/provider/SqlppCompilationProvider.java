@@ -83,7 +83,12 @@ public class SqlppCompilationProvider implements ILangCompilationProvider {
                 CompilerProperties.COMPILER_INDEXONLY_KEY, CompilerProperties.COMPILER_INTERNAL_SANITYCHECK_KEY,
                 CompilerProperties.COMPILER_EXTERNAL_FIELD_PUSHDOWN_KEY, CompilerProperties.COMPILER_SUBPLAN_MERGE_KEY,
                 CompilerProperties.COMPILER_SUBPLAN_NESTEDPUSHDOWN_KEY, CompilerProperties.COMPILER_ARRAYINDEX_KEY,
-                CompilerProperties.COMPILER_MIN_MEMORY_ALLOCATION_KEY, FunctionUtil.IMPORT_PRIVATE_FUNCTIONS,
+                CompilerProperties.COMPILER_MIN_MEMORY_ALLOCATION_KEY,
+                CompilerProperties.COMPILER_OPENADDRESSING_HASHTABLE_KEY,
+                CompilerProperties.COMPILER_RADIX_CLUSTERING_KEY, CompilerProperties.COMPILER_SORTMERGE_JOIN_KEY,
+                CompilerProperties.COMPILER_SORT_THREADS_KEY, CompilerProperties.COMPILER_GROUPBY_STREAMING_KEY,
+                CompilerProperties.COMPILER_SORT_TOPK_FILTER_KEY, CompilerProperties.COMPILER_EXCHANGE_COMPRESSION_KEY,
+                CompilerProperties.COMPILER_JOIN_BLOOMFILTER_KEY, FunctionUtil.IMPORT_PRIVATE_FUNCTIONS,
                 FuzzyUtils.SIM_FUNCTION_PROP_NAME, FuzzyUtils.SIM_THRESHOLD_PROP_NAME,
                 StartFeedStatement.WAIT_FOR_COMPLETION, FeedActivityDetails.FEED_POLICY_NAME,
                 FeedActivityDetails.COLLECT_LOCATIONS, SqlppQueryRewriter.INLINE_WITH_OPTION,
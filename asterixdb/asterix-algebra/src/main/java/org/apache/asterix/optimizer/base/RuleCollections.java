@@ -122,7 +122,10 @@ import org.apache.hyracks.algebricks.rewriter.rules.InlineSingleReferenceVariabl
 import org.apache.hyracks.algebricks.rewriter.rules.InsertProjectBeforeUnionRule;
 import org.apache.hyracks.algebricks.rewriter.rules.IntroJoinInsideSubplanRule;
 import org.apache.hyracks.algebricks.rewriter.rules.IntroduceAggregateCombinerRule;
+import org.apache.hyracks.algebricks.rewriter.rules.IntroduceJoinBloomFilterRule;
 import org.apache.hyracks.algebricks.rewriter.rules.IntroduceProjectsRule;
+import org.apache.hyracks.algebricks.rewriter.rules.IntroduceSortMergeJoinRule;
+import org.apache.hyracks.algebricks.rewriter.rules.IntroduceTopKThresholdFilterRule;
 import org.apache.hyracks.algebricks.rewriter.rules.IsolateHyracksOperatorsRule;
 import org.apache.hyracks.algebricks.rewriter.rules.PopulateResultMetadataRule;
 import org.apache.hyracks.algebricks.rewriter.rules.PullSelectOutOfEqJoin;
@@ -368,6 +371,8 @@ public final class RuleCollections {
         physicalRewritesAllLevels.add(new CheckFullParallelSortRule());
         physicalRewritesAllLevels.add(new EnforceStructuralPropertiesRule(BuiltinFunctions.RANGE_MAP,
                 BuiltinFunctions.LOCAL_SAMPLING, BuiltinFunctions.NULL_WRITER));
+        // must run after EnforceStructuralPropertiesRule
+        physicalRewritesAllLevels.add(new IntroduceSortMergeJoinRule());
         physicalRewritesAllLevels.add(new RemoveSortInFeedIngestionRule());
         physicalRewritesAllLevels.add(new RemoveUnnecessarySortMergeExchange());
         physicalRewritesAllLevels.add(new PushProjectDownRule());
@@ -414,6 +419,8 @@ public final class RuleCollections {
         prepareForJobGenRewrites.add(new ExtractCommonOperatorsRule());
         // Re-infer all types, so that, e.g., the effect of not-is-null is propagated
         prepareForJobGenRewrites.add(new ReinferAllTypesRule());
+        prepareForJobGenRewrites.add(new IntroduceTopKThresholdFilterRule());
+        prepareForJobGenRewrites.add(new IntroduceJoinBloomFilterRule());
         prepareForJobGenRewrites.add(new PushGroupByIntoSortRule());
         prepareForJobGenRewrites.add(new SetExecutionModeRule());
         prepareForJobGenRewrites.add(new SetAsterixMemoryRequirementsRule());
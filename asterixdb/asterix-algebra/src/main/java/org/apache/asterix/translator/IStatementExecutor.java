@@ -137,6 +137,11 @@ public interface IStatementExecutor {
         private Profile profile;
         private ProfileType profileType;
         private long totalWarningsCount;
+        private long resultCacheHits;
+        private long resultCacheMisses;
+        private long planCacheHits;
+        private long planCacheMisses;
+        private long savedCompileTime;
 
         public long getCount() {
             return count;
@@ -172,6 +177,53 @@ public interface IStatementExecutor {
             }
         }
 
+        public long getResultCacheHits() {
+            return resultCacheHits;
+        }
+
+        public void incrementResultCacheHits() {
+            resultCacheHits++;
+        }
+
+        public long getResultCacheMisses() {
+            return resultCacheMisses;
+        }
+
+        public void incrementResultCacheMisses() {
+            resultCacheMisses++;
+        }
+
+        public long getPlanCacheHits() {
+            return planCacheHits;
+        }
+
+        /**
+         * Counts a query that ran a cached plan
+         *
+         * @param compileTime
+         *            the time (in nanoseconds) that the compilation of the plan took
+         */
+        public void incrementPlanCacheHits(long compileTime) {
+            planCacheHits++;
+            savedCompileTime += compileTime;
+        }
+
+        public long getPlanCacheMisses() {
+            return planCacheMisses;
+        }
+
+        public void incrementPlanCacheMisses() {
+            planCacheMisses++;
+        }
+
+        /**
+         * @return the time (in nanoseconds) that the compilation of the plans that were taken from the plan cache
+         *         took when they were cached
+         */
+        public long getSavedCompileTime() {
+            return savedCompileTime;
+        }
+
         public void setJobProfile(ObjectNode profile) {
             this.profile = new Profile(profile);
         }
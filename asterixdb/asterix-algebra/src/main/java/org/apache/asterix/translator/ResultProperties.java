@@ -26,14 +26,20 @@ public class ResultProperties implements Serializable {
     public static final long DEFAULT_MAX_READS = 1;
     private final IStatementExecutor.ResultDelivery delivery;
     private final long maxReads;
+    private final boolean streaming;
 
     public ResultProperties(IStatementExecutor.ResultDelivery delivery) {
         this(delivery, DEFAULT_MAX_READS);
     }
 
     public ResultProperties(IStatementExecutor.ResultDelivery delivery, long maxReads) {
+        this(delivery, maxReads, false);
+    }
+
+    public ResultProperties(IStatementExecutor.ResultDelivery delivery, long maxReads, boolean streaming) {
         this.delivery = delivery;
         this.maxReads = maxReads;
+        this.streaming = streaming;
     }
 
     public IStatementExecutor.ResultDelivery getDelivery() {
@@ -44,11 +50,20 @@ public class ResultProperties implements Serializable {
         return maxReads;
     }
 
+    /**
+     * @return true if an immediately delivered result is handed over to the client while the job produces it instead
+     *         of being stored until the job completes. Only the results that are written by a single partition are
+     *         streamed
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     public ResultProperties getNcToCcResultProperties() {
         if (delivery != IStatementExecutor.ResultDelivery.IMMEDIATE) {
             return this;
         }
-        // switch IMMEDIATE to DEFERRED since the result will be severed by the NC
+        // switch IMMEDIATE to DEFERRED since the result will be severed by the NC. a deferred result is not streamed
         return new ResultProperties(IStatementExecutor.ResultDelivery.DEFERRED, maxReads);
     }
 }
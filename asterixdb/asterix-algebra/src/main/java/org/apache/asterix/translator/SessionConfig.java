@@ -50,7 +50,8 @@ public class SessionConfig implements Serializable {
         CSV,
         CLEAN_JSON,
         LOSSLESS_JSON,
-        LOSSLESS_ADM_JSON
+        LOSSLESS_ADM_JSON,
+        ARROW
     }
 
     /**
@@ -146,6 +147,7 @@ public class SessionConfig implements Serializable {
     private final boolean generateJobSpec;
     private final boolean optimize;
     private long maxWarnings;
+    private String workloadClass;
 
     // Flags.
     private final Map<String, Boolean> flags;
@@ -231,6 +233,17 @@ public class SessionConfig implements Serializable {
         this.maxWarnings = maxWarnings;
     }
 
+    /**
+     * Retrieve the workload class of the jobs of this execution, null for the default workload class.
+     */
+    public String getWorkloadClass() {
+        return workloadClass;
+    }
+
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
     /**
      * Retrieve the value of the "execute query" flag.
      */
@@ -94,6 +94,7 @@ import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.typecomputer.base.TypeCastUtils;
 import org.apache.asterix.om.types.BuiltinType;
 import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.translator.util.PlanTranslationUtil;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -156,12 +157,14 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
     private static final boolean REWRITE_IN_AS_OR_OPTION_DEFAULT = true;
 
     private final Map<VarIdentifier, IAObject> externalVars;
+    private final boolean bindParameters;
     private final boolean translateInAsOr;
 
     public SqlppExpressionToPlanTranslator(MetadataProvider metadataProvider, int currentVarCounter,
             Map<VarIdentifier, IAObject> externalVars) throws AlgebricksException {
         super(metadataProvider, currentVarCounter);
         this.externalVars = externalVars != null ? externalVars : Collections.emptyMap();
+        this.bindParameters = metadataProvider.isBindParameters();
         translateInAsOr = metadataProvider.getBooleanProperty(REWRITE_IN_AS_OR_OPTION, REWRITE_IN_AS_OR_OPTION_DEFAULT);
     }
 
@@ -717,7 +720,8 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
         if (SqlppVariableUtil.isExternalVariableIdentifier(varId)) {
             SourceLocation sourceLoc = varExpr.getSourceLocation();
             IAObject value = getExternalVariableValue(varId, sourceLoc);
-            return translateConstantValue(value, sourceLoc);
+            return bindParameters ? PlanTranslationUtil.createParameterExpression(varId, sourceLoc)
+                    : translateConstantValue(value, sourceLoc);
         }
 
         return super.translateVariableRef(varExpr);
@@ -1075,8 +1079,9 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
                     return false;
                 }
                 for (Expression itemExpr : itemExprs) {
+                    // a parameter is not a constant if it is read from the job parameters
                     boolean isConst = itemExpr.getKind() == Kind.LITERAL_EXPRESSION
-                            || (itemExpr.getKind() == Kind.VARIABLE_EXPRESSION
+                            || (itemExpr.getKind() == Kind.VARIABLE_EXPRESSION && !bindParameters
                                     && SqlppVariableUtil.isExternalVariableReference((VariableExpr) itemExpr));
                     if (!isConst) {
                         return false;
@@ -1085,7 +1090,7 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
                 return true;
             case VARIABLE_EXPRESSION:
                 VarIdentifier inVarId = ((VariableExpr) inExpr).getVar();
-                if (!SqlppVariableUtil.isExternalVariableIdentifier(inVarId)) {
+                if (bindParameters || !SqlppVariableUtil.isExternalVariableIdentifier(inVarId)) {
                     return false;
                 }
                 IAObject inValue = externalVars.get(inVarId);
@@ -18,8 +18,16 @@
  */
 package org.apache.asterix.translator.util;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.asterix.dataflow.data.nontagged.serde.AObjectSerializerDeserializer;
+import org.apache.asterix.lang.common.struct.VarIdentifier;
 import org.apache.asterix.lang.common.util.FunctionUtil;
 import org.apache.asterix.om.base.AOrderedList;
 import org.apache.asterix.om.base.AString;
@@ -30,13 +38,18 @@ import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.IVariableContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.ScalarFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.AlgebricksBuiltinFunctions;
 import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
 import org.apache.hyracks.algebricks.core.algebra.functions.IFunctionInfo;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.util.string.UTF8StringUtil;
 
 public class PlanTranslationUtil {
     private static final LogicalVariable DUMMY_VAR = new LogicalVariable(-1);
@@ -80,6 +93,100 @@ public class PlanTranslationUtil {
         }
     }
 
+    /**
+     * Creates an expression that reads the value of a statement parameter from the job parameters when the job runs.
+     * The value is expected in the job parameters that {@link #addJobParameters(Map, Map)} adds.
+     *
+     * @param paramVar
+     *            the external variable of the parameter
+     * @param sourceLoc
+     * @return the expression
+     */
+    public static ScalarFunctionCallExpression createParameterExpression(VarIdentifier paramVar,
+            SourceLocation sourceLoc) {
+        ConstantExpression nameExpr =
+                new ConstantExpression(new AsterixConstantValue(new AString(paramVar.getValue())));
+        nameExpr.setSourceLocation(sourceLoc);
+        ScalarFunctionCallExpression paramExpr = new ScalarFunctionCallExpression(
+                FunctionUtil.getFunctionInfo(BuiltinFunctions.GET_JOB_PARAMETER), new MutableObject<>(nameExpr));
+        paramExpr.setSourceLocation(sourceLoc);
+        return paramExpr;
+    }
+
+    /**
+     * Adds the values of the statement parameters, serialized with their type tags, to the parameters of a job
+     *
+     * @param paramValues
+     *            the values of the external variables of the statement parameters
+     * @param jobParameters
+     *            the job parameters
+     * @throws HyracksDataException
+     */
+    public static void addJobParameters(Map<VarIdentifier, IAObject> paramValues, Map<byte[], byte[]> jobParameters)
+            throws HyracksDataException {
+        for (Map.Entry<VarIdentifier, IAObject> paramValue : paramValues.entrySet()) {
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            AObjectSerializerDeserializer.INSTANCE.serialize(paramValue.getValue(), new DataOutputStream(value));
+            // the name is compared to the serialized string that get-job-param receives
+            jobParameters.put(UTF8StringUtil.writeStringToBytes(paramValue.getKey().getValue()), value.toByteArray());
+        }
+    }
+
+    /**
+     * @param expr
+     * @param paramVars
+     *            the external variables of the statement parameters
+     * @return true if {@code expr} reads one of the statement parameters from the job parameters
+     */
+    public static boolean isParameterExpression(ILogicalExpression expr, Collection<VarIdentifier> paramVars) {
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL || !BuiltinFunctions.GET_JOB_PARAMETER
+                .equals(((AbstractFunctionCallExpression) expr).getFunctionIdentifier())) {
+            return false;
+        }
+        ILogicalExpression nameExpr = ((AbstractFunctionCallExpression) expr).getArguments().get(0).getValue();
+        if (nameExpr.getExpressionTag() != LogicalExpressionTag.CONSTANT
+                || !(((ConstantExpression) nameExpr).getValue() instanceof AsterixConstantValue)) {
+            return false;
+        }
+        IAObject name = ((AsterixConstantValue) ((ConstantExpression) nameExpr).getValue()).getObject();
+        return name instanceof AString && paramVars.contains(new VarIdentifier(((AString) name).getStringValue()));
+    }
+
+    /**
+     * @param condition
+     * @param paramVars
+     *            the external variables of the statement parameters
+     * @return true if {@code condition} reads a statement parameter from the job parameters other than in a
+     *         comparison operand that uses no variable. The access methods take such an operand as a search key that
+     *         is constant at runtime, whereas other functions (e.g. the similarity or full-text ones) need the value of
+     *         the parameter when the plan is optimized.
+     */
+    public static boolean needsParameterValues(ILogicalExpression condition, Collection<VarIdentifier> paramVars) {
+        if (isParameterExpression(condition, paramVars)) {
+            return true;
+        }
+        if (condition.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return false;
+        }
+        AbstractFunctionCallExpression funcExpr = (AbstractFunctionCallExpression) condition;
+        boolean comparison = AlgebricksBuiltinFunctions.isComparisonFunction(funcExpr.getFunctionIdentifier());
+        for (Mutable<ILogicalExpression> arg : funcExpr.getArguments()) {
+            if (comparison && isConstantAtRuntime(arg.getValue())) {
+                continue;
+            }
+            if (needsParameterValues(arg.getValue(), paramVars)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConstantAtRuntime(ILogicalExpression expr) {
+        Set<LogicalVariable> usedVars = new HashSet<>();
+        expr.getUsedVariables(usedVars);
+        return usedVars.isEmpty();
+    }
+
     private static ScalarFunctionCallExpression createFieldAccessExpression(ILogicalExpression target,
             List<String> field, SourceLocation sourceLoc) {
         FunctionIdentifier functionIdentifier;
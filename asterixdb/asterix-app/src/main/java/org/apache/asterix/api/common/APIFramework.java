@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import org.apache.asterix.active.IActiveEntityEventsListener;
+import org.apache.asterix.active.IActiveNotificationHandler;
 import org.apache.asterix.algebra.base.ILangExpressionToPlanTranslator;
 import org.apache.asterix.algebra.base.ILangExpressionToPlanTranslatorFactory;
 import org.apache.asterix.api.http.server.ResultUtil;
@@ -39,6 +41,7 @@ import org.apache.asterix.app.result.fields.SignaturePrinter;
 import org.apache.asterix.common.api.INodeJobTracker;
 import org.apache.asterix.common.api.IResponsePrinter;
 import org.apache.asterix.common.config.CompilerProperties;
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.OptimizationConfUtil;
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
 import org.apache.asterix.common.exceptions.ACIDException;
@@ -65,9 +68,15 @@ import org.apache.asterix.lang.common.base.Statement;
 import org.apache.asterix.lang.common.rewrites.LangRewritingContext;
 import org.apache.asterix.lang.common.statement.Query;
 import org.apache.asterix.lang.common.struct.VarIdentifier;
+import org.apache.asterix.metadata.declared.DataSource;
+import org.apache.asterix.metadata.declared.DatasetDataSource;
 import org.apache.asterix.metadata.declared.MetadataProvider;
+import org.apache.asterix.metadata.entities.Dataset;
+import org.apache.asterix.metadata.utils.MetadataConstants;
 import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.optimizer.base.AsterixOptimizationContext;
+import org.apache.asterix.optimizer.rules.am.AccessMethodJobGenParams;
 import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
 import org.apache.asterix.translator.CompiledStatements.ICompiledDmlStatement;
 import org.apache.asterix.translator.ExecutionPlans;
@@ -75,7 +84,10 @@ import org.apache.asterix.translator.IRequestParameters;
 import org.apache.asterix.translator.ResultMetadata;
 import org.apache.asterix.translator.SessionConfig;
 import org.apache.asterix.translator.SessionOutput;
+import org.apache.asterix.translator.util.PlanTranslationUtil;
 import org.apache.asterix.utils.ResourceUtils;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraint;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -83,14 +95,24 @@ import org.apache.hyracks.algebricks.common.utils.Pair;
 import org.apache.hyracks.algebricks.compiler.api.HeuristicCompilerFactoryBuilder;
 import org.apache.hyracks.algebricks.compiler.api.ICompiler;
 import org.apache.hyracks.algebricks.compiler.api.ICompilerFactory;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.ExpressionRuntimeProvider;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IConflictingTypeResolver;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionEvalSizeComputer;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionTypeComputer;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IMergeAggregationExpressionFactory;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IMissableTypeComputer;
+import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSource;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractOperatorWithNestedPlans;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractUnnestMapOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.AlgebricksStringBuilderWriter;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.IPlanPrettyPrinter;
 import org.apache.hyracks.algebricks.core.algebra.prettyprint.PlanPrettyPrinter;
@@ -209,6 +231,14 @@ public class APIFramework {
         ResultMetadata resultMetadata = new ResultMetadata(output.config().fmt());
         ILogicalPlan plan =
                 isLoad ? t.translateLoad(statement) : t.translate(query, outputDatasetName, statement, resultMetadata);
+        if (metadataProvider.isBindParameters() && dependsOnParameterValues(plan, externalVars.keySet())) {
+            // a condition needs the values of the parameters to be optimized, so they are inlined
+            metadataProvider.setBindParameters(false);
+            t = translatorFactory.createExpressionToPlanTranslator(metadataProvider, varCounter, externalVars);
+            resultMetadata = new ResultMetadata(output.config().fmt());
+            plan = isLoad ? t.translateLoad(statement)
+                    : t.translate(query, outputDatasetName, statement, resultMetadata);
+        }
 
         if ((isQuery || isLoad) && !conf.is(SessionConfig.FORMAT_ONLY_PHYSICAL_OPS)
                 && conf.is(SessionConfig.OOB_LOGICAL_PLAN)) {
@@ -278,6 +308,12 @@ public class APIFramework {
             }
         }
 
+        if (isQuery && ccAppContext.getResultCache().isEnabled()) {
+            Collection<VarIdentifier> paramVars =
+                    metadataProvider.isBindParameters() ? externalVars.keySet() : Collections.emptySet();
+            metadataProvider.setResultCacheable(isResultCacheable(plan, metadataProvider, paramVars));
+        }
+
         if (conf.getClientType() == SessionConfig.ClientType.JDBC) {
             executionPlans.setStatementCategory(Statement.Category.toString(getStatementCategory(query, statement)));
             if (!conf.isExecuteQuery()) {
@@ -312,6 +348,7 @@ public class APIFramework {
         JobEventListenerFactory jobEventListenerFactory =
                 new JobEventListenerFactory(txnId, metadataProvider.isWriteTransaction());
         JobSpecification spec = compiler.createJob(ccAppContext, jobEventListenerFactory);
+        spec.setWorkloadClass(conf.getWorkloadClass());
 
         if (isQuery) {
             if (requestParameters == null || !requestParameters.isSkipAdmissionPolicy()) {
@@ -359,6 +396,8 @@ public class APIFramework {
                 return format.getADMPrinterFactoryProvider();
             case CLEAN_JSON:
                 return format.getCleanJSONPrinterFactoryProvider();
+            case ARROW:
+                return format.getArrowPrinterFactoryProvider();
             default:
                 throw new AlgebricksException("Unexpected OutputFormat: " + outputFormat);
         }
@@ -482,6 +521,153 @@ public class APIFramework {
         return parameter == null ? parallelismInConfiguration : integerIPropertyInterpreter.parse(parameter);
     }
 
+    // A result can be cached if it is computed deterministically from internal datasets whose modifications change
+    // the data versions of their locks, i.e. from datasets that are not ingested into by an active entity.
+    // The statement parameters that are read from the job parameters are part of the key of the result.
+    private static boolean isResultCacheable(ILogicalPlan plan, MetadataProvider metadataProvider,
+            Collection<VarIdentifier> paramVars) throws AlgebricksException {
+        for (Mutable<ILogicalOperator> root : plan.getRoots()) {
+            if (!isResultCacheable(root.getValue(), metadataProvider, paramVars)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isResultCacheable(ILogicalOperator op, MetadataProvider metadataProvider,
+            Collection<VarIdentifier> paramVars) throws AlgebricksException {
+        MutableBoolean functional = new MutableBoolean(true);
+        op.acceptExpressionTransform(exprRef -> {
+            if (!isFunctional(exprRef.getValue(), paramVars)) {
+                functional.setFalse();
+            }
+            return false;
+        });
+        if (functional.isFalse()) {
+            return false;
+        }
+        switch (op.getOperatorTag()) {
+            case DATASOURCESCAN:
+                IDataSource<?> dataSource = ((DataSourceScanOperator) op).getDataSource();
+                if (!(dataSource instanceof DatasetDataSource) || ((DatasetDataSource) dataSource)
+                        .getDatasourceType() != DataSource.Type.INTERNAL_DATASET) {
+                    return false;
+                }
+                if (!isResultCacheable(((DatasetDataSource) dataSource).getDataset(), metadataProvider)) {
+                    return false;
+                }
+                break;
+            case UNNEST_MAP:
+            case LEFT_OUTER_UNNEST_MAP:
+                ILogicalExpression unnestExpr = ((AbstractUnnestMapOperator) op).getExpressionRef().getValue();
+                if (unnestExpr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL
+                        || !BuiltinFunctions.INDEX_SEARCH
+                                .equals(((AbstractFunctionCallExpression) unnestExpr).getFunctionIdentifier())) {
+                    return false;
+                }
+                AccessMethodJobGenParams jobGenParams = new AccessMethodJobGenParams();
+                jobGenParams.readFromFuncArgs(((AbstractFunctionCallExpression) unnestExpr).getArguments());
+                Dataset dataset =
+                        metadataProvider.findDataset(jobGenParams.getDataverseName(), jobGenParams.getDatasetName());
+                if (dataset == null || !isResultCacheable(dataset, metadataProvider)) {
+                    return false;
+                }
+                break;
+            default:
+                break;
+        }
+        if (op instanceof AbstractOperatorWithNestedPlans) {
+            for (ILogicalPlan nestedPlan : ((AbstractOperatorWithNestedPlans) op).getNestedPlans()) {
+                if (!isResultCacheable(nestedPlan, metadataProvider, paramVars)) {
+                    return false;
+                }
+            }
+        }
+        for (Mutable<ILogicalOperator> input : op.getInputs()) {
+            if (!isResultCacheable(input.getValue(), metadataProvider, paramVars)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFunctional(ILogicalExpression expr, Collection<VarIdentifier> paramVars) {
+        if (PlanTranslationUtil.isParameterExpression(expr, paramVars)) {
+            return true;
+        }
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return expr.isFunctional();
+        }
+        AbstractFunctionCallExpression funcExpr = (AbstractFunctionCallExpression) expr;
+        if (!funcExpr.getFunctionInfo().isFunctional()) {
+            return false;
+        }
+        for (Mutable<ILogicalExpression> arg : funcExpr.getArguments()) {
+            if (!isFunctional(arg.getValue(), paramVars)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether a condition needs the value of a statement parameter to be optimized. A comparison with a parameter
+    // does not, as the access methods take the parameter as a search key that is read when the job starts.
+    private static boolean dependsOnParameterValues(ILogicalPlan plan, Collection<VarIdentifier> paramVars) {
+        for (Mutable<ILogicalOperator> root : plan.getRoots()) {
+            if (dependsOnParameterValues(root.getValue(), paramVars)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean dependsOnParameterValues(ILogicalOperator op, Collection<VarIdentifier> paramVars) {
+        ILogicalExpression condition;
+        switch (op.getOperatorTag()) {
+            case SELECT:
+                condition = ((SelectOperator) op).getCondition().getValue();
+                break;
+            case INNERJOIN:
+            case LEFTOUTERJOIN:
+                condition = ((AbstractBinaryJoinOperator) op).getCondition().getValue();
+                break;
+            default:
+                condition = null;
+                break;
+        }
+        if (condition != null && PlanTranslationUtil.needsParameterValues(condition, paramVars)) {
+            return true;
+        }
+        if (op instanceof AbstractOperatorWithNestedPlans) {
+            for (ILogicalPlan nestedPlan : ((AbstractOperatorWithNestedPlans) op).getNestedPlans()) {
+                if (dependsOnParameterValues(nestedPlan, paramVars)) {
+                    return true;
+                }
+            }
+        }
+        for (Mutable<ILogicalOperator> input : op.getInputs()) {
+            if (dependsOnParameterValues(input.getValue(), paramVars)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isResultCacheable(Dataset dataset, MetadataProvider metadataProvider) {
+        if (dataset.getDatasetType() != DatasetType.INTERNAL
+                || MetadataConstants.METADATA_DATAVERSE_NAME.equals(dataset.getDataverseName())) {
+            return false;
+        }
+        IActiveNotificationHandler activeNotificationHandler =
+                (IActiveNotificationHandler) metadataProvider.getApplicationContext().getActiveNotificationHandler();
+        for (IActiveEntityEventsListener listener : activeNotificationHandler.getEventListeners()) {
+            if (listener.isEntityUsingDataset(dataset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Validates if the query contains unsupported query parameters.
     private Map<String, Object> validateConfig(Map<String, Object> config, SourceLocation sourceLoc)
             throws AlgebricksException {
@@ -21,6 +21,7 @@ package org.apache.asterix.api.http.server;
 import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.asterix.app.result.ArrowResultPrinter;
 import org.apache.asterix.app.result.ResponseMetrics;
 import org.apache.asterix.app.result.ResponsePrinter;
 import org.apache.asterix.app.result.ResultHandle;
@@ -109,6 +110,8 @@ public class QueryResultApiServlet extends AbstractQueryApiServlet {
                 }
                 printer.printFooters();
                 printer.end();
+            } else if (metadata.getFormat() == SessionConfig.OutputFormat.ARROW) {
+                new ArrowResultPrinter(appCtx, response.outputStream(), new Stats()).print(resultReader);
             } else {
                 ResultUtil.printResults(appCtx, resultReader, sessionOutput, new Stats(), null);
             }
@@ -187,6 +190,9 @@ public class QueryResultApiServlet extends AbstractQueryApiServlet {
                     HttpUtil.setContentType(response, "text/csv; header=absent", request);
                 }
                 break;
+            case ARROW:
+                HttpUtil.setContentType(response, HttpUtil.ContentType.APPLICATION_ARROW_STREAM);
+                break;
             default:
                 throw new IOException("Unknown format " + format);
         }
@@ -80,7 +80,9 @@ public class QueryServiceRequestParameters {
         SIGNATURE("signature"),
         MULTI_STATEMENT("multi-statement"),
         MAX_WARNINGS("max-warnings"),
-        SQL_COMPAT("sql-compat");
+        SQL_COMPAT("sql-compat"),
+        WORKLOAD_CLASS("workload-class"),
+        STREAM_RESULTS("stream-results");
 
         private final String str;
 
@@ -124,6 +126,7 @@ public class QueryServiceRequestParameters {
     private String statement;
     private String clientContextID;
     private String dataverse;
+    private String workloadClass;
     private ClientType clientType = ClientType.ASTERIX;
     private OutputFormat format = OutputFormat.CLEAN_JSON;
     private ResultDelivery mode = ResultDelivery.IMMEDIATE;
@@ -144,6 +147,7 @@ public class QueryServiceRequestParameters {
     private boolean signature = true;
     private boolean multiStatement = true;
     private boolean sqlCompatMode = false;
+    private boolean streamResults = false;
     private long timeout = TimeUnit.MILLISECONDS.toMillis(Long.MAX_VALUE);
     private long maxResultReads = 1L;
     private long maxWarnings = 0L;
@@ -376,6 +380,22 @@ public class QueryServiceRequestParameters {
         return maxWarnings;
     }
 
+    public String getWorkloadClass() {
+        return workloadClass;
+    }
+
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
+    public boolean isStreamResults() {
+        return streamResults;
+    }
+
+    public void setStreamResults(boolean streamResults) {
+        this.streamResults = streamResults;
+    }
+
     public ObjectNode asJson() {
         ObjectNode object = OBJECT_MAPPER.createObjectNode();
         object.put("host", host);
@@ -402,6 +422,8 @@ public class QueryServiceRequestParameters {
         object.put("readOnly", readOnly);
         object.put("maxWarnings", maxWarnings);
         object.put("sqlCompat", sqlCompatMode);
+        object.put("workloadClass", workloadClass);
+        object.put("streamResults", streamResults);
         if (statementParams != null) {
             for (Map.Entry<String, JsonNode> statementParam : statementParams.entrySet()) {
                 object.set('$' + statementParam.getKey(), statementParam.getValue());
@@ -461,9 +483,15 @@ public class QueryServiceRequestParameters {
         setStatement(valGetter.apply(req, Parameter.STATEMENT.str()));
         setClientContextID(valGetter.apply(req, Parameter.CLIENT_ID.str()));
         setDataverse(valGetter.apply(req, Parameter.DATAVERSE.str()));
+        setWorkloadClass(valGetter.apply(req, Parameter.WORKLOAD_CLASS.str()));
 
         setFormatIfExists(req, acceptHeader, Parameter.FORMAT.str(), valGetter);
-        setMode(parseIfExists(req, Parameter.MODE.str(), valGetter, getMode(), ResultDelivery::fromName));
+        // an Arrow stream cannot be embedded in the response, it is served by the result endpoint
+        ResultDelivery defaultMode = getFormat() == OutputFormat.ARROW ? ResultDelivery.DEFERRED : getMode();
+        setMode(parseIfExists(req, Parameter.MODE.str(), valGetter, defaultMode, ResultDelivery::fromName));
+        if (getFormat() == OutputFormat.ARROW && getMode() == ResultDelivery.IMMEDIATE) {
+            throw new RuntimeDataException(ErrorCode.INVALID_REQ_PARAM_VAL, Parameter.MODE.str(), getMode().getName());
+        }
         setPlanFormat(parseIfExists(req, Parameter.PLAN_FORMAT.str(), valGetter, getPlanFormat(), planFormats::get));
         setProfileType(parseIfExists(req, Parameter.PROFILE.str(), valGetter, getProfileType(), ProfileType::fromName));
 
@@ -486,6 +514,7 @@ public class QueryServiceRequestParameters {
         setSignature(parseBoolean(req, Parameter.SIGNATURE.str(), valGetter, isSignature()));
         setClientType(parseIfExists(req, Parameter.CLIENT_TYPE.str(), valGetter, getClientType(), clientTypes::get));
         setSQLCompatMode(parseBoolean(req, Parameter.SQL_COMPAT.str(), valGetter, isSQLCompatMode()));
+        setStreamResults(parseBoolean(req, Parameter.STREAM_RESULTS.str(), valGetter, isStreamResults()));
     }
 
     protected void setExtraParams(JsonNode jsonRequest) throws HyracksDataException {
@@ -626,6 +655,8 @@ public class QueryServiceRequestParameters {
             return Pair.of(OutputFormat.CLEAN_JSON, Boolean.FALSE);
         } else if (value.equals(HttpUtil.ContentType.ADM)) {
             return Pair.of(OutputFormat.ADM, Boolean.FALSE);
+        } else if (value.equals(HttpUtil.ContentType.ARROW)) {
+            return Pair.of(OutputFormat.ARROW, Boolean.FALSE);
         } else {
             throw new RuntimeDataException(ErrorCode.INVALID_REQ_PARAM_VAL, parameterName, value);
         }
@@ -647,6 +678,8 @@ public class QueryServiceRequestParameters {
                         hasValue(mimeSplits, Attribute.HEADER.str(), csvHeaderValues) ? Boolean.TRUE : Boolean.FALSE);
             } else if (format.equals(HttpUtil.ContentType.APPLICATION_ADM)) {
                 return Pair.of(OutputFormat.ADM, Boolean.FALSE);
+            } else if (format.equals(HttpUtil.ContentType.APPLICATION_ARROW_STREAM)) {
+                return Pair.of(OutputFormat.ARROW, Boolean.FALSE);
             }
         }
         return null;
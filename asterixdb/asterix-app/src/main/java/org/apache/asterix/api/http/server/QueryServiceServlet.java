@@ -281,7 +281,8 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
             LOGGER.info(() -> "handleRequest: " + LogRedactionUtil.statement(param.toString()));
             delivery = param.getMode();
             setSessionConfig(sessionOutput, param, delivery);
-            final ResultProperties resultProperties = new ResultProperties(delivery, param.getMaxResultReads());
+            final ResultProperties resultProperties =
+                    new ResultProperties(delivery, param.getMaxResultReads(), param.isStreamResults());
             buildResponseHeaders(requestRef, sessionOutput, param, responsePrinter, delivery);
             responsePrinter.printHeaders();
             String statement = param.getStatement();
@@ -335,7 +336,8 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
             responsePrinter.addHeaderPrinter(new ClientContextIdPrinter(param.getClientContextID()));
         }
         if (sessionOutput.config().fmt() == SessionConfig.OutputFormat.ADM
-                || sessionOutput.config().fmt() == SessionConfig.OutputFormat.CSV) {
+                || sessionOutput.config().fmt() == SessionConfig.OutputFormat.CSV
+                || sessionOutput.config().fmt() == SessionConfig.OutputFormat.ARROW) {
             responsePrinter.addHeaderPrinter(new TypePrinter(sessionOutput.config()));
         }
     }
@@ -359,7 +361,9 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         }
         final ResponseMetrics metrics =
                 ResponseMetrics.of(System.nanoTime() - elapsedStart, executionState.duration(), stats.getCount(),
-                        stats.getSize(), stats.getProcessedObjects(), errorCount, stats.getTotalWarningsCount());
+                        stats.getSize(), stats.getProcessedObjects(), errorCount, stats.getTotalWarningsCount(),
+                        stats.getResultCacheHits(), stats.getResultCacheMisses(), stats.getPlanCacheHits(),
+                        stats.getPlanCacheMisses(), stats.getSavedCompileTime());
         responsePrinter.addFooterPrinter(new MetricsPrinter(metrics, resultCharset));
         if (isPrintingProfile(stats)) {
             responsePrinter.addFooterPrinter(new ProfilePrinter(stats.getJobProfile()));
@@ -487,6 +491,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
         sessionConfig.setFmt(format);
         sessionConfig.setPlanFormat(planFormat);
         sessionConfig.setMaxWarnings(param.getMaxWarnings());
+        sessionConfig.setWorkloadClass(param.getWorkloadClass());
         sessionConfig.setExecuteQuery(!param.isCompileOnly());
         sessionConfig.set(SessionConfig.FORMAT_WRAPPER_ARRAY, true);
         sessionConfig.set(SessionConfig.OOB_EXPR_TREE, param.isExpressionTree());
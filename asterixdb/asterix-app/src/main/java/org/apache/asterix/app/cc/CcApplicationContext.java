@@ -28,9 +28,11 @@ import org.apache.asterix.common.api.IConfigValidatorFactory;
 import org.apache.asterix.common.api.ICoordinationService;
 import org.apache.asterix.common.api.IMetadataLockManager;
 import org.apache.asterix.common.api.INodeJobTracker;
+import org.apache.asterix.common.api.IPlanCache;
 import org.apache.asterix.common.api.IReceptionist;
 import org.apache.asterix.common.api.IReceptionistFactory;
 import org.apache.asterix.common.api.IRequestTracker;
+import org.apache.asterix.common.api.IResultCache;
 import org.apache.asterix.common.cluster.IClusterStateManager;
 import org.apache.asterix.common.cluster.IGlobalRecoveryManager;
 import org.apache.asterix.common.config.ActiveProperties;
@@ -60,18 +62,23 @@ import org.apache.asterix.runtime.transaction.ResourceIdManager;
 import org.apache.asterix.runtime.utils.BulkTxnIdFactory;
 import org.apache.asterix.runtime.utils.ClusterStateManager;
 import org.apache.asterix.runtime.utils.NoOpCoordinationService;
+import org.apache.asterix.runtime.utils.PlanCache;
 import org.apache.asterix.runtime.utils.RequestTracker;
+import org.apache.asterix.runtime.utils.ResultCache;
 import org.apache.asterix.runtime.utils.RuntimeComponentsProvider;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.api.application.ICCServiceContext;
 import org.apache.hyracks.api.client.IHyracksClientConnection;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.IJobLifecycleListener;
 import org.apache.hyracks.api.result.IResultSet;
 import org.apache.hyracks.client.result.ResultSet;
 import org.apache.hyracks.ipc.impl.HyracksConnection;
 import org.apache.hyracks.storage.common.IStorageManager;
 import org.apache.hyracks.util.NetworkUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /*
  * Acts as an holder class for IndexRegistryProvider, AsterixStorageManager
@@ -80,6 +87,8 @@ import org.apache.hyracks.util.NetworkUtil;
  */
 public class CcApplicationContext implements ICcApplicationContext {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+
     private ICCServiceContext ccServiceCtx;
     private IStorageComponentProvider storageComponentProvider;
     private IGlobalRecoveryManager globalRecoveryManager;
@@ -109,6 +118,8 @@ public class CcApplicationContext implements ICcApplicationContext {
     private final ICompressionManager compressionManager;
     private final IReceptionist receptionist;
     private final IRequestTracker requestTracker;
+    private final IResultCache resultCache;
+    private final IPlanCache planCache;
     private final IConfigValidator configValidator;
     private final IAdapterFactoryService adapterFactoryService;
     private final ReentrantReadWriteLock compilationLock = new ReentrantReadWriteLock(true);
@@ -152,6 +163,9 @@ public class CcApplicationContext implements ICcApplicationContext {
         compressionManager = new CompressionManager(storageProperties);
         receptionist = receptionistFactory.create();
         requestTracker = new RequestTracker(this);
+        resultCache = new ResultCache(compilerProperties.getResultCacheMemorySize(),
+                compilerProperties.getResultCacheMaxResultSize());
+        planCache = new PlanCache(compilerProperties.getPlanCacheSize(), this::undeployJobSpec);
         configValidator = configValidatorFactory.create();
         this.adapterFactoryService = adapterFactoryService;
     }
@@ -348,6 +362,27 @@ public class CcApplicationContext implements ICcApplicationContext {
         return requestTracker;
     }
 
+    @Override
+    public IResultCache getResultCache() {
+        return resultCache;
+    }
+
+    @Override
+    public IPlanCache getPlanCache() {
+        return planCache;
+    }
+
+    private void undeployJobSpec(DeployedJobSpecId deployedJobSpecId) {
+        // not to wait for the cluster controller, which itself drops the cached plans when the cluster changes
+        ccServiceCtx.getControllerService().getExecutor().execute(() -> {
+            try {
+                getHcc().undeployJobSpec(deployedJobSpecId);
+            } catch (Exception e) {
+                LOGGER.warn("failed to undeploy the job specification {} of a cached plan", deployedJobSpecId, e);
+            }
+        });
+    }
+
     @Override
     public IAdapterFactoryService getAdapterFactoryService() {
         return adapterFactoryService;
@@ -65,8 +65,9 @@ public class TransactionSubsystem implements ITransactionSubsystem {
         this.id = appCtx.getServiceContext().getNodeId();
         this.txnProperties = appCtx.getTransactionProperties();
         this.transactionManager = new TransactionManager(this);
-        this.lockManager =
-                new ConcurrentLockManager(txnProperties.getLockManagerShrinkTimer(), txnProperties.getLockTableSize());
+        this.lockManager = new ConcurrentLockManager(txnProperties.getLockManagerShrinkTimer(),
+                Runtime.getRuntime().availableProcessors() * 2, txnProperties.getLockTableSize(),
+                txnProperties.getEntityToDatasetLockEscalationThreshold(), txnProperties.getTimeoutWaitThreshold());
         final ReplicationProperties repProperties = appCtx.getReplicationProperties();
         final boolean replicationEnabled = repProperties.isReplicationEnabled();
         final CheckpointProperties checkpointProperties = new CheckpointProperties(txnProperties, id);
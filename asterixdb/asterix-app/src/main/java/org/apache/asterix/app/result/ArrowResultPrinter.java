@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.app.result.arrow.ArrowColumn;
+import org.apache.asterix.app.result.arrow.ArrowStreamWriter;
+import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.dataflow.data.nontagged.printers.arrow.ARowPrinterFactory;
+import org.apache.asterix.dataflow.data.nontagged.serde.ABooleanSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ADateSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ADateTimeSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ADoubleSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AFloatSerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt16SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt32SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt64SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt8SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.ATimeSerializerDeserializer;
+import org.apache.asterix.formats.nontagged.CleanJSONPrinterFactoryProvider;
+import org.apache.asterix.om.pointables.ARecordVisitablePointable;
+import org.apache.asterix.om.pointables.PointableAllocator;
+import org.apache.asterix.om.pointables.base.DefaultOpenFieldType;
+import org.apache.asterix.om.pointables.base.IVisitablePointable;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.translator.IStatementExecutor.Stats;
+import org.apache.hyracks.algebricks.data.IPrinter;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.data.std.util.ByteArrayAccessibleOutputStream;
+import org.apache.hyracks.util.string.UTF8StringUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prints the rows of a result in the Arrow result format (see {@link ARowPrinterFactory}) as an Arrow IPC stream.
+ * The schema of the stream is inferred from the first batch of rows: a column per field name, in the order in which
+ * the names first appear, whose type is the type of its values (integers are widened to 64 bits, floating point
+ * numbers to doubles and a mix of both to doubles). A column with values of other mixed types or with null values
+ * only is a column of strings. A value that is not an object is a row with a single field named {@value #VALUE}.
+ * <p>
+ * The schema cannot change once it is written, so the later rows are fitted into it: a value that does not match the
+ * type of its column is printed as JSON text in a column of strings and as null in any other column, and the values
+ * of a field that is not in the schema are dropped. If any value was printed as null or dropped, the last record
+ * batch of the stream, which is empty if all rows were already written, carries the custom metadata
+ * {@value #NULLED_VALUES_KEY} with the number of values printed as null and {@value #DROPPED_FIELDS_KEY} with a JSON
+ * object of the number of dropped values by field name.
+ */
+public class ArrowResultPrinter {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final int BATCH_SIZE = 16384;
+    static final String VALUE = "value";
+    static final String NULLED_VALUES_KEY = "asterixdb.nulled_values";
+    static final String DROPPED_FIELDS_KEY = "asterixdb.dropped_fields";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final FrameManager resultDisplayFrameMgr;
+    private final ArrowStreamWriter writer;
+    private final Stats stats;
+    private final ARecordVisitablePointable recAccessor;
+    private final IPrinter textPrinter;
+    private final ByteArrayAccessibleOutputStream text = new ByteArrayAccessibleOutputStream();
+    private final PrintStream textStream = new PrintStream(text, false, UTF_8);
+    // the rows of the first batch, until the schema is inferred from them
+    private final List<byte[]> firstRows = new ArrayList<>();
+    private List<ArrowColumn> columns;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private int rowCount;
+    // the number of values of each field that is not in the schema
+    private final Map<String, Long> droppedFields = new HashMap<>();
+    // the number of values that do not match the type of their column and are printed as null
+    private long nulledValues;
+
+    public ArrowResultPrinter(IApplicationContext appCtx, OutputStream out, Stats stats) {
+        this(appCtx.getCompilerProperties().getFrameSize(), out, stats);
+    }
+
+    ArrowResultPrinter(int frameSize, OutputStream out, Stats stats) {
+        this.resultDisplayFrameMgr = new FrameManager(frameSize);
+        this.writer = new ArrowStreamWriter(out);
+        this.stats = stats;
+        this.recAccessor =
+                new PointableAllocator().allocateRecordValue(DefaultOpenFieldType.NESTED_OPEN_RECORD_TYPE);
+        this.textPrinter = CleanJSONPrinterFactoryProvider.INSTANCE.getPrinterFactory(BuiltinType.ANY).createPrinter();
+    }
+
+    public void print(ResultReader resultReader) throws HyracksDataException {
+        try {
+            textPrinter.init();
+            final IFrameTupleAccessor fta = resultReader.getFrameTupleAccessor();
+            final IFrame frame = new VSizeFrame(resultDisplayFrameMgr);
+            while (resultReader.read(frame) > 0) {
+                final ByteBuffer frameBuffer = frame.getBuffer();
+                final byte[] frameBytes = frameBuffer.array();
+                fta.reset(frameBuffer);
+                final int last = fta.getTupleCount();
+                for (int tIndex = 0; tIndex < last; tIndex++) {
+                    final int start = fta.getTupleStartOffset(tIndex);
+                    int length = fta.getTupleEndOffset(tIndex) - start;
+                    // the writer ends each row with a new line
+                    if (length > 0 && frameBytes[start + length - 1] == '\n') {
+                        length--;
+                    }
+                    printRow(frameBytes, start, length);
+                }
+                frameBuffer.clear();
+            }
+            end();
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        } finally {
+            stats.setSize(writer.getBytesWritten());
+        }
+    }
+
+    void printRow(byte[] b, int s, int l) throws IOException {
+        if (columns != null) {
+            appendRow(b, s, l);
+        } else {
+            firstRows.add(Arrays.copyOfRange(b, s, s + l));
+            if (firstRows.size() == BATCH_SIZE) {
+                startStream();
+            }
+        }
+    }
+
+    void end() throws IOException {
+        if (columns == null) {
+            startStream();
+        }        if (nulledValues > 0 || !droppedFields.isEmpty()) {
+            LOGGER.warn("Printed {} values that do not match the type of their column as null and dropped the values "
+                    + "of the fields that are not in the schema of the Arrow stream, which is inferred from the first "
+                    + "{} rows of the result: {}", nulledValues, BATCH_SIZE, droppedFields);
+            Map<String, String> lossMetadata = new LinkedHashMap<>();
+            lossMetadata.put(NULLED_VALUES_KEY, String.valueOf(nulledValues));
+            lossMetadata.put(DROPPED_FIELDS_KEY, OBJECT_MAPPER.writeValueAsString(droppedFields));
+            writeBatch(lossMetadata);
+        } else {
+            writeBatch();
+        }
+        writer.writeEndOfStream();
+    }
+
+    long getNulledValues() {
+        return nulledValues;
+    }
+
+    Map<String, Long> getDroppedFields() {
+        return droppedFields;
+    }
+
+    private void startStream() throws IOException {
+        inferSchema();
+        writer.writeSchema(columns);
+        for (byte[] row : firstRows) {
+            appendRow(row, 0, row.length);
+        }
+        firstRows.clear();
+    }
+
+    private void inferSchema() {
+        List<String> names = new ArrayList<>();
+        List<ArrowColumn.Type> types = new ArrayList<>();
+        for (byte[] row : firstRows) {
+            if (row[0] == ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                recAccessor.set(row, 0, row.length);
+                List<IVisitablePointable> fieldNames = recAccessor.getFieldNames();
+                List<IVisitablePointable> fieldValues = recAccessor.getFieldValues();
+                for (int i = 0; i < fieldNames.size(); i++) {
+                    IVisitablePointable fieldValue = fieldValues.get(i);
+                    inferColumn(names, types, getName(fieldNames.get(i)),
+                            fieldValue.getByteArray()[fieldValue.getStartOffset()]);
+                }
+            } else {
+                inferColumn(names, types, VALUE, row[0]);
+            }
+        }
+        columns = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            columns.add(new ArrowColumn(names.get(i), types.get(i) != null ? types.get(i) : ArrowColumn.Type.UTF8));
+        }
+    }
+
+    private void inferColumn(List<String> names, List<ArrowColumn.Type> types, String name, byte tag) {
+        Integer index = columnIndexes.get(name);
+        if (index == null) {
+            index = names.size();
+            columnIndexes.put(name, index);
+            names.add(name);
+            types.add(null);
+        }
+        ArrowColumn.Type type = getType(tag);
+        ArrowColumn.Type columnType = types.get(index);
+        if (columnType == null || type == null || columnType == type) {
+            types.set(index, columnType != null ? columnType : type);
+        } else if (isNumeric(columnType) && isNumeric(type)) {
+            types.set(index, ArrowColumn.Type.FLOAT64);
+        } else {
+            types.set(index, ArrowColumn.Type.UTF8);
+        }
+    }
+
+    private void appendRow(byte[] b, int s, int l) throws IOException {
+        if (b[s] == ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+            recAccessor.set(b, s, l);
+            List<IVisitablePointable> fieldNames = recAccessor.getFieldNames();
+            List<IVisitablePointable> fieldValues = recAccessor.getFieldValues();
+            for (int i = 0; i < fieldNames.size(); i++) {
+                IVisitablePointable fieldValue = fieldValues.get(i);
+                append(getName(fieldNames.get(i)), fieldValue.getByteArray(), fieldValue.getStartOffset(),
+                        fieldValue.getLength());
+            }
+        } else {
+            append(VALUE, b, s, l);
+        }
+        // the fields that are absent from the row are null
+        for (ArrowColumn column : columns) {
+            if (column.getLength() == rowCount) {
+                column.appendNull();
+            }
+        }
+        rowCount++;
+        if (rowCount == BATCH_SIZE) {
+            writeBatch();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        writeBatch(Collections.emptyMap());
+    }
+
+    private void writeBatch(Map<String, String> customMetadata) throws IOException {
+        writer.writeRecordBatch(columns, rowCount, customMetadata);
+        stats.setCount(stats.getCount() + rowCount);
+        for (ArrowColumn column : columns) {
+            column.reset();
+        }
+        rowCount = 0;
+    }
+
+    private void append(String name, byte[] b, int s, int l) throws HyracksDataException {
+        Integer index = columnIndexes.get(name);
+        if (index == null) {
+            droppedFields.merge(name, 1L, Long::sum);
+        } else {
+            append(columns.get(index), b, s, l);
+        }
+    }
+
+    private void append(ArrowColumn column, byte[] b, int s, int l) throws HyracksDataException {
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(b[s]);
+        if (typeTag == ATypeTag.NULL || typeTag == ATypeTag.MISSING) {
+            column.appendNull();
+            return;
+        }
+        ArrowColumn.Type type = column.getType();
+        if (type == ArrowColumn.Type.UTF8) {
+            if (typeTag == ATypeTag.STRING) {
+                appendString(column, b, s);
+            } else {
+                appendText(column, b, s, l);
+            }
+            return;
+        }
+        switch (typeTag) {
+            case BOOLEAN:
+                if (type == ArrowColumn.Type.BOOL) {
+                    column.appendBoolean(ABooleanSerializerDeserializer.getBoolean(b, s + 1));
+                    return;
+                }
+                break;
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                if (type == ArrowColumn.Type.INT64) {
+                    column.appendLong(getLong(typeTag, b, s + 1));
+                    return;
+                } else if (type == ArrowColumn.Type.FLOAT64) {
+                    column.appendDouble(getLong(typeTag, b, s + 1));
+                    return;
+                }
+                break;
+            case FLOAT:
+                if (type == ArrowColumn.Type.FLOAT64) {
+                    column.appendDouble(AFloatSerializerDeserializer.getFloat(b, s + 1));
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (type == ArrowColumn.Type.FLOAT64) {
+                    column.appendDouble(ADoubleSerializerDeserializer.getDouble(b, s + 1));
+                    return;
+                }
+                break;
+            case DATE:
+                if (type == ArrowColumn.Type.DATE_DAY) {
+                    column.appendLong(ADateSerializerDeserializer.getChronon(b, s + 1));
+                    return;
+                }
+                break;
+            case TIME:
+                if (type == ArrowColumn.Type.TIME_MILLIS) {
+                    column.appendLong(ATimeSerializerDeserializer.getChronon(b, s + 1));
+                    return;
+                }
+                break;
+            case DATETIME:
+                if (type == ArrowColumn.Type.TIMESTAMP_MILLIS) {
+                    column.appendLong(ADateTimeSerializerDeserializer.getChronon(b, s + 1));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        column.appendNull();
+        nulledValues++;
+    }
+
+    private void appendString(ArrowColumn column, byte[] b, int s) {
+        int utfLength = UTF8StringUtil.getUTFLength(b, s + 1);
+        int start = s + 1 + UTF8StringUtil.getNumBytesToStoreLength(utfLength);
+        if (isStandardUTF8(b, start, utfLength)) {
+            column.appendUtf8(b, start, utfLength);
+        } else {
+            byte[] utf8 = UTF8StringUtil.toString(b, s + 1).getBytes(UTF_8);
+            column.appendUtf8(utf8, 0, utf8.length);
+        }
+    }
+
+    private void appendText(ArrowColumn column, byte[] b, int s, int l) throws HyracksDataException {
+        text.reset();
+        textPrinter.print(b, s, l, textStream);
+        textStream.flush();
+        byte[] bytes = text.getByteArray();
+        int length = text.size();
+        // the temporal values are printed as JSON strings
+        if (length > 1 && bytes[0] == '"' && bytes[length - 1] == '"') {
+            column.appendUtf8(bytes, 1, length - 2);
+        } else {
+            column.appendUtf8(bytes, 0, length);
+        }
+    }
+
+    /**
+     * @return false if the modified UTF-8 of the string encodes a null character or a supplementary character, which
+     *         are encoded differently in UTF-8
+     */
+    private static boolean isStandardUTF8(byte[] b, int start, int length) {
+        int end = start + length - 1;
+        for (int i = start; i < end; i++) {
+            if ((b[i] == (byte) 0xC0 && b[i + 1] == (byte) 0x80)
+                    || (b[i] == (byte) 0xED && (b[i + 1] & 0xE0) == 0xA0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getName(IVisitablePointable fieldName) {
+        return UTF8StringUtil.toString(fieldName.getByteArray(), fieldName.getStartOffset() + 1);
+    }
+
+    private static long getLong(ATypeTag typeTag, byte[] b, int offset) {
+        switch (typeTag) {
+            case TINYINT:
+                return AInt8SerializerDeserializer.getByte(b, offset);
+            case SMALLINT:
+                return AInt16SerializerDeserializer.getShort(b, offset);
+            case INTEGER:
+                return AInt32SerializerDeserializer.getInt(b, offset);
+            default:
+                return AInt64SerializerDeserializer.getLong(b, offset);
+        }
+    }
+
+    private static boolean isNumeric(ArrowColumn.Type type) {
+        return type == ArrowColumn.Type.INT64 || type == ArrowColumn.Type.FLOAT64;
+    }
+
+    private static ArrowColumn.Type getType(byte tag) {
+        switch (EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(tag)) {
+            case BOOLEAN:
+                return ArrowColumn.Type.BOOL;
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return ArrowColumn.Type.INT64;
+            case FLOAT:
+            case DOUBLE:
+                return ArrowColumn.Type.FLOAT64;
+            case DATE:
+                return ArrowColumn.Type.DATE_DAY;
+            case TIME:
+                return ArrowColumn.Type.TIME_MILLIS;
+            case DATETIME:
+                return ArrowColumn.Type.TIMESTAMP_MILLIS;
+            case NULL:
+            case MISSING:
+                return null;
+            default:
+                return ArrowColumn.Type.UTF8;
+        }
+    }
+}
@@ -28,12 +28,29 @@ public class ResponseMetrics {
     private long errorCount;
     private long warnCount;
     private long diskIoCount;
+    private long resultCacheHits;
+    private long resultCacheMisses;
+    private long planCacheHits;
+    private long planCacheMisses;
+    private long savedCompileTime;
 
     private ResponseMetrics() {
     }
 
     public static ResponseMetrics of(long elapsedTime, long executionTime, long resultCount, long resultSize,
             long processedObjects, long errorCount, long warnCount) {
+        return of(elapsedTime, executionTime, resultCount, resultSize, processedObjects, errorCount, warnCount, 0, 0);
+    }
+
+    public static ResponseMetrics of(long elapsedTime, long executionTime, long resultCount, long resultSize,
+            long processedObjects, long errorCount, long warnCount, long resultCacheHits, long resultCacheMisses) {
+        return of(elapsedTime, executionTime, resultCount, resultSize, processedObjects, errorCount, warnCount,
+                resultCacheHits, resultCacheMisses, 0, 0, 0);
+    }
+
+    public static ResponseMetrics of(long elapsedTime, long executionTime, long resultCount, long resultSize,
+            long processedObjects, long errorCount, long warnCount, long resultCacheHits, long resultCacheMisses,
+            long planCacheHits, long planCacheMisses, long savedCompileTime) {
         ResponseMetrics metrics = new ResponseMetrics();
         metrics.elapsedTime = elapsedTime;
         metrics.executionTime = executionTime;
@@ -42,6 +59,11 @@ public class ResponseMetrics {
         metrics.processedObjects = processedObjects;
         metrics.errorCount = errorCount;
         metrics.warnCount = warnCount;
+        metrics.resultCacheHits = resultCacheHits;
+        metrics.resultCacheMisses = resultCacheMisses;
+        metrics.planCacheHits = planCacheHits;
+        metrics.planCacheMisses = planCacheMisses;
+        metrics.savedCompileTime = savedCompileTime;
         return metrics;
     }
 
@@ -72,4 +94,24 @@ public class ResponseMetrics {
     public long getWarnCount() {
         return warnCount;
     }
+
+    public long getResultCacheHits() {
+        return resultCacheHits;
+    }
+
+    public long getResultCacheMisses() {
+        return resultCacheMisses;
+    }
+
+    public long getPlanCacheHits() {
+        return planCacheHits;
+    }
+
+    public long getPlanCacheMisses() {
+        return planCacheMisses;
+    }
+
+    public long getSavedCompileTime() {
+        return savedCompileTime;
+    }
 }
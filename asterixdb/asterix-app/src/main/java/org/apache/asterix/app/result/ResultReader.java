@@ -18,8 +18,14 @@
  */
 package org.apache.asterix.app.result;
 
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.asterix.common.api.IResultCache;
 import org.apache.asterix.common.config.CompilerProperties;
 import org.apache.hyracks.api.client.IHyracksClientConnection;
+import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -38,12 +44,33 @@ public class ResultReader {
 
     private final IFrameTupleAccessor frameTupleAccessor;
 
+    private IResultCache.IRecording recording;
+
+    private boolean recorded;
+
     // Number of parallel result reader buffers
     public static final int NUM_READERS = 1;
 
     public ResultReader(IResultSet resultSet, JobId jobId, ResultSetId resultSetId) throws HyracksDataException {
+        this(resultSet, jobId, resultSetId, null);
+    }
+
+    /**
+     * Creates a reader that also adds the frames that it reads to {@code recording}, if any
+     */
+    public ResultReader(IResultSet resultSet, JobId jobId, ResultSetId resultSetId,
+            IResultCache.IRecording recording) throws HyracksDataException {
         reader = resultSet.createReader(jobId, resultSetId);
         frameTupleAccessor = new ResultFrameTupleAccessor();
+        this.recording = recording;
+    }
+
+    /**
+     * Creates a reader of a cached result
+     */
+    public ResultReader(List<byte[]> frames) {
+        reader = new CachedResultSetReader(frames);
+        frameTupleAccessor = new ResultFrameTupleAccessor();
     }
 
     public Status getStatus() {
@@ -51,7 +78,25 @@ public class ResultReader {
     }
 
     public int read(IFrame frame) throws HyracksDataException {
-        return reader.read(frame);
+        int readSize = reader.read(frame);
+        if (recording != null) {
+            if (readSize == 0) {
+                recorded = true;
+            } else {
+                ByteBuffer buffer = frame.getBuffer();
+                if (!recording.add(buffer.array(), buffer.arrayOffset(), readSize)) {
+                    recording = null;
+                }
+            }
+        }
+        return readSize;
+    }
+
+    /**
+     * @return true if the whole result was read and added to the recording of the reader
+     */
+    public boolean isRecorded() {
+        return recorded;
     }
 
     public IFrameTupleAccessor getFrameTupleAccessor() {
@@ -67,4 +112,37 @@ public class ResultReader {
         return new ResultSet(hcc, srv.getNetworkSecurityManager().getSocketChannelFactory(),
                 compilerProperties.getFrameSize(), ResultReader.NUM_READERS);
     }
+
+    private static class CachedResultSetReader implements IResultSetReader {
+        private final Iterator<byte[]> frames;
+
+        private CachedResultSetReader(List<byte[]> frames) {
+            this.frames = frames.iterator();
+        }
+
+        @Override
+        public Status getResultStatus() {
+            return null;
+        }
+
+        @Override
+        public int read(IFrame frame) throws HyracksDataException {
+            frame.reset();
+            if (!frames.hasNext()) {
+                return 0;
+            }
+            byte[] bytes = frames.next();
+            frame.ensureFrameSize(frame.getMinSize() * FrameHelper.deserializeNumOfMinFrame(ByteBuffer.wrap(bytes)));
+            ByteBuffer buffer = frame.getBuffer();
+            buffer.clear();
+            buffer.put(bytes);
+            buffer.flip();
+            return bytes.length;
+        }
+
+        @Override
+        public IResultMetadata getResultMetadata() {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result.arrow;
+
+import java.util.Arrays;
+
+/**
+ * A nullable column of a record batch, in the memory layout of Arrow: a validity bitmap and the little-endian values
+ * (bit-packed booleans, fixed-width numbers or the offsets and the UTF-8 bytes of strings).
+ */
+public final class ArrowColumn {
+
+    public enum Type {
+        BOOL(0),
+        INT8(1),
+        INT16(2),
+        INT32(4),
+        INT64(8),
+        FLOAT32(4),
+        FLOAT64(8),
+        UTF8(4),
+        DATE_DAY(4),
+        TIME_MILLIS(4),
+        TIMESTAMP_MILLIS(8);
+
+        // the width of a value, the width of an offset for strings
+        private final int width;
+
+        Type(int width) {
+            this.width = width;
+        }
+
+        int width() {
+            return width;
+        }
+    }
+
+    private final String name;
+    private final Type type;
+    private byte[] validity = new byte[64];
+    private byte[] values = new byte[512];
+    private byte[] data;
+    private int length;
+    private int nullCount;
+    private int dataLength;
+
+    public ArrowColumn(String name, Type type) {
+        this.name = name;
+        this.type = type;
+        if (type == Type.UTF8) {
+            data = new byte[4096];
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public void reset() {
+        Arrays.fill(validity, 0, getValidityLength(), (byte) 0);
+        Arrays.fill(values, 0, getValuesLength(), (byte) 0);
+        length = 0;
+        nullCount = 0;
+        dataLength = 0;
+    }
+
+    public void appendNull() {
+        ensureCapacity();
+        nullCount++;
+        length++;
+        if (type == Type.UTF8) {
+            putInt(values, length * 4, dataLength);
+        }
+    }
+
+    public void appendBoolean(boolean value) {
+        ensureCapacity();
+        if (value) {
+            values[length >> 3] |= 1 << (length & 7);
+        }
+        setValid();
+    }
+
+    /**
+     * Appends an integer, or the number of days, milliseconds or milliseconds since the epoch of a date, time or
+     * timestamp.
+     */
+    public void appendLong(long value) {
+        ensureCapacity();
+        put(values, length * type.width, value, type.width);
+        setValid();
+    }
+
+    public void appendDouble(double value) {
+        ensureCapacity();
+        if (type == Type.FLOAT32) {
+            putInt(values, length * 4, Float.floatToIntBits((float) value));
+        } else {
+            put(values, length * 8, Double.doubleToLongBits(value), 8);
+        }
+        setValid();
+    }
+
+    public void appendUtf8(byte[] bytes, int start, int len) {
+        ensureCapacity();
+        if (dataLength + len > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + len));
+        }
+        System.arraycopy(bytes, start, data, dataLength, len);
+        dataLength += len;
+        putInt(values, (length + 1) * 4, dataLength);
+        setValid();
+    }
+
+    private void setValid() {
+        validity[length >> 3] |= 1 << (length & 7);
+        length++;
+    }
+
+    private void ensureCapacity() {
+        // room for the next value and, for strings, for its end offset
+        int valuesLength = type == Type.BOOL ? (length >> 3) + 1 : (length + 2) * type.width;
+        if (valuesLength > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, valuesLength));
+        }
+        if ((length >> 3) + 1 > validity.length) {
+            validity = Arrays.copyOf(validity, validity.length * 2);
+        }
+    }
+
+    int getValidityLength() {
+        return (length + 7) >> 3;
+    }
+
+    int getValuesLength() {
+        switch (type) {
+            case BOOL:
+                return (length + 7) >> 3;
+            case UTF8:
+                return (length + 1) * 4;
+            default:
+                return length * type.width;
+        }
+    }
+
+    int getDataLength() {
+        return dataLength;
+    }
+
+    byte[] getValidity() {
+        return validity;
+    }
+
+    byte[] getValues() {
+        return values;
+    }
+
+    byte[] getData() {
+        return data;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        put(bytes, offset, value, 4);
+    }
+
+    private static void put(byte[] bytes, int offset, long value, int width) {
+        for (int i = 0; i < width; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
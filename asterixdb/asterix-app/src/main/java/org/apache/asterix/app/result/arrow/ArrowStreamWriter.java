@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result.arrow;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes columns in the Arrow IPC streaming format (https://arrow.apache.org/docs/format/Columnar.html): a schema
+ * message followed by a record batch message per batch of rows and an end-of-stream marker.
+ */
+public class ArrowStreamWriter {
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int ALIGNMENT = 8;
+    private static final byte[] PADDING = new byte[ALIGNMENT];
+    // MetadataVersion.V5
+    private static final short METADATA_VERSION = 4;
+    // MessageHeader union
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    // Type union
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIME = 9;
+    private static final byte TYPE_TIMESTAMP = 10;
+    // Precision, DateUnit and TimeUnit enums
+    private static final short PRECISION_SINGLE = 1;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short DATE_UNIT_DAY = 0;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+
+    private final OutputStream out;
+    private final byte[] prefix = new byte[8];
+    private long bytesWritten;
+
+    public ArrowStreamWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void writeSchema(List<ArrowColumn> columns) throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = createField(builder, columns.get(i));
+        }
+        int fieldsVector = createOffsetVector(builder, fields);
+        // Schema: endianness (little by default), fields
+        builder.startTable(4);
+        builder.addOffsetField(1, fieldsVector);
+        int schema = builder.endTable();
+        writeMessage(builder, HEADER_SCHEMA, schema, 0, Collections.emptyMap());
+    }
+
+    public void writeRecordBatch(List<ArrowColumn> columns, int rowCount) throws IOException {
+        writeRecordBatch(columns, rowCount, Collections.emptyMap());
+    }
+
+    /**
+     * @param customMetadata
+     *            the key-value pairs of the custom metadata of the message of the record batch
+     */
+    public void writeRecordBatch(List<ArrowColumn> columns, int rowCount, Map<String, String> customMetadata)
+            throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        // the buffers of each column: validity, values and, for strings, data
+        int numBuffers = 0;
+        for (ArrowColumn column : columns) {
+            numBuffers += column.getType() == ArrowColumn.Type.UTF8 ? 3 : 2;
+        }
+        long[] bufferLengths = new long[numBuffers];
+        int b = 0;
+        for (ArrowColumn column : columns) {
+            bufferLengths[b++] = column.getValidityLength();
+            bufferLengths[b++] = column.getValuesLength();
+            if (column.getType() == ArrowColumn.Type.UTF8) {
+                bufferLengths[b++] = column.getDataLength();
+            }
+        }
+        long[] bufferOffsets = new long[numBuffers];
+        long bodyLength = 0;
+        for (int i = 0; i < numBuffers; i++) {
+            bufferOffsets[i] = bodyLength;
+            bodyLength += align(bufferLengths[i]);
+        }
+        builder.startVector(16, numBuffers, 8);
+        for (int i = numBuffers - 1; i >= 0; i--) {
+            builder.addLongPair(bufferOffsets[i], bufferLengths[i]);
+        }
+        int buffers = builder.endVector(numBuffers);
+        builder.startVector(16, columns.size(), 8);
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            builder.addLongPair(columns.get(i).getLength(), columns.get(i).getNullCount());
+        }
+        int nodes = builder.endVector(columns.size());
+        // RecordBatch: length, nodes, buffers, compression
+        builder.startTable(4);
+        builder.addLongField(0, rowCount);
+        builder.addOffsetField(1, nodes);
+        builder.addOffsetField(2, buffers);
+        int recordBatch = builder.endTable();
+        writeMessage(builder, HEADER_RECORD_BATCH, recordBatch, bodyLength, customMetadata);
+        for (ArrowColumn column : columns) {
+            writeBuffer(column.getValidity(), column.getValidityLength());
+            writeBuffer(column.getValues(), column.getValuesLength());
+            if (column.getType() == ArrowColumn.Type.UTF8) {
+                writeBuffer(column.getData(), column.getDataLength());
+            }
+        }
+    }
+
+    public void writeEndOfStream() throws IOException {
+        writePrefix(0);
+        out.flush();
+    }
+
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, long bodyLength,
+            Map<String, String> customMetadata) throws IOException {
+        int metadataVector = customMetadata.isEmpty() ? 0 : createKeyValueVector(builder, customMetadata);
+        // Message: version, header_type, header, bodyLength, custom_metadata
+        builder.startTable(5);
+        builder.addLongField(3, bodyLength);
+        builder.addOffsetField(2, header);
+        if (metadataVector != 0) {
+            builder.addOffsetField(4, metadataVector);
+        }
+        builder.addShortField(0, METADATA_VERSION);
+        builder.addByteField(1, headerType);
+        byte[] metadata = builder.finish(builder.endTable());
+        // the body starts at a multiple of the alignment
+        int metadataLength = (int) align(prefix.length + metadata.length) - prefix.length;
+        writePrefix(metadataLength);
+        writeBuffer(metadata, metadata.length);
+        writePadding(metadataLength - metadata.length);
+    }
+
+    private void writePrefix(int metadataLength) throws IOException {
+        putInt(prefix, 0, CONTINUATION);
+        putInt(prefix, 4, metadataLength);
+        out.write(prefix);
+        bytesWritten += prefix.length;
+    }
+
+    private void writeBuffer(byte[] bytes, int length) throws IOException {
+        out.write(bytes, 0, length);
+        bytesWritten += length;
+        writePadding((int) (align(length) - length));
+    }
+
+    private void writePadding(int length) throws IOException {
+        out.write(PADDING, 0, length);
+        bytesWritten += length;
+    }
+
+    private static int createField(FlatBufferBuilder builder, ArrowColumn column) {
+        int name = builder.createString(column.getName().getBytes(UTF_8));
+        byte typeType;
+        int type;
+        switch (column.getType()) {
+            case BOOL:
+                typeType = TYPE_BOOL;
+                builder.startTable(0);
+                type = builder.endTable();
+                break;
+            case INT8:
+            case INT16:
+            case INT32:
+            case INT64:
+                typeType = TYPE_INT;
+                // Int: bitWidth, is_signed
+                builder.startTable(2);
+                builder.addIntField(0, column.getType().width() * 8);
+                builder.addByteField(1, 1);
+                type = builder.endTable();
+                break;
+            case FLOAT32:
+            case FLOAT64:
+                typeType = TYPE_FLOATING_POINT;
+                // FloatingPoint: precision
+                builder.startTable(1);
+                builder.addShortField(0,
+                        column.getType() == ArrowColumn.Type.FLOAT32 ? PRECISION_SINGLE : PRECISION_DOUBLE);
+                type = builder.endTable();
+                break;
+            case UTF8:
+                typeType = TYPE_UTF8;
+                builder.startTable(0);
+                type = builder.endTable();
+                break;
+            case DATE_DAY:
+                typeType = TYPE_DATE;
+                // Date: unit
+                builder.startTable(1);
+                builder.addShortField(0, DATE_UNIT_DAY);
+                type = builder.endTable();
+                break;
+            case TIME_MILLIS:
+                typeType = TYPE_TIME;
+                // Time: unit, bitWidth
+                builder.startTable(2);
+                builder.addIntField(1, 32);
+                builder.addShortField(0, TIME_UNIT_MILLISECOND);
+                type = builder.endTable();
+                break;
+            case TIMESTAMP_MILLIS:
+                typeType = TYPE_TIMESTAMP;
+                // Timestamp: unit, timezone (none)
+                builder.startTable(2);
+                builder.addShortField(0, TIME_UNIT_MILLISECOND);
+                type = builder.endTable();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected column type " + column.getType());
+        }
+        // readers expect the children of a field even if there are none
+        int children = createOffsetVector(builder, new int[0]);
+        // Field: name, nullable, type_type, type, dictionary, children, custom_metadata
+        builder.startTable(7);
+        builder.addOffsetField(0, name);
+        builder.addOffsetField(3, type);
+        builder.addOffsetField(5, children);
+        builder.addByteField(1, 1);
+        builder.addByteField(2, typeType);
+        return builder.endTable();
+    }
+
+    private static int createKeyValueVector(FlatBufferBuilder builder, Map<String, String> keyValues) {
+        int[] entries = new int[keyValues.size()];
+        int i = 0;
+        for (Map.Entry<String, String> keyValue : keyValues.entrySet()) {
+            int key = builder.createString(keyValue.getKey().getBytes(UTF_8));
+            int value = builder.createString(keyValue.getValue().getBytes(UTF_8));
+            // KeyValue: key, value
+            builder.startTable(2);
+            builder.addOffsetField(0, key);
+            builder.addOffsetField(1, value);
+            entries[i++] = builder.endTable();
+        }
+        return createOffsetVector(builder, entries);
+    }
+
+    private static int createOffsetVector(FlatBufferBuilder builder, int[] offsets) {
+        builder.startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            builder.addOffset(offsets[i]);
+        }
+        return builder.endVector(offsets.length);
+    }
+
+    private static long align(long length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result.arrow;
+
+import java.util.Arrays;
+
+/**
+ * A minimal builder of the FlatBuffers that encode the metadata of Arrow IPC messages. Like the FlatBuffers
+ * library, it builds the buffer back to front: objects are added before the objects that refer to them, and the
+ * offsets that are returned identify objects by their distance from the end of the buffer. Vectors are built by
+ * adding their elements in reverse order between {@link #startVector(int, int, int)} and {@link #endVector(int)}.
+ */
+final class FlatBufferBuilder {
+    private static final int VTABLE_METADATA_FIELDS = 2;
+
+    private byte[] buf = new byte[256];
+    // the built part of the buffer is buf[space, buf.length)
+    private int space = buf.length;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int objectStart;
+
+    int offset() {
+        return buf.length - space;
+    }
+
+    private void prep(int size, int additionalBytes) {
+        minAlign = Math.max(minAlign, size);
+        int alignSize = -(offset() + additionalBytes) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            int oldLength = buf.length;
+            byte[] newBuf = new byte[oldLength * 2];
+            System.arraycopy(buf, 0, newBuf, oldLength, oldLength);
+            buf = newBuf;
+            space += oldLength;
+        }
+        // the padding bytes are still zero
+        space -= alignSize;
+    }
+
+    private void put(long value, int size) {
+        space -= size;
+        for (int i = 0; i < size; i++) {
+            buf[space + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    void addByte(int value) {
+        prep(1, 0);
+        put(value, 1);
+    }
+
+    void addShort(int value) {
+        prep(2, 0);
+        put(value, 2);
+    }
+
+    void addInt(int value) {
+        prep(4, 0);
+        put(value, 4);
+    }
+
+    void addLong(long value) {
+        prep(8, 0);
+        put(value, 8);
+    }
+
+    void addOffset(int offset) {
+        prep(4, 0);
+        put(offset() - offset + 4, 4);
+    }
+
+    /**
+     * Adds a struct of two longs, e.g. a FieldNode or a Buffer of a RecordBatch.
+     */
+    void addLongPair(long first, long second) {
+        prep(8, 16);
+        put(second, 8);
+        put(first, 8);
+    }
+
+    int createString(byte[] utf8) {
+        addByte(0);
+        startVector(1, utf8.length, 1);
+        space -= utf8.length;
+        System.arraycopy(utf8, 0, buf, space, utf8.length);
+        return endVector(utf8.length);
+    }
+
+    void startVector(int elementSize, int numElements, int alignment) {
+        prep(4, elementSize * numElements);
+        prep(alignment, elementSize * numElements);
+    }
+
+    int endVector(int numElements) {
+        put(numElements, 4);
+        return offset();
+    }
+
+    void startTable(int numFields) {
+        vtable = new int[numFields];
+        objectStart = offset();
+    }
+
+    void addByteField(int field, int value) {
+        addByte(value);
+        vtable[field] = offset();
+    }
+
+    void addShortField(int field, int value) {
+        addShort(value);
+        vtable[field] = offset();
+    }
+
+    void addIntField(int field, int value) {
+        addInt(value);
+        vtable[field] = offset();
+    }
+
+    void addLongField(int field, long value) {
+        addLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffsetField(int field, int offset) {
+        addOffset(offset);
+        vtable[field] = offset();
+    }
+
+    int endTable() {
+        // the table starts with the offset of its vtable, which is added right before the table
+        addInt(0);
+        int tableOffset = offset();
+        int numFields = vtable.length;
+        while (numFields > 0 && vtable[numFields - 1] == 0) {
+            numFields--;
+        }
+        for (int i = numFields - 1; i >= 0; i--) {
+            addShort(vtable[i] != 0 ? tableOffset - vtable[i] : 0);
+        }
+        addShort(tableOffset - objectStart);
+        addShort((numFields + VTABLE_METADATA_FIELDS) * 2);
+        int tablePosition = buf.length - tableOffset;
+        int vtableDistance = offset() - tableOffset;
+        for (int i = 0; i < 4; i++) {
+            buf[tablePosition + i] = (byte) (vtableDistance >>> (8 * i));
+        }
+        vtable = null;
+        return tableOffset;
+    }
+
+    byte[] finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+        return Arrays.copyOfRange(buf, space, buf.length);
+    }
+}
@@ -36,7 +36,12 @@ public class MetricsPrinter implements IResponseFieldPrinter {
         RESULT_SIZE("resultSize"),
         ERROR_COUNT("errorCount"),
         PROCESSED_OBJECTS_COUNT("processedObjects"),
-        WARNING_COUNT("warningCount");
+        WARNING_COUNT("warningCount"),
+        RESULT_CACHE_HITS("resultCacheHits"),
+        RESULT_CACHE_MISSES("resultCacheMisses"),
+        PLAN_CACHE_HITS("planCacheHits"),
+        PLAN_CACHE_MISSES("planCacheMisses"),
+        SAVED_COMPILE_TIME("savedCompileTime");
 
         private final String str;
 
@@ -77,9 +82,29 @@ public class MetricsPrinter implements IResponseFieldPrinter {
         pw.print("\n\t");
         final boolean hasErrors = metrics.getErrorCount() > 0;
         final boolean hasWarnings = metrics.getWarnCount() > 0;
+        final boolean usedResultCache = metrics.getResultCacheHits() + metrics.getResultCacheMisses() > 0;
+        final boolean usedPlanCache = metrics.getPlanCacheHits() + metrics.getPlanCacheMisses() > 0;
         ResultUtil.printField(pw, Metrics.PROCESSED_OBJECTS_COUNT.str(), metrics.getProcessedObjects(),
-                hasWarnings || hasErrors);
+                usedResultCache || usedPlanCache || hasWarnings || hasErrors);
         pw.print("\n");
+        if (usedResultCache) {
+            pw.print("\t");
+            ResultUtil.printField(pw, Metrics.RESULT_CACHE_HITS.str(), metrics.getResultCacheHits(), true);
+            pw.print("\n\t");
+            ResultUtil.printField(pw, Metrics.RESULT_CACHE_MISSES.str(), metrics.getResultCacheMisses(),
+                    usedPlanCache || hasWarnings || hasErrors);
+            pw.print("\n");
+        }
+        if (usedPlanCache) {
+            pw.print("\t");
+            ResultUtil.printField(pw, Metrics.PLAN_CACHE_HITS.str(), metrics.getPlanCacheHits(), true);
+            pw.print("\n\t");
+            ResultUtil.printField(pw, Metrics.PLAN_CACHE_MISSES.str(), metrics.getPlanCacheMisses(), true);
+            pw.print("\n\t");
+            ResultUtil.printField(pw, Metrics.SAVED_COMPILE_TIME.str(),
+                    Duration.formatNanos(metrics.getSavedCompileTime(), useAscii), hasWarnings || hasErrors);
+            pw.print("\n");
+        }
         if (hasWarnings) {
             pw.print("\t");
             ResultUtil.printField(pw, Metrics.WARNING_COUNT.str(), metrics.getWarnCount(), hasErrors);
@@ -47,6 +47,9 @@ public class TypePrinter implements IResponseFieldPrinter {
                         + (sessionConfig.is(SessionConfig.FORMAT_CSV_HEADER) ? "present" : "absent");
                 ResultUtil.printField(pw, FIELD_NAME, contentType, false);
                 break;
+            case ARROW:
+                ResultUtil.printField(pw, FIELD_NAME, HttpUtil.ContentType.APPLICATION_ARROW_STREAM, false);
+                break;
             default:
                 break;
         }
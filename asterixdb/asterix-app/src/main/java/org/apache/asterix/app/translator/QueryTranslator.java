@@ -26,6 +26,8 @@ import static org.apache.asterix.lang.common.statement.CreateFullTextFilterState
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,6 +44,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
@@ -65,11 +68,14 @@ import org.apache.asterix.app.result.fields.ErrorsPrinter;
 import org.apache.asterix.app.result.fields.ResultHandlePrinter;
 import org.apache.asterix.app.result.fields.ResultsPrinter;
 import org.apache.asterix.app.result.fields.StatusPrinter;
+import org.apache.asterix.common.api.CachedPlan;
 import org.apache.asterix.common.api.IApplicationContext;
 import org.apache.asterix.common.api.IClientRequest;
 import org.apache.asterix.common.api.IMetadataLockManager;
+import org.apache.asterix.common.api.IPlanCache;
 import org.apache.asterix.common.api.IRequestTracker;
 import org.apache.asterix.common.api.IResponsePrinter;
+import org.apache.asterix.common.api.IResultCache;
 import org.apache.asterix.common.cluster.IClusterStateManager;
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.DatasetConfig.ExternalFilePendingOp;
@@ -91,6 +97,7 @@ import org.apache.asterix.common.functions.FunctionSignature;
 import org.apache.asterix.common.metadata.DatasetFullyQualifiedName;
 import org.apache.asterix.common.metadata.DataverseName;
 import org.apache.asterix.common.metadata.IMetadataLockUtil;
+import org.apache.asterix.common.transactions.TxnId;
 import org.apache.asterix.common.utils.JobUtils;
 import org.apache.asterix.common.utils.JobUtils.ProgressState;
 import org.apache.asterix.common.utils.StorageConstants;
@@ -161,6 +168,7 @@ import org.apache.asterix.lang.common.struct.Identifier;
 import org.apache.asterix.lang.common.struct.VarIdentifier;
 import org.apache.asterix.lang.common.util.FunctionUtil;
 import org.apache.asterix.lang.common.util.ViewUtil;
+import org.apache.asterix.lang.common.visitor.QueryPrintVisitor;
 import org.apache.asterix.lang.sqlpp.rewrites.SqlppQueryRewriter;
 import org.apache.asterix.metadata.IDatasetDetails;
 import org.apache.asterix.metadata.MetadataManager;
@@ -211,6 +219,7 @@ import org.apache.asterix.runtime.fulltext.AbstractFullTextFilterDescriptor;
 import org.apache.asterix.runtime.fulltext.FullTextConfigDescriptor;
 import org.apache.asterix.runtime.fulltext.IFullTextFilterDescriptor;
 import org.apache.asterix.runtime.fulltext.StopwordsFullTextFilterDescriptor;
+import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
 import org.apache.asterix.runtime.operators.StreamStats;
 import org.apache.asterix.transaction.management.service.transaction.DatasetIdFactory;
 import org.apache.asterix.translator.AbstractLangTranslator;
@@ -228,6 +237,7 @@ import org.apache.asterix.translator.SchedulableClientRequest;
 import org.apache.asterix.translator.SessionConfig;
 import org.apache.asterix.translator.SessionOutput;
 import org.apache.asterix.translator.TypeTranslator;
+import org.apache.asterix.translator.util.PlanTranslationUtil;
 import org.apache.asterix.translator.util.ValidateUtil;
 import org.apache.asterix.utils.DataverseUtil;
 import org.apache.asterix.utils.FeedOperations;
@@ -252,6 +262,7 @@ import org.apache.hyracks.api.exceptions.SourceLocation;
 import org.apache.hyracks.api.exceptions.Warning;
 import org.apache.hyracks.api.io.FileSplit;
 import org.apache.hyracks.api.io.UnmanagedFileSplit;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobSpecification;
@@ -342,11 +353,15 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         final IResultSet resultSet = requestParameters.getResultSet();
         final ResultDelivery resultDelivery = requestParameters.getResultProperties().getDelivery();
         final long maxResultReads = requestParameters.getResultProperties().getMaxReads();
+        final boolean resultStreaming =
+                resultDelivery == ResultDelivery.IMMEDIATE && requestParameters.getResultProperties().isStreaming();
         final Stats stats = requestParameters.getStats();
         final StatementProperties statementProperties = requestParameters.getStatementProperties();
         final ResultMetadata outMetadata = requestParameters.getOutMetadata();
         final Map<String, IAObject> stmtParams = requestParameters.getStatementParameters();
         warningCollector.setMaxWarnings(sessionConfig.getMaxWarnings());
+        boolean invalidateResultCache = false;
+        boolean invalidatePlanCache = false;
         try {
             for (Statement stmt : statements) {
                 if (sessionConfig.is(SessionConfig.FORMAT_HTML)) {
@@ -360,6 +375,12 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 rewriteStatement(stmt, stmtRewriter, metadataProvider); // Rewrite the statement's AST.
                 Statement.Kind kind = stmt.getKind();
                 statementProperties.setKind(kind);
+                invalidateResultCache = invalidatesResultCache(kind);
+                invalidatePlanCache = invalidatesPlanCache(kind);
+                if (invalidatePlanCache) {
+                    // a cached plan that the statement might invalidate must not start once the statement started
+                    appCtx.getPlanCache().invalidateAll();
+                }
                 switch (kind) {
                     case SET:
                         handleSetStatement(stmt, config);
@@ -449,6 +470,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                             metadataProvider.setResultAsyncMode(resultDelivery == ResultDelivery.ASYNC
                                     || resultDelivery == ResultDelivery.DEFERRED);
                             metadataProvider.setMaxResultReads(maxResultReads);
+                            metadataProvider.setResultStreaming(resultStreaming);
                         }
                         handleInsertUpsertStatement(metadataProvider, stmt, hcc, resultSet, resultDelivery, outMetadata,
                                 stats, requestParameters, stmtParams, stmtRewriter);
@@ -485,6 +507,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                         metadataProvider.setResultAsyncMode(
                                 resultDelivery == ResultDelivery.ASYNC || resultDelivery == ResultDelivery.DEFERRED);
                         metadataProvider.setMaxResultReads(maxResultReads);
+                        metadataProvider.setResultStreaming(resultStreaming);
                         if (stats.getProfileType() == Stats.ProfileType.FULL) {
                             this.jobFlags.add(JobFlag.PROFILE_RUNTIME);
                         }
@@ -518,8 +541,24 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                         throw new CompilationException(ErrorCode.COMPILATION_ILLEGAL_STATE, stmt.getSourceLocation(),
                                 "Unexpected statement: " + kind);
                 }
+                if (invalidateResultCache) {
+                    appCtx.getResultCache().invalidateAll();
+                    invalidateResultCache = false;
+                }
+                if (invalidatePlanCache) {
+                    // nor may the plans compiled while the statement ran be cached
+                    appCtx.getPlanCache().invalidateAll();
+                    invalidatePlanCache = false;
+                }
             }
         } finally {
+            if (invalidateResultCache) {
+                // the failed statement might have changed the metadata nonetheless
+                appCtx.getResultCache().invalidateAll();
+            }
+            if (invalidatePlanCache) {
+                appCtx.getPlanCache().invalidateAll();
+            }
             // async queries are completed after their job completes
             if (ResultDelivery.ASYNC != resultDelivery) {
                 appCtx.getRequestTracker().complete(requestParameters.getRequestReference().getUuid());
@@ -528,6 +567,32 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         }
     }
 
+    // Statements other than queries and data modifications (which change the data versions of the datasets that they
+    // modify) may change the metadata that the cached results depend on.
+    protected static boolean invalidatesResultCache(Statement.Kind kind) {
+        switch (kind) {
+            case SET:
+            case DATAVERSE_DECL:
+            case FUNCTION_DECL:
+            case QUERY:
+            case INSERT:
+            case UPSERT:
+            case DELETE:
+            case LOAD:
+            case COMPACT:
+            case ANALYZE:
+            case WRITE:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // On top of the metadata, the plans depend on the statistics of the datasets.
+    protected static boolean invalidatesPlanCache(Statement.Kind kind) {
+        return kind == Statement.Kind.ANALYZE || invalidatesResultCache(kind);
+    }
+
     protected void configureMetadataProvider(MetadataProvider metadataProvider, Map<String, String> config,
             Counter resultSetIdCounter, FileSplit outputFile, IRequestParameters requestParameters,
             Statement statement) {
@@ -3724,7 +3789,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
         if (stmtInsertUpsert.getReturnExpression() != null) {
             deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
-                    requestParameters, false);
+                    requestParameters, false, null);
         } else {
             locker.lock();
             try {
@@ -4525,12 +4590,43 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
     private interface IStatementCompiler {
         JobSpecification compile() throws AlgebricksException, RemoteException, ACIDException;
+
+        default JobId startJob(IHyracksClientConnection hcc, JobSpecification jobSpec, EnumSet<JobFlag> jobFlags)
+                throws Exception {
+            return JobUtils.runJob(hcc, jobSpec, jobFlags, false);
+        }
     }
 
     protected void handleQuery(MetadataProvider metadataProvider, Query query, IHyracksClientConnection hcc,
             IResultSet resultSet, ResultDelivery resultDelivery, ResultMetadata outMetadata, Stats stats,
             IRequestParameters requestParameters, Map<String, IAObject> stmtParams, IStatementRewriter stmtRewriter)
             throws Exception {
+        final IResultCache.IRecording resultRecording;
+        final String resultCacheKey =
+                getResultCacheKey(metadataProvider, query, resultDelivery, stats, requestParameters, stmtParams);
+        if (resultCacheKey != null) {
+            final IResultCache resultCache = appCtx.getResultCache();
+            final List<byte[]> cachedResult = resultCache.get(resultCacheKey);
+            if (cachedResult != null) {
+                stats.incrementResultCacheHits();
+                responsePrinter.addResultPrinter(
+                        new ResultsPrinter(appCtx, new ResultReader(cachedResult), null, stats, sessionOutput));
+                responsePrinter.printResults();
+                return;
+            }
+            stats.incrementResultCacheMisses();
+            resultRecording = resultCache.record(resultCacheKey);
+        } else {
+            resultRecording = null;
+        }
+        final IPlanCache planCache = appCtx.getPlanCache();
+        // the plan is keyed on the parameter types if it reads the parameters when its job starts, on their values
+        // otherwise
+        final String planCacheKey =
+                getPlanCacheKey(metadataProvider, query, resultDelivery, stats, requestParameters, stmtParams, false);
+        final String planCacheValueKey = planCacheKey == null ? null
+                : getPlanCacheKey(metadataProvider, query, resultDelivery, stats, requestParameters, stmtParams, true);
+        final Mutable<CachedPlan> plan = new MutableObject<>();
         final IMetadataLocker locker = new IMetadataLocker() {
             @Override
             public void lock() {
@@ -4543,37 +4639,233 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 // release external datasets' locks acquired during compilation of the query
                 ExternalDatasetsRegistry.INSTANCE.releaseAcquiredLocks(metadataProvider);
                 compilationLock.readLock().unlock();
+                if (plan.getValue() != null) {
+                    planCache.release(plan.getValue());
+                }
             }
         };
-        final IStatementCompiler compiler = () -> {
-            MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
-            boolean bActiveTxn = true;
-            metadataProvider.setMetadataTxnContext(mdTxnCtx);
-            try {
-                final JobSpecification jobSpec =
-                        rewriteCompileQuery(hcc, metadataProvider, query, null, stmtParams, requestParameters);
-                // update stats with count of compile-time warnings. needs to be adapted for multi-statement.
-                stats.updateTotalWarningsCount(warningCollector.getTotalWarningsCount());
-                afterCompile();
-                MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
-                bActiveTxn = false;
-                return query.isExplain() || isCompileOnly() ? null : jobSpec;
-            } catch (Exception e) {
-                LOGGER.log(Level.INFO, e.getMessage(), e);
-                if (bActiveTxn) {
-                    abort(e, e, mdTxnCtx);
+        final IStatementCompiler compiler = new IStatementCompiler() {
+            @Override
+            public JobSpecification compile() throws AlgebricksException, RemoteException, ACIDException {
+                if (planCacheKey != null) {
+                    plan.setValue(lockCachedPlan(planCache, planCacheKey, metadataProvider));
+                    if (plan.getValue() == null) {
+                        plan.setValue(lockCachedPlan(planCache, planCacheValueKey, metadataProvider));
+                    }
+                    if (plan.getValue() != null) {
+                        stats.incrementPlanCacheHits(plan.getValue().getCompileTime());
+                        if (resultRecording != null && plan.getValue().isResultCacheable()) {
+                            resultRecording.setDataVersions(metadataProvider.getLocks());
+                        }
+                        return plan.getValue().getJobSpecification();
+                    }
+                    stats.incrementPlanCacheMisses();
+                    // the parameters are read from the job parameters unless a condition needs their values
+                    // (see APIFramework)
+                    metadataProvider.setBindParameters(true);
+                }
+                final long planCacheEpoch = planCache.getEpoch();
+                final long compileStart = System.nanoTime();
+                final long warningsCount = warningCollector.getTotalWarningsCount();
+                MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
+                boolean bActiveTxn = true;
+                metadataProvider.setMetadataTxnContext(mdTxnCtx);
+                try {
+                    final JobSpecification jobSpec =
+                            rewriteCompileQuery(hcc, metadataProvider, query, null, stmtParams, requestParameters);
+                    // update stats with count of compile-time warnings. needs to be adapted for multi-statement.
+                    stats.updateTotalWarningsCount(warningCollector.getTotalWarningsCount());
+                    if (resultRecording != null && metadataProvider.isResultCacheable()) {
+                        resultRecording.setDataVersions(metadataProvider.getLocks());
+                    }
+                    afterCompile();
+                    MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
+                    bActiveTxn = false;
+                    if (query.isExplain() || isCompileOnly()) {
+                        return null;
+                    }
+                    // a plan with warnings is not cached as the warnings would be missing from the other responses
+                    final boolean cacheable = planCacheKey != null
+                            && warningCollector.getTotalWarningsCount() == warningsCount
+                            && metadataProvider.getExternalDataLocks() == null;
+                    if (metadataProvider.isBindParameters()) {
+                        // only a deployed job specification can be started with the parameters
+                        plan.setValue(deployPlan(hcc, planCache, planCacheKey, planCacheEpoch, jobSpec,
+                                metadataProvider, System.nanoTime() - compileStart, cacheable));
+                    } else if (cacheable) {
+                        plan.setValue(cachePlan(hcc, planCache, planCacheValueKey, planCacheEpoch, jobSpec,
+                                metadataProvider, System.nanoTime() - compileStart));
+                    }
+                    return jobSpec;
+                } catch (Exception e) {
+                    LOGGER.log(Level.INFO, e.getMessage(), e);
+                    if (bActiveTxn) {
+                        abort(e, e, mdTxnCtx);
+                    }
+                    throw e;
                 }
-                throw e;
+            }
+
+            @Override
+            public JobId startJob(IHyracksClientConnection hcc, JobSpecification jobSpec, EnumSet<JobFlag> jobFlags)
+                    throws Exception {
+                if (plan.getValue() == null) {
+                    return IStatementCompiler.super.startJob(hcc, jobSpec, jobFlags);
+                }
+                // every start of a deployed job specification runs in a transaction of its own
+                final TxnId txnId = metadataProvider.getTxnIdFactory().create();
+                final Map<byte[], byte[]> jobParameters = JobEventListenerFactory.createJobParameters(txnId);
+                PlanTranslationUtil.addJobParameters(createExternalVariables(query, stmtParams), jobParameters);
+                return hcc.startJob(plan.getValue().getDeployedJobSpecId(), jobParameters);
             }
         };
-        deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
-                requestParameters, true);
+        try {
+            deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
+                    requestParameters, true, resultRecording);
+        } catch (Exception e) {
+            if (plan.getValue() != null) {
+                // the deployed job specification might be the cause, e.g. if it is missing on a restarted node
+                planCache.remove(plan.getValue());
+            }
+            throw e;
+        }
+    }
+
+    // Acquires the plan cached under the key and the locks that its compilation acquired, or returns null if there is
+    // no such plan or if it was invalidated while the locks were acquired.
+    private static CachedPlan lockCachedPlan(IPlanCache planCache, String key, MetadataProvider metadataProvider)
+            throws AlgebricksException {
+        final CachedPlan plan = planCache.acquire(key);
+        if (plan == null) {
+            return null;
+        }
+        boolean locked = false;
+        try {
+            plan.lock(metadataProvider.getLocks());
+            locked = planCache.isValid(plan);
+        } finally {
+            if (!locked) {
+                // the query is compiled from scratch, which acquires the locks again
+                metadataProvider.getLocks().reset();
+                planCache.release(plan);
+            }
+        }
+        return locked ? plan : null;
+    }
+
+    // Deploys the job specification of a compiled query and caches its plan, or returns null if the job
+    // specification could not be deployed.
+    private static CachedPlan cachePlan(IHyracksClientConnection hcc, IPlanCache planCache, String key, long epoch,
+            JobSpecification jobSpec, MetadataProvider metadataProvider, long compileTime) {
+        try {
+            return deployPlan(hcc, planCache, key, epoch, jobSpec, metadataProvider, compileTime, true);
+        } catch (AlgebricksException e) {
+            LOGGER.warn("failed to deploy the job specification of a query to cache its plan", e);
+            return null;
+        }
+    }
+
+    // Deploys the job specification of a compiled query and acquires its plan, which is cached if it is cacheable.
+    private static CachedPlan deployPlan(IHyracksClientConnection hcc, IPlanCache planCache, String key, long epoch,
+            JobSpecification jobSpec, MetadataProvider metadataProvider, long compileTime, boolean cacheable)
+            throws AlgebricksException {
+        final DeployedJobSpecId deployedJobSpecId;
+        try {
+            jobSpec.setMaxReattempts(0);
+            deployedJobSpecId = hcc.deployJobSpec(jobSpec);
+        } catch (Exception e) {
+            throw new AlgebricksException(e);
+        }
+        final CachedPlan plan = new CachedPlan(key, epoch, jobSpec, deployedJobSpecId, metadataProvider.getLocks(),
+                metadataProvider.isResultCacheable(), compileTime);
+        if (cacheable) {
+            planCache.put(plan);
+        } else {
+            planCache.hold(plan);
+        }
+        return plan;
+    }
+
+    // Gets the key of the result of a query in the result cache, or null if the result is not cached. Only results
+    // that are delivered immediately are cached.
+    private String getResultCacheKey(MetadataProvider metadataProvider, Query query, ResultDelivery resultDelivery,
+            Stats stats, IRequestParameters requestParameters, Map<String, IAObject> stmtParams)
+            throws CompilationException {
+        if (!appCtx.getResultCache().isEnabled() || resultDelivery != ResultDelivery.IMMEDIATE
+                || !isResultOnlyResponse(metadataProvider, query, stats, requestParameters)) {
+            return null;
+        }
+        final StringWriter key = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(key)) {
+            printStatement(pw, metadataProvider, query, stmtParams, true);
+        }
+        return key.toString();
+    }
+
+    // Gets the key of the plan of a query in the plan cache, or null if the plan is not cached. Only the plans of
+    // parameterized queries whose results are not delivered asynchronously are cached. The key has either the types
+    // or the values of the parameters.
+    private String getPlanCacheKey(MetadataProvider metadataProvider, Query query, ResultDelivery resultDelivery,
+            Stats stats, IRequestParameters requestParameters, Map<String, IAObject> stmtParams,
+            boolean paramValues) throws CompilationException {
+        if (!appCtx.getPlanCache().isEnabled() || stmtParams == null || stmtParams.isEmpty()
+                || resultDelivery == ResultDelivery.ASYNC || !jobFlags.isEmpty()
+                || sessionConfig.is(SessionConfig.FORMAT_HTML)
+                || !isResultOnlyResponse(metadataProvider, query, stats, requestParameters)) {
+            return null;
+        }
+        final StringWriter key = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(key)) {
+            // the settings that the job specification depends on, on top of the statement
+            pw.println(resultDelivery);
+            pw.println(metadataProvider.getResultSetId());
+            pw.println(metadataProvider.getMaxResultReads());
+            pw.println(metadataProvider.isResultStreaming());
+            pw.println(sessionConfig.getWorkloadClass());
+            pw.println(sessionConfig.getMaxWarnings());
+            pw.println(requestParameters.isSkipAdmissionPolicy());
+            printStatement(pw, metadataProvider, query, stmtParams, paramValues);
+        }
+        return key.toString();
+    }
+
+    // Whether the response to a query has nothing else than its result that depends on its compilation or execution
+    // (e.g. plans, a profile or a signature).
+    private boolean isResultOnlyResponse(MetadataProvider metadataProvider, Query query, Stats stats,
+            IRequestParameters requestParameters) {
+        return !query.isExplain() && !isCompileOnly() && !requestParameters.isPrintSignature()
+                && sessionConfig.getClientType() != SessionConfig.ClientType.JDBC
+                && (stats.getProfileType() == null || stats.getProfileType() == Stats.ProfileType.NONE)
+                && !sessionConfig.is(SessionConfig.OOB_EXPR_TREE)
+                && !sessionConfig.is(SessionConfig.OOB_REWRITTEN_EXPR_TREE)
+                && !sessionConfig.is(SessionConfig.OOB_LOGICAL_PLAN)
+                && !sessionConfig.is(SessionConfig.OOB_OPTIMIZED_LOGICAL_PLAN)
+                && !sessionConfig.is(SessionConfig.OOB_HYRACKS_JOB)
+                && metadataProvider.getProperty("output-record-type") == null;
+    }
+
+    // Prints what the compilation of a query depends on: the query, the functions that are declared with it, its
+    // parameters (their values, or only their types), the active dataverse, the result format and the configuration.
+    private void printStatement(PrintWriter pw, MetadataProvider metadataProvider, Query query,
+            Map<String, IAObject> stmtParams, boolean paramValues) throws CompilationException {
+        pw.println(metadataProvider.getDefaultDataverseName());
+        pw.println(sessionConfig.fmt());
+        new TreeMap<>(metadataProvider.getConfig()).forEach((name, value) -> pw.println(name + '=' + value));
+        if (stmtParams != null) {
+            new TreeMap<>(stmtParams).forEach((name, value) -> pw
+                    .println(paramValues ? name + '=' + value : name + ':' + value.getType().getTypeTag()));
+        }
+        final QueryPrintVisitor printVisitor = compilationProvider.getAstPrintVisitorFactory().createLangVisitor(pw);
+        for (FunctionDecl declaredFunction : declaredFunctions) {
+            declaredFunction.accept(printVisitor, 0);
+        }
+        query.accept(printVisitor, 0);
     }
 
     private void deliverResult(IHyracksClientConnection hcc, IResultSet resultSet, IStatementCompiler compiler,
             MetadataProvider metadataProvider, IMetadataLocker locker, ResultDelivery resultDelivery,
-            ResultMetadata outMetadata, Stats stats, IRequestParameters requestParameters, boolean cancellable)
-            throws Exception {
+            ResultMetadata outMetadata, Stats stats, IRequestParameters requestParameters, boolean cancellable,
+            IResultCache.IRecording resultRecording) throws Exception {
         final ResultSetId resultSetId = metadataProvider.getResultSetId();
         switch (resultDelivery) {
             case ASYNC:
@@ -4587,13 +4879,29 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 }
                 break;
             case IMMEDIATE:
-                createAndRunJob(hcc, jobFlags, null, compiler, locker, resultDelivery, id -> {
-                    final ResultReader resultReader = new ResultReader(resultSet, id, resultSetId);
-                    updateJobStats(id, stats, metadataProvider.getResultSetId());
+                final boolean streaming = metadataProvider.isResultStreaming();
+                final Mutable<JobId> immediateJobId = new MutableObject<>(JobId.INVALID);
+                final Mutable<ResultReader> immediateReader = new MutableObject<>();
+                final long warningsCount = stats.getTotalWarningsCount();
+                createAndRunJob(hcc, jobFlags, immediateJobId, compiler, locker, resultDelivery, id -> {
+                    final ResultReader resultReader = new ResultReader(resultSet, id, resultSetId, resultRecording);
+                    immediateReader.setValue(resultReader);
+                    if (!streaming) {
+                        updateJobStats(id, stats, metadataProvider.getResultSetId());
+                    }
                     responsePrinter.addResultPrinter(new ResultsPrinter(appCtx, resultReader,
                             metadataProvider.findOutputRecordType(), stats, sessionOutput));
                     responsePrinter.printResults();
                 }, requestParameters, cancellable, appCtx, metadataProvider);
+                if (streaming && !Objects.equals(JobId.INVALID, immediateJobId.getValue())) {
+                    // the stats of a streamed result are only known once its job has completed
+                    updateJobStats(immediateJobId.getValue(), stats, resultSetId);
+                }
+                // a result with warnings is not cached as the warnings would be missing from the cached responses
+                if (immediateReader.getValue() != null && immediateReader.getValue().isRecorded()
+                        && stats.getTotalWarningsCount() == warningsCount) {
+                    resultRecording.complete();
+                }
                 break;
             case DEFERRED:
                 createAndRunJob(hcc, jobFlags, null, compiler, locker, resultDelivery, id -> {
@@ -4699,7 +5007,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             final SchedulableClientRequest schedulableRequest =
                     SchedulableClientRequest.of(clientRequest, requestParameters, metadataProvider, jobSpec);
             appCtx.getReceptionist().ensureSchedulable(schedulableRequest);
-            final JobId jobId = JobUtils.runJob(hcc, jobSpec, jobFlags, false);
+            final JobId jobId = compiler.startJob(hcc, jobSpec, jobFlags);
             clientRequest.setJobId(jobId);
             if (jId != null) {
                 jId.setValue(jobId);
@@ -4707,6 +5015,17 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             if (ResultDelivery.ASYNC == resultDelivery) {
                 printer.print(jobId);
                 hcc.waitForCompletion(jobId);
+            } else if (metadataProvider.isResultStreaming()) {
+                // the result is read while the job produces it
+                try {
+                    printer.print(jobId);
+                } catch (Exception e) {
+                    // report the failure of the job, if any, rather than the failure to read its result
+                    hcc.waitForCompletion(jobId);
+                    throw e;
+                }
+                hcc.waitForCompletion(jobId);
+                ensureNotCancelled(clientRequest);
             } else {
                 hcc.waitForCompletion(jobId);
                 ensureNotCancelled(clientRequest);
@@ -46,6 +46,7 @@ import org.apache.asterix.api.http.server.QueryResultApiServlet;
 import org.apache.asterix.api.http.server.QueryStatusApiServlet;
 import org.apache.asterix.api.http.server.ServletConstants;
 import org.apache.asterix.api.http.server.StorageApiServlet;
+import org.apache.asterix.api.http.server.TxnLogApiServlet;
 import org.apache.asterix.app.config.ConfigValidator;
 import org.apache.asterix.app.io.PersistedResourceRegistry;
 import org.apache.asterix.app.nc.NCAppRuntimeContext;
@@ -220,6 +221,7 @@ public class NCApplication extends BaseNCApplication {
         apiServer.addServlet(new StorageApiServlet(apiServer.ctx(), getApplicationContext(), Servlets.STORAGE));
         apiServer.addServlet(
                 new NetDiagnosticsApiServlet(apiServer.ctx(), getApplicationContext(), Servlets.NET_DIAGNOSTICS));
+        apiServer.addServlet(new TxnLogApiServlet(apiServer.ctx(), getApplicationContext(), Servlets.TXN_LOG));
         final ILangCompilationProvider sqlppCompilationProvider =
                 ncExtensionManager.getCompilationProvider(ILangExtension.Language.SQLPP);
         apiServer.addServlet(new NCQueryServiceServlet(apiServer.ctx(), new String[] { QUERY_SERVICE },
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.asterix.builders.RecordBuilder;
+import org.apache.asterix.dataflow.data.nontagged.serde.AObjectSerializerDeserializer;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.utils.RecordUtil;
+import org.apache.asterix.translator.IStatementExecutor.Stats;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ArrowResultPrinterTest {
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final Stats stats = new Stats();
+
+    private final ArrowResultPrinter printer = new ArrowResultPrinter(32768, out, stats);
+
+    private long lastRowCount;
+
+    private Map<String, String> lastCustomMetadata;
+
+    /**
+     * Ensures that a value that does not match the type of its column after the schema is written is printed as null
+     * instead of failing the stream.
+     */
+    @Test
+    public void typeMismatchAfterSchema() throws Exception {
+        printSchemaRows();
+        print(row("i", new AString("x")));
+        print(row("i", new AInt64(5)));
+        printer.end();
+        Assert.assertEquals(ArrowResultPrinter.BATCH_SIZE + 2, stats.getCount());
+        Assert.assertEquals(1, printer.getNulledValues());
+        Assert.assertTrue(printer.getDroppedFields().isEmpty());
+        // i: validity, 2 values
+        byte[] body = getLastRecordBatch();
+        Assert.assertEquals(8 + 16, body.length);
+        Assert.assertEquals(0b10, body[0]);
+        Assert.assertEquals(5, ByteBuffer.wrap(body, 16, 8).order(ByteOrder.LITTLE_ENDIAN).getLong());
+        Assert.assertEquals("1", lastCustomMetadata.get(ArrowResultPrinter.NULLED_VALUES_KEY));
+        Assert.assertEquals("{}", lastCustomMetadata.get(ArrowResultPrinter.DROPPED_FIELDS_KEY));
+    }
+
+    /**
+     * Ensures that the numbers of values printed as null and dropped are reported in an empty last record batch when
+     * all rows were already written.
+     */
+    @Test
+    public void lossReportedAfterLastBatch() throws Exception {
+        printSchemaRows();
+        print(row("i", new AString("x"), "s", new AString("new")));
+        for (int i = 1; i < ArrowResultPrinter.BATCH_SIZE; i++) {
+            print(row("i", new AInt64(i)));
+        }
+        printer.end();
+        Assert.assertEquals(2 * ArrowResultPrinter.BATCH_SIZE, stats.getCount());
+        // i: validity, no values
+        Assert.assertEquals(0, getLastRecordBatch().length);
+        Assert.assertEquals(0, lastRowCount);
+        Assert.assertEquals("1", lastCustomMetadata.get(ArrowResultPrinter.NULLED_VALUES_KEY));
+        Assert.assertEquals("{\"s\":1}", lastCustomMetadata.get(ArrowResultPrinter.DROPPED_FIELDS_KEY));
+    }
+
+    /**
+     * Ensures that a stream whose rows all fit the schema has no custom metadata.
+     */
+    @Test
+    public void noLoss() throws Exception {
+        printSchemaRows();
+        print(row("i", new AInt64(5)));
+        printer.end();
+        Assert.assertEquals(8 + 8, getLastRecordBatch().length);
+        Assert.assertEquals(1, lastRowCount);
+        Assert.assertTrue(lastCustomMetadata.isEmpty());
+    }
+
+    /**
+     * Ensures that the values of a field that first appears after the schema is written are dropped instead of
+     * failing the stream.
+     */
+    @Test
+    public void fieldAfterSchema() throws Exception {
+        printSchemaRows();
+        print(row("s", new AString("new")));
+        print(row("i", new AInt64(5), "s", new AString("new")));
+        // a row that is not an object is a row with a single field
+        print(new AString("value"));
+        printer.end();
+        Assert.assertEquals(ArrowResultPrinter.BATCH_SIZE + 3, stats.getCount());
+        Assert.assertEquals(0, printer.getNulledValues());
+        Assert.assertEquals(2L, (long) printer.getDroppedFields().get("s"));
+        Assert.assertEquals(1L, (long) printer.getDroppedFields().get(ArrowResultPrinter.VALUE));
+        byte[] body = getLastRecordBatch();
+        Assert.assertEquals(8 + 24, body.length);
+        Assert.assertEquals(0b010, body[0]);
+        Assert.assertEquals(5, ByteBuffer.wrap(body, 16, 8).order(ByteOrder.LITTLE_ENDIAN).getLong());
+        Assert.assertEquals("0", lastCustomMetadata.get(ArrowResultPrinter.NULLED_VALUES_KEY));
+        Assert.assertEquals(2L, OBJECT_MAPPER.readTree(lastCustomMetadata.get(ArrowResultPrinter.DROPPED_FIELDS_KEY))
+                .get("s").asLong());
+    }
+
+    /**
+     * Prints the rows from which the schema, a single column i of type INT64, is inferred.
+     */
+    private void printSchemaRows() throws Exception {
+        for (int i = 0; i < ArrowResultPrinter.BATCH_SIZE; i++) {
+            print(row("i", new AInt64(i)));
+        }
+    }
+
+    private void print(IAObject value) throws Exception {
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        AObjectSerializerDeserializer.INSTANCE.serialize(value, storage.getDataOutput());
+        print(storage);
+    }
+
+    private void print(ArrayBackedValueStorage row) throws Exception {
+        printer.printRow(row.getByteArray(), row.getStartOffset(), row.getLength());
+    }
+
+    private static ArrayBackedValueStorage row(Object... namesAndValues) throws Exception {
+        RecordBuilder builder = new RecordBuilder();
+        builder.reset(RecordUtil.FULLY_OPEN_RECORD_TYPE);
+        builder.init();
+        ArrayBackedValueStorage name = new ArrayBackedValueStorage();
+        ArrayBackedValueStorage value = new ArrayBackedValueStorage();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            name.reset();
+            AObjectSerializerDeserializer.INSTANCE.serialize(new AString((String) namesAndValues[i]),
+                    name.getDataOutput());
+            value.reset();
+            AObjectSerializerDeserializer.INSTANCE.serialize((IAObject) namesAndValues[i + 1], value.getDataOutput());
+            builder.addField(name, value);
+        }
+        ArrayBackedValueStorage row = new ArrayBackedValueStorage();
+        builder.write(row.getDataOutput(), true);
+        return row;
+    }
+
+    /**
+     * Reads the messages of the stream up to the end-of-stream marker and keeps the row count and the custom metadata
+     * of the last message.
+     *
+     * @return the body of the last message
+     */
+    private byte[] getLastRecordBatch() {
+        ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] body = null;
+        while (true) {
+            Assert.assertEquals(CONTINUATION, stream.getInt());
+            int metadataLength = stream.getInt();
+            if (metadataLength == 0) {
+                break;
+            }
+            ByteBuffer metadata = stream.slice().order(ByteOrder.LITTLE_ENDIAN);
+            stream.position(stream.position() + metadataLength);
+            // Message: version, header_type, header, bodyLength, custom_metadata
+            int table = metadata.getInt(0);
+            int vtable = table - metadata.getInt(table);
+            body = new byte[(int) metadata.getLong(table + metadata.getShort(vtable + 10))];
+            stream.get(body);
+            // RecordBatch: length
+            int header = field(metadata, table, 2);
+            lastRowCount = metadata.getLong(header + metadata.getShort(header - metadata.getInt(header) + 4));
+            lastCustomMetadata = new HashMap<>();
+            int keyValues = field(metadata, table, 4);
+            if (keyValues > 0) {
+                for (int i = 0; i < metadata.getInt(keyValues); i++) {
+                    int keyValue = keyValues + 4 + 4 * i;
+                    keyValue += metadata.getInt(keyValue);
+                    lastCustomMetadata.put(string(metadata, field(metadata, keyValue, 0)),
+                            string(metadata, field(metadata, keyValue, 1)));
+                }
+            }
+        }
+        Assert.assertFalse(stream.hasRemaining());
+        return body;
+    }
+
+    /**
+     * @return the position of the object that an offset field of a table refers to or 0 if the field is absent
+     */
+    private static int field(ByteBuffer buffer, int table, int field) {
+        int vtable = table - buffer.getInt(table);
+        if (4 + 2 * field >= buffer.getShort(vtable)) {
+            return 0;
+        }
+        int fieldOffset = buffer.getShort(vtable + 4 + 2 * field);
+        if (fieldOffset == 0) {
+            return 0;
+        }
+        int position = table + fieldOffset;
+        return position + buffer.getInt(position);
+    }
+
+    private static String string(ByteBuffer buffer, int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.result.arrow;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArrowStreamWriterTest {
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    /**
+     * Ensures that the messages of the stream are framed as Arrow IPC messages whose bodies are aligned to 8 bytes and
+     * that the stream ends with the end-of-stream marker.
+     */
+    @Test
+    public void framing() throws Exception {
+        ArrowColumn ints = new ArrowColumn("i", ArrowColumn.Type.INT64);
+        ArrowColumn strings = new ArrowColumn("s", ArrowColumn.Type.UTF8);
+        List<ArrowColumn> columns = Arrays.asList(ints, strings);
+        ints.appendLong(1);
+        ints.appendNull();
+        ints.appendLong(-3);
+        byte[] abc = "abc".getBytes(UTF_8);
+        strings.appendUtf8(abc, 0, abc.length);
+        strings.appendUtf8(abc, 1, 2);
+        strings.appendNull();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out);
+        writer.writeSchema(columns);
+        writer.writeRecordBatch(columns, 3);
+        writer.writeEndOfStream();
+        Assert.assertEquals(out.size(), writer.getBytesWritten());
+
+        ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(0, stream.remaining() % 8);
+        Assert.assertEquals(0, readMessage(stream, HEADER_SCHEMA));
+        // i: validity, 3 values; s: validity, 4 offsets, 5 bytes, each padded to 8 bytes
+        long bodyLength = readMessage(stream, HEADER_RECORD_BATCH);
+        Assert.assertEquals(8 + 24 + 8 + 16 + 8, bodyLength);
+        byte[] body = new byte[(int) bodyLength];
+        stream.get(body);
+        // the validity of i, then its values
+        Assert.assertEquals(0b101, body[0]);
+        Assert.assertEquals(-3, ByteBuffer.wrap(body, 24, 8).order(ByteOrder.LITTLE_ENDIAN).getLong());
+        // the offsets of s, then its bytes
+        Assert.assertEquals(0b011, body[32]);
+        Assert.assertEquals(5, ByteBuffer.wrap(body, 52, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+        Assert.assertEquals("abcbc", new String(body, 56, 5, UTF_8));
+        Assert.assertEquals(CONTINUATION, stream.getInt());
+        Assert.assertEquals(0, stream.getInt());
+        Assert.assertFalse(stream.hasRemaining());
+    }
+
+    /**
+     * Reads the metadata of a message and checks its header type.
+     *
+     * @return the length of the body of the message
+     */
+    private static long readMessage(ByteBuffer stream, byte headerType) {
+        Assert.assertEquals(CONTINUATION, stream.getInt());
+        int metadataLength = stream.getInt();
+        Assert.assertEquals(0, metadataLength % 8);
+        ByteBuffer metadata = stream.slice().order(ByteOrder.LITTLE_ENDIAN);
+        stream.position(stream.position() + metadataLength);
+        // Message: version, header_type, header, bodyLength
+        int table = metadata.getInt(0);
+        int vtable = table - metadata.getInt(table);
+        Assert.assertEquals(4, metadata.getShort(table + metadata.getShort(vtable + 4)));
+        Assert.assertEquals(headerType, metadata.get(table + metadata.getShort(vtable + 6)));
+        return metadata.getLong(table + metadata.getShort(vtable + 10));
+    }
+}
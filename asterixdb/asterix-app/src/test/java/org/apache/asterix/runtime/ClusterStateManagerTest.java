@@ -39,6 +39,7 @@ import org.apache.asterix.hyracks.bootstrap.CCApplication;
 import org.apache.asterix.runtime.transaction.ResourceIdManager;
 import org.apache.asterix.runtime.utils.BulkTxnIdFactory;
 import org.apache.asterix.runtime.utils.ClusterStateManager;
+import org.apache.asterix.runtime.utils.PlanCache;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.api.application.ICCServiceContext;
 import org.apache.hyracks.api.config.IApplicationConfig;
@@ -244,6 +245,8 @@ public class ClusterStateManagerTest {
 
         BulkTxnIdFactory bulkTxnIdFactory = new BulkTxnIdFactory();
         Mockito.when(ccApplicationContext.getTxnIdFactory()).thenReturn(bulkTxnIdFactory);
+        Mockito.when(ccApplicationContext.getPlanCache()).thenReturn(new PlanCache(0, id -> {
+        }));
         return ccApplicationContext;
     }
 
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.runtime;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.asterix.api.common.AsterixHyracksIntegrationUtil;
+import org.apache.asterix.common.TestDataUtil;
+import org.apache.asterix.common.config.CompilerProperties;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ParameterizedQueryPlanCacheTest {
+
+    private static final AsterixHyracksIntegrationUtil integrationUtil = new AsterixHyracksIntegrationUtil();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String DATASET_NAME = "ds";
+
+    @Before
+    public void setUp() throws Exception {
+        integrationUtil.addOption(CompilerProperties.Option.COMPILER_PLANCACHE_SIZE, 16);
+        integrationUtil.init(true, AsterixHyracksIntegrationUtil.DEFAULT_CONF_FILE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        integrationUtil.deinit(true);
+        integrationUtil.clearOptions();
+    }
+
+    @Test
+    public void primaryKeyLookupWithNewKeyHitsTheCache() throws Exception {
+        TestDataUtil.createIdOnlyDataset(DATASET_NAME);
+        TestDataUtil.upsertData(DATASET_NAME, 10);
+        String lookup = "SELECT VALUE d.id FROM " + DATASET_NAME + " d WHERE d.id = $1;";
+        JsonNode first = query(lookup, "[3]");
+        Assert.assertEquals("[3]", first.get("results").toString());
+        Assert.assertEquals(0, first.get("metrics").get("planCacheHits").asInt());
+        Assert.assertEquals(1, first.get("metrics").get("planCacheMisses").asInt());
+        // the key is read from the job parameters, so the plan is reused for another key
+        JsonNode second = query(lookup, "[7]");
+        Assert.assertEquals("[7]", second.get("results").toString());
+        Assert.assertEquals(1, second.get("metrics").get("planCacheHits").asInt());
+        Assert.assertEquals(0, second.get("metrics").get("planCacheMisses").asInt());
+        JsonNode missing = query(lookup, "[42]");
+        Assert.assertEquals("[]", missing.get("results").toString());
+        Assert.assertEquals(1, missing.get("metrics").get("planCacheHits").asInt());
+    }
+
+    private static JsonNode query(String statement, String args) throws Exception {
+        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            final List<NameValuePair> params = new ArrayList<>();
+            params.add(new BasicNameValuePair("statement", statement));
+            params.add(new BasicNameValuePair("args", args));
+            HttpPost request = new HttpPost("http://localhost:19004/query/service");
+            request.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
+            try (CloseableHttpResponse response = httpClient.execute(request);
+                    InputStream content = response.getEntity().getContent()) {
+                Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+                return OBJECT_MAPPER.readTree(content);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.common.api;
+
+import java.util.List;
+
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.asterix.common.metadata.LockList;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.JobSpecification;
+
+/**
+ * The compiled plan of a query in the {@link IPlanCache}: its deployed job specification and the metadata locks that
+ * the compilation of the query acquired.
+ */
+public final class CachedPlan {
+
+    private final String key;
+    private final long epoch;
+    private final JobSpecification jobSpec;
+    private final DeployedJobSpecId deployedJobSpecId;
+    private final List<IMetadataLock> locks;
+    private final List<IMetadataLock.Mode> modes;
+    private final boolean resultCacheable;
+    private final long compileTime;
+
+    /**
+     * @param key
+     *            the key of the plan in the cache
+     * @param epoch
+     *            the epoch of the cache (see {@link IPlanCache#getEpoch()}) when the compilation started
+     * @param jobSpec
+     *            the job specification
+     * @param deployedJobSpecId
+     *            the id of the deployed job specification
+     * @param locks
+     *            the locks acquired by the compilation
+     * @param resultCacheable
+     *            whether the result of the query can be cached
+     * @param compileTime
+     *            the time that the compilation took, in nanoseconds
+     */
+    public CachedPlan(String key, long epoch, JobSpecification jobSpec, DeployedJobSpecId deployedJobSpecId,
+            LockList locks, boolean resultCacheable, long compileTime) {
+        this.key = key;
+        this.epoch = epoch;
+        this.jobSpec = jobSpec;
+        this.deployedJobSpecId = deployedJobSpecId;
+        this.locks = locks.getLocks();
+        this.modes = locks.getModes();
+        this.resultCacheable = resultCacheable;
+        this.compileTime = compileTime;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public JobSpecification getJobSpecification() {
+        return jobSpec;
+    }
+
+    public DeployedJobSpecId getDeployedJobSpecId() {
+        return deployedJobSpecId;
+    }
+
+    /**
+     * Acquires the locks that the compilation of the plan acquired, in the same order and modes
+     *
+     * @param lockList
+     * @throws AlgebricksException
+     */
+    public void lock(LockList lockList) throws AlgebricksException {
+        for (int i = 0; i < locks.size(); i++) {
+            lockList.add(modes.get(i), locks.get(i));
+        }
+    }
+
+    public boolean isResultCacheable() {
+        return resultCacheable;
+    }
+
+    public long getCompileTime() {
+        return compileTime;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.common.api;
+
+/**
+ * A cache of the compiled plans of queries. The job specification of a cached plan stays deployed (see
+ * {@link org.apache.hyracks.api.client.IHyracksClientConnection#deployJobSpec}) so that the query runs again without
+ * being compiled. All the plans are invalidated when the metadata that they depend on may have changed.
+ * <p>
+ * A plan that is in use is acquired and released by its user. A plan that is evicted or invalidated is undeployed
+ * once it is released by all its users.
+ */
+public interface IPlanCache {
+
+    /**
+     * @return true if plans are cached
+     */
+    boolean isEnabled();
+
+    /**
+     * @return the current epoch, which changes whenever the cached plans are invalidated
+     */
+    long getEpoch();
+
+    /**
+     * Acquires the plan cached under {@code key}
+     *
+     * @param key
+     * @return the plan, or null if no plan is cached under {@code key}
+     */
+    CachedPlan acquire(String key);
+
+    /**
+     * @param plan
+     * @return true if {@code plan} is still cached, i.e. it was not invalidated since it was acquired
+     */
+    boolean isValid(CachedPlan plan);
+
+    /**
+     * Caches a plan under its key and acquires it. The plan is not cached if the plans were invalidated since its
+     * compilation started.
+     *
+     * @param plan
+     */
+    void put(CachedPlan plan);
+
+    /**
+     * Acquires a plan without caching it, e.g. because its compilation raised warnings. The job specification of the
+     * plan is undeployed once the plan is released.
+     *
+     * @param plan
+     */
+    void hold(CachedPlan plan);
+
+    /**
+     * Releases a plan acquired by {@link #acquire(String)}, {@link #put(CachedPlan)} or {@link #hold(CachedPlan)}
+     *
+     * @param plan
+     */
+    void release(CachedPlan plan);
+
+    /**
+     * Drops a plan if it is still cached
+     *
+     * @param plan
+     */
+    void remove(CachedPlan plan);
+
+    /**
+     * Drops all the cached plans
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.common.api;
+
+import java.util.List;
+
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.asterix.common.metadata.LockList;
+
+/**
+ * A cache of the results of read-only queries. A result is cached with the data versions (see
+ * {@link IMetadataLock#getDataVersion()}) of the locks that its query held and it is only returned as long as none
+ * of them changed.
+ */
+public interface IResultCache {
+
+    /**
+     * @return true if results are cached
+     */
+    boolean isEnabled();
+
+    /**
+     * Gets the result cached under {@code key}
+     *
+     * @param key
+     * @return the frames of the result, or null if no valid result is cached under {@code key}
+     */
+    List<byte[]> get(String key);
+
+    /**
+     * Starts recording a result to cache under {@code key}
+     *
+     * @param key
+     * @return the recording
+     */
+    IRecording record(String key);
+
+    /**
+     * Drops all the cached results and the results that are being recorded
+     */
+    void invalidateAll();
+
+    interface IRecording {
+
+        /**
+         * Takes the data versions of the locks that the query holds once it is compiled. The result is only
+         * recorded if the query can be cached and the versions were taken.
+         *
+         * @param locks
+         */
+        void setDataVersions(LockList locks);
+
+        /**
+         * Adds a frame of the result
+         *
+         * @param bytes
+         * @param offset
+         * @param length
+         * @return false if the result is not recorded (anymore), e.g. because it is too large to be cached
+         */
+        boolean add(byte[] bytes, int offset, int length);
+
+        /**
+         * Caches the recorded result if its data did not change since the data versions were taken. To be called
+         * once the whole result was added.
+         */
+        void complete();
+    }
+}
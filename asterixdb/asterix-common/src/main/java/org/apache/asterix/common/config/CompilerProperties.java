@@ -79,6 +79,10 @@ public class CompilerProperties extends AbstractProperties {
                 POSITIVE_INTEGER,
                 AlgebricksConfig.SORT_SAMPLES_DEFAULT,
                 "The number of samples which parallel sorting should take from each partition"),
+        COMPILER_SORT_THREADS(
+                POSITIVE_INTEGER,
+                AlgebricksConfig.SORT_THREADS_DEFAULT,
+                "The maximum number of threads that sort the in-memory runs of a sort partition"),
         COMPILER_INDEXONLY(BOOLEAN, AlgebricksConfig.INDEX_ONLY_DEFAULT, "Enabling/disabling index-only plans"),
         COMPILER_INTERNAL_SANITYCHECK(
                 BOOLEAN,
@@ -107,7 +111,54 @@ public class CompilerProperties extends AbstractProperties {
         COMPILER_BATCH_LOOKUP(
                 BOOLEAN,
                 AlgebricksConfig.BATCH_LOOKUP_DEFAULT,
-                "Enable/disable batch point-lookups when running queries with secondary indexes");
+                "Enable/disable batch point-lookups when running queries with secondary indexes"),
+        COMPILER_OPENADDRESSING_HASHTABLE(
+                BOOLEAN,
+                AlgebricksConfig.OPEN_ADDRESSING_HASH_TABLE_DEFAULT,
+                "Enable/disable open-addressing hash tables for hash joins and hash group-bys"),
+        COMPILER_RADIX_CLUSTERING(
+                BOOLEAN,
+                AlgebricksConfig.RADIX_CLUSTERING_DEFAULT,
+                "Enable/disable clustering the tuples of a frame by their hash table entries in hash joins and hash "
+                        + "group-bys whose hash tables do not fit in the CPU caches"),
+        COMPILER_SORTMERGE_JOIN(
+                BOOLEAN,
+                AlgebricksConfig.SORT_MERGE_JOIN_DEFAULT,
+                "Enable/disable sort-merge joins for equi-joins whose inputs are already sorted on the join keys"),
+        COMPILER_GROUPBY_STREAMING(
+                BOOLEAN,
+                AlgebricksConfig.GROUPBY_STREAMING_DEFAULT,
+                "Enable/disable writing the groups of the local step of a two-step hash group-by downstream when its "
+                        + "memory is full instead of spilling them, and stop grouping if few tuples are grouped"),
+        COMPILER_SORT_TOPK_FILTER(
+                BOOLEAN,
+                AlgebricksConfig.TOPK_THRESHOLD_FILTER_DEFAULT,
+                "Enable/disable dropping the tuples below an ORDER BY ... LIMIT that cannot make it into the top k "
+                        + "anymore, using the greatest of the top k tuples found so far"),
+        COMPILER_EXCHANGE_COMPRESSION(
+                BOOLEAN,
+                AlgebricksConfig.EXCHANGE_COMPRESSION_DEFAULT,
+                "Enable/disable compressing the frames that the connectors of a query send between the nodes, as "
+                        + "long as they compress well"),
+        COMPILER_JOIN_BLOOMFILTER(
+                BOOLEAN,
+                AlgebricksConfig.JOIN_BLOOM_FILTER_DEFAULT,
+                "Enable/disable dropping the probe tuples of inner hash joins whose keys are not in the Bloom filter "
+                        + "of the build side before they are sent to the join"),
+        COMPILER_RESULTCACHE_MEMORY(
+                LONG_BYTE_UNIT,
+                0L,
+                "The memory budget (in bytes) for caching the results of read-only queries on the cluster "
+                        + "controller. Zero disables the result cache"),
+        COMPILER_RESULTCACHE_MAXRESULTSIZE(
+                LONG_BYTE_UNIT,
+                StorageUtil.getLongSizeInBytes(1L, MEGABYTE),
+                "The maximum size (in bytes) of a query result that is cached"),
+        COMPILER_PLANCACHE_SIZE(
+                INTEGER,
+                0,
+                "The maximum number of compiled plans of parameterized queries that are cached (and whose job "
+                        + "specifications stay deployed) on the cluster controller. Zero disables the plan cache");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -161,6 +212,8 @@ public class CompilerProperties extends AbstractProperties {
 
     public static final String COMPILER_SORT_SAMPLES_KEY = Option.COMPILER_SORT_SAMPLES.ini();
 
+    public static final String COMPILER_SORT_THREADS_KEY = Option.COMPILER_SORT_THREADS.ini();
+
     public static final String COMPILER_INDEXONLY_KEY = Option.COMPILER_INDEXONLY.ini();
 
     public static final String COMPILER_INTERNAL_SANITYCHECK_KEY = Option.COMPILER_INTERNAL_SANITYCHECK.ini();
@@ -179,6 +232,27 @@ public class CompilerProperties extends AbstractProperties {
 
     public static final String COMPILER_BATCHED_LOOKUP_KEY = Option.COMPILER_BATCH_LOOKUP.ini();
 
+    public static final String COMPILER_OPENADDRESSING_HASHTABLE_KEY = Option.COMPILER_OPENADDRESSING_HASHTABLE.ini();
+
+    public static final String COMPILER_RADIX_CLUSTERING_KEY = Option.COMPILER_RADIX_CLUSTERING.ini();
+
+    public static final String COMPILER_SORTMERGE_JOIN_KEY = Option.COMPILER_SORTMERGE_JOIN.ini();
+
+    public static final String COMPILER_GROUPBY_STREAMING_KEY = Option.COMPILER_GROUPBY_STREAMING.ini();
+
+    public static final String COMPILER_SORT_TOPK_FILTER_KEY = Option.COMPILER_SORT_TOPK_FILTER.ini();
+
+    public static final String COMPILER_EXCHANGE_COMPRESSION_KEY = Option.COMPILER_EXCHANGE_COMPRESSION.ini();
+
+    public static final String COMPILER_JOIN_BLOOMFILTER_KEY = Option.COMPILER_JOIN_BLOOMFILTER.ini();
+
+    public static final String COMPILER_RESULTCACHE_MEMORY_KEY = Option.COMPILER_RESULTCACHE_MEMORY.ini();
+
+    public static final String COMPILER_RESULTCACHE_MAXRESULTSIZE_KEY =
+            Option.COMPILER_RESULTCACHE_MAXRESULTSIZE.ini();
+
+    public static final String COMPILER_PLANCACHE_SIZE_KEY = Option.COMPILER_PLANCACHE_SIZE.ini();
+
     public static final int COMPILER_PARALLELISM_AS_STORAGE = 0;
 
     public CompilerProperties(PropertiesAccessor accessor) {
@@ -221,6 +295,10 @@ public class CompilerProperties extends AbstractProperties {
         return accessor.getInt(Option.COMPILER_SORT_SAMPLES);
     }
 
+    public int getSortThreads() {
+        return accessor.getInt(Option.COMPILER_SORT_THREADS);
+    }
+
     public boolean isIndexOnly() {
         return accessor.getBoolean(Option.COMPILER_INDEXONLY);
     }
@@ -256,4 +334,44 @@ public class CompilerProperties extends AbstractProperties {
     public boolean isBatchLookup() {
         return accessor.getBoolean(Option.COMPILER_BATCH_LOOKUP);
     }
+
+    public boolean isOpenAddressingHashTable() {
+        return accessor.getBoolean(Option.COMPILER_OPENADDRESSING_HASHTABLE);
+    }
+
+    public boolean isRadixClustering() {
+        return accessor.getBoolean(Option.COMPILER_RADIX_CLUSTERING);
+    }
+
+    public boolean isSortMergeJoin() {
+        return accessor.getBoolean(Option.COMPILER_SORTMERGE_JOIN);
+    }
+
+    public boolean isGroupByStreaming() {
+        return accessor.getBoolean(Option.COMPILER_GROUPBY_STREAMING);
+    }
+
+    public boolean isSortTopKFilter() {
+        return accessor.getBoolean(Option.COMPILER_SORT_TOPK_FILTER);
+    }
+
+    public boolean isExchangeCompression() {
+        return accessor.getBoolean(Option.COMPILER_EXCHANGE_COMPRESSION);
+    }
+
+    public boolean isJoinBloomFilter() {
+        return accessor.getBoolean(Option.COMPILER_JOIN_BLOOMFILTER);
+    }
+
+    public long getResultCacheMemorySize() {
+        return accessor.getLong(Option.COMPILER_RESULTCACHE_MEMORY);
+    }
+
+    public long getResultCacheMaxResultSize() {
+        return accessor.getLong(Option.COMPILER_RESULTCACHE_MAXRESULTSIZE);
+    }
+
+    public int getPlanCacheSize() {
+        return accessor.getInt(Option.COMPILER_PLANCACHE_SIZE);
+    }
 }
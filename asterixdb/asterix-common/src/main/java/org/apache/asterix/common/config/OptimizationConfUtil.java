@@ -57,7 +57,10 @@ public class OptimizationConfUtil {
                 (String) querySpecificConfig.get(CompilerProperties.COMPILER_WINDOWMEMORY_KEY),
                 compilerProperties.getWindowMemorySize(), frameSize, MIN_FRAME_LIMIT_FOR_WINDOW, sourceLoc);
         int textSearchFrameLimit = getTextSearchNumFrames(compilerProperties, querySpecificConfig, sourceLoc);
-        int sortNumSamples = getSortSamples(compilerProperties, querySpecificConfig, sourceLoc);
+        int sortNumSamples = getPositiveInteger(querySpecificConfig, CompilerProperties.COMPILER_SORT_SAMPLES_KEY,
+                compilerProperties.getSortSamples(), "samples", sourceLoc);
+        int sortThreads = getPositiveInteger(querySpecificConfig, CompilerProperties.COMPILER_SORT_THREADS_KEY,
+                compilerProperties.getSortThreads(), "threads", sourceLoc);
         boolean fullParallelSort = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SORT_PARALLEL_KEY,
                 compilerProperties.getSortParallel());
         boolean indexOnly = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_INDEXONLY_KEY,
@@ -79,6 +82,21 @@ public class OptimizationConfUtil {
                 compilerProperties.getExternalScanMemorySize(), sourceLoc);
         boolean batchLookup = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_BATCHED_LOOKUP_KEY,
                 compilerProperties.isBatchLookup());
+        boolean openAddressingHashTable =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_OPENADDRESSING_HASHTABLE_KEY,
+                        compilerProperties.isOpenAddressingHashTable());
+        boolean radixClustering = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_RADIX_CLUSTERING_KEY,
+                compilerProperties.isRadixClustering());
+        boolean sortMergeJoin = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SORTMERGE_JOIN_KEY,
+                compilerProperties.isSortMergeJoin());
+        boolean groupByStreaming = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_GROUPBY_STREAMING_KEY,
+                compilerProperties.isGroupByStreaming());
+        boolean topKFilter = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SORT_TOPK_FILTER_KEY,
+                compilerProperties.isSortTopKFilter());
+        boolean exchangeCompression = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_EXCHANGE_COMPRESSION_KEY, compilerProperties.isExchangeCompression());
+        boolean joinBloomFilter = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_JOIN_BLOOMFILTER_KEY,
+                compilerProperties.isJoinBloomFilter());
 
         PhysicalOptimizationConfig physOptConf = new PhysicalOptimizationConfig();
         physOptConf.setFrameSize(frameSize);
@@ -89,6 +107,7 @@ public class OptimizationConfUtil {
         physOptConf.setMaxFramesForTextSearch(textSearchFrameLimit);
         physOptConf.setSortParallel(fullParallelSort);
         physOptConf.setSortSamples(sortNumSamples);
+        physOptConf.setSortThreads(sortThreads);
         physOptConf.setIndexOnly(indexOnly);
         physOptConf.setSanityCheckEnabled(sanityCheck);
         physOptConf.setExternalFieldPushdown(externalFieldPushdown);
@@ -98,6 +117,13 @@ public class OptimizationConfUtil {
         physOptConf.setArrayIndexEnabled(arrayIndex);
         physOptConf.setExternalScanBufferSize(externalScanBufferSize);
         physOptConf.setBatchLookup(batchLookup);
+        physOptConf.setOpenAddressingHashTable(openAddressingHashTable);
+        physOptConf.setRadixClustering(radixClustering);
+        physOptConf.setSortMergeJoin(sortMergeJoin);
+        physOptConf.setGroupByStreaming(groupByStreaming);
+        physOptConf.setTopKThresholdFilter(topKFilter);
+        physOptConf.setExchangeCompression(exchangeCompression);
+        physOptConf.setJoinBloomFilter(joinBloomFilter);
         return physOptConf;
     }
 
@@ -156,15 +182,14 @@ public class OptimizationConfUtil {
     }
 
     @SuppressWarnings("squid:S1166") // Either log or rethrow this exception
-    private static int getSortSamples(CompilerProperties compilerProperties, Map<String, Object> querySpecificConfig,
-            SourceLocation sourceLoc) throws AsterixException {
-        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_SORT_SAMPLES_KEY);
+    private static int getPositiveInteger(Map<String, Object> querySpecificConfig, String queryConfigKey,
+            int defaultValue, String unit, SourceLocation sourceLoc) throws AsterixException {
+        String valueInQuery = (String) querySpecificConfig.get(queryConfigKey);
         try {
-            return valueInQuery == null ? compilerProperties.getSortSamples()
-                    : OptionTypes.POSITIVE_INTEGER.parse(valueInQuery);
+            return valueInQuery == null ? defaultValue : OptionTypes.POSITIVE_INTEGER.parse(valueInQuery);
         } catch (IllegalArgumentException e) {
-            throw AsterixException.create(ErrorCode.COMPILATION_BAD_QUERY_PARAMETER_VALUE, sourceLoc,
-                    CompilerProperties.COMPILER_SORT_SAMPLES_KEY, 1, "samples");
+            throw AsterixException.create(ErrorCode.COMPILATION_BAD_QUERY_PARAMETER_VALUE, sourceLoc, queryConfigKey,
+                    1, unit);
         }
     }
 
@@ -52,7 +52,16 @@ public class ReplicationProperties extends AbstractProperties {
                 "The time in seconds to timeout waiting for master or replica to ack"),
         REPLICATION_ENABLED(BOOLEAN, false, "Whether or not data replication is enabled"),
         REPLICATION_FACTOR(NONNEGATIVE_INTEGER, 2, "Number of replicas (backups) to maintain per master replica"),
-        REPLICATION_STRATEGY(STRING, "none", "Replication strategy to choose");
+        REPLICATION_STRATEGY(STRING, "none", "Replication strategy to choose"),
+        REPLICATION_SYNC_STREAMS(
+                POSITIVE_INTEGER,
+                4,
+                "The number of parallel streams used to transfer missing index files to a rejoining replica"),
+        REPLICATION_SYNC_VERIFY_CHECKSUMS(
+                BOOLEAN,
+                true,
+                "Whether or not index files that exist on both master and rejoining replica are compared by "
+                        + "checksum and retransferred on mismatch");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -124,4 +133,12 @@ public class ReplicationProperties extends AbstractProperties {
     public int getReplicationFactor() {
         return accessor.getInt(Option.REPLICATION_FACTOR);
     }
+
+    public int getSyncStreams() {
+        return accessor.getInt(Option.REPLICATION_SYNC_STREAMS);
+    }
+
+    public boolean isSyncVerifyChecksums() {
+        return accessor.getBoolean(Option.REPLICATION_SYNC_VERIFY_CHECKSUMS);
+    }
 }
@@ -54,6 +54,11 @@ public class TransactionProperties extends AbstractProperties {
                 LONG_BYTE_UNIT,
                 StorageUtil.getLongSizeInBytes(256L, MEGABYTE),
                 "The maximum size (in bytes) of each transaction log file"),
+        TXN_LOG_GROUPCOMMIT_MAXLATENCY(
+                NONNEGATIVE_INTEGER,
+                1000,
+                "The maximum time (in microseconds) that a force of the transaction log is delayed to group the "
+                        + "commits of concurrent jobs (0 disables the delay)"),
         TXN_LOG_CHECKPOINT_LSNTHRESHOLD(
                 INTEGER_BYTE_UNIT,
                 StorageUtil.getIntSizeInBytes(64, MEGABYTE),
@@ -67,8 +72,14 @@ public class TransactionProperties extends AbstractProperties {
         TXN_LOG_CHECKPOINT_HISTORY(NONNEGATIVE_INTEGER, 2, "The number of checkpoints to keep in the transaction log"),
         TXN_LOCK_ESCALATIONTHRESHOLD(
                 NONNEGATIVE_INTEGER,
-                1000,
-                "The maximum number of entity locks to obtain before upgrading to " + dataset(SINGULAR) + " lock"),
+                0,
+                "The maximum number of entity locks to obtain before upgrading to " + dataset(SINGULAR)
+                        + " lock (0 disables lock escalation)"),
+        TXN_LOCK_ESCALATEUPSERTS(
+                BOOLEAN,
+                false,
+                "Whether or not upserts escalate to an exclusive " + dataset(SINGULAR) + " lock upfront and fall back "
+                        + "to entity locks once another job accesses the " + dataset(SINGULAR)),
         TXN_LOCK_SHRINKTIMER(
                 POSITIVE_INTEGER,
                 5000,
@@ -161,6 +172,10 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getInt(Option.TXN_LOG_BUFFER_PAGESIZE);
     }
 
+    public int getLogGroupCommitMaxLatency() {
+        return accessor.getInt(Option.TXN_LOG_GROUPCOMMIT_MAXLATENCY);
+    }
+
     public long getLogPartitionSize() {
         return accessor.getLong(Option.TXN_LOG_PARTITIONSIZE);
     }
@@ -181,6 +196,10 @@ public class TransactionProperties extends AbstractProperties {
         return accessor.getInt(Option.TXN_LOCK_ESCALATIONTHRESHOLD);
     }
 
+    public boolean isEscalateUpserts() {
+        return accessor.getBoolean(Option.TXN_LOCK_ESCALATEUPSERTS);
+    }
+
     public int getLockManagerShrinkTimer() {
         return accessor.getInt(Option.TXN_LOCK_SHRINKTIMER);
     }
@@ -24,7 +24,9 @@ import org.apache.asterix.common.api.IApplicationContext;
 import org.apache.asterix.common.api.ICoordinationService;
 import org.apache.asterix.common.api.IMetadataLockManager;
 import org.apache.asterix.common.api.INodeJobTracker;
+import org.apache.asterix.common.api.IPlanCache;
 import org.apache.asterix.common.api.IRequestTracker;
+import org.apache.asterix.common.api.IResultCache;
 import org.apache.asterix.common.cluster.IClusterStateManager;
 import org.apache.asterix.common.cluster.IGlobalRecoveryManager;
 import org.apache.asterix.common.config.ExtensionProperties;
@@ -138,6 +140,20 @@ public interface ICcApplicationContext extends IApplicationContext {
      */
     IRequestTracker getRequestTracker();
 
+    /**
+     * Gets the result cache.
+     *
+     * @return the result cache.
+     */
+    IResultCache getResultCache();
+
+    /**
+     * Gets the plan cache.
+     *
+     * @return the plan cache.
+     */
+    IPlanCache getPlanCache();
+
     /**
      * Gets the coordination service
      *
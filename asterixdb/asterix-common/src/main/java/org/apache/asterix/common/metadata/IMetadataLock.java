@@ -27,6 +27,11 @@ import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
  */
 public interface IMetadataLock {
 
+    /**
+     * The data version of a lock whose data is being modified
+     */
+    long UNSTABLE_DATA_VERSION = -1;
+
     enum Mode {
         READ,
         MODIFY,
@@ -80,6 +85,17 @@ public interface IMetadataLock {
      */
     LockKey getKey();
 
+    /**
+     * Get the version of the data guarded by the lock. The version changes whenever a modification of the data
+     * starts or ends, so that a result computed from the data is still valid as long as the version did not change.
+     * Locks that do not guard data keep a constant version.
+     *
+     * @return the data version, or {@link #UNSTABLE_DATA_VERSION} while the data is being modified
+     */
+    default long getDataVersion() {
+        return 0;
+    }
+
     /**
      * upgrade the lock
      *
@@ -19,6 +19,7 @@
 package org.apache.asterix.common.metadata;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -122,6 +123,28 @@ public class LockList {
         lockPhase = true;
     }
 
+    /**
+     * @return the acquired locks, in the order in which they were acquired
+     */
+    public List<IMetadataLock> getLocks() {
+        List<IMetadataLock> acquired = new ArrayList<>(locks.size());
+        for (MutablePair<IMetadataLock, Mode> pair : locks) {
+            acquired.add(pair.getLeft());
+        }
+        return Collections.unmodifiableList(acquired);
+    }
+
+    /**
+     * @return the modes of the acquired locks, in the order of {@link #getLocks()}
+     */
+    public List<IMetadataLock.Mode> getModes() {
+        List<IMetadataLock.Mode> modes = new ArrayList<>(locks.size());
+        for (MutablePair<IMetadataLock, Mode> pair : locks) {
+            modes.add(pair.getRight());
+        }
+        return Collections.unmodifiableList(modes);
+    }
+
     @Override
     public String toString() {
         return "{\"phase\" : \"" + (lockPhase ? "lock" : "unlock") + "\", \"locks\" : " + locks + "}";
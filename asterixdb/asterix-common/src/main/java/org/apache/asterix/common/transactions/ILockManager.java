@@ -108,6 +108,19 @@ public interface ILockManager {
     boolean instantTryLock(DatasetId datasetId, int entityHashValue, byte lockMode, ITransactionContext txnContext)
             throws ACIDException;
 
+    /**
+     * Tries to lock all entities of a dataset exclusively for a transaction. While the transaction holds these
+     * locks, its entity locks on the dataset are granted without being recorded in the lock table. The locks are
+     * revoked once the transaction has released its entity locks on the dataset after another transaction requested
+     * a lock on an entity of the dataset.
+     *
+     * @param datasetId
+     * @param txnContext
+     * @return true if the entities of the dataset are locked for the transaction
+     * @throws ACIDException
+     */
+    boolean tryEscalate(DatasetId datasetId, ITransactionContext txnContext) throws ACIDException;
+
     /**
      * Prints out the contents of the transactions' table in a readable fashion
      *
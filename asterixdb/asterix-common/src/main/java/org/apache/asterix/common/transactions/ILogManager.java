@@ -24,6 +24,8 @@ import java.nio.channels.FileChannel;
 import org.apache.asterix.common.exceptions.ACIDException;
 import org.apache.asterix.common.replication.IReplicationManager;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 public interface ILogManager {
 
     /**
@@ -102,4 +104,9 @@ public interface ILogManager {
      * Deletes all current log files and start the next log file partition
      */
     void renewLogFiles();
+
+    /**
+     * @return the forces of the log and the latencies of the commits that waited for them
+     */
+    JsonNode getFlushStats();
 }
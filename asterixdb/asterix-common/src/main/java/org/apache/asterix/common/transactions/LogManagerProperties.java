@@ -39,6 +39,8 @@ public class LogManagerProperties implements Serializable {
     private final int numLogPages;
     // maximum size of each log file
     private final long logPartitionSize;
+    // maximum time (in microseconds) a log force is delayed to group commits
+    private final int groupCommitMaxLatency;
 
     public LogManagerProperties(TransactionProperties txnProperties, String nodeId) {
         this.logPageSize = txnProperties.getLogBufferPageSize();
@@ -49,6 +51,7 @@ public class LogManagerProperties implements Serializable {
         int logBufferSize = logPageSize * numLogPages;
         //make sure that the log partition size is the multiple of log buffer size.
         this.logPartitionSize = (logPartitionSize / logBufferSize) * logBufferSize;
+        this.groupCommitMaxLatency = txnProperties.getLogGroupCommitMaxLatency();
     }
 
     public long getLogPartitionSize() {
@@ -71,6 +74,10 @@ public class LogManagerProperties implements Serializable {
         return numLogPages;
     }
 
+    public int getGroupCommitMaxLatency() {
+        return groupCommitMaxLatency;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -79,6 +86,7 @@ public class LogManagerProperties implements Serializable {
         builder.append("log_page_size : " + logPageSize + lineSeparator);
         builder.append("num_log_pages : " + numLogPages + lineSeparator);
         builder.append("log_partition_size : " + logPartitionSize + lineSeparator);
+        builder.append("group_commit_max_latency : " + groupCommitMaxLatency + lineSeparator);
         return builder.toString();
     }
 }
@@ -189,6 +189,9 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
     private FileSplit outputFile;
     private boolean asyncResults;
     private long maxResultReads;
+    private boolean resultStreaming;
+    private boolean resultCacheable;
+    private boolean bindParameters;
     private ResultSetId resultSetId;
     private Counter resultSetIdCounter;
     private TxnId txnId;
@@ -297,6 +300,34 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         return maxResultReads;
     }
 
+    public void setResultStreaming(boolean resultStreaming) {
+        this.resultStreaming = resultStreaming;
+    }
+
+    public boolean isResultStreaming() {
+        return resultStreaming;
+    }
+
+    public void setResultCacheable(boolean resultCacheable) {
+        this.resultCacheable = resultCacheable;
+    }
+
+    public boolean isResultCacheable() {
+        return resultCacheable;
+    }
+
+    public void setBindParameters(boolean bindParameters) {
+        this.bindParameters = bindParameters;
+    }
+
+    /**
+     * @return true if the statement parameters are read from the job parameters when the job starts, false if they
+     *         are inlined as constants
+     */
+    public boolean isBindParameters() {
+        return bindParameters;
+    }
+
     public ResultSetId getResultSetId() {
         return resultSetId;
     }
@@ -723,7 +754,7 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
             IResultSerializerFactory resultSerializedAppenderFactory = resultSerializerFactoryProvider
                     .getResultSerializerFactoryProvider(printColumns, printerFactories, writerFactory);
             resultWriter = new ResultWriterOperatorDescriptor(spec, rsId, metadata, getResultAsyncMode(),
-                    resultSerializedAppenderFactory, getMaxResultReads());
+                    resultSerializedAppenderFactory, getMaxResultReads(), isResultStreaming());
         } catch (IOException e) {
             throw new AlgebricksException(e);
         }
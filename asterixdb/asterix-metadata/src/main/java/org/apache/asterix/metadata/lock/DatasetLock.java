@@ -41,6 +41,8 @@ public class DatasetLock implements IMetadataLock {
     // order of entry indexBuildCounter -> indexModifyCounter
     private final MutableInt indexBuildCounter;
     private final MutableInt dsModifyCounter;
+    // Changes whenever a modification starts or ends, guarded by dsModifyCounter
+    private long dataVersion;
 
     public DatasetLock(MetadataLockKey key) {
         this.key = key;
@@ -76,6 +78,9 @@ public class DatasetLock implements IMetadataLock {
         // create ds
         // delete ds
         // drop index
+        synchronized (dsModifyCounter) {
+            dataVersion++;
+        }
         lock.writeLock().unlock();
     }
 
@@ -97,6 +102,7 @@ public class DatasetLock implements IMetadataLock {
                 }
                 synchronized (dsModifyCounter) {
                     dsModifyCounter.increment();
+                    dataVersion++;
                 }
             }
         });
@@ -105,6 +111,7 @@ public class DatasetLock implements IMetadataLock {
     private void decrementModifyCounter() {
         synchronized (indexBuildCounter) {
             synchronized (dsModifyCounter) {
+                dataVersion++;
                 if (dsModifyCounter.decrementAndGet() == 0) {
                     indexBuildCounter.notifyAll();
                 }
@@ -243,6 +250,13 @@ public class DatasetLock implements IMetadataLock {
         }
     }
 
+    @Override
+    public long getDataVersion() {
+        synchronized (dsModifyCounter) {
+            return dsModifyCounter.getValue() > 0 ? UNSTABLE_DATA_VERSION : dataVersion;
+        }
+    }
+
     @Override
     public MetadataLockKey getKey() {
         return key;
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.dataflow.data.nontagged.keynormalizers;
+
+import java.util.Arrays;
+
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyProperties;
+
+/**
+ * This class uses a decorator pattern to wrap an ASC ordered INomralizedKeyComputerFactory implementation of a type
+ * to normalize the values of the nullable/missable variant of that type. The normalized key starts with an integer
+ * that orders MISSING before NULL before the other values (like the ordering comparators do), followed by the
+ * normalized key of the value. For the DESC order, all the integers are inverted.
+ */
+public class AUnknownableNormalizedKeyComputerFactory implements INormalizedKeyComputerFactory {
+
+    private static final long serialVersionUID = 1L;
+    private static final int MISSING_KEY = 0;
+    private static final int NULL_KEY = 1;
+    private static final int VALUE_KEY = 2;
+
+    private final INormalizedKeyComputerFactory nkcf;
+    private final boolean ascending;
+    private final Properties properties;
+
+    public AUnknownableNormalizedKeyComputerFactory(INormalizedKeyComputerFactory nkcf, boolean ascending) {
+        this.nkcf = nkcf;
+        this.ascending = ascending;
+        INormalizedKeyProperties valueProperties = nkcf.getNormalizedKeyProperties();
+        this.properties =
+                new Properties(valueProperties.getNormalizedKeyLength() + 1, valueProperties.isDecisive());
+    }
+
+    @Override
+    public INormalizedKeyComputer createNormalizedKeyComputer() {
+        final INormalizedKeyComputer nkc = nkcf.createNormalizedKeyComputer();
+        final int normalizedKeyLength = properties.getNormalizedKeyLength();
+        return new INormalizedKeyComputer() {
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart) {
+                byte tag = bytes[start];
+                if (tag == ATypeTag.SERIALIZED_MISSING_TYPE_TAG || tag == ATypeTag.SERIALIZED_NULL_TYPE_TAG) {
+                    normalizedKeys[keyStart] = tag == ATypeTag.SERIALIZED_MISSING_TYPE_TAG ? MISSING_KEY : NULL_KEY;
+                    Arrays.fill(normalizedKeys, keyStart + 1, keyStart + normalizedKeyLength, 0);
+                } else {
+                    normalizedKeys[keyStart] = VALUE_KEY;
+                    // start +1, length -1 is because in ASTERIX data format, there is always a type tag before the
+                    // value
+                    nkc.normalize(bytes, start + 1, length - 1, normalizedKeys, keyStart + 1);
+                }
+                if (!ascending) {
+                    for (int i = 0; i < normalizedKeyLength; i++) {
+                        normalizedKeys[keyStart + i] = ~normalizedKeys[keyStart + i];
+                    }
+                }
+            }
+
+            @Override
+            public INormalizedKeyProperties getNormalizedKeyProperties() {
+                return properties;
+            }
+        };
+    }
+
+    @Override
+    public INormalizedKeyProperties getNormalizedKeyProperties() {
+        return properties;
+    }
+
+    private static class Properties implements INormalizedKeyProperties {
+        private static final long serialVersionUID = 1L;
+        private final int normalizedKeyLength;
+        private final boolean decisive;
+
+        private Properties(int normalizedKeyLength, boolean decisive) {
+            this.normalizedKeyLength = normalizedKeyLength;
+            this.decisive = decisive;
+        }
+
+        @Override
+        public int getNormalizedKeyLength() {
+            return normalizedKeyLength;
+        }
+
+        @Override
+        public boolean isDecisive() {
+            return decisive;
+        }
+    }
+}
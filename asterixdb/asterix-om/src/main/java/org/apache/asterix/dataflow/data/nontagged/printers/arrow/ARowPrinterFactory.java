@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.dataflow.data.nontagged.printers.arrow;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.apache.asterix.builders.RecordBuilder;
+import org.apache.asterix.formats.nontagged.CleanJSONPrinterFactoryProvider;
+import org.apache.asterix.om.pointables.ARecordVisitablePointable;
+import org.apache.asterix.om.pointables.PointableAllocator;
+import org.apache.asterix.om.pointables.base.DefaultOpenFieldType;
+import org.apache.asterix.om.pointables.base.IVisitablePointable;
+import org.apache.asterix.om.pointables.printer.json.clean.APrintVisitor;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.types.IAType;
+import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.algebricks.data.IPrinter;
+import org.apache.hyracks.algebricks.data.IPrinterFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.data.std.util.ByteArrayAccessibleOutputStream;
+import org.apache.hyracks.util.string.UTF8StringWriter;
+
+/**
+ * Prints a result value as a row of the Arrow result format. A row is an open object in the binary format whose
+ * fields are either null or of a type that has a columnar representation (see {@link #isColumnar(ATypeTag)}). The
+ * fields of the other types (e.g. nested objects or arrays) are printed as strings of their JSON text and missing
+ * fields are dropped. A value that is not an object is printed as is if it has a columnar representation and as a
+ * string of its JSON text otherwise. The Arrow record batches are built from the rows where the result is delivered,
+ * which does not need to know the type of the result to read them.
+ */
+public class ARowPrinterFactory implements IPrinterFactory {
+
+    private static final long serialVersionUID = 1L;
+    private final IAType type;
+
+    public ARowPrinterFactory(IAType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return true if the values of the given type are kept in their binary format in the rows of the Arrow result
+     *         format
+     */
+    public static boolean isColumnar(ATypeTag typeTag) {
+        switch (typeTag) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case FLOAT:
+            case DOUBLE:
+            case STRING:
+            case DATE:
+            case TIME:
+            case DATETIME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public IPrinter createPrinter() {
+        final PointableAllocator allocator = new PointableAllocator();
+        final ARecordType recordType = getRecordType(type);
+        final ARecordVisitablePointable recAccessor = allocator.allocateRecordValue(
+                recordType == null ? DefaultOpenFieldType.NESTED_OPEN_RECORD_TYPE : recordType);
+        final IPrinter valuePrinter = CleanJSONPrinterFactoryProvider.INSTANCE.getPrinterFactory(type).createPrinter();
+        final APrintVisitor printVisitor = new APrintVisitor();
+        final ByteArrayAccessibleOutputStream jsonBytes = new ByteArrayAccessibleOutputStream();
+        final PrintStream jsonStream = new PrintStream(jsonBytes, false, UTF_8);
+        final Pair<PrintStream, ATypeTag> arg = new Pair<>(jsonStream, null);
+        final UTF8StringWriter utf8Writer = new UTF8StringWriter();
+        final ArrayBackedValueStorage jsonValue = new ArrayBackedValueStorage();
+        final ArrayBackedValueStorage row = new ArrayBackedValueStorage();
+        final RecordBuilder rowBuilder = new RecordBuilder();
+
+        return new IPrinter() {
+            @Override
+            public void init() throws HyracksDataException {
+                valuePrinter.init();
+            }
+
+            @Override
+            public void print(byte[] b, int s, int l, PrintStream ps) throws HyracksDataException {
+                if (b[s] == ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                    printRow(b, s, l, ps);
+                } else if (isKept(b[s])) {
+                    ps.write(b, s, l);
+                } else {
+                    jsonBytes.reset();
+                    valuePrinter.print(b, s, l, jsonStream);
+                    printJsonString(ps);
+                }
+            }
+
+            private void printRow(byte[] b, int s, int l, PrintStream ps) throws HyracksDataException {
+                recAccessor.set(b, s, l);
+                List<IVisitablePointable> fieldNames = recAccessor.getFieldNames();
+                List<IVisitablePointable> fieldValues = recAccessor.getFieldValues();
+                rowBuilder.reset(DefaultOpenFieldType.NESTED_OPEN_RECORD_TYPE);
+                rowBuilder.init();
+                for (int i = 0; i < fieldValues.size(); i++) {
+                    IVisitablePointable fieldValue = fieldValues.get(i);
+                    byte tag = fieldValue.getByteArray()[fieldValue.getStartOffset()];
+                    if (isKept(tag)) {
+                        rowBuilder.addField(fieldNames.get(i), fieldValue);
+                    } else {
+                        jsonBytes.reset();
+                        arg.second = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(tag);
+                        fieldValue.accept(printVisitor, arg);
+                        jsonValue.reset();
+                        writeJsonString(jsonValue.getDataOutput());
+                        rowBuilder.addField(fieldNames.get(i), jsonValue);
+                    }
+                }
+                row.reset();
+                rowBuilder.write(row.getDataOutput(), true);
+                ps.write(row.getByteArray(), row.getStartOffset(), row.getLength());
+            }
+
+            private void writeJsonString(DataOutput out) throws HyracksDataException {
+                jsonStream.flush();
+                try {
+                    out.writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+                    utf8Writer.writeUTF8(new String(jsonBytes.getByteArray(), 0, jsonBytes.size(), UTF_8), out);
+                } catch (IOException e) {
+                    throw HyracksDataException.create(e);
+                }
+            }
+
+            private void printJsonString(PrintStream ps) throws HyracksDataException {
+                jsonValue.reset();
+                writeJsonString(jsonValue.getDataOutput());
+                ps.write(jsonValue.getByteArray(), jsonValue.getStartOffset(), jsonValue.getLength());
+            }
+        };
+    }
+
+    private static boolean isKept(byte tag) {
+        return tag == ATypeTag.SERIALIZED_NULL_TYPE_TAG || tag == ATypeTag.SERIALIZED_MISSING_TYPE_TAG
+                || isColumnar(EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(tag));
+    }
+
+    private static ARecordType getRecordType(IAType type) {
+        IAType actualType = type;
+        if (actualType != null && actualType.getTypeTag() == ATypeTag.UNION) {
+            actualType = ((AUnionType) actualType).getActualType();
+        }
+        return actualType != null && actualType.getTypeTag() == ATypeTag.OBJECT ? (ARecordType) actualType : null;
+    }
+}
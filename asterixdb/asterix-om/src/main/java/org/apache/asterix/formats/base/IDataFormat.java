@@ -67,6 +67,8 @@ public interface IDataFormat {
 
     public IPrinterFactoryProvider getLosslessADMJSONPrinterFactoryProvider();
 
+    public IPrinterFactoryProvider getArrowPrinterFactoryProvider();
+
     public IMissingWriterFactory getMissingWriterFactory();
 
     public IMissingWriterFactory getNullWriterFactory();
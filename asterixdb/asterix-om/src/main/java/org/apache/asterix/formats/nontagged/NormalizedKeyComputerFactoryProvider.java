@@ -19,8 +19,11 @@
 package org.apache.asterix.formats.nontagged;
 
 import org.apache.asterix.dataflow.data.nontagged.keynormalizers.AUUIDNormalizedKeyComputerFactory;
+import org.apache.asterix.dataflow.data.nontagged.keynormalizers.AUnknownableNormalizedKeyComputerFactory;
 import org.apache.asterix.dataflow.data.nontagged.keynormalizers.AWrappedAscNormalizedKeyComputerFactory;
 import org.apache.asterix.dataflow.data.nontagged.keynormalizers.AWrappedDescNormalizedKeyComputerFactory;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.IAType;
 import org.apache.hyracks.algebricks.data.INormalizedKeyComputerFactoryProvider;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
@@ -41,54 +44,47 @@ public class NormalizedKeyComputerFactoryProvider implements INormalizedKeyCompu
     @Override
     public INormalizedKeyComputerFactory getNormalizedKeyComputerFactory(Object typeInfo, boolean ascending) {
         IAType type = (IAType) typeInfo;
-        if (ascending) {
-            switch (type.getTypeTag()) {
-                case DATE:
-                case TIME:
-                case YEARMONTHDURATION:
-                case INTEGER:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new IntegerNormalizedKeyComputerFactory());
-                case DATETIME:
-                case DAYTIMEDURATION:
-                case BIGINT:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new Integer64NormalizedKeyComputerFactory());
-                case FLOAT:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new FloatNormalizedKeyComputerFactory());
-                case DOUBLE:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new DoubleNormalizedKeyComputerFactory());
-                case STRING:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new UTF8StringNormalizedKeyComputerFactory());
-                case BINARY:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new ByteArrayNormalizedKeyComputerFactory());
-                case UUID:
-                    return new AWrappedAscNormalizedKeyComputerFactory(new AUUIDNormalizedKeyComputerFactory());
-                default:
-                    return null;
-            }
-        } else {
-            switch (type.getTypeTag()) {
-                case DATE:
-                case TIME:
-                case YEARMONTHDURATION:
-                case INTEGER:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new IntegerNormalizedKeyComputerFactory());
-                case DATETIME:
-                case DAYTIMEDURATION:
-                case BIGINT:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new Integer64NormalizedKeyComputerFactory());
-                case FLOAT:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new FloatNormalizedKeyComputerFactory());
-                case DOUBLE:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new DoubleNormalizedKeyComputerFactory());
-                case STRING:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new UTF8StringNormalizedKeyComputerFactory());
-                case BINARY:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new ByteArrayNormalizedKeyComputerFactory());
-                case UUID:
-                    return new AWrappedDescNormalizedKeyComputerFactory(new AUUIDNormalizedKeyComputerFactory());
-                default:
-                    return null;
-            }
+        if (type.getTypeTag() == ATypeTag.UNION) {
+            // the NULL and MISSING values of an optional type are ordered by an additional leading integer
+            INormalizedKeyComputerFactory nkcf =
+                    getValueNormalizedKeyComputerFactory(((AUnionType) type).getActualType().getTypeTag());
+            return nkcf == null ? null : new AUnknownableNormalizedKeyComputerFactory(nkcf, ascending);
+        }
+        INormalizedKeyComputerFactory nkcf = getValueNormalizedKeyComputerFactory(type.getTypeTag());
+        if (nkcf == null) {
+            return null;
+        }
+        return ascending ? new AWrappedAscNormalizedKeyComputerFactory(nkcf)
+                : new AWrappedDescNormalizedKeyComputerFactory(nkcf);
+    }
+
+    /**
+     * @return the ASC normalized key computer factory of the (untagged) values of the given type, or null if the
+     *         values of the type are not normalized
+     */
+    private static INormalizedKeyComputerFactory getValueNormalizedKeyComputerFactory(ATypeTag typeTag) {
+        switch (typeTag) {
+            case DATE:
+            case TIME:
+            case YEARMONTHDURATION:
+            case INTEGER:
+                return new IntegerNormalizedKeyComputerFactory();
+            case DATETIME:
+            case DAYTIMEDURATION:
+            case BIGINT:
+                return new Integer64NormalizedKeyComputerFactory();
+            case FLOAT:
+                return new FloatNormalizedKeyComputerFactory();
+            case DOUBLE:
+                return new DoubleNormalizedKeyComputerFactory();
+            case STRING:
+                return new UTF8StringNormalizedKeyComputerFactory();
+            case BINARY:
+                return new ByteArrayNormalizedKeyComputerFactory();
+            case UUID:
+                return new AUUIDNormalizedKeyComputerFactory();
+            default:
+                return null;
         }
     }
 }
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.dataflow.data.nontagged.keynormalizers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.asterix.formats.nontagged.BinaryComparatorFactoryProvider;
+import org.apache.asterix.formats.nontagged.NormalizedKeyComputerFactoryProvider;
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AMissing;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.NormalizedKeyUtils;
+import org.junit.Test;
+
+/**
+ * Checks that the normalized keys of optional values order them like the full comparators, as far as the normalized
+ * keys decide the order.
+ */
+public class AUnknownableNormalizedKeyComputerFactoryTest {
+
+    private static final IAType OPTIONAL_STRING = AUnionType.createUnknownableType(BuiltinType.ASTRING);
+    private static final IAType OPTIONAL_BIGINT = AUnionType.createUnknownableType(BuiltinType.AINT64);
+    @SuppressWarnings("unchecked")
+    private static final ISerializerDeserializer<IAObject> SERDE =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ANY);
+
+    private static final IAObject[] STRINGS = { AMissing.MISSING, ANull.NULL, new AString(""), new AString("a"),
+            new AString("ab"), new AString("abcdefgh"), new AString("abcdefghi"), new AString("abcdefghj"),
+            new AString("abcdefgi"), new AString("b"), new AString("été"), new AString("中文") };
+    private static final IAObject[] BIGINTS = { AMissing.MISSING, ANull.NULL, new AInt64(Long.MIN_VALUE),
+            new AInt64(-1L), new AInt64(0L), new AInt64(1L), new AInt64(1L << 32), new AInt64(Long.MAX_VALUE) };
+
+    @Test
+    public void testUnknownsOrderFirst() throws Exception {
+        for (boolean ascending : new boolean[] { true, false }) {
+            INormalizedKeyComputer nkc = NormalizedKeyComputerFactoryProvider.INSTANCE
+                    .getNormalizedKeyComputerFactory(OPTIONAL_BIGINT, ascending).createNormalizedKeyComputer();
+            int[] missing = normalize(nkc, AMissing.MISSING);
+            int[] nul = normalize(nkc, ANull.NULL);
+            int[] value = normalize(nkc, new AInt64(Long.MIN_VALUE));
+            int sign = ascending ? -1 : 1;
+            assertEquals(sign, compare(missing, nul));
+            assertEquals(sign, compare(nul, value));
+            assertEquals(sign, compare(missing, value));
+        }
+    }
+
+    @Test
+    public void testSingleColumn() throws Exception {
+        for (boolean ascending : new boolean[] { true, false }) {
+            checkOrder(new IAType[] { OPTIONAL_STRING }, new boolean[] { ascending }, rows(STRINGS));
+            checkOrder(new IAType[] { OPTIONAL_BIGINT }, new boolean[] { ascending }, rows(BIGINTS));
+        }
+    }
+
+    @Test
+    public void testCompositeKeys() throws Exception {
+        List<IAObject[]> rows = rows(BIGINTS, STRINGS);
+        for (boolean ascending : new boolean[] { true, false }) {
+            // the decisive BIGINT column is followed by the normalized key of the STRING column
+            checkOrder(new IAType[] { OPTIONAL_BIGINT, OPTIONAL_STRING }, new boolean[] { ascending, !ascending },
+                    rows);
+        }
+        rows = rows(STRINGS, BIGINTS);
+        for (boolean ascending : new boolean[] { true, false }) {
+            // the STRING key is not decisive, so only its normalized key is used
+            checkOrder(new IAType[] { OPTIONAL_STRING, OPTIONAL_BIGINT }, new boolean[] { ascending, ascending },
+                    rows);
+        }
+    }
+
+    /**
+     * Compares all pairs of rows by the concatenated normalized keys of the decisive prefix of the columns plus one
+     * more column, like the frame sorters do, and checks that the keys agree with the comparators.
+     */
+    private static void checkOrder(IAType[] types, boolean[] ascending, List<IAObject[]> rows) throws Exception {
+        INormalizedKeyComputerFactory[] nkcfs = new INormalizedKeyComputerFactory[types.length];
+        IBinaryComparator[] comparators = new IBinaryComparator[types.length];
+        for (int i = 0; i < types.length; i++) {
+            nkcfs[i] = NormalizedKeyComputerFactoryProvider.INSTANCE.getNormalizedKeyComputerFactory(types[i],
+                    ascending[i]);
+            comparators[i] = BinaryComparatorFactoryProvider.INSTANCE
+                    .getBinaryComparatorFactory(types[i], ascending[i]).createBinaryComparator();
+        }
+        int decisivePrefixLength = NormalizedKeyUtils.getDecisivePrefixLength(nkcfs);
+        int normalizedColumns = Math.min(types.length, decisivePrefixLength + 1);
+        boolean decisive = decisivePrefixLength == types.length;
+        List<byte[][]> serialized = new ArrayList<>();
+        List<int[]> keys = new ArrayList<>();
+        for (IAObject[] row : rows) {
+            byte[][] fields = new byte[row.length][];
+            List<Integer> key = new ArrayList<>();
+            for (int i = 0; i < row.length; i++) {
+                fields[i] = serialize(row[i]);
+                if (i < normalizedColumns) {
+                    for (int k : normalize(nkcfs[i].createNormalizedKeyComputer(), row[i])) {
+                        key.add(k);
+                    }
+                }
+            }
+            serialized.add(fields);
+            keys.add(key.stream().mapToInt(Integer::intValue).toArray());
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = 0; j < rows.size(); j++) {
+                int expected = Integer.signum(compare(comparators, serialized.get(i), serialized.get(j)));
+                int actual = compare(keys.get(i), keys.get(j));
+                // equal keys of indecisive normalizers leave the order to the comparators
+                if (actual != 0 || decisive) {
+                    assertEquals(toString(rows.get(i)) + " vs " + toString(rows.get(j)), expected, actual);
+                }
+            }
+        }
+    }
+
+    private static int compare(IBinaryComparator[] comparators, byte[][] fields1, byte[][] fields2)
+            throws Exception {
+        for (int i = 0; i < comparators.length; i++) {
+            int c = comparators[i].compare(fields1[i], 0, fields1[i].length, fields2[i], 0, fields2[i].length);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static int compare(int[] keys1, int[] keys2) {
+        return NormalizedKeyUtils.compareNormalizeKeys(keys1, 0, keys2, 0, keys1.length);
+    }
+
+    private static int[] normalize(INormalizedKeyComputer nkc, IAObject value) throws Exception {
+        byte[] bytes = serialize(value);
+        int[] keys = new int[nkc.getNormalizedKeyProperties().getNormalizedKeyLength()];
+        nkc.normalize(bytes, 0, bytes.length, keys, 0);
+        return keys;
+    }
+
+    private static byte[] serialize(IAObject value) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        SERDE.serialize(value, new DataOutputStream(bos));
+        return bos.toByteArray();
+    }
+
+    private static List<IAObject[]> rows(IAObject[]... columns) {
+        List<IAObject[]> rows = new ArrayList<>();
+        rows.add(new IAObject[columns.length]);
+        for (int c = 0; c < columns.length; c++) {
+            List<IAObject[]> extended = new ArrayList<>();
+            for (IAObject[] row : rows) {
+                for (IAObject value : columns[c]) {
+                    IAObject[] newRow = row.clone();
+                    newRow[c] = value;
+                    extended.add(newRow);
+                }
+            }
+            rows = extended;
+        }
+        return rows;
+    }
+
+    private static String toString(IAObject[] row) {
+        StringBuilder sb = new StringBuilder("(");
+        for (IAObject value : row) {
+            sb.append(sb.length() > 1 ? ", " : "").append(value);
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -36,6 +36,13 @@ public interface IReplicationWorker extends Runnable {
      */
     ByteBuffer getReusableBuffer();
 
+    /**
+     * Gets a reusable direct buffer that can be used to receive files
+     *
+     * @return the file transfer buffer
+     */
+    ByteBuffer getFileTransferBuffer();
+
     /**
      * @return The remote address of the sender
      */
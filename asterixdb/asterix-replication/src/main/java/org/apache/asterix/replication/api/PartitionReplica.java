@@ -57,6 +57,7 @@ public class PartitionReplica implements IPartitionReplica {
     private double syncProgress = -1;
     private long lastProgressTime = -1;
     private ByteBuffer reusbaleBuf;
+    private ByteBuffer fileTransferBuf;
     private PartitionReplicaStatus status = DISCONNECTED;
     private ISocketChannel sc;
     private Future<?> syncFuture;
@@ -147,6 +148,13 @@ public class PartitionReplica implements IPartitionReplica {
         return reusbaleBuf;
     }
 
+    public synchronized ByteBuffer getFileTransferBuffer() {
+        if (fileTransferBuf == null) {
+            fileTransferBuf = ByteBuffer.allocateDirect(ReplicationProtocol.FILE_TRANSFER_BUFFER_SIZE);
+        }
+        return fileTransferBuf;
+    }
+
     public synchronized void setSyncProgress(double syncProgress) {
         this.syncProgress = syncProgress;
         lastProgressTime = System.nanoTime();
@@ -58,29 +58,84 @@ public class NetworkingUtil {
         byteBuffer.flip();
     }
 
-    public static void sendFile(FileChannel fileChannel, ISocketChannel socketChannel) throws IOException {
+    /**
+     * Sends the content of {@code fileChannel} to {@code socketChannel}. When the socket channel doesn't
+     * require a handshake (i.e. its data is not encrypted), the file is transferred to the underlying
+     * socket directly by the OS (sendfile) without being copied to the user space. Otherwise, the file is
+     * read into the direct {@code transferBuffer} and then written to the socket channel.
+     *
+     * @param fileChannel
+     * @param socketChannel
+     * @param transferBuffer
+     *            a direct buffer used when the file cannot be transferred directly to the socket
+     * @throws IOException
+     */
+    public static void sendFile(FileChannel fileChannel, ISocketChannel socketChannel, ByteBuffer transferBuffer)
+            throws IOException {
         long pos = 0;
         long remainingBytes = fileChannel.size();
         try {
-            while (remainingBytes > 0) {
-                long sentBytes = fileChannel.transferTo(pos, remainingBytes, socketChannel);
-                pos += sentBytes;
-                remainingBytes -= sentBytes;
+            if (!socketChannel.requiresHandshake()) {
+                final SocketChannel target = socketChannel.getSocketChannel();
+                while (remainingBytes > 0) {
+                    long sentBytes = fileChannel.transferTo(pos, remainingBytes, target);
+                    pos += sentBytes;
+                    remainingBytes -= sentBytes;
+                }
+            } else {
+                while (remainingBytes > 0) {
+                    transferBuffer.clear();
+                    if (transferBuffer.remaining() > remainingBytes) {
+                        transferBuffer.limit((int) remainingBytes);
+                    }
+                    int readBytes = fileChannel.read(transferBuffer, pos);
+                    if (readBytes < 0) {
+                        throw new EOFException("unexpected end of file");
+                    }
+                    transferBuffer.flip();
+                    while (transferBuffer.hasRemaining()) {
+                        socketChannel.write(transferBuffer);
+                    }
+                    pos += readBytes;
+                    remainingBytes -= readBytes;
+                }
             }
             socketChannel.getSocketChannel().socket().getOutputStream().flush();
         } catch (Exception e) {
             LOGGER.info("failed to send file; file size {}, pos {}, remainingBytes {}", fileChannel.size(), pos,
                     remainingBytes);
+            throw e;
         }
     }
 
-    public static void downloadFile(FileChannel fileChannel, ISocketChannel socketChannel) throws IOException {
+    /**
+     * Receives {@link FileChannel#size()} bytes from {@code socketChannel} into {@code fileChannel} through the
+     * direct {@code transferBuffer} to avoid copying the received data into temporary heap buffers.
+     *
+     * @param fileChannel
+     * @param socketChannel
+     * @param transferBuffer
+     *            a direct buffer used to receive the file data
+     * @throws IOException
+     */
+    public static void downloadFile(FileChannel fileChannel, ISocketChannel socketChannel, ByteBuffer transferBuffer)
+            throws IOException {
         long remainingBytes = fileChannel.size();
         long pos = 0;
         try {
             while (remainingBytes > 0) {
-                long readBytes = fileChannel.transferFrom(socketChannel, pos, remainingBytes);
-                pos += readBytes;
+                transferBuffer.clear();
+                if (transferBuffer.remaining() > remainingBytes) {
+                    transferBuffer.limit((int) remainingBytes);
+                }
+                int readBytes = socketChannel.read(transferBuffer);
+                if (readBytes < 0) {
+                    throw new EOFException("could not read all data from source; remaining bytes: " + remainingBytes);
+                }
+                transferBuffer.flip();
+                while (transferBuffer.hasRemaining()) {
+                    pos += fileChannel.write(transferBuffer, pos);
+                }
                 remainingBytes -= readBytes;
             }
         } catch (Exception e) {
@@ -116,6 +116,7 @@ public class ReplicationChannel extends Thread implements IReplicationChannel {
         private final ISocketChannel socketChannel;
         private final ByteBuffer inBuffer;
         private final ByteBuffer outBuffer;
+        private ByteBuffer fileTransferBuffer;
 
         public ReplicationWorker(ISocketChannel socketChannel) {
             this.socketChannel = socketChannel;
@@ -159,6 +160,14 @@ public class ReplicationChannel extends Thread implements IReplicationChannel {
             return outBuffer;
         }
 
+        @Override
+        public ByteBuffer getFileTransferBuffer() {
+            if (fileTransferBuffer == null) {
+                fileTransferBuffer = ByteBuffer.allocateDirect(ReplicationProtocol.FILE_TRANSFER_BUFFER_SIZE);
+            }
+            return fileTransferBuffer;
+        }
+
         @Override
         public String getRemoteAddress() {
             try {
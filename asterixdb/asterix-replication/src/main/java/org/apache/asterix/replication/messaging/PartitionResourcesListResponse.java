@@ -35,13 +35,15 @@ public class PartitionResourcesListResponse implements IReplicationMessage {
     private final int partition;
     private final Map<String, Long> partitionReplicatedResources;
     private final List<String> files;
+    private final Map<String, Long> fileChecksums;
     private final boolean owner;
 
     public PartitionResourcesListResponse(int partition, Map<String, Long> partitionReplicatedResources,
-            List<String> files, boolean owner) {
+            List<String> files, Map<String, Long> fileChecksums, boolean owner) {
         this.partition = partition;
         this.partitionReplicatedResources = partitionReplicatedResources;
         this.files = files;
+        this.fileChecksums = fileChecksums;
         this.owner = owner;
     }
 
@@ -65,6 +67,11 @@ public class PartitionResourcesListResponse implements IReplicationMessage {
                 dos.writeUTF(stringLongEntry.getKey());
                 dos.writeLong(stringLongEntry.getValue());
             }
+            dos.writeInt(fileChecksums.size());
+            for (Map.Entry<String, Long> checksumEntry : fileChecksums.entrySet()) {
+                dos.writeUTF(checksumEntry.getKey());
+                dos.writeLong(checksumEntry.getValue());
+            }
         } catch (IOException e) {
             throw HyracksDataException.create(e);
         }
@@ -87,13 +94,26 @@ public class PartitionResourcesListResponse implements IReplicationMessage {
         for (int i = 0; i < resourceSize; i++) {
             partitionReplicatedResources.put(input.readUTF(), input.readLong());
         }
-        return new PartitionResourcesListResponse(partition, partitionReplicatedResources, resources, owner);
+        int checksumsSize = input.readInt();
+        Map<String, Long> fileChecksums = new HashMap<>();
+        for (int i = 0; i < checksumsSize; i++) {
+            fileChecksums.put(input.readUTF(), input.readLong());
+        }
+        return new PartitionResourcesListResponse(partition, partitionReplicatedResources, resources, fileChecksums,
+                owner);
     }
 
     public boolean isOrigin() {
         return owner;
     }
 
+    /**
+     * @return file relative path -> checksum of the replica files, or an empty map if checksums were not requested
+     */
+    public Map<String, Long> getFileChecksums() {
+        return fileChecksums;
+    }
+
     public Map<String, Long> getPartitionReplicatedResources() {
         return partitionReplicatedResources;
     }
@@ -22,6 +22,7 @@ import java.io.DataInput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +32,7 @@ import org.apache.asterix.common.replication.IReplicationStrategy;
 import org.apache.asterix.common.utils.StoragePathUtil;
 import org.apache.asterix.replication.api.IReplicaTask;
 import org.apache.asterix.replication.api.IReplicationWorker;
+import org.apache.asterix.replication.sync.FileChecksums;
 import org.apache.asterix.transaction.management.resource.PersistentLocalResourceRepository;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.logging.log4j.LogManager;
@@ -43,9 +45,11 @@ public class PartitionResourcesListTask implements IReplicaTask {
 
     private static final Logger LOGGER = LogManager.getLogger();
     private final int partition;
+    private final boolean includeChecksums;
 
-    public PartitionResourcesListTask(int partition) {
+    public PartitionResourcesListTask(int partition, boolean includeChecksums) {
         this.partition = partition;
+        this.includeChecksums = includeChecksums;
     }
 
     @Override
@@ -65,8 +69,13 @@ public class PartitionResourcesListTask implements IReplicaTask {
                 localResourceRepository.getPartitionReplicatedFiles(partition, replicationStrategy).stream()
                         .map(StoragePathUtil::getFileRelativePath).collect(Collectors.toList());
         LOGGER.debug("got partition {} files ({})", partition, partitionFiles.size());
-        final PartitionResourcesListResponse response = new PartitionResourcesListResponse(partition,
-                partitionReplicatedResources, partitionFiles, appCtx.getReplicaManager().isPartitionOrigin(partition));
+        // file -> checksum, used by the master to skip files that were already fully replicated
+        final Map<String, Long> fileChecksums = includeChecksums
+                ? FileChecksums.compute(appCtx.getIoManager(), partitionFiles) : Collections.emptyMap();
+        LOGGER.debug("computed partition {} files checksums ({})", partition, fileChecksums.size());
+        final PartitionResourcesListResponse response =
+                new PartitionResourcesListResponse(partition, partitionReplicatedResources, partitionFiles,
+                        fileChecksums, appCtx.getReplicaManager().isPartitionOrigin(partition));
         ReplicationProtocol.sendTo(worker.getChannel(), response, worker.getReusableBuffer());
         LOGGER.debug("sent partition {} files list to requester", partition);
     }
@@ -81,6 +90,7 @@ public class PartitionResourcesListTask implements IReplicaTask {
         try {
             DataOutputStream dos = new DataOutputStream(out);
             dos.writeInt(partition);
+            dos.writeBoolean(includeChecksums);
         } catch (IOException e) {
             throw HyracksDataException.create(e);
         }
@@ -88,13 +98,15 @@ public class PartitionResourcesListTask implements IReplicaTask {
 
     @Override
     public String toString() {
-        return "PartitionResourcesListTask{" + "partition=" + partition + '}';
+        return "PartitionResourcesListTask{" + "partition=" + partition + ", includeChecksums=" + includeChecksums
+                + '}';
     }
 
     public static PartitionResourcesListTask create(DataInput input) throws HyracksDataException {
         try {
             int partition = input.readInt();
-            return new PartitionResourcesListTask(partition);
+            boolean includeChecksums = input.readBoolean();
+            return new PartitionResourcesListTask(partition, includeChecksums);
         } catch (IOException e) {
             throw HyracksDataException.create(e);
         }
@@ -90,7 +90,7 @@ public class ReplicateFileTask implements IReplicaTask {
             try (RandomAccessFile fileOutputStream = new RandomAccessFile(filePath.toFile(), "rw");
                     FileChannel fileChannel = fileOutputStream.getChannel()) {
                 fileOutputStream.setLength(size);
-                NetworkingUtil.downloadFile(fileChannel, worker.getChannel());
+                NetworkingUtil.downloadFile(fileChannel, worker.getChannel(), worker.getFileTransferBuffer());
                 fileChannel.force(true);
             }
             if (indexMetadata) {
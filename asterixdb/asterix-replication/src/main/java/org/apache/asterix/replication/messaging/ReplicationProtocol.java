@@ -47,6 +47,8 @@ public class ReplicationProtocol {
      */
     public static final String LOG_REPLICATION_ACK = "$";
     public static final int INITIAL_BUFFER_SIZE = StorageUtil.getIntSizeInBytes(4, StorageUtil.StorageUnit.KILOBYTE);
+    public static final int FILE_TRANSFER_BUFFER_SIZE =
+            StorageUtil.getIntSizeInBytes(256, StorageUtil.StorageUnit.KILOBYTE);
     private static final int REPLICATION_REQUEST_TYPE_SIZE = Integer.BYTES;
     private static final int REPLICATION_REQUEST_HEADER_SIZE = REPLICATION_REQUEST_TYPE_SIZE + Integer.BYTES;
 
@@ -116,8 +118,10 @@ public class ReplicationProtocol {
     }
 
     public static void waitForAck(PartitionReplica replica) throws IOException {
-        final ISocketChannel channel = replica.getChannel();
-        final ByteBuffer buf = replica.getReusableBuffer();
+        waitForAck(replica.getChannel(), replica.getReusableBuffer());
+    }
+
+    public static void waitForAck(ISocketChannel channel, ByteBuffer buf) throws IOException {
         ReplicationRequestType responseFunction = ReplicationProtocol.getRequestType(channel, buf);
         if (responseFunction != ReplicationRequestType.ACK) {
             throw new IllegalStateException("Unexpected response while waiting for ack.");
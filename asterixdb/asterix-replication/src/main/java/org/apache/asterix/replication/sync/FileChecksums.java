@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.replication.sync;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.util.StorageUtil;
+
+/**
+ * Computes content checksums of replicated index files. LSM component files are immutable once they are valid,
+ * so two files with the same name (and therefore the same component sequence range) on a master and a replica
+ * are expected to have identical checksums.
+ */
+public class FileChecksums {
+
+    private static final int BUFFER_SIZE = StorageUtil.getIntSizeInBytes(1, StorageUtil.StorageUnit.MEGABYTE);
+
+    private FileChecksums() {
+        throw new AssertionError("This util class should not be initialized.");
+    }
+
+    /**
+     * @param ioManager
+     * @param files
+     *            relative paths of the files
+     * @return a map of file relative path -> checksum for all of the {@code files} that exist
+     * @throws HyracksDataException
+     */
+    public static Map<String, Long> compute(IIOManager ioManager, Collection<String> files)
+            throws HyracksDataException {
+        final Map<String, Long> checksums = new HashMap<>();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        for (String file : files) {
+            final File localFile = ioManager.resolve(file).getFile();
+            if (localFile.exists()) {
+                checksums.put(file, compute(localFile, buffer));
+            }
+        }
+        return checksums;
+    }
+
+    public static long compute(File file, ByteBuffer buffer) throws HyracksDataException {
+        final CRC32 crc = new CRC32();
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (fileChannel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        return crc.getValue();
+    }
+}
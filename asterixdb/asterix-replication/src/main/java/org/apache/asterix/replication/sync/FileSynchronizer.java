@@ -20,6 +20,7 @@ package org.apache.asterix.replication.sync;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 import org.apache.asterix.common.api.INcApplicationContext;
@@ -40,10 +41,24 @@ public class FileSynchronizer {
     private static final Logger LOGGER = LogManager.getLogger();
     private final INcApplicationContext appCtx;
     private final PartitionReplica replica;
+    private final ISocketChannel channel;
+    private final ByteBuffer reusableBuffer;
+    private ByteBuffer fileTransferBuffer;
 
     public FileSynchronizer(INcApplicationContext appCtx, PartitionReplica replica) {
+        this(appCtx, replica, null, null);
+    }
+
+    /**
+     * Creates a synchronizer that uses a dedicated {@code channel} to the replica instead of the replica's
+     * shared channel. Used to transfer files to the replica over multiple parallel streams.
+     */
+    public FileSynchronizer(INcApplicationContext appCtx, PartitionReplica replica, ISocketChannel channel,
+            ByteBuffer reusableBuffer) {
         this.appCtx = appCtx;
         this.replica = replica;
+        this.channel = channel;
+        this.reusableBuffer = reusableBuffer;
     }
 
     public void replicate(String file) {
@@ -53,19 +68,19 @@ public class FileSynchronizer {
     public void replicate(String file, boolean metadata) {
         try {
             final IIOManager ioManager = appCtx.getIoManager();
-            final ISocketChannel channel = replica.getChannel();
+            final ISocketChannel socketChannel = getChannel();
             final FileReference filePath = ioManager.resolve(file);
             String masterNode = appCtx.getReplicaManager().isPartitionOrigin(replica.getIdentifier().getPartition())
                     ? appCtx.getServiceContext().getNodeId() : null;
             ReplicateFileTask task = new ReplicateFileTask(file, filePath.getFile().length(), metadata, masterNode);
             LOGGER.trace("attempting {} to replica {}", task, replica);
-            ReplicationProtocol.sendTo(replica, task);
+            ReplicationProtocol.sendTo(socketChannel, task, getReusableBuffer());
             // send the file itself
             try (RandomAccessFile fromFile = new RandomAccessFile(filePath.getFile(), "r");
                     FileChannel fileChannel = fromFile.getChannel()) {
-                NetworkingUtil.sendFile(fileChannel, channel);
+                NetworkingUtil.sendFile(fileChannel, socketChannel, getFileTransferBuffer());
             }
-            ReplicationProtocol.waitForAck(replica);
+            ReplicationProtocol.waitForAck(socketChannel, getReusableBuffer());
             LOGGER.debug("completed {} to replica {}", task, replica);
         } catch (IOException e) {
             throw new ReplicationException(e);
@@ -76,11 +91,29 @@ public class FileSynchronizer {
         try {
             final DeleteFileTask task = new DeleteFileTask(file);
             LOGGER.trace("attempting {} from replica {}", task, replica);
-            ReplicationProtocol.sendTo(replica, task);
-            ReplicationProtocol.waitForAck(replica);
+            ReplicationProtocol.sendTo(getChannel(), task, getReusableBuffer());
+            ReplicationProtocol.waitForAck(getChannel(), getReusableBuffer());
             LOGGER.debug("completed {} from replica {}", task, replica);
         } catch (IOException e) {
             throw new ReplicationException(e);
         }
     }
+
+    private ISocketChannel getChannel() {
+        return channel != null ? channel : replica.getChannel();
+    }
+
+    private ByteBuffer getReusableBuffer() {
+        return reusableBuffer != null ? reusableBuffer : replica.getReusableBuffer();
+    }
+
+    private ByteBuffer getFileTransferBuffer() {
+        if (channel == null) {
+            return replica.getFileTransferBuffer();
+        }
+        if (fileTransferBuffer == null) {
+            fileTransferBuffer = ByteBuffer.allocateDirect(ReplicationProtocol.FILE_TRANSFER_BUFFER_SIZE);
+        }
+        return fileTransferBuffer;
+    }
 }
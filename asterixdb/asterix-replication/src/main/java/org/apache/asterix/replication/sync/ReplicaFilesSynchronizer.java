@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.replication.sync;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -26,14 +27,22 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.asterix.common.api.INcApplicationContext;
+import org.apache.asterix.common.exceptions.ReplicationException;
 import org.apache.asterix.common.replication.IReplicationStrategy;
 import org.apache.asterix.common.storage.IIndexCheckpointManager;
 import org.apache.asterix.common.storage.IndexCheckpoint;
 import org.apache.asterix.common.storage.ResourceReference;
+import org.apache.asterix.common.utils.StorageConstants;
 import org.apache.asterix.common.utils.StoragePathUtil;
 import org.apache.asterix.replication.api.PartitionReplica;
 import org.apache.asterix.replication.messaging.DeletePartitionTask;
@@ -46,11 +55,17 @@ import org.apache.hyracks.api.network.ISocketChannel;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndexFileManager;
 import org.apache.hyracks.storage.am.lsm.common.impls.IndexComponentFileReference;
 import org.apache.hyracks.storage.common.LocalResource;
+import org.apache.hyracks.util.NetworkUtil;
+import org.apache.hyracks.util.ThrowingSupplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Ensures that the files between master and a replica are synchronized
+ * Synchronizes the files of a partition on a replica with the files of the master. Only the files that are missing
+ * on the replica are transferred. When checksums verification is enabled, files that exist on both the master and
+ * the replica but with different content are retransferred. Since every file that was completely received by the
+ * replica is kept, a sync that is interrupted resumes from the files that were not replicated yet the next time the
+ * replica is synchronized.
  */
 public class ReplicaFilesSynchronizer {
 
@@ -88,6 +103,9 @@ public class ReplicaFilesSynchronizer {
         // exclude from the replica files the list of invalid deleted files
         final Set<String> replicaFiles = new HashSet<>(replicaResourceResponse.getFiles());
         replicaFiles.removeAll(deletedReplicaFiles);
+        // exclude files with mismatched content to have them replicated again
+        replicaFiles.removeAll(cleanupReplicaMismatchedFiles(replicaResourceResponse.getFileChecksums(), replicaFiles,
+                masterFiles));
         syncMissingFiles(replicaFiles, masterFiles);
         deleteReplicaExtraFiles(replicaFiles, masterFiles);
     }
@@ -109,24 +127,128 @@ public class ReplicaFilesSynchronizer {
     }
 
     private void syncMissingFiles(Set<String> replicaFiles, Set<String> masterFiles) {
-        final List<String> replicaMissingFiles =
-                masterFiles.stream().filter(file -> !replicaFiles.contains(file)).collect(Collectors.toList());
+        final List<String> replicaMissingFiles = getMissingFiles(replicaFiles, masterFiles);
         if (!replicaMissingFiles.isEmpty()) {
             LOGGER.debug("replicating missing files {} on replica {}", replicaMissingFiles, replica.getIdentifier());
             replicateMissingFiles(replicaMissingFiles);
         }
     }
 
+    private Set<String> cleanupReplicaMismatchedFiles(Map<String, Long> replicaChecksums, Set<String> replicaFiles,
+            Set<String> masterFiles) throws HyracksDataException {
+        if (replicaChecksums.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final List<String> commonFiles = replicaFiles.stream()
+                .filter(file -> masterFiles.contains(file) && replicaChecksums.containsKey(file))
+                .collect(Collectors.toList());
+        final Map<String, Long> masterChecksums = FileChecksums.compute(appCtx.getIoManager(), commonFiles);
+        final Set<String> mismatchedFiles = getMismatchedFiles(replicaChecksums, masterChecksums);
+        LOGGER.debug("verified {} common files checksums on replica {}", commonFiles.size(), replica.getIdentifier());
+        if (!mismatchedFiles.isEmpty()) {
+            LOGGER.info("replica {} has files {} with mismatched checksums", replica.getIdentifier(),
+                    mismatchedFiles);
+            deleteInvalidFiles(new ArrayList<>(mismatchedFiles));
+        }
+        return mismatchedFiles;
+    }
+
     private void replicateMissingFiles(List<String> files) {
-        final FileSynchronizer sync = new FileSynchronizer(appCtx, replica);
         // sort files to ensure index metadata files starting with "." are replicated first
         files.sort(String::compareTo);
-        int missingFilesCount = files.size();
-        for (int i = 0; i < missingFilesCount; i++) {
-            String file = files.get(i);
-            sync.replicate(file);
-            replica.setSyncProgress((i + 1d) / missingFilesCount);
+        final int missingFilesCount = files.size();
+        final AtomicInteger replicatedCount = new AtomicInteger();
+        final Runnable onReplicated =
+                () -> replica.setSyncProgress((double) replicatedCount.incrementAndGet() / missingFilesCount);
+        final FileSynchronizer sync = new FileSynchronizer(appCtx, replica);
+        final Queue<String> componentsFiles = new ConcurrentLinkedQueue<>();
+        for (String file : files) {
+            if (isIndexMetadataFile(file)) {
+                sync.replicate(file);
+                onReplicated.run();
+            } else {
+                componentsFiles.add(file);
+            }
         }
+        final int streams = Math.min(appCtx.getReplicationProperties().getSyncStreams(), componentsFiles.size());
+        if (streams <= 1) {
+            String file;
+            while ((file = componentsFiles.poll()) != null) {
+                sync.replicate(file);
+                onReplicated.run();
+            }
+            return;
+        }
+        LOGGER.debug("replicating {} files to replica {} using {} streams", componentsFiles.size(),
+                replica.getIdentifier(), streams);
+        replicateFiles((ExecutorService) appCtx.getThreadExecutor(), streams, componentsFiles,
+                () -> new ChannelFileStream(appCtx, replica), onReplicated);
+    }
+
+    /**
+     * @return the sorted master files that are missing on the replica
+     */
+    static List<String> getMissingFiles(Set<String> replicaFiles, Set<String> masterFiles) {
+        return masterFiles.stream().filter(file -> !replicaFiles.contains(file)).sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the files that have a different checksum on the master than on the replica
+     */
+    static Set<String> getMismatchedFiles(Map<String, Long> replicaChecksums, Map<String, Long> masterChecksums) {
+        return replicaChecksums.entrySet().stream()
+                .filter(entry -> masterChecksums.containsKey(entry.getKey())
+                        && !entry.getValue().equals(masterChecksums.get(entry.getKey())))
+                .map(Map.Entry::getKey).collect(Collectors.toSet());
+    }
+
+    /**
+     * Replicates the {@code files} over {@code streams} parallel streams. Each stream polls the next file from the
+     * queue, so the streams stay busy regardless of the sizes of the files. A failure of one stream stops the others.
+     */
+    static void replicateFiles(ExecutorService executor, int streams, Queue<String> files,
+            ThrowingSupplier<IFileStream> streamFactory, Runnable onReplicated) {
+        final List<Future<?>> streamsFutures = new ArrayList<>(streams);
+        try {
+            for (int i = 0; i < streams; i++) {
+                streamsFutures.add(executor.submit(() -> {
+                    try (IFileStream stream = streamFactory.get()) {
+                        replicateFiles(stream, files, onReplicated);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> streamFuture : streamsFutures) {
+                streamFuture.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReplicationException(e);
+        } catch (ExecutionException e) {
+            throw new ReplicationException(e.getCause());
+        } finally {
+            files.clear();
+            streamsFutures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static void replicateFiles(IFileStream stream, Queue<String> files, Runnable onReplicated) {
+        String file;
+        while ((file = files.poll()) != null) {
+            try {
+                stream.replicate(file);
+            } catch (Exception e) {
+                // stop the other streams
+                files.clear();
+                throw e;
+            }
+            onReplicated.run();
+        }
+    }
+
+    private static boolean isIndexMetadataFile(String file) {
+        return file.endsWith(StorageConstants.METADATA_FILE_NAME);
     }
 
     private void deleteInvalidFiles(List<String> files) {
@@ -179,7 +301,10 @@ public class ReplicaFilesSynchronizer {
     }
 
     private PartitionResourcesListResponse getReplicaFiles(int partition) throws IOException {
-        final PartitionResourcesListTask replicaFilesRequest = new PartitionResourcesListTask(partition);
+        // checksums are only useful when the replica files are kept
+        final boolean includeChecksums = deltaRecovery && appCtx.getReplicationProperties().isSyncVerifyChecksums();
+        final PartitionResourcesListTask replicaFilesRequest =
+                new PartitionResourcesListTask(partition, includeChecksums);
         final ISocketChannel channel = replica.getChannel();
         final ByteBuffer reusableBuffer = replica.getReusableBuffer();
         ReplicationProtocol.sendTo(replica, replicaFilesRequest);
@@ -206,4 +331,44 @@ public class ReplicaFilesSynchronizer {
         }
         return resource2ValidSeqMap;
     }
+
+    /**
+     * A connection to the replica over which files are replicated in parallel with other streams.
+     */
+    interface IFileStream extends Closeable {
+        void replicate(String file);
+    }
+
+    private static class ChannelFileStream implements IFileStream {
+        private final ISocketChannel channel;
+        private final FileSynchronizer sync;
+        private boolean failed;
+
+        ChannelFileStream(INcApplicationContext appCtx, PartitionReplica replica) throws IOException {
+            channel = ReplicationProtocol.establishReplicaConnection(appCtx, replica.getIdentifier().getLocation());
+            final ByteBuffer reusableBuffer = ByteBuffer.allocate(ReplicationProtocol.INITIAL_BUFFER_SIZE);
+            sync = new FileSynchronizer(appCtx, replica, channel, reusableBuffer);
+        }
+
+        @Override
+        public void replicate(String file) {
+            try {
+                sync.replicate(file);
+            } catch (Exception e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!failed) {
+                    ReplicationProtocol.sendGoodbye(channel);
+                }
+            } finally {
+                NetworkUtil.closeQuietly(channel);
+            }
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.replication.management;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.hyracks.api.network.ISocketChannel;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Transfers files between two sockets over the loopback interface using both the direct (sendfile) path and the
+ * buffered path used by channels that require a handshake.
+ */
+public class NetworkingUtilTest {
+
+    private static final int FILE_SIZE = 3 * 1024 * 1024 + 17;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void directTransferTest() throws Exception {
+        transfer(false);
+    }
+
+    @Test
+    public void bufferedTransferTest() throws Exception {
+        transfer(true);
+    }
+
+    private void transfer(boolean requiresHandshake) throws Exception {
+        final File source = tempFolder.newFile("source");
+        final byte[] content = new byte[FILE_SIZE];
+        new Random(0).nextBytes(content);
+        Files.write(source.toPath(), content);
+        final File target = tempFolder.newFile("target");
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            final CompletableFuture<Void> download = CompletableFuture.runAsync(() -> {
+                try (ISocketChannel receiver = new LoopbackChannel(server.accept(), requiresHandshake);
+                        RandomAccessFile file = new RandomAccessFile(target, "rw");
+                        FileChannel fileChannel = file.getChannel()) {
+                    file.setLength(FILE_SIZE);
+                    NetworkingUtil.downloadFile(fileChannel, receiver, ByteBuffer.allocateDirect(64 * 1024));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            try (ISocketChannel sender = new LoopbackChannel(SocketChannel.open(server.getLocalAddress()),
+                    requiresHandshake);
+                    RandomAccessFile file = new RandomAccessFile(source, "r");
+                    FileChannel fileChannel = file.getChannel()) {
+                NetworkingUtil.sendFile(fileChannel, sender, ByteBuffer.allocateDirect(64 * 1024));
+            }
+            download.get();
+        }
+        Assert.assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    private static class LoopbackChannel implements ISocketChannel {
+
+        private final SocketChannel socketChannel;
+        private final boolean requiresHandshake;
+
+        LoopbackChannel(SocketChannel socketChannel, boolean requiresHandshake) {
+            this.socketChannel = socketChannel;
+            this.requiresHandshake = requiresHandshake;
+        }
+
+        @Override
+        public boolean requiresHandshake() {
+            return requiresHandshake;
+        }
+
+        @Override
+        public boolean handshake() {
+            return true;
+        }
+
+        @Override
+        public boolean isPendingRead() {
+            return false;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return socketChannel.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return socketChannel.write(src);
+        }
+
+        @Override
+        public boolean isPendingWrite() {
+            return false;
+        }
+
+        @Override
+        public boolean completeWrite() {
+            return true;
+        }
+
+        @Override
+        public SocketChannel getSocketChannel() {
+            return socketChannel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socketChannel.close();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.replication.sync;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.asterix.common.exceptions.ReplicationException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReplicaFilesSynchronizerTest {
+
+    private static final int STREAMS = 4;
+    private static final int FILES = 100;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ExecutorService executor;
+    // the number of times each file was replicated
+    private Map<String, AtomicInteger> transfers;
+    // the files that were completely received by the replica
+    private Set<String> replicaFiles;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(STREAMS);
+        transfers = new ConcurrentHashMap<>();
+        replicaFiles = ConcurrentHashMap.newKeySet();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resumeInterruptedSyncTest() {
+        final Set<String> masterFiles = componentFiles();
+        final AtomicInteger failAfter = new AtomicInteger(FILES / 3);
+        try {
+            sync(masterFiles, () -> failAfter.getAndDecrement() == 0);
+            Assert.fail("the sync was not interrupted");
+        } catch (ReplicationException e) {
+            // expected
+        }
+        final Set<String> replicatedBeforeFailure = new HashSet<>(replicaFiles);
+        Assert.assertFalse(replicatedBeforeFailure.isEmpty());
+        Assert.assertTrue(replicatedBeforeFailure.size() < FILES);
+        // the next sync only replicates the files that were not received before the failure
+        final List<String> missingFiles = ReplicaFilesSynchronizer.getMissingFiles(replicaFiles, masterFiles);
+        Assert.assertEquals(FILES - replicatedBeforeFailure.size(), missingFiles.size());
+        Assert.assertTrue(Collections.disjoint(replicatedBeforeFailure, missingFiles));
+        sync(masterFiles, () -> false);
+        Assert.assertEquals(masterFiles, replicaFiles);
+        for (String file : masterFiles) {
+            Assert.assertEquals(file, 1, transfers.get(file).get());
+        }
+    }
+
+    @Test
+    public void checksumMismatchRetransferTest() throws Exception {
+        final File masterDir = tempFolder.newFolder("master");
+        final File replicaDir = tempFolder.newFolder("replica");
+        final Set<String> masterFiles = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            final String file = "file_" + i;
+            masterFiles.add(file);
+            write(new File(masterDir, file), "content " + i);
+            // file_3 was corrupted on the replica
+            write(new File(replicaDir, file), i == 3 ? "corrupted " + i : "content " + i);
+        }
+        replicaFiles.addAll(masterFiles);
+        Map<String, Long> replicaChecksums = checksums(replicaDir, masterFiles);
+        final Map<String, Long> masterChecksums = checksums(masterDir, masterFiles);
+        final Set<String> mismatchedFiles =
+                ReplicaFilesSynchronizer.getMismatchedFiles(replicaChecksums, masterChecksums);
+        Assert.assertEquals(Collections.singleton("file_3"), mismatchedFiles);
+        // the mismatched files are deleted from the replica and replicated again as missing files
+        replicaFiles.removeAll(mismatchedFiles);
+        Assert.assertEquals(Collections.singletonList("file_3"),
+                ReplicaFilesSynchronizer.getMissingFiles(replicaFiles, masterFiles));
+        Files.copy(new File(masterDir, "file_3").toPath(), new File(replicaDir, "file_3").toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        replicaChecksums = checksums(replicaDir, masterFiles);
+        Assert.assertTrue(ReplicaFilesSynchronizer.getMismatchedFiles(replicaChecksums, masterChecksums).isEmpty());
+        // files that no longer exist on the master are deleted as extra files rather than retransferred
+        replicaChecksums.put("deleted_on_master", 0L);
+        Assert.assertTrue(ReplicaFilesSynchronizer.getMismatchedFiles(replicaChecksums, masterChecksums).isEmpty());
+    }
+
+    @Test
+    public void parallelStreamsTest() {
+        final Set<String> masterFiles = componentFiles();
+        // every stream replicates its first file only once all streams are replicating
+        final CyclicBarrier allStreamsActive = new CyclicBarrier(STREAMS);
+        final Set<TestFileStream> streams = ConcurrentHashMap.newKeySet();
+        final AtomicInteger replicated = new AtomicInteger();
+        ReplicaFilesSynchronizer.replicateFiles(executor, STREAMS,
+                new ConcurrentLinkedQueue<>(ReplicaFilesSynchronizer.getMissingFiles(replicaFiles, masterFiles)),
+                () -> {
+                    final TestFileStream stream = new TestFileStream(() -> false, allStreamsActive);
+                    streams.add(stream);
+                    return stream;
+                }, replicated::incrementAndGet);
+        Assert.assertEquals(STREAMS, streams.size());
+        int streamsFiles = 0;
+        for (TestFileStream stream : streams) {
+            Assert.assertTrue(stream.closed);
+            Assert.assertFalse(stream.files.isEmpty());
+            streamsFiles += stream.files.size();
+        }
+        Assert.assertEquals(FILES, streamsFiles);
+        Assert.assertEquals(FILES, replicated.get());
+        Assert.assertEquals(masterFiles, replicaFiles);
+    }
+
+    private void sync(Set<String> masterFiles, BooleanSupplier failure) {
+        ReplicaFilesSynchronizer.replicateFiles(executor, STREAMS,
+                new ConcurrentLinkedQueue<>(ReplicaFilesSynchronizer.getMissingFiles(replicaFiles, masterFiles)),
+                () -> new TestFileStream(failure, null), () -> {
+                });
+    }
+
+    private static Set<String> componentFiles() {
+        final Set<String> files = new HashSet<>();
+        for (int i = 0; i < FILES; i++) {
+            files.add("storage/partition_0/Default/ds/0/ds/" + i + "_" + i + "_b");
+        }
+        return files;
+    }
+
+    private static void write(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Long> checksums(File dir, Set<String> files) throws Exception {
+        final Map<String, Long> checksums = new HashMap<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (String file : files) {
+            checksums.put(file, FileChecksums.compute(new File(dir, file), buffer));
+        }
+        return checksums;
+    }
+
+    private class TestFileStream implements ReplicaFilesSynchronizer.IFileStream {
+        private final BooleanSupplier failure;
+        private final CyclicBarrier start;
+        private final List<String> files = new ArrayList<>();
+        private volatile boolean closed;
+
+        TestFileStream(BooleanSupplier failure, CyclicBarrier start) {
+            this.failure = failure;
+            this.start = start;
+        }
+
+        @Override
+        public void replicate(String file) {
+            try {
+                if (start != null && files.isEmpty()) {
+                    start.await(10, TimeUnit.SECONDS);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (failure.getAsBoolean()) {
+                throw new ReplicationException(new IllegalStateException("connection to replica lost"));
+            }
+            transfers.computeIfAbsent(file, f -> new AtomicInteger()).incrementAndGet();
+            files.add(file);
+            replicaFiles.add(file);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
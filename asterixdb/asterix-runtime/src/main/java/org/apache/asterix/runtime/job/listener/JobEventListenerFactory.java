@@ -18,6 +18,9 @@
  */
 package org.apache.asterix.runtime.job.listener;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.asterix.common.api.IJobEventListenerFactory;
 import org.apache.asterix.common.api.INcApplicationContext;
 import org.apache.asterix.common.exceptions.ACIDException;
@@ -47,6 +50,20 @@ public class JobEventListenerFactory implements IJobEventListenerFactory {
         this.transactionalWrite = transactionalWrite;
     }
 
+    /**
+     * Creates the parameters of a job that starts a deployed job specification (with a listener created by this
+     * factory) in another transaction
+     *
+     * @param txnId
+     *            the id of the transaction of the job
+     * @return the job parameters
+     */
+    public static Map<byte[], byte[]> createJobParameters(TxnId txnId) {
+        Map<byte[], byte[]> jobParameters = new HashMap<>();
+        jobParameters.put(TRANSACTION_ID_PARAMETER_NAME, String.valueOf(txnId.getId()).getBytes());
+        return jobParameters;
+    }
+
     @Override
     public TxnId getTxnId(int datasetId) {
         return txnId;
@@ -62,7 +79,7 @@ public class JobEventListenerFactory implements IJobEventListenerFactory {
         String AsterixTransactionIdString = new String(jobParameterByteStore
                 .getParameterValue(TRANSACTION_ID_PARAMETER_NAME, 0, TRANSACTION_ID_PARAMETER_NAME.length));
         if (AsterixTransactionIdString.length() > 0) {
-            this.txnId = new TxnId(Integer.parseInt(AsterixTransactionIdString));
+            this.txnId = new TxnId(Long.parseLong(AsterixTransactionIdString));
         }
     }
 
@@ -100,6 +100,8 @@ public class ClusterStateManager implements IClusterStateManager {
         ncConfigMap.remove(nodeId);
         pendingRemoval.remove(nodeId);
         lifecycleCoordinator.notifyNodeFailure(nodeId, replicaAddress);
+        // the job specifications of the cached plans are deployed on the nodes that were up when they were cached
+        appCtx.getPlanCache().invalidateAll();
     }
 
     @Override
@@ -111,6 +113,7 @@ public class ClusterStateManager implements IClusterStateManager {
         ncConfigMap.put(nodeId, configuration);
         updateNodeConfig(nodeId, configuration);
         lifecycleCoordinator.notifyNodeJoin(nodeId);
+        appCtx.getPlanCache().invalidateAll();
     }
 
     @Override
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.api.CachedPlan;
+import org.apache.asterix.common.api.IPlanCache;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.util.ThrowingConsumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A plan cache bounded by the number of cached plans. When it is full, the least recently used plans are evicted.
+ */
+public class PlanCache implements IPlanCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final int capacity;
+    private final ThrowingConsumer<DeployedJobSpecId> undeployer;
+    // in access order, i.e. the least recently used plan comes first
+    private final Map<String, CachedPlan> plans = new LinkedHashMap<>(16, 0.75f, true);
+    // the number of users of the plans that are in use
+    private final Map<CachedPlan, Integer> users = new IdentityHashMap<>();
+    private long epoch;
+
+    /**
+     * @param capacity
+     *            the maximum number of cached plans
+     * @param undeployer
+     *            undeploys the job specification of a plan that is dropped
+     */
+    public PlanCache(int capacity, ThrowingConsumer<DeployedJobSpecId> undeployer) {
+        this.capacity = capacity;
+        this.undeployer = undeployer;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    @Override
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public synchronized CachedPlan acquire(String key) {
+        CachedPlan plan = plans.get(key);
+        if (plan != null) {
+            users.merge(plan, 1, Integer::sum);
+        }
+        return plan;
+    }
+
+    @Override
+    public synchronized boolean isValid(CachedPlan plan) {
+        return plans.get(plan.getKey()) == plan;
+    }
+
+    @Override
+    public void put(CachedPlan plan) {
+        List<CachedPlan> dropped = new ArrayList<>();
+        synchronized (this) {
+            users.merge(plan, 1, Integer::sum);
+            if (plan.getEpoch() != epoch) {
+                // the metadata may have changed during the compilation
+                return;
+            }
+            CachedPlan previous = plans.put(plan.getKey(), plan);
+            if (previous != null) {
+                retire(previous, dropped);
+            }
+            Iterator<CachedPlan> lru = plans.values().iterator();
+            while (plans.size() > capacity) {
+                CachedPlan evicted = lru.next();
+                lru.remove();
+                retire(evicted, dropped);
+            }
+        }
+        undeploy(dropped);
+    }
+
+    @Override
+    public synchronized void hold(CachedPlan plan) {
+        users.merge(plan, 1, Integer::sum);
+    }
+
+    @Override
+    public void release(CachedPlan plan) {
+        synchronized (this) {
+            int remaining = users.merge(plan, -1, Integer::sum);
+            if (remaining > 0) {
+                return;
+            }
+            users.remove(plan);
+            if (plans.get(plan.getKey()) == plan) {
+                return;
+            }
+        }
+        undeploy(Collections.singletonList(plan));
+    }
+
+    @Override
+    public void remove(CachedPlan plan) {
+        List<CachedPlan> dropped = new ArrayList<>();
+        synchronized (this) {
+            if (plans.get(plan.getKey()) == plan) {
+                plans.remove(plan.getKey());
+                retire(plan, dropped);
+            }
+        }
+        undeploy(dropped);
+    }
+
+    @Override
+    public void invalidateAll() {
+        List<CachedPlan> dropped = new ArrayList<>();
+        synchronized (this) {
+            epoch++;
+            for (CachedPlan plan : plans.values()) {
+                retire(plan, dropped);
+            }
+            plans.clear();
+        }
+        undeploy(dropped);
+    }
+
+    public synchronized int getSize() {
+        return plans.size();
+    }
+
+    // a dropped plan is undeployed once it is not in use anymore
+    private void retire(CachedPlan plan, List<CachedPlan> dropped) {
+        if (!users.containsKey(plan)) {
+            dropped.add(plan);
+        }
+    }
+
+    private void undeploy(List<CachedPlan> dropped) {
+        for (CachedPlan plan : dropped) {
+            try {
+                undeployer.process(plan.getDeployedJobSpecId());
+            } catch (Exception e) {
+                LOGGER.warn("failed to undeploy the job specification {} of a cached plan",
+                        plan.getDeployedJobSpecId(), e);
+            }
+        }
+    }
+}
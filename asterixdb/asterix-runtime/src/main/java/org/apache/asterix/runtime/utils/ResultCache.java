@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.api.IResultCache;
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.asterix.common.metadata.LockList;
+
+/**
+ * A result cache bounded by the size of the cached results. When it is full, the least recently used results are
+ * evicted.
+ */
+public class ResultCache implements IResultCache {
+
+    private final long budget;
+    private final long maxResultSize;
+    // in access order, i.e. the least recently used result comes first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long epoch;
+
+    public ResultCache(long budget, long maxResultSize) {
+        this.budget = budget;
+        this.maxResultSize = Math.min(budget, maxResultSize);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return budget > 0;
+    }
+
+    @Override
+    public synchronized List<byte[]> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!Arrays.equals(entry.versions, getDataVersions(entry.locks))) {
+            entries.remove(key);
+            size -= entry.size;
+            return null;
+        }
+        return entry.frames;
+    }
+
+    @Override
+    public synchronized IRecording record(String key) {
+        return new Recording(key, epoch);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+        size = 0;
+        epoch++;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized void put(Recording recording) {
+        if (recording.epoch != epoch || !Arrays.equals(recording.versions, getDataVersions(recording.locks))) {
+            return;
+        }
+        Entry entry = new Entry(recording);
+        Entry previous = entries.put(recording.key, entry);
+        if (previous != null) {
+            size -= previous.size;
+        }
+        size += entry.size;
+        Iterator<Entry> lru = entries.values().iterator();
+        while (size > budget) {
+            size -= lru.next().size;
+            lru.remove();
+        }
+    }
+
+    private static long[] getDataVersions(List<IMetadataLock> locks) {
+        long[] versions = new long[locks.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = locks.get(i).getDataVersion();
+        }
+        return versions;
+    }
+
+    private static class Entry {
+        private final List<IMetadataLock> locks;
+        private final long[] versions;
+        private final List<byte[]> frames;
+        private final long size;
+
+        private Entry(Recording recording) {
+            locks = recording.locks;
+            versions = recording.versions;
+            frames = recording.frames;
+            size = recording.size;
+        }
+    }
+
+    private class Recording implements IRecording {
+        private final String key;
+        private final long epoch;
+        private final List<byte[]> frames = new ArrayList<>();
+        private List<IMetadataLock> locks;
+        private long[] versions;
+        private long size;
+        private boolean dropped;
+
+        private Recording(String key, long epoch) {
+            this.key = key;
+            this.epoch = epoch;
+            // the key is kept with the result
+            size = 2L * key.length();
+        }
+
+        @Override
+        public void setDataVersions(LockList lockList) {
+            locks = lockList.getLocks();
+            versions = getDataVersions(locks);
+            for (long version : versions) {
+                if (version == IMetadataLock.UNSTABLE_DATA_VERSION) {
+                    // the data is being modified while the query reads it
+                    drop();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean add(byte[] bytes, int offset, int length) {
+            if (dropped || versions == null) {
+                return false;
+            }
+            if (size + length > maxResultSize) {
+                drop();
+                return false;
+            }
+            frames.add(Arrays.copyOfRange(bytes, offset, offset + length));
+            size += length;
+            return true;
+        }
+
+        @Override
+        public void complete() {
+            if (!dropped && versions != null) {
+                put(this);
+            }
+        }
+
+        private void drop() {
+            dropped = true;
+            frames.clear();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.asterix.common.api.CachedPlan;
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.asterix.common.metadata.LockList;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PlanCacheTest {
+
+    private final List<DeployedJobSpecId> undeployed = new ArrayList<>();
+
+    @Test
+    public void cachesPlansUntilInvalidated() {
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan = plan(cache, "q", 1);
+        cache.put(plan);
+        cache.release(plan);
+        Assert.assertSame(plan, cache.acquire("q"));
+        Assert.assertTrue(cache.isValid(plan));
+        cache.invalidateAll();
+        Assert.assertFalse(cache.isValid(plan));
+        Assert.assertNull(cache.acquire("q"));
+        // the plan is undeployed once it is not in use anymore
+        Assert.assertTrue(undeployed.isEmpty());
+        cache.release(plan);
+        Assert.assertEquals(1, undeployed.size());
+        Assert.assertEquals(plan.getDeployedJobSpecId(), undeployed.get(0));
+    }
+
+    @Test
+    public void skipsPlansCompiledDuringInvalidation() {
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan = plan(cache, "q", 1);
+        cache.invalidateAll();
+        cache.put(plan);
+        Assert.assertNull(cache.acquire("q"));
+        cache.release(plan);
+        Assert.assertEquals(1, undeployed.size());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPlans() {
+        final PlanCache cache = new PlanCache(2, undeployed::add);
+        final CachedPlan plan1 = plan(cache, "q1", 1);
+        final CachedPlan plan2 = plan(cache, "q2", 2);
+        final CachedPlan plan3 = plan(cache, "q3", 3);
+        cache.put(plan1);
+        cache.release(plan1);
+        cache.put(plan2);
+        cache.release(plan2);
+        cache.release(cache.acquire("q1"));
+        cache.put(plan3);
+        cache.release(plan3);
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertNull(cache.acquire("q2"));
+        Assert.assertEquals(1, undeployed.size());
+        Assert.assertEquals(plan2.getDeployedJobSpecId(), undeployed.get(0));
+    }
+
+    @Test
+    public void replacesPlansInUse() {
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan1 = plan(cache, "q", 1);
+        final CachedPlan plan2 = plan(cache, "q", 2);
+        cache.put(plan1);
+        cache.put(plan2);
+        Assert.assertFalse(cache.isValid(plan1));
+        Assert.assertTrue(undeployed.isEmpty());
+        cache.release(plan1);
+        cache.release(plan2);
+        Assert.assertEquals(1, undeployed.size());
+        Assert.assertEquals(plan1.getDeployedJobSpecId(), undeployed.get(0));
+        Assert.assertSame(plan2, cache.acquire("q"));
+    }
+
+    @Test
+    public void removesPlans() {
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan = plan(cache, "q", 1);
+        cache.put(plan);
+        cache.remove(plan);
+        Assert.assertNull(cache.acquire("q"));
+        Assert.assertTrue(undeployed.isEmpty());
+        cache.release(plan);
+        Assert.assertEquals(1, undeployed.size());
+    }
+
+    @Test
+    public void holdsPlansWithoutCaching() {
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan = plan(cache, "q", 1);
+        cache.hold(plan);
+        Assert.assertFalse(cache.isValid(plan));
+        Assert.assertNull(cache.acquire("q"));
+        Assert.assertTrue(undeployed.isEmpty());
+        cache.release(plan);
+        Assert.assertEquals(1, undeployed.size());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void locksAsCompiled() throws AlgebricksException {
+        final TestLock dataverseLock = new TestLock("dv");
+        final TestLock datasetLock = new TestLock("ds");
+        final LockList compileLocks = new LockList();
+        compileLocks.add(IMetadataLock.Mode.READ, dataverseLock);
+        compileLocks.add(IMetadataLock.Mode.WRITE, datasetLock);
+        final PlanCache cache = new PlanCache(4, undeployed::add);
+        final CachedPlan plan = new CachedPlan("q", cache.getEpoch(), new JobSpecification(),
+                new DeployedJobSpecId(1), compileLocks, false, 1000);
+        compileLocks.unlock();
+        final LockList locks = new LockList();
+        plan.lock(locks);
+        Assert.assertEquals(2, locks.getLocks().size());
+        Assert.assertSame(dataverseLock, locks.getLocks().get(0));
+        Assert.assertEquals(IMetadataLock.Mode.READ, locks.getModes().get(0));
+        Assert.assertSame(datasetLock, locks.getLocks().get(1));
+        Assert.assertEquals(IMetadataLock.Mode.WRITE, locks.getModes().get(1));
+        Assert.assertEquals(2, dataverseLock.acquired);
+        Assert.assertEquals(2, datasetLock.acquired);
+    }
+
+    private static CachedPlan plan(PlanCache cache, String key, long id) {
+        return new CachedPlan(key, cache.getEpoch(), new JobSpecification(), new DeployedJobSpecId(id),
+                new LockList(), false, 1000);
+    }
+
+    private static class TestLock implements IMetadataLock {
+        private final LockKey key;
+        private int acquired;
+
+        private TestLock(String name) {
+            key = new LockKey() {
+                @Override
+                public boolean equals(Object o) {
+                    return o == this;
+                }
+
+                @Override
+                public int hashCode() {
+                    return name.hashCode();
+                }
+            };
+        }
+
+        @Override
+        public void lock(Mode mode) {
+            acquired++;
+        }
+
+        @Override
+        public void unlock(Mode mode) {
+        }
+
+        @Override
+        public LockKey getKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.util.List;
+
+import org.apache.asterix.common.api.IResultCache;
+import org.apache.asterix.common.exceptions.AsterixException;
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.asterix.common.metadata.LockList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    @Test
+    public void cachesResultWhileDataIsUnchanged() throws AsterixException {
+        final TestLock lock = new TestLock("ds");
+        final ResultCache cache = new ResultCache(1024, 512);
+        record(cache, "q", 100, lock);
+        List<byte[]> result = cache.get("q");
+        Assert.assertNotNull(result);
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(100, result.get(0).length);
+        // a modification of the data invalidates the result
+        lock.version++;
+        Assert.assertNull(cache.get("q"));
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void skipsResultsOfChangingData() throws AsterixException {
+        final TestLock lock = new TestLock("ds");
+        final ResultCache cache = new ResultCache(1024, 512);
+        // the data is modified while the query runs
+        IResultCache.IRecording recording = cache.record("q");
+        recording.setDataVersions(lockList(lock));
+        lock.version++;
+        Assert.assertTrue(recording.add(new byte[100], 0, 100));
+        recording.complete();
+        Assert.assertNull(cache.get("q"));
+        // the data is being modified when the query starts
+        lock.version = IMetadataLock.UNSTABLE_DATA_VERSION;
+        recording = cache.record("q");
+        recording.setDataVersions(lockList(lock));
+        Assert.assertFalse(recording.add(new byte[100], 0, 100));
+        recording.complete();
+        Assert.assertNull(cache.get("q"));
+    }
+
+    @Test
+    public void skipsResultsRecordedDuringInvalidation() throws AsterixException {
+        final TestLock lock = new TestLock("ds");
+        final ResultCache cache = new ResultCache(1024, 512);
+        IResultCache.IRecording recording = cache.record("q");
+        recording.setDataVersions(lockList(lock));
+        Assert.assertTrue(recording.add(new byte[100], 0, 100));
+        cache.invalidateAll();
+        recording.complete();
+        Assert.assertNull(cache.get("q"));
+    }
+
+    @Test
+    public void skipsLargeResults() throws AsterixException {
+        final TestLock lock = new TestLock("ds");
+        final ResultCache cache = new ResultCache(1024, 256);
+        IResultCache.IRecording recording = cache.record("q");
+        recording.setDataVersions(lockList(lock));
+        Assert.assertTrue(recording.add(new byte[200], 0, 200));
+        Assert.assertFalse(recording.add(new byte[200], 0, 200));
+        recording.complete();
+        Assert.assertNull(cache.get("q"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedResults() throws AsterixException {
+        final TestLock lock = new TestLock("ds");
+        final ResultCache cache = new ResultCache(1024, 512);
+        record(cache, "q1", 400, lock);
+        record(cache, "q2", 400, lock);
+        Assert.assertNotNull(cache.get("q1"));
+        record(cache, "q3", 400, lock);
+        Assert.assertNotNull(cache.get("q1"));
+        Assert.assertNull(cache.get("q2"));
+        Assert.assertNotNull(cache.get("q3"));
+        Assert.assertTrue(cache.getSize() <= 1024);
+    }
+
+    private static void record(ResultCache cache, String key, int size, IMetadataLock lock) throws AsterixException {
+        IResultCache.IRecording recording = cache.record(key);
+        recording.setDataVersions(lockList(lock));
+        Assert.assertTrue(recording.add(new byte[size], 0, size));
+        recording.complete();
+    }
+
+    private static LockList lockList(IMetadataLock lock) throws AsterixException {
+        LockList locks = new LockList();
+        locks.add(IMetadataLock.Mode.READ, lock);
+        return locks;
+    }
+
+    private static class TestLock implements IMetadataLock {
+        private final LockKey key;
+        private long version;
+
+        private TestLock(String name) {
+            key = new LockKey() {
+                @Override
+                public boolean equals(Object o) {
+                    return o == this;
+                }
+
+                @Override
+                public int hashCode() {
+                    return name.hashCode();
+                }
+            };
+        }
+
+        @Override
+        public void lock(Mode mode) {
+        }
+
+        @Override
+        public void unlock(Mode mode) {
+        }
+
+        @Override
+        public LockKey getKey() {
+            return key;
+        }
+
+        @Override
+        public long getDataVersion() {
+            return version;
+        }
+    }
+}
@@ -105,6 +105,16 @@ public class LockThenSearchOperationCallback extends AbstractOperationCallback i
         }
     }
 
+    /**
+     * Tries to lock all entities of the dataset for the transaction, so that subsequent records are written without
+     * entity-level locking until another transaction accesses the dataset.
+     *
+     * @return true if the entities of the dataset are locked for the transaction
+     */
+    public boolean tryEscalate() throws ACIDException {
+        return lockManager.tryEscalate(datasetId, txnCtx);
+    }
+
     public void release() throws ACIDException {
         lockManager.unlock(datasetId, pkHash, LockMode.X, txnCtx);
     }
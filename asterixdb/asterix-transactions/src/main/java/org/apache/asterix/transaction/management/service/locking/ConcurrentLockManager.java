@@ -22,9 +22,13 @@ package org.apache.asterix.transaction.management.service.locking;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.asterix.common.exceptions.ACIDException;
+import org.apache.asterix.common.metadata.MetadataIndexImmutableProperties;
 import org.apache.asterix.common.transactions.DatasetId;
 import org.apache.asterix.common.transactions.ILockManager;
 import org.apache.asterix.common.transactions.ITransactionContext;
@@ -43,9 +47,13 @@ import it.unimi.dsi.fastutil.longs.LongList;
 
 /**
  * A concurrent implementation of the ILockManager interface.
+ * The resource table grows when the resources in a group exceed {@link #MAX_GROUP_RESOURCES} and a job that acquires
+ * more than a given number of exclusive entity locks on a user dataset escalates them to a single exclusive lock on
+ * all entities of the dataset, if no other job holds or waits for entity locks on the dataset.
  *
  * @see ResourceGroupTable
  * @see ResourceGroup
+ * @see DatasetLockEscalation
  */
 @SuppressWarnings("squid:RedundantThrowsDeclarationCheck") // throws ACIDException
 public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent {
@@ -60,7 +68,18 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     private static final boolean DEBUG_MODE = false;//true
     private static final boolean CHECK_CONSISTENCY = false;
 
-    private final ResourceGroupTable table;
+    private static final int MAX_GROUP_RESOURCES = 8;
+    private static final int MAX_TABLE_GROWTH_FACTOR = 4;
+
+    private volatile ResourceGroupTable table;
+    private final int maxTableSize;
+    // serializes table growths and escalation checks, which both need a stable table
+    private final Object tableMaintenanceLock = new Object();
+    private final int escalationThreshold;
+    private final long escalationWaitTimeout;
+    private final ConcurrentMap<Integer, DatasetLockEscalation> escalations = new ConcurrentHashMap<>();
+    // incremented before an escalation is added and decremented after it is removed
+    private final AtomicInteger escalationsCount = new AtomicInteger();
     private final ResourceArenaManager resArenaMgr;
     private final RequestArenaManager reqArenaMgr;
     private final JobArenaManager jobArenaMgr;
@@ -99,7 +118,23 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
 
     public ConcurrentLockManager(final int lockManagerShrinkTimer, final int noArenas, final int tableSize)
             throws ACIDException {
+        this(lockManagerShrinkTimer, noArenas, tableSize, 0, 0);
+    }
+
+    /**
+     * @param escalationThreshold
+     *            the number of exclusive entity locks that a job acquires on a dataset before its locks are escalated
+     *            to a dataset lock. 0 disables lock escalation.
+     * @param escalationWaitTimeout
+     *            the time (in milliseconds) that a job waits for the escalation of another job before it is aborted,
+     *            as waits for escalations are not seen by the deadlock detection. 0 waits without a timeout.
+     */
+    public ConcurrentLockManager(final int lockManagerShrinkTimer, final int noArenas, final int tableSize,
+            final int escalationThreshold, final long escalationWaitTimeout) throws ACIDException {
         table = new ResourceGroupTable(tableSize);
+        maxTableSize = tableSize * MAX_TABLE_GROWTH_FACTOR;
+        this.escalationThreshold = escalationThreshold;
+        this.escalationWaitTimeout = escalationWaitTimeout;
         resArenaMgr = new ResourceArenaManager(noArenas, lockManagerShrinkTimer);
         reqArenaMgr = new RequestArenaManager(noArenas, lockManagerShrinkTimer);
         jobArenaMgr = new JobArenaManager(noArenas, lockManagerShrinkTimer);
@@ -112,13 +147,21 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         log("lock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.lock();
 
+        final int dsId = datasetId.getId();
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = findOrAllocJobSlot(txnId);
-        final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
-        group.getLatch();
+        if (acquireEscalatedLock(dsId, entityHashValue, jobSlot)) {
+            validateJob(txnContext);
+            return;
+        }
+        ResourceGroup group = null;
+        boolean escalate = false;
+        boolean grow = false;
         try {
+            group = latchGroup(dsId, entityHashValue, jobSlot, txnContext);
             validateJob(txnContext);
-            final long resSlot = findOrAllocResourceSlot(group, datasetId.getId(), entityHashValue);
+            final long resSlot = findOrAllocResourceSlot(group, dsId, entityHashValue);
+            grow = group.resources > MAX_GROUP_RESOURCES;
             final long reqSlot = allocRequestSlot(resSlot, jobSlot, lockMode);
             boolean locked = false;
             while (!locked) {
@@ -140,7 +183,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                         resArenaMgr.setMaxMode(resSlot, lockMode);
                         //fall-through
                     case GET:
-                        addHolder(reqSlot, resSlot, jobSlot);
+                        escalate = addHolder(reqSlot, resSlot, jobSlot);
                         locked = true;
                         break;
                     case WAIT:
@@ -155,7 +198,15 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             Thread.currentThread().interrupt();
             throw new ACIDException(e);
         } finally {
-            group.releaseLatch();
+            if (group != null) {
+                group.releaseLatch();
+            }
+        }
+        if (grow) {
+            growTable();
+        }
+        if (escalate) {
+            escalate(dsId, jobSlot);
         }
 
         if (CHECK_CONSISTENCY) {
@@ -174,10 +225,12 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         } else {
             queue.add(reqSlot, resSlot, jobSlot);
         }
+        final long waitStart = System.nanoTime();
         try {
             group.await(txnContext);
         } finally {
             queue.remove(reqSlot, resSlot, jobSlot);
+            stats.waited(System.nanoTime() - waitStart);
         }
     }
 
@@ -336,29 +389,33 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         log("instantLock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.instantLock();
 
+        final int dsId = datasetId.getId();
         final long txnId = txnContext.getTxnId().getId();
-        final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
-        if (group.firstResourceIndex == NILL) {
-            validateJob(txnContext);
-            // if we do not have a resource in the group, we know that the
-            // resource that we are looking for is not locked
-            return;
-        }
-
+        ResourceGroup group = null;
         // we only allocate a request slot if we actually have to wait
         long reqSlot = NILL;
-
-        group.getLatch();
         try {
+            // the fast path below does not latch the group, so we need to wait for escalations first
+            DatasetLockEscalation escalation;
+            while ((escalation = getOtherJobEscalation(dsId, entityHashValue, txnId2TxnSlotMap.get(txnId))) != null) {
+                awaitEscalation(escalation, txnContext);
+            }
+            if (table.get(dsId, entityHashValue).firstResourceIndex == NILL) {
+                validateJob(txnContext);
+                // if we do not have a resource in the group, we know that the
+                // resource that we are looking for is not locked
+                return;
+            }
+
+            final long jobSlot = findOrAllocJobSlot(txnId);
+            group = latchGroup(dsId, entityHashValue, jobSlot, txnContext);
             validateJob(txnContext);
-            final long resSlot = findResourceInGroup(group, datasetId.getId(), entityHashValue);
+            final long resSlot = findResourceInGroup(group, dsId, entityHashValue);
             if (resSlot < 0) {
                 // if we don't find the resource, there are no locks on it.
                 return;
             }
 
-            final long jobSlot = findOrAllocJobSlot(txnId);
-
             while (true) {
                 final LockAction act = determineLockAction(resSlot, jobSlot, lockMode);
                 switch (act) {
@@ -388,7 +445,9 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 }
                 reqArenaMgr.deallocate(reqSlot);
             }
-            group.releaseLatch();
+            if (group != null) {
+                group.releaseLatch();
+            }
         }
     }
 
@@ -398,15 +457,24 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         log("tryLock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.tryLock();
 
+        final int dsId = datasetId.getId();
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = findOrAllocJobSlot(txnId);
-        final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
-        group.getLatch();
-
+        if (acquireEscalatedLock(dsId, entityHashValue, jobSlot)) {
+            validateJob(txnContext);
+            return true;
+        }
+        final ResourceGroup group = latchGroup(dsId, entityHashValue);
+        boolean escalate = false;
+        boolean grow = false;
         try {
             validateJob(txnContext);
+            if (getOtherJobEscalation(dsId, entityHashValue, jobSlot) != null) {
+                return false;
+            }
 
-            final long resSlot = findOrAllocResourceSlot(group, datasetId.getId(), entityHashValue);
+            final long resSlot = findOrAllocResourceSlot(group, dsId, entityHashValue);
+            grow = group.resources > MAX_GROUP_RESOURCES;
             final long reqSlot = allocRequestSlot(resSlot, jobSlot, lockMode);
 
             final LockAction act = determineLockAction(resSlot, jobSlot, lockMode);
@@ -415,8 +483,8 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                     resArenaMgr.setMaxMode(resSlot, lockMode);
                     //fall-through
                 case GET:
-                    addHolder(reqSlot, resSlot, jobSlot);
-                    return true;
+                    escalate = addHolder(reqSlot, resSlot, jobSlot);
+                    break;
                 case WAIT:
                 case CONV:
                     return false;
@@ -426,6 +494,13 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         } finally {
             group.releaseLatch();
         }
+        if (grow) {
+            growTable();
+        }
+        if (escalate) {
+            escalate(dsId, jobSlot);
+        }
+        return true;
     }
 
     @Override
@@ -434,27 +509,34 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         log("instantTryLock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         stats.instantTryLock();
 
+        final int dsId = datasetId.getId();
         final long txnId = txnContext.getTxnId().getId();
-        final ResourceGroup group = table.get(datasetId.getId(), entityHashValue);
-        if (group.firstResourceIndex == NILL) {
+        if (getOtherJobEscalation(dsId, entityHashValue, txnId2TxnSlotMap.get(txnId)) != null) {
+            validateJob(txnContext);
+            return false;
+        }
+        if (table.get(dsId, entityHashValue).firstResourceIndex == NILL) {
             validateJob(txnContext);
             // if we do not have a resource in the group, we know that the
             // resource that we are looking for is not locked
             return true;
         }
 
-        group.getLatch();
+        final ResourceGroup group = latchGroup(dsId, entityHashValue);
         try {
             validateJob(txnContext);
 
-            final long resSlot = findResourceInGroup(group, datasetId.getId(), entityHashValue);
+            final long jobSlot = findOrAllocJobSlot(txnId);
+            if (getOtherJobEscalation(dsId, entityHashValue, jobSlot) != null) {
+                return false;
+            }
+
+            final long resSlot = findResourceInGroup(group, dsId, entityHashValue);
             if (resSlot < 0) {
                 // if we don't find the resource, there are no locks on it.
                 return true;
             }
 
-            final long jobSlot = findOrAllocJobSlot(txnId);
-
             LockAction act = determineLockAction(resSlot, jobSlot, lockMode);
             switch (act) {
                 case UPD:
@@ -472,25 +554,53 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         }
     }
 
+    @Override
+    public boolean tryEscalate(DatasetId datasetId, ITransactionContext txnContext) throws ACIDException {
+        log("tryEscalate", datasetId.getId(), NIL, LockMode.X, txnContext);
+        validateJob(txnContext);
+        if (MetadataIndexImmutableProperties.isMetadataDataset(datasetId.getId())) {
+            return false;
+        }
+        final long jobSlot = findOrAllocJobSlot(txnContext.getTxnId().getId());
+        return escalate(datasetId.getId(), jobSlot);
+    }
+
     @Override
     public void unlock(DatasetId datasetId, int entityHashValue, byte lockMode, ITransactionContext txnContext)
             throws ACIDException {
         log("unlock", datasetId.getId(), entityHashValue, lockMode, txnContext);
         final long txnId = txnContext.getTxnId().getId();
         final long jobSlot = txnId2TxnSlotMap.get(txnId);
+        final int dsId = datasetId.getId();
+        DatasetLockEscalation escalation = getEscalation(dsId, entityHashValue);
+        if (escalation != null && escalation.jobSlot != jobSlot) {
+            escalation = null;
+        }
 
-        unlock(datasetId.getId(), entityHashValue, lockMode, jobSlot);
+        unlock(dsId, entityHashValue, lockMode, jobSlot, escalation);
     }
 
     private void unlock(int dsId, int entityHashValue, byte lockMode, long jobSlot) throws ACIDException {
+        unlock(dsId, entityHashValue, lockMode, jobSlot, null);
+    }
+
+    /**
+     * @param escalation
+     *            the escalation of the job on the dataset or null. If the job does not hold a lock on the resource,
+     *            a lock that was acquired through the escalation is released.
+     */
+    private void unlock(int dsId, int entityHashValue, byte lockMode, long jobSlot,
+            DatasetLockEscalation escalation) throws ACIDException {
         log("unlock", dsId, entityHashValue, lockMode, null);
         stats.unlock();
 
-        ResourceGroup group = table.get(dsId, entityHashValue);
-        group.getLatch();
+        final ResourceGroup group = latchGroup(dsId, entityHashValue);
         try {
 
             long resource = findResourceInGroup(group, dsId, entityHashValue);
+            if (escalation != null && (resource < 0 || !isHolder(resource, jobSlot)) && escalation.release()) {
+                return;
+            }
             if (resource < 0) {
                 throw new IllegalStateException("resource (" + dsId + ",  " + entityHashValue + ") not found");
             }
@@ -521,6 +631,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                     LOGGER.trace("del res slot " + TypeUtil.Global.toString(resource));
                 }
                 resArenaMgr.deallocate(resource);
+                group.resources--;
             } else {
                 final int oldMaxMode = resArenaMgr.getMaxMode(resource);
                 final int newMaxMode = determineNewMaxMode(resource, oldMaxMode);
@@ -562,6 +673,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 holder = jobArenaMgr.getLastHolder(jobSlot);
             }
         }
+        closeEscalations(jobSlot);
         if (DEBUG_MODE) {
             LOGGER.trace("del job slot " + TypeUtil.Global.toString(jobSlot));
         }
@@ -604,6 +716,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             resArenaMgr.setPkHashVal(resSlot, entityHashValue);
             resArenaMgr.setNext(resSlot, group.firstResourceIndex);
             group.firstResourceIndex = resSlot;
+            group.resources++;
             if (DEBUG_MODE) {
                 LOGGER.trace("new res slot " + TypeUtil.Global.toString(resSlot) + " (" + dsId + ", " + entityHashValue
                         + ")");
@@ -690,7 +803,10 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         return NILL;
     }
 
-    private void addHolder(long request, long resource, long job) {
+    /**
+     * @return true if the job acquired enough entity locks on the dataset of the resource to escalate them
+     */
+    private boolean addHolder(long request, long resource, long job) {
         long lastHolder = resArenaMgr.getLastHolder(resource);
         reqArenaMgr.setNextRequest(request, lastHolder);
         resArenaMgr.setLastHolder(resource, request);
@@ -699,9 +815,39 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
             long lastJobHolder = jobArenaMgr.getLastHolder(job);
             insertIntoJobQueue(request, lastJobHolder);
             jobArenaMgr.setLastHolder(job, request);
+            return countEntityLock(request, resource, job);
         }
     }
 
+    /**
+     * counts the exclusive entity locks that a job acquires on the user dataset that it last locked an entity of.
+     * The caller must synchronize on the jobArenaMgr.
+     */
+    private boolean countEntityLock(long request, long resource, long job) {
+        if (escalationThreshold <= 0 || reqArenaMgr.getLockMode(request) != LockMode.X
+                || resArenaMgr.getPkHashVal(resource) == NIL) {
+            return false;
+        }
+        final int dsId = resArenaMgr.getDatasetId(resource);
+        if (MetadataIndexImmutableProperties.isMetadataDataset(dsId)) {
+            return false;
+        }
+        int count = 1;
+        if (jobArenaMgr.getCountedDatasetId(job) == dsId) {
+            count += jobArenaMgr.getEntityLockCount(job);
+        } else {
+            jobArenaMgr.setCountedDatasetId(job, dsId);
+        }
+        jobArenaMgr.setEntityLockCount(job, count);
+        // a failed escalation scans the lock table, so the count to the next attempt doubles after each attempt
+        return count % escalationThreshold == 0 && Integer.bitCount(count / escalationThreshold) == 1;
+    }
+
+    private boolean hasOtherRequests(long resSlot, long jobSlot) {
+        return hasOtherHolders(resSlot, jobSlot) || resArenaMgr.getFirstWaiter(resSlot) != NILL
+                || resArenaMgr.getFirstUpgrader(resSlot) != NILL;
+    }
+
     private boolean hasOtherHolders(long resSlot, long jobSlot) {
         long holder = resArenaMgr.getLastHolder(resSlot);
         while (holder != NILL) {
@@ -713,6 +859,17 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
         return false;
     }
 
+    private boolean isHolder(long resSlot, long jobSlot) {
+        long holder = resArenaMgr.getLastHolder(resSlot);
+        while (holder != NILL) {
+            if (reqArenaMgr.getJobSlot(holder) == jobSlot) {
+                return true;
+            }
+            holder = reqArenaMgr.getNextRequest(holder);
+        }
+        return false;
+    }
+
     private long removeLastHolder(long resource, long jobSlot, byte lockMode) {
         long holder = resArenaMgr.getLastHolder(resource);
         if (holder < 0) {
@@ -924,6 +1081,205 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
                 && resArenaMgr.getFirstWaiter(resource) == NILL;
     }
 
+    /**
+     * latches the group of a resource in the current table.
+     */
+    private ResourceGroup latchGroup(int dsId, int entityHashValue) {
+        while (true) {
+            final ResourceGroup group = table.get(dsId, entityHashValue);
+            group.getLatch();
+            if (!group.retired) {
+                return group;
+            }
+            // the table grew while we were waiting for the latch
+            group.releaseLatch();
+        }
+    }
+
+    /**
+     * latches the group of a resource after waiting for the escalations of other jobs on the dataset to be closed.
+     * Escalations are checked after latching the group to ensure that an escalation either sees the requests
+     * of this job or is seen by this job.
+     */
+    private ResourceGroup latchGroup(int dsId, int entityHashValue, long jobSlot, ITransactionContext txnContext)
+            throws ACIDException, InterruptedException {
+        while (true) {
+            final ResourceGroup group = latchGroup(dsId, entityHashValue);
+            final DatasetLockEscalation escalation = getOtherJobEscalation(dsId, entityHashValue, jobSlot);
+            if (escalation == null) {
+                return group;
+            }
+            group.releaseLatch();
+            awaitEscalation(escalation, txnContext);
+        }
+    }
+
+    private void growTable() {
+        synchronized (tableMaintenanceLock) {
+            final ResourceGroupTable current = table;
+            if (current.size >= maxTableSize) {
+                return;
+            }
+            current.getAllLatches();
+            try {
+                // we cannot move resources while lock requests are waiting in the groups of the current table
+                if (current.hasLockWaiters() || !hasOverfullGroup(current)) {
+                    return;
+                }
+                final ResourceGroupTable grown = new ResourceGroupTable(Math.min(current.size * 2 + 1, maxTableSize));
+                for (int i = 0; i < current.size; ++i) {
+                    final ResourceGroup group = current.get(i);
+                    long resSlot = group.firstResourceIndex;
+                    while (resSlot != NILL) {
+                        final long next = resArenaMgr.getNext(resSlot);
+                        final ResourceGroup newGroup =
+                                grown.get(resArenaMgr.getDatasetId(resSlot), resArenaMgr.getPkHashVal(resSlot));
+                        resArenaMgr.setNext(resSlot, newGroup.firstResourceIndex);
+                        newGroup.firstResourceIndex = resSlot;
+                        newGroup.resources++;
+                        resSlot = next;
+                    }
+                    // the firstResourceIndex of retired groups is kept as threads might still check it before
+                    // latching
+                    group.retired = true;
+                }
+                table = grown;
+                stats.tableGrowth();
+                LOGGER.debug("lock table grew from {} to {} groups", current.size, grown.size);
+            } finally {
+                current.releaseAllLatches();
+            }
+        }
+    }
+
+    private static boolean hasOverfullGroup(ResourceGroupTable table) {
+        for (int i = 0; i < table.size; ++i) {
+            if (table.get(i).resources > MAX_GROUP_RESOURCES) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the job holds an escalation on the dataset
+     */
+    private boolean escalate(int dsId, long jobSlot) {
+        final DatasetLockEscalation escalation = new DatasetLockEscalation(dsId, jobSlot);
+        escalationsCount.incrementAndGet();
+        final DatasetLockEscalation existing = escalations.putIfAbsent(dsId, escalation);
+        if (existing != null && !(existing.isClosed() && escalations.replace(dsId, existing, escalation))) {
+            escalationsCount.decrementAndGet();
+            return existing.jobSlot == jobSlot && !existing.isClosed();
+        }
+        if (existing != null) {
+            // replaced a closed escalation
+            escalationsCount.decrementAndGet();
+        }
+        final boolean conflict;
+        synchronized (tableMaintenanceLock) {
+            conflict = hasOtherJobRequests(dsId, jobSlot);
+        }
+        if (conflict) {
+            escalation.close();
+            removeEscalation(escalation);
+            stats.failedEscalation();
+            return false;
+        }
+        escalation.open();
+        stats.escalation();
+        LOGGER.debug("escalated entity locks to dataset lock {}", escalation);
+        return true;
+    }
+
+    private boolean hasOtherJobRequests(int dsId, long jobSlot) {
+        final ResourceGroupTable current = table;
+        for (int i = 0; i < current.size; ++i) {
+            final ResourceGroup group = current.get(i);
+            // a group that is not latched and has no resources has no requests and requests that latch it later
+            // will see the escalation
+            if (!group.isLatched() && group.firstResourceIndex == NILL) {
+                continue;
+            }
+            group.getLatch();
+            try {
+                long resSlot = group.firstResourceIndex;
+                while (resSlot != NILL) {
+                    if (resArenaMgr.getDatasetId(resSlot) == dsId && resArenaMgr.getPkHashVal(resSlot) != NIL
+                            && hasOtherRequests(resSlot, jobSlot)) {
+                        return true;
+                    }
+                    resSlot = resArenaMgr.getNext(resSlot);
+                }
+            } finally {
+                group.releaseLatch();
+            }
+        }
+        return false;
+    }
+
+    private DatasetLockEscalation getEscalation(int dsId, int entityHashValue) {
+        if (entityHashValue == NIL || escalationsCount.get() == 0) {
+            return null;
+        }
+        return escalations.get(dsId);
+    }
+
+    private DatasetLockEscalation getOtherJobEscalation(int dsId, int entityHashValue, long jobSlot) {
+        final DatasetLockEscalation escalation = getEscalation(dsId, entityHashValue);
+        if (escalation == null || escalation.jobSlot == jobSlot) {
+            return null;
+        }
+        if (escalation.isClosed()) {
+            removeEscalation(escalation);
+            return null;
+        }
+        return escalation;
+    }
+
+    private boolean acquireEscalatedLock(int dsId, int entityHashValue, long jobSlot) {
+        final DatasetLockEscalation escalation = getEscalation(dsId, entityHashValue);
+        if (escalation != null && escalation.jobSlot == jobSlot && escalation.acquire()) {
+            stats.escalatedLock();
+            return true;
+        }
+        return false;
+    }
+
+    private void awaitEscalation(DatasetLockEscalation escalation, ITransactionContext txnContext)
+            throws ACIDException, InterruptedException {
+        final long waitStart = System.nanoTime();
+        final boolean closed;
+        try {
+            closed = escalation.await(escalationWaitTimeout);
+        } finally {
+            stats.waited(System.nanoTime() - waitStart);
+        }
+        if (!closed) {
+            // the owner of the escalation might be waiting for a lock of this job
+            requestAbort(txnContext, "timed out waiting for escalation " + escalation);
+        }
+        removeEscalation(escalation);
+    }
+
+    private void closeEscalations(long jobSlot) {
+        if (escalationsCount.get() == 0) {
+            return;
+        }
+        for (DatasetLockEscalation escalation : escalations.values()) {
+            if (escalation.jobSlot == jobSlot) {
+                escalation.close();
+                removeEscalation(escalation);
+            }
+        }
+    }
+
+    private void removeEscalation(DatasetLockEscalation escalation) {
+        if (escalations.remove(escalation.datasetId, escalation)) {
+            escalationsCount.decrementAndGet();
+        }
+    }
+
     private void validateJob(ITransactionContext txnContext) throws ACIDException {
         if (txnContext.getTxnState() == ITransactionManager.ABORTED) {
             throw new ACIDException("" + txnContext.getTxnId() + " is in ABORTED state.");
@@ -966,6 +1322,7 @@ public class ConcurrentLockManager implements ILockManager, ILifeCycleComponent
     }
 
     private void assertLocksCanBefoundInJobQueue() throws ACIDException {
+        final ResourceGroupTable table = this.table;
         try {
             for (int i = 0; i < table.size; ++i) {
                 final ResourceGroup group = table.get(i);
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.locking;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DatasetLockEscalation represents the escalation of the entity locks of a job on a dataset to a single exclusive
+ * lock on all entities of the dataset. While an escalation is open, the entity lock requests of the owning job are
+ * served by incrementing a counter and the entity lock requests of other jobs on the dataset wait until the
+ * escalation is closed. An escalation is closed once all entity locks that were granted through it are released
+ * and another job is waiting for it, or when the owning job releases its locks.
+ *
+ * @see ConcurrentLockManager
+ */
+class DatasetLockEscalation {
+    private static final int PENDING = -2;
+    private static final int CLOSED = -1;
+
+    final int datasetId;
+    final long jobSlot;
+    // number of entity locks granted through this escalation or PENDING or CLOSED
+    private final AtomicInteger locks = new AtomicInteger(PENDING);
+    private volatile boolean hasWaiters;
+
+    DatasetLockEscalation(int datasetId, long jobSlot) {
+        this.datasetId = datasetId;
+        this.jobSlot = jobSlot;
+    }
+
+    void open() {
+        if (locks.compareAndSet(PENDING, 0) && hasWaiters) {
+            tryClose();
+        }
+    }
+
+    boolean isClosed() {
+        return locks.get() == CLOSED;
+    }
+
+    /**
+     * @return true if an entity lock was granted through this escalation, false if the escalation is not open or
+     *         other jobs are waiting for it to be closed.
+     */
+    boolean acquire() {
+        while (!hasWaiters) {
+            final int count = locks.get();
+            if (count < 0) {
+                return false;
+            }
+            if (locks.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if an entity lock that was granted through this escalation was released, false otherwise
+     */
+    boolean release() {
+        while (true) {
+            final int count = locks.get();
+            if (count <= 0) {
+                return false;
+            }
+            if (locks.compareAndSet(count, count - 1)) {
+                if (count == 1 && hasWaiters) {
+                    tryClose();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Waits until the escalation is closed. Registering as a waiter stops the owning job from acquiring more locks
+     * through the escalation, which closes it once the locks that were granted through it are released.
+     *
+     * @param timeout
+     *            the maximum time to wait in milliseconds or 0 to wait until the escalation is closed
+     * @return true if the escalation was closed, false if the timeout elapsed
+     */
+    synchronized boolean await(long timeout) throws InterruptedException {
+        hasWaiters = true;
+        tryClose();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (!isClosed()) {
+            if (timeout <= 0) {
+                wait();
+                continue;
+            }
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    private void tryClose() {
+        if (locks.compareAndSet(0, CLOSED)) {
+            wakeUp();
+        }
+    }
+
+    /**
+     * closes the escalation regardless of the number of entity locks that were granted through it.
+     */
+    void close() {
+        locks.set(CLOSED);
+        wakeUp();
+    }
+
+    private synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    @Override
+    public String toString() {
+        return "{ dataset : " + datasetId + ", job : " + TypeUtil.Global.toString(jobSlot) + ", locks : " + locks.get()
+                + ", waiters : " + hasWaiters + " }";
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.asterix.transaction.management.service.locking;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.logging.log4j.Level;
@@ -33,6 +34,12 @@ final class LockManagerStats {
     private final AtomicLong itlCnt = new AtomicLong();
     private final AtomicLong ulCnt = new AtomicLong();
     private final AtomicLong rlCnt = new AtomicLong();
+    private final AtomicLong waitCnt = new AtomicLong();
+    private final AtomicLong waitTime = new AtomicLong();
+    private final AtomicLong escCnt = new AtomicLong();
+    private final AtomicLong failedEscCnt = new AtomicLong();
+    private final AtomicLong escLockCnt = new AtomicLong();
+    private final AtomicLong growCnt = new AtomicLong();
 
     LockManagerStats(int loggingPeriod) {
         this.loggingPeriod = loggingPeriod;
@@ -62,6 +69,27 @@ final class LockManagerStats {
         rlCnt.incrementAndGet();
     }
 
+    final void waited(long waitNanos) {
+        waitCnt.incrementAndGet();
+        waitTime.addAndGet(waitNanos);
+    }
+
+    final void escalation() {
+        escCnt.incrementAndGet();
+    }
+
+    final void failedEscalation() {
+        failedEscCnt.incrementAndGet();
+    }
+
+    final void escalatedLock() {
+        escLockCnt.incrementAndGet();
+    }
+
+    final void tableGrowth() {
+        growCnt.incrementAndGet();
+    }
+
     final int requestSum() {
         return lCnt.intValue() + ilCnt.intValue() + tlCnt.intValue() + itlCnt.intValue() + ulCnt.intValue()
                 + rlCnt.intValue();
@@ -70,7 +98,11 @@ final class LockManagerStats {
     final StringBuilder append(StringBuilder sb) {
         sb.append("{").append(" lock : ").append(lCnt).append(", instantLock : ").append(ilCnt).append(", tryLock : ")
                 .append(tlCnt).append(", instantTryLock : ").append(itlCnt).append(", unlock : ").append(ulCnt)
-                .append(", releaseLocks : ").append(rlCnt).append(" }");
+                .append(", releaseLocks : ").append(rlCnt).append(", waits : ").append(waitCnt)
+                .append(", waitTimeMs : ").append(TimeUnit.NANOSECONDS.toMillis(waitTime.get()))
+                .append(", escalations : ").append(escCnt).append(", failedEscalations : ").append(failedEscCnt)
+                .append(", escalatedLocks : ").append(escLockCnt).append(", tableGrowths : ").append(growCnt)
+                .append(" }");
         return sb;
     }
 
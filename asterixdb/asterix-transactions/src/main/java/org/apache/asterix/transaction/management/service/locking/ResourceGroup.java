@@ -37,6 +37,10 @@ class ResourceGroup {
     private final ReentrantLock latch;
     private final Condition condition;
     volatile long firstResourceIndex;
+    // number of resources in the group, protected by the latch
+    int resources;
+    // set once the resources of the group have been moved to a larger ResourceGroupTable
+    volatile boolean retired;
 
     ResourceGroup() {
         latch = new ReentrantLock();
@@ -68,6 +72,17 @@ class ResourceGroup {
         return latch.hasQueuedThreads();
     }
 
+    boolean isLatched() {
+        return latch.isLocked();
+    }
+
+    /**
+     * @return true if a thread is waiting for a lock on a resource in this group. The caller must hold the latch.
+     */
+    boolean hasLockWaiters() {
+        return latch.hasWaiters(condition);
+    }
+
     void await(ITransactionContext txnContext) throws InterruptedException {
         log("wait for");
         try {
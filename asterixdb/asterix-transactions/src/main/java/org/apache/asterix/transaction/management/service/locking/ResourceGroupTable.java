@@ -21,7 +21,8 @@ package org.apache.asterix.transaction.management.service.locking;
 /**
  * A hash table for ResourceGroups. As each ResourceGroup has a latch that protects the modifications for resources in
  * that group, the size of a ResourceGroupTable determines the maximal number of lock requests that can concurrently
- * be served by a ConcurrentLockManager.
+ * be served by a ConcurrentLockManager. A ConcurrentLockManager replaces its table with a larger one when the
+ * resources in a group exceed a threshold.
  *
  * @see ResourceGroup
  * @see ConcurrentLockManager
@@ -60,6 +61,18 @@ class ResourceGroupTable {
         }
     }
 
+    /**
+     * @return true if a thread is waiting for a lock on any resource in the table. The caller must hold all latches.
+     */
+    boolean hasLockWaiters() {
+        for (int i = 0; i < size; ++i) {
+            if (table[i].hasLockWaiters()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public StringBuilder append(StringBuilder sb) {
         return append(sb, false);
     }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how long the log flusher delays the force of a partially filled log page to group the commits of
+ * concurrent jobs into a single force. Based on the moving averages of the commit rate and of the force time, the
+ * flusher only waits if at least one more commit is expected to arrive within the window, which is bounded by both
+ * the configured maximum latency and the force time. A job that commits alone is therefore never delayed.
+ * All methods but {@link #commitAppended()} are called by the log flusher thread only.
+ */
+final class GroupCommitWindow {
+    // the weight of the latest sample in the moving averages
+    private static final double ALPHA = 0.2;
+
+    private final long maxLatencyNanos;
+    private final LogFlushStats stats;
+    private final AtomicLong appendedCommits = new AtomicLong();
+    private double commitsPerNano;
+    private double avgForceNanos;
+    private long lastForceTime = System.nanoTime();
+    private long lastAppendedCommits;
+
+    GroupCommitWindow(long maxLatencyNanos, LogFlushStats stats) {
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.stats = stats;
+    }
+
+    /**
+     * called when a log record that waits for its flush is appended
+     */
+    void commitAppended() {
+        appendedCommits.incrementAndGet();
+    }
+
+    long getWindowNanos() {
+        return Math.min(maxLatencyNanos, (long) avgForceNanos);
+    }
+
+    /**
+     * @return the number of commits that are expected to be appended within the given window
+     */
+    int getExpectedCommits(long windowNanos) {
+        return (int) Math.min(Integer.MAX_VALUE, commitsPerNano * windowNanos);
+    }
+
+    void forced(long forceNanos) {
+        final long now = System.nanoTime();
+        final long commits = appendedCommits.get();
+        final double rate = (double) (commits - lastAppendedCommits) / Math.max(1, now - lastForceTime);
+        commitsPerNano = ALPHA * rate + (1 - ALPHA) * commitsPerNano;
+        avgForceNanos = ALPHA * forceNanos + (1 - ALPHA) * avgForceNanos;
+        lastForceTime = now;
+        lastAppendedCommits = commits;
+        stats.forced(forceNanos);
+    }
+
+    void committed(long latencyNanos) {
+        stats.committed(latencyNanos);
+    }
+
+    LogFlushStats getStats() {
+        return stats;
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.asterix.transaction.management.service.logging;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.asterix.common.context.PrimaryIndexOperationTracker;
@@ -39,6 +40,7 @@ import org.apache.asterix.common.transactions.MutableLong;
 import org.apache.asterix.common.transactions.TxnId;
 import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -63,9 +65,20 @@ public class LogBuffer implements ILogBuffer {
     private boolean stop;
     private final MutableTxnId reusableTxnId;
     private final DatasetId reusableDatasetId;
+    private final GroupCommitWindow groupCommit;
+    // append times of the log records in the syncCommitQ, used as a ring buffer
+    private final long[] syncCommitAppendTimes;
+    private int syncCommitAppendIdx;
+    private int syncCommitNotifyIdx;
 
     public LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize, MutableLong flushLSN) {
+        this(txnSubsystem, logPageSize, flushLSN, new GroupCommitWindow(0, new LogFlushStats(Integer.MAX_VALUE)));
+    }
+
+    LogBuffer(ITransactionSubsystem txnSubsystem, int logPageSize, MutableLong flushLSN,
+            GroupCommitWindow groupCommit) {
         this.txnSubsystem = txnSubsystem;
+        this.groupCommit = groupCommit;
         this.logPageSize = logPageSize;
         this.flushLSN = flushLSN;
         appendBuffer = ByteBuffer.allocate(logPageSize);
@@ -76,6 +89,7 @@ public class LogBuffer implements ILogBuffer {
         appendOffset = 0;
         flushOffset = 0;
         syncCommitQ = new LinkedBlockingQueue<>(logPageSize / LogConstants.JOB_TERMINATE_LOG_SIZE);
+        syncCommitAppendTimes = new long[logPageSize / LogConstants.JOB_TERMINATE_LOG_SIZE];
         flushQ = new LinkedBlockingQueue<>();
         remoteJobsQ = new LinkedBlockingQueue<>();
         reusableTxnId = new MutableTxnId(-1);
@@ -102,6 +116,9 @@ public class LogBuffer implements ILogBuffer {
             if (logRecord.getLogSource() == LogSource.LOCAL) {
                 if (syncPendingNonFlushLog(logRecord)) {
                     logRecord.isFlushed(false);
+                    syncCommitAppendTimes[syncCommitAppendIdx] = System.nanoTime();
+                    syncCommitAppendIdx = (syncCommitAppendIdx + 1) % syncCommitAppendTimes.length;
+                    groupCommit.commitAppended();
                     syncCommitQ.add(logRecord);
                 } else if (logRecord.getLogType() == LogType.FLUSH) {
                     flushQ.add(logRecord);
@@ -176,6 +193,9 @@ public class LogBuffer implements ILogBuffer {
                             }
                             wait();
                         }
+                        if (!stopping && !stop) {
+                            awaitGroupCommit();
+                        }
                         endOffset = appendOffset;
                     }
                     internalFlush(flushOffset, endOffset);
@@ -191,12 +211,37 @@ public class LogBuffer implements ILogBuffer {
         }
     }
 
+    /**
+     * Delays the flush of a partially filled page while more commits are expected to arrive within the group commit
+     * window. The caller must hold the monitor of this buffer.
+     */
+    private void awaitGroupCommit() throws InterruptedException {
+        if (full.get() || syncCommitQ.isEmpty()) {
+            return;
+        }
+        final long window = groupCommit.getWindowNanos();
+        final int expectedCommits = groupCommit.getExpectedCommits(window);
+        if (expectedCommits < 1) {
+            return;
+        }
+        final int targetCommits = syncCommitQ.size() + expectedCommits;
+        final long deadline = System.nanoTime() + window;
+        long remaining = window;
+        while (remaining > 0 && !full.get() && !stop && syncCommitQ.size() < targetCommits) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
     private void internalFlush(int beginOffset, int endOffset) {
         try {
             if (endOffset > beginOffset) {
                 flushBuffer.limit(endOffset);
+                final long forceStart = System.nanoTime();
                 fileChannel.write(flushBuffer);
                 fileChannel.force(false);
+                groupCommit.forced(System.nanoTime() - forceStart);
+                groupCommit.getStats().logCounters(LOGGER, Level.DEBUG, false);
                 flushOffset = endOffset;
                 synchronized (flushLSN) {
                     flushLSN.set(flushLSN.get() + (endOffset - beginOffset));
@@ -268,6 +313,9 @@ public class LogBuffer implements ILogBuffer {
                 //ignore
             }
         }
+        final long appendTime = syncCommitAppendTimes[syncCommitNotifyIdx];
+        syncCommitNotifyIdx = (syncCommitNotifyIdx + 1) % syncCommitAppendTimes.length;
+        groupCommit.committed(System.nanoTime() - appendTime);
         synchronized (logRecord) {
             logRecord.isFlushed(true);
             logRecord.notifyAll();
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Counts the forces of the transaction log and the commit latencies, i.e. the time between appending a log record
+ * that waits for its flush (e.g. JOB_COMMIT) and notifying its waiter. Latencies are kept in a histogram with
+ * power-of-two microsecond buckets, so percentiles are reported as the upper bound of their bucket.
+ */
+final class LogFlushStats {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int LATENCY_BUCKETS = 40;
+
+    private final int loggingPeriod;
+    private final AtomicLong forceCnt = new AtomicLong();
+    private final AtomicLong forceTime = new AtomicLong();
+    private final AtomicLong commitCnt = new AtomicLong();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+    private final long startTime = System.nanoTime();
+
+    LogFlushStats(int loggingPeriod) {
+        this.loggingPeriod = loggingPeriod;
+    }
+
+    final void forced(long forceNanos) {
+        forceCnt.incrementAndGet();
+        forceTime.addAndGet(forceNanos);
+    }
+
+    final void committed(long latencyNanos) {
+        commitCnt.incrementAndGet();
+        final long micros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        final int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        latencies.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return an upper bound of the given percentile of the commit latencies in microseconds
+     */
+    final long getLatencyPercentile(double percentile) {
+        final long count = commitCnt.get();
+        final long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (LATENCY_BUCKETS - 1);
+    }
+
+    final double getForcesPerSecond() {
+        final long elapsed = System.nanoTime() - startTime;
+        return forceCnt.get() * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed);
+    }
+
+    final long getAvgForceTimeMicros() {
+        final long forces = forceCnt.get();
+        return forces == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(forceTime.get()) / forces;
+    }
+
+    final ObjectNode asJson() {
+        final ObjectNode json = OBJECT_MAPPER.createObjectNode();
+        json.put("forces", forceCnt.get());
+        json.put("forcesPerSec", getForcesPerSecond());
+        json.put("avgForceTimeUs", getAvgForceTimeMicros());
+        json.put("commits", commitCnt.get());
+        final ObjectNode latency = json.putObject("commitLatencyUs");
+        latency.put("p50", getLatencyPercentile(50));
+        latency.put("p90", getLatencyPercentile(90));
+        latency.put("p99", getLatencyPercentile(99));
+        latency.put("p999", getLatencyPercentile(99.9));
+        return json;
+    }
+
+    final StringBuilder append(StringBuilder sb) {
+        final long forces = forceCnt.get();
+        sb.append("{").append(" forces : ").append(forces).append(", forcesPerSec : ")
+                .append(String.format("%.2f", getForcesPerSecond())).append(", avgForceTimeUs : ")
+                .append(getAvgForceTimeMicros())
+                .append(", commits : ").append(commitCnt).append(", commitLatencyUs : { p50 : ")
+                .append(getLatencyPercentile(50)).append(", p90 : ").append(getLatencyPercentile(90))
+                .append(", p99 : ").append(getLatencyPercentile(99)).append(", p999 : ")
+                .append(getLatencyPercentile(99.9)).append(" } }");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return append(new StringBuilder()).toString();
+    }
+
+    final void logCounters(final Logger logger, final Level lvl, boolean always) {
+        if (logger.isEnabled(lvl) && (always || forceCnt.get() % loggingPeriod == 0)) {
+            logger.log(lvl, toString());
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.asterix.common.exceptions.ACIDException;
@@ -58,6 +59,8 @@ import org.apache.hyracks.util.ExitUtil;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 public class LogManager implements ILogManager, ILifeCycleComponent {
 
     private static final Logger LOGGER = org.apache.logging.log4j.LogManager.getLogger();
@@ -76,6 +79,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
     private final int logPageSize;
     private final AtomicLong appendLSN;
     private final long maxLogRecordSize;
+    private final GroupCommitWindow groupCommit;
 
     private LinkedBlockingQueue<ILogBuffer> emptyQ;
     private LinkedBlockingQueue<ILogBuffer> flushQ;
@@ -99,6 +103,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         logFilePrefix = logManagerProperties.getLogFilePrefix();
         flushLSN = new MutableLong();
         appendLSN = new AtomicLong();
+        groupCommit = new GroupCommitWindow(
+                TimeUnit.MICROSECONDS.toNanos(logManagerProperties.getGroupCommitMaxLatency()),
+                new LogFlushStats(10000));
         nodeId = txnSubsystem.getId();
         flushLogsQ = new LinkedBlockingQueue<>();
         txnSubsystem.getApplicationContext().getThreadExecutor().execute(new FlushLogsLogger());
@@ -111,7 +118,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         flushQ = new LinkedBlockingQueue<>(numLogPages);
         stashQ = new LinkedBlockingQueue<>(numLogPages);
         for (int i = 0; i < numLogPages; i++) {
-            emptyQ.add(new LogBuffer(txnSubsystem, logPageSize, flushLSN));
+            emptyQ.add(new LogBuffer(txnSubsystem, logPageSize, flushLSN, groupCommit));
         }
         appendLSN.set(initializeLogAnchor(nextLogFileId));
         flushLSN.set(appendLSN.get());
@@ -232,7 +239,7 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         if (largePage) {
             // for now, alloc a new buffer for each large page
             // TODO: pool large pages??
-            appendPage = new LogBuffer(txnSubsystem, logSize, flushLSN);
+            appendPage = new LogBuffer(txnSubsystem, logSize, flushLSN, groupCommit);
         } else {
             appendPage.reset();
         }
@@ -332,6 +339,9 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
 
         // #. dump LSNInfo
         dumpLSNInfo(os);
+
+        // #. dump FlushStats
+        dumpFlushStats(os);
     }
 
     private void dumpConfVars(OutputStream os) {
@@ -349,6 +359,26 @@ public class LogManager implements ILogManager, ILifeCycleComponent {
         }
     }
 
+    @Override
+    public JsonNode getFlushStats() {
+        return groupCommit.getStats().asJson();
+    }
+
+    private void dumpFlushStats(OutputStream os) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n>>dump_begin\t>>----- [FlushStats] -----\n");
+            groupCommit.getStats().append(sb);
+            sb.append("\n>>dump_end\t>>----- [FlushStats] -----\n");
+            os.write(sb.toString().getBytes());
+        } catch (Exception e) {
+            // ignore exception and continue dumping as much as possible.
+            if (IS_DEBUG_MODE) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     private void dumpLSNInfo(OutputStream os) {
         try {
             StringBuilder sb = new StringBuilder();
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.locking;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.asterix.common.transactions.DatasetId;
+import org.apache.asterix.common.transactions.ITransactionContext;
+import org.apache.asterix.common.transactions.TxnId;
+import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Measures the lock requests of the primary upsert operator with and without the escalated upsert mode
+ * (txn.lock.escalateupserts): every partition of the job try-locks the primary key of each record before it searches
+ * the index and unlocks it once the record is committed.
+ */
+public class EscalatedUpsertLockPerformanceTest {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final DatasetId DATASET = new DatasetId(101);
+    private static final int PARTITIONS = 4;
+    private static final int RECORDS = 250000;
+    private static final int ROUNDS = 5;
+    // the default txn.lock.table.size
+    private static final int TABLE_SIZE = 1009;
+
+    @Test
+    public void measureUpsertLockThroughput() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(PARTITIONS);
+        try {
+            // the first rounds warm up the lock manager
+            for (int round = 1; round <= ROUNDS; round++) {
+                final long entityLocks = upsert(executor, 2 * round, false);
+                final long escalated = upsert(executor, 2 * round + 1, true);
+                LOGGER.info("round {}: {} records/s with entity locks, {} records/s with an escalated upsert", round,
+                        recordsPerSecond(entityLocks), recordsPerSecond(escalated));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the time in nanoseconds the partitions of the job took to lock and unlock their records
+     */
+    private static long upsert(ExecutorService executor, int job, boolean escalate) throws Exception {
+        final ConcurrentLockManager lockMgr = new ConcurrentLockManager(5000, TABLE_SIZE);
+        final ITransactionContext txn = txn(job);
+        if (escalate) {
+            Assert.assertTrue(lockMgr.tryEscalate(DATASET, txn));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> partitions = new ArrayList<>();
+        for (int p = 0; p < PARTITIONS; p++) {
+            final int partition = p;
+            partitions.add(executor.submit(() -> {
+                start.await();
+                for (int i = partition; i < PARTITIONS * RECORDS; i += PARTITIONS) {
+                    Assert.assertTrue(lockMgr.tryLock(DATASET, i, LockMode.X, txn));
+                    lockMgr.unlock(DATASET, i, LockMode.X, txn);
+                }
+                return null;
+            }));
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (Future<Void> partition : partitions) {
+            partition.get(1, TimeUnit.MINUTES);
+        }
+        final long elapsed = System.nanoTime() - begin;
+        lockMgr.releaseLocks(txn);
+        // all the locks were released
+        Assert.assertTrue(lockMgr.tryEscalate(DATASET, txn(job + 1)));
+        return elapsed;
+    }
+
+    private static long recordsPerSecond(long nanos) {
+        return PARTITIONS * RECORDS * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private static ITransactionContext txn(int id) {
+        final ITransactionContext txnCtx = mock(ITransactionContext.class);
+        when(txnCtx.getTxnId()).thenReturn(new TxnId(id));
+        return txnCtx;
+    }
+}
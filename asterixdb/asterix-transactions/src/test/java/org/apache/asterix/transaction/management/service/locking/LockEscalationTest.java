@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.locking;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apache.asterix.common.exceptions.ACIDException;
+import org.apache.asterix.common.transactions.DatasetId;
+import org.apache.asterix.common.transactions.ITransactionContext;
+import org.apache.asterix.common.transactions.TxnId;
+import org.apache.asterix.transaction.management.service.transaction.TransactionManagementConstants.LockManagerConstants.LockMode;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LockEscalationTest {
+
+    private static final int ESCALATION_THRESHOLD = 4;
+    private static final long ESCALATION_WAIT_TIMEOUT = 1000;
+    // metadata datasets are never escalated
+    private static final DatasetId METADATA_DATASET = new DatasetId(1);
+    private static final DatasetId DATASET = new DatasetId(101);
+
+    private ConcurrentLockManager lockMgr;
+
+    @Before
+    public void setUp() throws Exception {
+        lockMgr = new ConcurrentLockManager(5000, 2, 1, ESCALATION_THRESHOLD, ESCALATION_WAIT_TIMEOUT);
+    }
+
+    @Test
+    public void testEscalation() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        for (int i = 0; i < 2 * ESCALATION_THRESHOLD; i++) {
+            lockMgr.lock(DATASET, i, LockMode.X, txn1);
+        }
+        // the entities are locked by the escalation, even if txn1 did not lock them
+        Assert.assertFalse(lockMgr.tryLock(DATASET, 2 * ESCALATION_THRESHOLD, LockMode.S, txn2));
+        Assert.assertFalse(lockMgr.instantTryLock(DATASET, 2 * ESCALATION_THRESHOLD, LockMode.S, txn2));
+        // other datasets are not affected
+        Assert.assertTrue(lockMgr.tryLock(METADATA_DATASET, 0, LockMode.X, txn2));
+        for (int i = 0; i < 2 * ESCALATION_THRESHOLD; i++) {
+            lockMgr.unlock(DATASET, i, LockMode.ANY, txn1);
+        }
+        lockMgr.releaseLocks(txn1);
+        Assert.assertTrue(lockMgr.tryLock(DATASET, 0, LockMode.X, txn2));
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testNoEscalationOnConflict() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        lockMgr.lock(DATASET, -1, LockMode.S, txn2);
+        lockMgr.lock(DATASET, 100, LockMode.S, txn2);
+        for (int i = 0; i < ESCALATION_THRESHOLD; i++) {
+            lockMgr.lock(DATASET, i, LockMode.X, txn1);
+        }
+        // txn2 holds an entity lock on the dataset, so txn1 keeps its entity locks
+        Assert.assertTrue(lockMgr.tryLock(DATASET, 101, LockMode.S, txn2));
+        Assert.assertFalse(lockMgr.tryLock(DATASET, 0, LockMode.S, txn2));
+        lockMgr.releaseLocks(txn1);
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testWaitForEscalation() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        // the last lock is acquired through the escalation
+        for (int i = 0; i <= ESCALATION_THRESHOLD; i++) {
+            lockMgr.lock(DATASET, i, LockMode.X, txn1);
+        }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Void> waiter = executor.submit(() -> {
+                lockMgr.lock(DATASET, 100, LockMode.X, txn2);
+                return null;
+            });
+            try {
+                waiter.get(100, TimeUnit.MILLISECONDS);
+                Assert.fail("txn2 acquired a lock on a dataset that is locked by txn1");
+            } catch (TimeoutException e) {
+                // expected
+            }
+            // txn1 cannot acquire further locks through the escalation while txn2 waits, but it can still lock
+            // entities itself
+            lockMgr.lock(DATASET, ESCALATION_THRESHOLD + 1, LockMode.X, txn1);
+            lockMgr.releaseLocks(txn1);
+            waiter.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testEscalationWaitTimeout() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        for (int i = 0; i <= ESCALATION_THRESHOLD; i++) {
+            lockMgr.lock(DATASET, i, LockMode.X, txn1);
+        }
+        final long start = System.nanoTime();
+        try {
+            lockMgr.lock(DATASET, 100, LockMode.X, txn2);
+            Assert.fail("txn2 acquired a lock on a dataset that is locked by txn1");
+        } catch (ACIDException e) {
+            // expected
+        }
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(ESCALATION_WAIT_TIMEOUT));
+        verify(txn2).setTimeout(true);
+        // the escalation of txn1 is still in place
+        Assert.assertFalse(lockMgr.tryLock(DATASET, 100, LockMode.S, txn(3)));
+        lockMgr.releaseLocks(txn1);
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testTryEscalate() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        Assert.assertFalse(lockMgr.tryEscalate(METADATA_DATASET, txn1));
+        Assert.assertTrue(lockMgr.tryEscalate(DATASET, txn1));
+        Assert.assertFalse(lockMgr.tryEscalate(DATASET, txn2));
+        lockMgr.lock(DATASET, 0, LockMode.X, txn1);
+        Assert.assertFalse(lockMgr.tryLock(DATASET, 0, LockMode.S, txn2));
+        lockMgr.unlock(DATASET, 0, LockMode.ANY, txn1);
+        lockMgr.releaseLocks(txn1);
+        Assert.assertTrue(lockMgr.tryLock(DATASET, 0, LockMode.S, txn2));
+        // txn1 cannot lock the dataset while txn2 holds an entity lock
+        Assert.assertFalse(lockMgr.tryEscalate(DATASET, txn1));
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testDeEscalationOnRelease() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        // the locks on the entities after the threshold are acquired through the escalation
+        final int escalatedLocks = 3;
+        for (int i = 0; i < ESCALATION_THRESHOLD + escalatedLocks; i++) {
+            lockMgr.lock(DATASET, i, LockMode.X, txn1);
+        }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Void> waiter = executor.submit(() -> {
+                lockMgr.lock(DATASET, 100, LockMode.X, txn2);
+                return null;
+            });
+            for (int i = 0; i < escalatedLocks; i++) {
+                try {
+                    waiter.get(100, TimeUnit.MILLISECONDS);
+                    Assert.fail("txn2 acquired a lock while txn1 holds " + (escalatedLocks - i) + " escalated locks");
+                } catch (TimeoutException e) {
+                    // expected
+                }
+                lockMgr.unlock(DATASET, ESCALATION_THRESHOLD + i, LockMode.ANY, txn1);
+            }
+            // releasing the last escalated lock closes the escalation before txn1 releases its other locks
+            waiter.get(10, TimeUnit.SECONDS);
+            Assert.assertFalse(lockMgr.tryLock(DATASET, 0, LockMode.S, txn2));
+            Assert.assertTrue(lockMgr.tryLock(DATASET, ESCALATION_THRESHOLD, LockMode.S, txn2));
+            // txn1 locks entities itself once its escalation is closed
+            Assert.assertFalse(lockMgr.tryLock(DATASET, 100, LockMode.X, txn1));
+            lockMgr.lock(DATASET, 101, LockMode.X, txn1);
+            Assert.assertFalse(lockMgr.tryLock(DATASET, 101, LockMode.S, txn2));
+        } finally {
+            executor.shutdownNow();
+        }
+        lockMgr.releaseLocks(txn1);
+        lockMgr.releaseLocks(txn2);
+    }
+
+    @Test
+    public void testConcurrentEscalationAndConflictingRequests() throws Exception {
+        final int jobs = 4;
+        final int rounds = 50;
+        final int entities = 4 * ESCALATION_THRESHOLD;
+        // the job that holds the lock on each entity or 0
+        final AtomicIntegerArray owners = new AtomicIntegerArray(entities);
+        final ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<Void>> results = new ArrayList<>();
+                for (int j = 1; j <= jobs; j++) {
+                    final int job = round * jobs + j;
+                    results.add(executor.submit(() -> {
+                        final ITransactionContext txn = txn(job);
+                        start.await();
+                        // a dataset lock does not conflict with the entity locks or the escalations of other jobs
+                        lockMgr.lock(DATASET, -1, LockMode.S, txn);
+                        // all jobs lock the entities in the same order, so the conflicts cannot deadlock
+                        for (int i = 0; i < entities; i++) {
+                            lockMgr.lock(DATASET, i, LockMode.X, txn);
+                            Assert.assertTrue("entity " + i + " is locked by job " + owners.get(i),
+                                    owners.compareAndSet(i, 0, job));
+                        }
+                        for (int i = 0; i < entities; i++) {
+                            owners.set(i, 0);
+                        }
+                        lockMgr.releaseLocks(txn);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<Void> result : results) {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // all escalations were closed
+        final ITransactionContext txn = txn(rounds * jobs + 1);
+        for (int i = 0; i < entities; i++) {
+            Assert.assertTrue(lockMgr.tryLock(DATASET, i, LockMode.X, txn));
+        }
+        lockMgr.releaseLocks(txn);
+    }
+
+    @Test
+    public void testTableGrowth() throws Exception {
+        final ITransactionContext txn1 = txn(1);
+        final ITransactionContext txn2 = txn(2);
+        final int entities = 1000;
+        for (int i = 0; i < entities; i++) {
+            lockMgr.lock(METADATA_DATASET, i, LockMode.X, txn1);
+        }
+        for (int i = 0; i < entities; i++) {
+            Assert.assertFalse(lockMgr.instantTryLock(METADATA_DATASET, i, LockMode.S, txn2));
+        }
+        for (int i = 0; i < entities; i += 2) {
+            lockMgr.unlock(METADATA_DATASET, i, LockMode.ANY, txn1);
+        }
+        for (int i = 0; i < entities; i++) {
+            Assert.assertEquals(i % 2 == 0, lockMgr.instantTryLock(METADATA_DATASET, i, LockMode.S, txn2));
+        }
+        lockMgr.releaseLocks(txn1);
+        for (int i = 0; i < entities; i++) {
+            Assert.assertTrue(lockMgr.instantTryLock(METADATA_DATASET, i, LockMode.X, txn2));
+        }
+    }
+
+    private static ITransactionContext txn(int id) {
+        final ITransactionContext txnCtx = mock(ITransactionContext.class);
+        when(txnCtx.getTxnId()).thenReturn(new TxnId(id));
+        return txnCtx;
+    }
+}
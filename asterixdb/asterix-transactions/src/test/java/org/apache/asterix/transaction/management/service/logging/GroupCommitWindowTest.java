@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.transaction.management.service.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class GroupCommitWindowTest {
+
+    private static final long FORCE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    public void disabledWindowTest() {
+        GroupCommitWindow window = new GroupCommitWindow(0, new LogFlushStats(Integer.MAX_VALUE));
+        simulateCommits(window, 1000);
+        Assert.assertEquals(0, window.getWindowNanos());
+        Assert.assertEquals(0, window.getExpectedCommits(window.getWindowNanos()));
+    }
+
+    @Test
+    public void concurrentCommitsTest() {
+        final long maxLatency = TimeUnit.MILLISECONDS.toNanos(1);
+        GroupCommitWindow window = new GroupCommitWindow(maxLatency, new LogFlushStats(Integer.MAX_VALUE));
+        simulateCommits(window, 1000);
+        // the window is bounded by the max latency and many commits arrive within it
+        Assert.assertEquals(maxLatency, window.getWindowNanos());
+        Assert.assertTrue(window.getExpectedCommits(window.getWindowNanos()) >= 1);
+    }
+
+    @Test
+    public void singleCommitterTest() throws InterruptedException {
+        GroupCommitWindow window =
+                new GroupCommitWindow(TimeUnit.MILLISECONDS.toNanos(1), new LogFlushStats(Integer.MAX_VALUE));
+        for (int i = 0; i < 5; i++) {
+            window.commitAppended();
+            Thread.sleep(10);
+            window.forced(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        // one commit per force never waits for another one
+        Assert.assertEquals(0, window.getExpectedCommits(window.getWindowNanos()));
+    }
+
+    @Test
+    public void latencyPercentileTest() {
+        LogFlushStats stats = new LogFlushStats(Integer.MAX_VALUE);
+        for (int i = 0; i < 99; i++) {
+            stats.committed(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        stats.committed(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals(128, stats.getLatencyPercentile(50));
+        Assert.assertEquals(128, stats.getLatencyPercentile(99));
+        Assert.assertEquals(131072, stats.getLatencyPercentile(100));
+    }
+
+    @Test
+    public void jsonStatsTest() {
+        LogFlushStats stats = new LogFlushStats(Integer.MAX_VALUE);
+        stats.forced(TimeUnit.MICROSECONDS.toNanos(300));
+        stats.forced(TimeUnit.MICROSECONDS.toNanos(100));
+        stats.committed(TimeUnit.MICROSECONDS.toNanos(100));
+        ObjectNode json = stats.asJson();
+        Assert.assertEquals(2, json.get("forces").asLong());
+        Assert.assertEquals(200, json.get("avgForceTimeUs").asLong());
+        Assert.assertEquals(1, json.get("commits").asLong());
+        Assert.assertTrue(json.get("forcesPerSec").asDouble() > 0);
+        Assert.assertEquals(128, json.get("commitLatencyUs").get("p99").asLong());
+    }
+
+    private static void simulateCommits(GroupCommitWindow window, int commitsPerForce) {
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < commitsPerForce; j++) {
+                window.commitAppended();
+            }
+            window.forced(FORCE_NANOS);
+        }
+    }
+}
@@ -41,6 +41,7 @@ public enum PhysicalOperatorTag {
     INDEX_INSERT_DELETE,
     INSERT_DELETE,
     INTERVAL_MERGE_JOIN,
+    JOIN_BLOOM_FILTER,
     LENGTH_PARTITIONED_INVERTED_INDEX_SEARCH,
     MATERIALIZE,
     MICRO_PRE_CLUSTERED_GROUP_BY,
@@ -66,6 +67,7 @@ public enum PhysicalOperatorTag {
     SINK_WRITE,
     SORT_GROUP_BY,
     SORT_MERGE_EXCHANGE,
+    SORT_MERGE_JOIN,
     SPATIAL_JOIN,
     SPLIT,
     STABLE_SORT,
@@ -76,6 +78,7 @@ public enum PhysicalOperatorTag {
     STRING_STREAM_SCRIPT,
     SUBPLAN,
     TOKENIZE,
+    TOPK_THRESHOLD_FILTER,
     UNION_ALL,
     UNNEST,
     LEFT_OUTER_UNNEST,
@@ -225,8 +225,12 @@ public class ExternalGroupByPOperator extends AbstractGroupByPOperator {
         long inputSize = framesLimit * (long) frameSize;
         ExternalGroupOperatorDescriptor gbyOpDesc = new ExternalGroupOperatorDescriptor(spec, hashTableSize, inputSize,
                 gbyColumns, fdColumns, framesLimit, comparatorFactories, normalizedKeyFactory, aggregatorFactory,
-                mergeFactory, recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories));
+                mergeFactory, recordDescriptor, recordDescriptor,
+                new HashSpillableTableFactory(hashFunctionFactories, JobGenHelper.getHashTableType(context),
+                        context.getPhysicalOptimizationConfig().isRadixClusteringEnabled()));
         gbyOpDesc.setSourceLocation(gby.getSourceLocation());
+        // the global step aggregates the groups again, so the local step may write a group more than once
+        gbyOpDesc.setStreaming(!gby.isGlobal() && context.getPhysicalOptimizationConfig().isGroupByStreamingEnabled());
         contributeOpDesc(builder, gby, gbyOpDesc);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
@@ -88,19 +88,27 @@ public class HashPartitionExchangePOperator extends AbstractExchangePOperator {
     @Override
     public Pair<IConnectorDescriptor, TargetConstraint> createConnectorDescriptor(IConnectorDescriptorRegistry spec,
             ILogicalOperator op, IOperatorSchema opSchema, JobGenContext context) throws AlgebricksException {
+        ITuplePartitionComputerFactory tpcf =
+                createPartitionerFactory(opSchema, context.getTypeEnvironment(op), context);
+        IConnectorDescriptor conn = new MToNPartitioningConnectorDescriptor(spec, tpcf);
+        return new Pair<>(conn, null);
+    }
+
+    /**
+     * @return the partitioner that the exchange sends the tuples of the given schema with
+     */
+    public ITuplePartitionComputerFactory createPartitionerFactory(IOperatorSchema schema,
+            IVariableTypeEnvironment env, JobGenContext context) throws AlgebricksException {
         int[] keys = new int[hashFields.size()];
         IBinaryHashFunctionFactory[] hashFunctionFactories = new IBinaryHashFunctionFactory[hashFields.size()];
         int i = 0;
         IBinaryHashFunctionFactoryProvider hashFunProvider = context.getBinaryHashFunctionFactoryProvider();
-        IVariableTypeEnvironment env = context.getTypeEnvironment(op);
         for (LogicalVariable v : hashFields) {
-            keys[i] = opSchema.findVariable(v);
+            keys[i] = schema.findVariable(v);
             hashFunctionFactories[i] = hashFunProvider.getBinaryHashFunctionFactory(env.getVarType(v));
             ++i;
         }
-        ITuplePartitionComputerFactory tpcf = new FieldHashPartitionComputerFactory(keys, hashFunctionFactories);
-        IConnectorDescriptor conn = new MToNPartitioningConnectorDescriptor(spec, tpcf);
-        return new Pair<>(conn, null);
+        return new FieldHashPartitionComputerFactory(keys, hashFunctionFactories);
     }
 
 }
@@ -44,7 +44,6 @@ import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.evaluators.TuplePairEvaluatorFactory;
-import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
@@ -60,6 +59,9 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
 
     private final int maxInputBuildSizeInFrames;
     private final double fudgeFactor;
+    // the id of the Bloom filters that an inner join publishes to a JoinBloomFilterPOperator below its probe-side
+    // exchange, -1 if none
+    private int bloomFilterId = -1;
 
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -91,6 +93,10 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         return fudgeFactor;
     }
 
+    public void setBloomFilterId(int bloomFilterId) {
+        this.bloomFilterId = bloomFilterId;
+    }
+
     @Override
     public String toString() {
         return getOperatorTag().toString() + " " + keysLeftBranch + keysRightBranch;
@@ -128,11 +134,16 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         ITuplePairComparatorFactory reverseComparatorFactory =
                 new TuplePairEvaluatorFactory(cond, true, context.getBinaryBooleanInspectorFactory());
         IOperatorDescriptorRegistry spec = builder.getJobSpec();
-        IOperatorDescriptor opDesc;
+        OptimizedHybridHashJoinOperatorDescriptor opDesc;
 
         opDesc = generateOptimizedHashJoinRuntime(context, joinOp, inputSchemas, keysLeft, keysRight,
                 leftHashFunFamilies, rightHashFunFamilies, comparatorFactory, reverseComparatorFactory,
                 leftPredEvalFactory, rightPredEvalFactory, recDescriptor, spec);
+        opDesc.setHashTableType(JobGenHelper.getHashTableType(context));
+        opDesc.setRadixClustering(context.getPhysicalOptimizationConfig().isRadixClusteringEnabled());
+        if (kind == JoinKind.INNER) {
+            opDesc.setBloomFilterId(bloomFilterId);
+        }
         opDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
@@ -142,7 +153,7 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         builder.contributeGraphEdge(src2, 0, op, 1);
     }
 
-    private IOperatorDescriptor generateOptimizedHashJoinRuntime(JobGenContext context,
+    private OptimizedHybridHashJoinOperatorDescriptor generateOptimizedHashJoinRuntime(JobGenContext context,
             AbstractBinaryJoinOperator joinOp, IOperatorSchema[] inputSchemas, int[] keysLeft, int[] keysRight,
             IBinaryHashFunctionFamily[] leftHashFunFamilies, IBinaryHashFunctionFamily[] rightHashFunFamilies,
             ITuplePairComparatorFactory comparatorFactory, ITuplePairComparatorFactory reverseComparatorFactory,
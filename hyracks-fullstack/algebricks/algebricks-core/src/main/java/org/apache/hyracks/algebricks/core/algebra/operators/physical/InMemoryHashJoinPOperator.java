@@ -41,7 +41,6 @@ import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.evaluators.TuplePairEvaluatorFactory;
-import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
@@ -102,7 +101,7 @@ public class InMemoryHashJoinPOperator extends AbstractHashJoinPOperator {
         ITuplePairComparatorFactory comparatorFactory =
                 new TuplePairEvaluatorFactory(cond, false, context.getBinaryBooleanInspectorFactory());
         IOperatorDescriptorRegistry spec = builder.getJobSpec();
-        IOperatorDescriptor opDesc;
+        InMemoryHashJoinOperatorDescriptor opDesc;
 
         int memSizeInFrames = localMemoryRequirements.getMemoryBudgetInFrames();
 
@@ -122,6 +121,8 @@ public class InMemoryHashJoinPOperator extends AbstractHashJoinPOperator {
                 throw new NotImplementedException();
         }
 
+        opDesc.setHashTableType(JobGenHelper.getHashTableType(context));
+        opDesc.setRadixClustering(context.getPhysicalOptimizationConfig().isRadixClusteringEnabled());
         opDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.core.algebra.operators.physical;
+
+import java.util.List;
+
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirements;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
+import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
+import org.apache.hyracks.algebricks.runtime.operators.std.JoinBloomFilterRuntimeFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+
+/**
+ * Attached to a {@link SelectOperator} (whose condition is TRUE) below the probe-side exchange of an inner
+ * {@link HybridHashJoinPOperator}. It drops the probe tuples whose keys are not in the Bloom filter that the join
+ * partition they are sent to publishes once its build phase is complete.
+ */
+public class JoinBloomFilterPOperator extends AbstractPhysicalOperator {
+
+    private final int filterId;
+    private final List<LogicalVariable> probeKeys;
+    private final HashPartitionExchangePOperator exchange;
+
+    public JoinBloomFilterPOperator(int filterId, List<LogicalVariable> probeKeys,
+            HashPartitionExchangePOperator exchange) {
+        this.filterId = filterId;
+        this.probeKeys = probeKeys;
+        this.exchange = exchange;
+    }
+
+    @Override
+    public PhysicalOperatorTag getOperatorTag() {
+        return PhysicalOperatorTag.JOIN_BLOOM_FILTER;
+    }
+
+    @Override
+    public boolean isMicroOperator() {
+        return true;
+    }
+
+    @Override
+    public void computeDeliveredProperties(ILogicalOperator op, IOptimizationContext context) {
+        ILogicalOperator op2 = op.getInputs().get(0).getValue();
+        deliveredProperties = op2.getDeliveredPhysicalProperties().clone();
+    }
+
+    @Override
+    public PhysicalRequirements getRequiredPropertiesForChildren(ILogicalOperator op,
+            IPhysicalPropertiesVector reqdByParent, IOptimizationContext context) {
+        return emptyUnaryRequirements();
+    }
+
+    @Override
+    public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
+            IOperatorSchema opSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
+            throws AlgebricksException {
+        IVariableTypeEnvironment env = context.getTypeEnvironment(op);
+        int[] keyFields = JobGenHelper.variablesToFieldIndexes(probeKeys, inputSchemas[0]);
+        IBinaryHashFunctionFamily[] hashFunctionFamilies =
+                JobGenHelper.variablesToBinaryHashFunctionFamilies(probeKeys, env, context);
+        ITuplePartitionComputerFactory exchangePartitionerFactory =
+                exchange.createPartitionerFactory(inputSchemas[0], env, context);
+        JoinBloomFilterRuntimeFactory runtime = new JoinBloomFilterRuntimeFactory(filterId, keyFields,
+                hashFunctionFamilies, exchangePartitionerFactory, null);
+        runtime.setSourceLocation(op.getSourceLocation());
+        RecordDescriptor recDesc = JobGenHelper.mkRecordDescriptor(env, opSchema, context);
+        builder.contributeMicroOperator(op, runtime, recDesc);
+        ILogicalOperator src = op.getInputs().get(0).getValue();
+        builder.contributeGraphEdge(src, 0, op, 0);
+    }
+
+    @Override
+    public boolean expensiveThanMaterialization() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return getOperatorTag().toString() + " " + probeKeys;
+    }
+}
@@ -18,6 +18,9 @@
  */
 package org.apache.hyracks.algebricks.core.algebra.operators.physical;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
@@ -48,6 +51,8 @@ import org.apache.hyracks.dataflow.std.sort.TopKSorterOperatorDescriptor;
 public class StableSortPOperator extends AbstractStableSortPOperator {
 
     private final int topK;
+    // the id of the threshold that a top-k sort publishes to a TopKThresholdFilterPOperator below, -1 if none
+    private int thresholdId = -1;
 
     public StableSortPOperator() {
         this(-1);
@@ -57,6 +62,10 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         this.topK = topK;
     }
 
+    public void setThresholdId(int thresholdId) {
+        this.thresholdId = thresholdId;
+    }
+
     @Override
     public PhysicalOperatorTag getOperatorTag() {
         return PhysicalOperatorTag.STABLE_SORT;
@@ -79,7 +88,9 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         IBinaryComparatorFactory[] comps = new IBinaryComparatorFactory[n];
 
         INormalizedKeyComputerFactoryProvider nkcfProvider = context.getNormalizedKeyComputerFactoryProvider();
-        INormalizedKeyComputerFactory nkcf = null;
+        // the normalized keys of a prefix of the sort columns, so that ties on the first column are mostly decided
+        // by comparing normalized keys as well
+        List<INormalizedKeyComputerFactory> nkcfs = new ArrayList<>(n);
 
         IVariableTypeEnvironment env = context.getTypeEnvironment(op);
         int i = 0;
@@ -89,25 +100,35 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
             sortFields[i] = opSchema.findVariable(var);
             Object type = env.getVarType(var);
             OrderKind order = oc.getOrder();
-            if (i == 0 && nkcfProvider != null && type != null) {
-                nkcf = nkcfProvider.getNormalizedKeyComputerFactory(type, order == OrderKind.ASC);
+            if (i == nkcfs.size() && nkcfProvider != null && type != null) {
+                INormalizedKeyComputerFactory nkcf =
+                        nkcfProvider.getNormalizedKeyComputerFactory(type, order == OrderKind.ASC);
+                if (nkcf != null) {
+                    nkcfs.add(nkcf);
+                }
             }
             IBinaryComparatorFactoryProvider bcfp = context.getBinaryComparatorFactoryProvider();
             comps[i] = bcfp.getBinaryComparatorFactory(type, oc.getOrder() == OrderKind.ASC);
             i++;
         }
 
+        INormalizedKeyComputerFactory[] nkcfArray =
+                nkcfs.isEmpty() ? null : nkcfs.toArray(new INormalizedKeyComputerFactory[0]);
         int maxNumberOfFrames = localMemoryRequirements.getMemoryBudgetInFrames();
         AbstractSorterOperatorDescriptor sortOpDesc;
         // topK == -1 means that a topK value is not provided.
         if (topK == -1) {
-            sortOpDesc =
-                    new ExternalSortOperatorDescriptor(spec, maxNumberOfFrames, sortFields, nkcf, comps, recDescriptor);
+            ExternalSortOperatorDescriptor externalSortOpDesc = new ExternalSortOperatorDescriptor(spec,
+                    maxNumberOfFrames, sortFields, nkcfArray, comps, recDescriptor);
+            externalSortOpDesc.setSortThreads(context.getPhysicalOptimizationConfig().getSortThreads());
+            sortOpDesc = externalSortOpDesc;
         } else {
             // Since topK value is provided, topK optimization is possible.
             // We call topKSorter instead of calling ExternalSortOperator.
-            sortOpDesc = new TopKSorterOperatorDescriptor(spec, maxNumberOfFrames, topK, sortFields, nkcf, comps,
-                    recDescriptor);
+            TopKSorterOperatorDescriptor topKSortOpDesc = new TopKSorterOperatorDescriptor(spec, maxNumberOfFrames,
+                    topK, sortFields, nkcfArray, comps, recDescriptor);
+            topKSortOpDesc.setThresholdId(thresholdId);
+            sortOpDesc = topKSortOpDesc;
         }
         sortOpDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, sortOpDesc);
@@ -27,6 +27,7 @@ public class AlgebricksConfig {
     public static final String ALGEBRICKS_LOGGER_NAME = "org.apache.hyracks.algebricks";
     public static final Logger ALGEBRICKS_LOGGER = LogManager.getLogger(ALGEBRICKS_LOGGER_NAME);
     public static final int SORT_SAMPLES_DEFAULT = 100;
+    public static final int SORT_THREADS_DEFAULT = 1;
     public static final boolean SORT_PARALLEL_DEFAULT = true;
     public static final boolean INDEX_ONLY_DEFAULT = true;
     public static final boolean SANITYCHECK_DEFAULT = false;
@@ -38,4 +39,11 @@ public class AlgebricksConfig {
     public static final int EXTERNAL_SCAN_BUFFER_SIZE =
             StorageUtil.getIntSizeInBytes(8, StorageUtil.StorageUnit.KILOBYTE);
     public static final boolean BATCH_LOOKUP_DEFAULT = false;
+    public static final boolean OPEN_ADDRESSING_HASH_TABLE_DEFAULT = false;
+    public static final boolean RADIX_CLUSTERING_DEFAULT = false;
+    public static final boolean SORT_MERGE_JOIN_DEFAULT = false;
+    public static final boolean GROUPBY_STREAMING_DEFAULT = false;
+    public static final boolean TOPK_THRESHOLD_FILTER_DEFAULT = false;
+    public static final boolean EXCHANGE_COMPRESSION_DEFAULT = false;
+    public static final boolean JOIN_BLOOM_FILTER_DEFAULT = false;
 }
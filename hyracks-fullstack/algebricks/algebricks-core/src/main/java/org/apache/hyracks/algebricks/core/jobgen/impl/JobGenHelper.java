@@ -47,6 +47,7 @@ import org.apache.hyracks.api.dataflow.value.ITypeTraits;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTableType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -238,4 +239,9 @@ public final class JobGenHelper {
         }
         return missingWriterFactory;
     }
+
+    public static SerializableHashTableType getHashTableType(JobGenContext context) {
+        return context.getPhysicalOptimizationConfig().isOpenAddressingHashTableEnabled()
+                ? SerializableHashTableType.OPEN_ADDRESSING : SerializableHashTableType.CHAINED;
+    }
 }
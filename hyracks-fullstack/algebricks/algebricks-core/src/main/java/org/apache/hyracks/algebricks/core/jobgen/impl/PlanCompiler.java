@@ -61,6 +61,7 @@ public class PlanCompiler {
             IJobletEventListenerFactory jobEventListenerFactory) throws AlgebricksException {
         JobSpecification spec = new JobSpecification(context.getFrameSize());
         spec.setMaxWarnings(context.getMaxWarnings());
+        spec.setFrameCompression(context.getPhysicalOptimizationConfig().isExchangeCompressionEnabled());
         if (jobEventListenerFactory != null) {
             spec.setJobletEventListenerFactory(jobEventListenerFactory);
         }
@@ -39,6 +39,7 @@ public class PhysicalOptimizationConfig {
     private static final String DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE = "DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE";
     private static final String SORT_PARALLEL = "SORT_PARALLEL";
     private static final String SORT_SAMPLES = "SORT_SAMPLES";
+    private static final String SORT_THREADS = "SORT_THREADS";
     private static final String INDEX_ONLY = "INDEX_ONLY";
     private static final String SANITY_CHECK = "SANITY_CHECK";
     private static final String EXTERNAL_FIELD_PUSHDOWN = "EXTERNAL_FIELD_PUSHDOWN";
@@ -48,6 +49,13 @@ public class PhysicalOptimizationConfig {
     private static final String ARRAY_INDEX = "ARRAY_INDEX";
     private static final String EXTERNAL_SCAN_BUFFER_SIZE = "EXTERNAL_SCAN_BUFFER_SIZE";
     private static final String BATCH_LOOKUP = "BATCH_LOOKUP";
+    private static final String OPEN_ADDRESSING_HASH_TABLE = "OPEN_ADDRESSING_HASH_TABLE";
+    private static final String RADIX_CLUSTERING = "RADIX_CLUSTERING";
+    private static final String SORT_MERGE_JOIN = "SORT_MERGE_JOIN";
+    private static final String GROUPBY_STREAMING = "GROUPBY_STREAMING";
+    private static final String TOPK_THRESHOLD_FILTER = "TOPK_THRESHOLD_FILTER";
+    private static final String EXCHANGE_COMPRESSION = "EXCHANGE_COMPRESSION";
+    private static final String JOIN_BLOOM_FILTER = "JOIN_BLOOM_FILTER";
 
     private final Properties properties = new Properties();
 
@@ -180,6 +188,14 @@ public class PhysicalOptimizationConfig {
         setInt(SORT_SAMPLES, sortSamples);
     }
 
+    public int getSortThreads() {
+        return getInt(SORT_THREADS, AlgebricksConfig.SORT_THREADS_DEFAULT);
+    }
+
+    public void setSortThreads(int sortThreads) {
+        setInt(SORT_THREADS, sortThreads);
+    }
+
     public void setIndexOnly(boolean indexOnly) {
         setBoolean(INDEX_ONLY, indexOnly);
     }
@@ -252,6 +268,62 @@ public class PhysicalOptimizationConfig {
         setInt(EXTERNAL_SCAN_BUFFER_SIZE, bufferSize);
     }
 
+    public boolean isOpenAddressingHashTableEnabled() {
+        return getBoolean(OPEN_ADDRESSING_HASH_TABLE, AlgebricksConfig.OPEN_ADDRESSING_HASH_TABLE_DEFAULT);
+    }
+
+    public void setOpenAddressingHashTable(boolean openAddressingHashTable) {
+        setBoolean(OPEN_ADDRESSING_HASH_TABLE, openAddressingHashTable);
+    }
+
+    public boolean isRadixClusteringEnabled() {
+        return getBoolean(RADIX_CLUSTERING, AlgebricksConfig.RADIX_CLUSTERING_DEFAULT);
+    }
+
+    public void setRadixClustering(boolean radixClustering) {
+        setBoolean(RADIX_CLUSTERING, radixClustering);
+    }
+
+    public boolean isSortMergeJoinEnabled() {
+        return getBoolean(SORT_MERGE_JOIN, AlgebricksConfig.SORT_MERGE_JOIN_DEFAULT);
+    }
+
+    public void setSortMergeJoin(boolean sortMergeJoin) {
+        setBoolean(SORT_MERGE_JOIN, sortMergeJoin);
+    }
+
+    public boolean isGroupByStreamingEnabled() {
+        return getBoolean(GROUPBY_STREAMING, AlgebricksConfig.GROUPBY_STREAMING_DEFAULT);
+    }
+
+    public void setGroupByStreaming(boolean groupByStreaming) {
+        setBoolean(GROUPBY_STREAMING, groupByStreaming);
+    }
+
+    public boolean isTopKThresholdFilterEnabled() {
+        return getBoolean(TOPK_THRESHOLD_FILTER, AlgebricksConfig.TOPK_THRESHOLD_FILTER_DEFAULT);
+    }
+
+    public void setTopKThresholdFilter(boolean topKThresholdFilter) {
+        setBoolean(TOPK_THRESHOLD_FILTER, topKThresholdFilter);
+    }
+
+    public boolean isExchangeCompressionEnabled() {
+        return getBoolean(EXCHANGE_COMPRESSION, AlgebricksConfig.EXCHANGE_COMPRESSION_DEFAULT);
+    }
+
+    public void setExchangeCompression(boolean exchangeCompression) {
+        setBoolean(EXCHANGE_COMPRESSION, exchangeCompression);
+    }
+
+    public boolean isJoinBloomFilterEnabled() {
+        return getBoolean(JOIN_BLOOM_FILTER, AlgebricksConfig.JOIN_BLOOM_FILTER_DEFAULT);
+    }
+
+    public void setJoinBloomFilter(boolean joinBloomFilter) {
+        setBoolean(JOIN_BLOOM_FILTER, joinBloomFilter);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.IPhysicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator.JoinKind;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.ExchangeOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashPartitionExchangePOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HybridHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.JoinBloomFilterPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.OneToOneExchangePOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Inserts a filter below the probe-side exchange of an inner hybrid hash join that drops the probe tuples whose keys
+ * are not in the Bloom filter of the join partition they are sent to. The join publishes the filter of a partition
+ * once its build phase is complete, which is before the probe side starts running. The probe tuples that cannot have
+ * a match are then neither sent over the network nor partitioned by the join.
+ * Only the filters of the join partitions that run on the same node as the filter are known to it, the tuples that
+ * are sent to the other partitions pass.
+ * Must run after {@link IsolateHyracksOperatorsRule}. The filter is a micro operator, so a one-to-one exchange is
+ * inserted below it if it would be placed directly above a Hyracks operator.
+ * <pre>
+ * join (hybrid-hash) <- hash-partition-exchange $$key <- assign $$key <- scan
+ * =
+ * join (hybrid-hash) <- hash-partition-exchange $$key <- join-bloom-filter $$key <- assign $$key <- scan
+ * </pre>
+ */
+public class IntroduceJoinBloomFilterRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        if (!context.getPhysicalOptimizationConfig().isJoinBloomFilterEnabled()) {
+            return false;
+        }
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.INNERJOIN || op.getPhysicalOperator() == null
+                || op.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.HYBRID_HASH_JOIN
+                || context.checkIfInDontApplySet(this, op)) {
+            return false;
+        }
+        HybridHashJoinPOperator hhj = (HybridHashJoinPOperator) op.getPhysicalOperator();
+        if (hhj.getKind() != JoinKind.INNER) {
+            return false;
+        }
+        // the first input of the join is the probe side
+        AbstractLogicalOperator exchange = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
+        if (exchange.getOperatorTag() != LogicalOperatorTag.EXCHANGE || exchange.getPhysicalOperator() == null
+                || exchange.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.HASH_PARTITION_EXCHANGE) {
+            return false;
+        }
+        Mutable<ILogicalOperator> belowRef = exchange.getInputs().get(0);
+        AbstractLogicalOperator below = (AbstractLogicalOperator) belowRef.getValue();
+        IPhysicalOperator belowPOp = below.getPhysicalOperator();
+        // the outputs of a replicate refer to the operators above it
+        if (belowPOp == null || below.getOperatorTag() == LogicalOperatorTag.REPLICATE
+                || below.getOperatorTag() == LogicalOperatorTag.SPLIT) {
+            return false;
+        }
+        if (below.getOperatorTag() != LogicalOperatorTag.EXCHANGE && !belowPOp.isMicroOperator()) {
+            ExchangeOperator oneToOne = new ExchangeOperator();
+            oneToOne.setSourceLocation(below.getSourceLocation());
+            oneToOne.setPhysicalOperator(new OneToOneExchangePOperator());
+            oneToOne.setExecutionMode(below.getExecutionMode());
+            oneToOne.getInputs().add(new MutableObject<>(below));
+            oneToOne.recomputeSchema();
+            oneToOne.computeDeliveredPhysicalProperties(context);
+            context.computeAndSetTypeEnvironmentForOperator(oneToOne);
+            below = oneToOne;
+        }
+
+        int filterId = context.newVar().getId();
+        SelectOperator filter = new SelectOperator(new MutableObject<>(ConstantExpression.TRUE));
+        filter.setSourceLocation(op.getSourceLocation());
+        filter.setPhysicalOperator(new JoinBloomFilterPOperator(filterId, hhj.getKeysLeftBranch(),
+                (HashPartitionExchangePOperator) exchange.getPhysicalOperator()));
+        filter.setExecutionMode(below.getExecutionMode());
+        filter.getInputs().add(new MutableObject<>(below));
+        filter.recomputeSchema();
+        filter.computeDeliveredPhysicalProperties(context);
+        context.computeAndSetTypeEnvironmentForOperator(filter);
+        belowRef.setValue(filter);
+        hhj.setBloomFilterId(filterId);
+        context.addToDontApplySet(this, op);
+        return true;
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractBinaryJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HybridHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.SortMergeJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty.PropertyType;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
+import org.apache.hyracks.algebricks.core.algebra.properties.LocalOrderProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.PropertiesUtil;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Replaces a hybrid hash join by a sort-merge join if both inputs of the join are already locally ordered on the
+ * join keys (e.g. primary key ordered scans of datasets that are partitioned on their primary keys). The sort-merge
+ * join neither builds a hash table nor partitions its inputs.
+ * Must run after {@link EnforceStructuralPropertiesRule}, which computes the properties delivered by the inputs.
+ */
+public final class IntroduceSortMergeJoinRule implements IAlgebraicRewriteRule {
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        if (!context.getPhysicalOptimizationConfig().isSortMergeJoinEnabled()) {
+            return false;
+        }
+        ILogicalOperator op = opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.INNERJOIN
+                && op.getOperatorTag() != LogicalOperatorTag.LEFTOUTERJOIN) {
+            return false;
+        }
+        AbstractBinaryJoinOperator joinOp = (AbstractBinaryJoinOperator) op;
+        if (joinOp.getPhysicalOperator() == null
+                || joinOp.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.HYBRID_HASH_JOIN) {
+            return false;
+        }
+        HybridHashJoinPOperator hhj = (HybridHashJoinPOperator) joinOp.getPhysicalOperator();
+        ILogicalOperator left = joinOp.getInputs().get(0).getValue();
+        ILogicalOperator right = joinOp.getInputs().get(1).getValue();
+        IPhysicalPropertiesVector leftProperties = left.getDeliveredPhysicalProperties();
+        IPhysicalPropertiesVector rightProperties = right.getDeliveredPhysicalProperties();
+        if (leftProperties == null || rightProperties == null) {
+            return false;
+        }
+        // the keys are merged in the order in which the left input is sorted
+        int[] keyOrder = getKeyOrder(hhj.getKeysLeftBranch(), leftProperties.getLocalProperties());
+        List<LogicalVariable> keysLeft = new ArrayList<>(keyOrder.length);
+        List<LogicalVariable> keysRight = new ArrayList<>(keyOrder.length);
+        for (int i : keyOrder) {
+            keysLeft.add(hhj.getKeysLeftBranch().get(i));
+            keysRight.add(hhj.getKeysRightBranch().get(i));
+        }
+        if (!isOrdered(left, keysLeft, leftProperties, context)
+                || !isOrdered(right, keysRight, rightProperties, context)) {
+            return false;
+        }
+        joinOp.setPhysicalOperator(
+                new SortMergeJoinPOperator(hhj.getKind(), hhj.getPartitioningType(), keysLeft, keysRight));
+        joinOp.computeDeliveredPhysicalProperties(context);
+        return true;
+    }
+
+    private static boolean isOrdered(ILogicalOperator op, List<LogicalVariable> keys,
+            IPhysicalPropertiesVector properties, IOptimizationContext context) {
+        return PropertiesUtil.matchLocalProperties(SortMergeJoinPOperator.getRequiredLocalProperties(keys),
+                properties.getLocalProperties(), context.getEquivalenceClassMap(op), context.getFDList(op));
+    }
+
+    /**
+     * @return the order of the keys that is a prefix of a local order property, the order of the keys as given if
+     *         there is no such property
+     */
+    private static int[] getKeyOrder(List<LogicalVariable> keys, List<ILocalStructuralProperty> properties) {
+        int[] keyOrder = new int[keys.size()];
+        if (properties != null) {
+            for (ILocalStructuralProperty property : properties) {
+                if (property.getPropertyType() != PropertyType.LOCAL_ORDER_PROPERTY) {
+                    continue;
+                }
+                List<LogicalVariable> columns = ((LocalOrderProperty) property).getColumns();
+                int i = 0;
+                while (i < keys.size() && i < columns.size() && (keyOrder[i] = keys.indexOf(columns.get(i))) >= 0) {
+                    i++;
+                }
+                if (i == keys.size()) {
+                    return keyOrder;
+                }
+            }
+        }
+        for (int i = 0; i < keyOrder.length; i++) {
+            keyOrder[i] = i;
+        }
+        return keyOrder;
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+}
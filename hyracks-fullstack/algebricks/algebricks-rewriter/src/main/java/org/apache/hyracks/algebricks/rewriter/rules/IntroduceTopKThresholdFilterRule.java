@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.StableSortPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.TopKThresholdFilterPOperator;
+import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Inserts a filter below a top-k sort that drops the tuples whose sort keys are greater than the greatest of the top k
+ * tuples that the sort has found so far. The filter is placed as deep as possible in the chain of unary operators
+ * below the sort, right above the operator that produces the last of the sort keys, so that the operators in between
+ * (e.g. the assignment of the other fields of a record) do not process the dropped tuples.
+ * Such a tuple cannot make it into the top k, whether or not it passes the selects and unnests in between.
+ * Must run after {@link IsolateHyracksOperatorsRule}, as the filter is a micro operator that is never placed directly
+ * above a Hyracks operator.
+ * <pre>
+ * order (topk) <- assign ... <- assign $$key <- scan
+ * =
+ * order (topk) <- assign ... <- topk-threshold-filter $$key <- assign $$key <- scan
+ * </pre>
+ */
+public class IntroduceTopKThresholdFilterRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        if (!context.getPhysicalOptimizationConfig().isTopKThresholdFilterEnabled()) {
+            return false;
+        }
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.ORDER || op.getPhysicalOperator() == null
+                || op.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.STABLE_SORT) {
+            return false;
+        }
+        OrderOperator orderOp = (OrderOperator) op;
+        if (orderOp.getTopK() <= 0 || context.checkIfInDontApplySet(this, orderOp)) {
+            return false;
+        }
+        StableSortPOperator sortPOp = (StableSortPOperator) orderOp.getPhysicalOperator();
+        OrderColumn[] sortColumns = sortPOp.getSortColumns();
+        if (sortColumns == null) {
+            return false;
+        }
+        Set<LogicalVariable> keys = new HashSet<>();
+        for (OrderColumn column : sortColumns) {
+            keys.add(column.getColumn());
+        }
+
+        // the chain of unary operators below the sort, the input of the sort first
+        List<Mutable<ILogicalOperator>> chain = new ArrayList<>();
+        Mutable<ILogicalOperator> inputRef = orderOp.getInputs().get(0);
+        while (isPassThrough((AbstractLogicalOperator) inputRef.getValue())) {
+            chain.add(inputRef);
+            inputRef = inputRef.getValue().getInputs().get(0);
+        }
+        int position = -1;
+        List<LogicalVariable> liveVars = new ArrayList<>();
+        for (int i = chain.size() - 1; i >= 0 && position < 0; i--) {
+            liveVars.clear();
+            VariableUtilities.getLiveVariables(chain.get(i).getValue(), liveVars);
+            if (liveVars.containsAll(keys)) {
+                position = i;
+            }
+        }
+        // a filter right below the sort would not save anything
+        if (position <= 0) {
+            return false;
+        }
+
+        int thresholdId = context.newVar().getId();
+        Mutable<ILogicalOperator> belowRef = chain.get(position);
+        SelectOperator filter = new SelectOperator(new MutableObject<>(ConstantExpression.TRUE));
+        filter.setSourceLocation(orderOp.getSourceLocation());
+        filter.setPhysicalOperator(new TopKThresholdFilterPOperator(thresholdId, Arrays.asList(sortColumns)));
+        filter.setExecutionMode(((AbstractLogicalOperator) belowRef.getValue()).getExecutionMode());
+        filter.getInputs().add(new MutableObject<>(belowRef.getValue()));
+        filter.recomputeSchema();
+        filter.computeDeliveredPhysicalProperties(context);
+        context.computeAndSetTypeEnvironmentForOperator(filter);
+        belowRef.setValue(filter);
+        sortPOp.setThresholdId(thresholdId);
+        context.addToDontApplySet(this, orderOp);
+        return true;
+    }
+
+    /**
+     * @return whether the tuples that the operator gets from its input are dropped, passed on or multiplied as they
+     *         are, as long as they are not greater than the threshold
+     */
+    private static boolean isPassThrough(AbstractLogicalOperator op) {
+        switch (op.getOperatorTag()) {
+            case ASSIGN:
+            case SELECT:
+            case PROJECT:
+            case UNNEST:
+                return op.getPhysicalOperator() != null && op.getPhysicalOperator().isMicroOperator();
+            case EXCHANGE:
+                return op.getPhysicalOperator() != null
+                        && op.getPhysicalOperator().getOperatorTag() == PhysicalOperatorTag.ONE_TO_ONE_EXCHANGE;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.std;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.std.join.JoinBloomFilter;
+import org.apache.hyracks.dataflow.std.join.JoinBloomFilters;
+
+/**
+ * Drops the probe tuples of an inner hash join whose keys are not in the {@link JoinBloomFilters} published by the
+ * join partitions they are sent to. The partition of a tuple is computed with the partitioner of the exchange above.
+ * Tuples pass unchanged as long as the filter of their partition is not published on this node.
+ */
+public class JoinBloomFilterRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int filterId;
+    private final int[] keyFields;
+    private final IBinaryHashFunctionFamily[] hashFunctionFamilies;
+    private final ITuplePartitionComputerFactory exchangePartitionerFactory;
+
+    public JoinBloomFilterRuntimeFactory(int filterId, int[] keyFields, IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            ITuplePartitionComputerFactory exchangePartitionerFactory, int[] projectionList) {
+        super(projectionList);
+        this.filterId = filterId;
+        this.keyFields = keyFields;
+        this.hashFunctionFamilies = hashFunctionFamilies;
+        this.exchangePartitionerFactory = exchangePartitionerFactory;
+    }
+
+    @Override
+    public String toString() {
+        return "join-bloom-filter " + filterId + " " + Arrays.toString(keyFields);
+    }
+
+    @Override
+    public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(final IHyracksTaskContext ctx) {
+        final ITuplePartitionComputer[] keyHashes =
+                JoinBloomFilter.createHashes(new FieldHashPartitionComputerFamily(keyFields, hashFunctionFamilies));
+        final ITuplePartitionComputer exchangePartitioner = exchangePartitionerFactory.createPartitioner(ctx);
+        return new AbstractOneInputOneOutputOneFramePushRuntime() {
+            private JoinBloomFilters filters;
+
+            @Override
+            public void open() throws HyracksDataException {
+                if (filters == null) {
+                    initAccessAppend(ctx);
+                    filters = JoinBloomFilters.get(ctx, filterId);
+                }
+                super.open();
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                tAccess.reset(buffer);
+                int nTuple = tAccess.getTupleCount();
+                int nPartitions = filters.getPartitionCount();
+                for (int t = 0; t < nTuple; t++) {
+                    if (nPartitions > 0 && !mightMatch(t, nPartitions)) {
+                        continue;
+                    }
+                    if (projectionList != null) {
+                        appendProjectionToFrame(t, projectionList);
+                    } else {
+                        appendTupleToFrame(t);
+                    }
+                }
+            }
+
+            private boolean mightMatch(int t, int nPartitions) throws HyracksDataException {
+                JoinBloomFilter filter = filters.getFilter(exchangePartitioner.partition(tAccess, t, nPartitions));
+                return filter == null || filter.mightContain(keyHashes, tAccess, t);
+            }
+
+            @Override
+            public void flush() throws HyracksDataException {
+                appender.flush(writer);
+            }
+        };
+    }
+}
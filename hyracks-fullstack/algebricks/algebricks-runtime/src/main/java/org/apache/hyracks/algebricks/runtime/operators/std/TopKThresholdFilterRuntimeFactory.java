@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.std;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.sort.TopKThreshold;
+
+/**
+ * Drops the tuples whose sort keys are greater than the {@link TopKThreshold} published by a top-k sort above, as
+ * such tuples cannot be part of the top k anymore. Tuples pass unchanged as long as no threshold is published.
+ */
+public class TopKThresholdFilterRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int thresholdId;
+    private final int[] keyFields;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+
+    public TopKThresholdFilterRuntimeFactory(int thresholdId, int[] keyFields,
+            IBinaryComparatorFactory[] comparatorFactories, int[] projectionList) {
+        super(projectionList);
+        this.thresholdId = thresholdId;
+        this.keyFields = keyFields;
+        this.comparatorFactories = comparatorFactories;
+    }
+
+    @Override
+    public String toString() {
+        return "topk-threshold-filter " + thresholdId + " " + Arrays.toString(keyFields);
+    }
+
+    @Override
+    public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(final IHyracksTaskContext ctx) {
+        final IBinaryComparator[] comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; i++) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        return new AbstractOneInputOneOutputOneFramePushRuntime() {
+            private TopKThreshold threshold;
+
+            @Override
+            public void open() throws HyracksDataException {
+                if (threshold == null) {
+                    initAccessAppend(ctx);
+                    threshold = TopKThreshold.get(ctx, thresholdId);
+                }
+                super.open();
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                tAccess.reset(buffer);
+                int nTuple = tAccess.getTupleCount();
+                boolean filter = threshold.isSet();
+                for (int t = 0; t < nTuple; t++) {
+                    if (filter && threshold.isAbove(tAccess, t, keyFields, comparators)) {
+                        continue;
+                    }
+                    if (projectionList != null) {
+                        appendProjectionToFrame(t, projectionList);
+                    } else {
+                        appendTupleToFrame(t);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws HyracksDataException {
+                appender.flush(writer);
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.channels;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+
+/**
+ * The sending end of a channel to which a partition is written when the partition is requested by a consumer.
+ */
+public interface IOutputChannel extends IFrameWriter {
+    /**
+     * Sets the size of the frames of the partition written to this channel.
+     *
+     * @param frameSize
+     */
+    public void setFrameSize(int frameSize);
+
+    /**
+     * Aborts this channel. The consumer is notified of the failure with the given error code.
+     *
+     * @param ecode
+     */
+    public void abort(int ecode);
+}
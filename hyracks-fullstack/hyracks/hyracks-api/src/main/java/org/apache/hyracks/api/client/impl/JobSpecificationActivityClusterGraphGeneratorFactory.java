@@ -68,6 +68,7 @@ public class JobSpecificationActivityClusterGraphGeneratorFactory implements IAc
         acg.setFrameSize(spec.getFrameSize());
         acg.setMaxReattempts(spec.getMaxReattempts());
         acg.setMaxWarnings(spec.getMaxWarnings());
+        acg.setFrameCompression(spec.isFrameCompression());
         acg.setJobletEventListenerFactory(spec.getJobletEventListenerFactory());
         acg.setGlobalJobDataFactory(spec.getGlobalJobDataFactory());
         acg.setConnectorPolicyAssignmentPolicy(spec.getConnectorPolicyAssignmentPolicy());
@@ -18,6 +18,8 @@
  */
 package org.apache.hyracks.api.comm;
 
+import org.apache.hyracks.api.partitions.PartitionId;
+
 public interface IChannelControlBlock {
 
     /**
@@ -80,4 +82,24 @@ public interface IChannelControlBlock {
      * Complete the current write operation on this channel.
      */
     public void writeComplete();
+
+    /**
+     * Sets whether the payload of this channel is compressed. This is agreed on by both ends when the channel is
+     * opened.
+     *
+     * @param frameCompression
+     */
+    public void setFrameCompression(boolean frameCompression);
+
+    /**
+     * @return {@code true} if the payload of this channel is compressed.
+     */
+    public boolean isFrameCompression();
+
+    /**
+     * Sets the partition whose data is exchanged over this channel. It is only used to report the state of the channel.
+     *
+     * @param partitionId
+     */
+    public void setPartitionId(PartitionId partitionId);
 }
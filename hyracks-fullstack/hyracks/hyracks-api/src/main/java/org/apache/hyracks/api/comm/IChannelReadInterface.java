@@ -59,6 +59,22 @@ public interface IChannelReadInterface {
      */
     public void setBufferFactory(IBufferFactory bufferFactory, int limit, int frameSize);
 
+    /**
+     * Set the buffer factory like {@link #setBufferFactory(IBufferFactory, int, int)}, but only give credits for
+     * {@code initialLimit} buffers to the remote side at first. The network layer gives more credits, for up to
+     * {@code limit} buffers, when the channel is limited by its credits rather than by its consumer.
+     *
+     * @param bufferFactory
+     *            - the buffer factory
+     * @param initialLimit
+     *            - the number of buffers credited when the channel is opened
+     * @param limit
+     *            - the limit of buffers
+     * @param frameSize
+     *            - the size of each buffer
+     */
+    public void setBufferFactory(IBufferFactory bufferFactory, int initialLimit, int limit, int frameSize);
+
     /**
      * Try to read as much as {@code size} bytes from {@code sc}
      *
@@ -96,4 +112,15 @@ public interface IChannelReadInterface {
      * @return The buffer factory used by this {@link IChannelReadInterface}
      */
     public IBufferFactory getBufferFactory();
+
+    /**
+     * @return The number of buffers the remote side is currently credited with by this {@link IChannelReadInterface}
+     */
+    public int getCreditWindow();
+
+    /**
+     * @return The time, in nanoseconds, the consumer of this {@link IChannelReadInterface} had consumed all the
+     *         received buffers and was waiting for data
+     */
+    public long getIdleTime();
 }
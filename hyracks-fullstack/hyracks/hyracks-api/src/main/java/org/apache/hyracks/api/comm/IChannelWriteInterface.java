@@ -85,4 +85,15 @@ public interface IChannelWriteInterface {
      * state of this {@link IChannelWriteInterface}
      */
     public void adjustChannelWritability();
+
+    /**
+     * @return The time, in nanoseconds, this {@link IChannelWriteInterface} had data to write but no credits to
+     *         write it, i.e. the time the remote side applied back pressure
+     */
+    public long getBackPressureTime();
+
+    /**
+     * @return The time, in nanoseconds, this {@link IChannelWriteInterface} had no data to write
+     */
+    public long getIdleTime();
 }
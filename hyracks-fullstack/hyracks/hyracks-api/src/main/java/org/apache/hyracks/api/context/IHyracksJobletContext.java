@@ -25,6 +25,7 @@ import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.resources.IDeallocatableRegistry;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 
 public interface IHyracksJobletContext extends IWorkspaceFileFactory, IDeallocatableRegistry, IHyracksCommonContext {
     INCServiceContext getServiceContext();
@@ -37,6 +38,11 @@ public interface IHyracksJobletContext extends IWorkspaceFileFactory, IDeallocat
 
     ICounterContext getCounterContext();
 
+    /**
+     * @return the broker that lends the memory of the node to the operators of the job beyond their budgets
+     */
+    IMemoryBroker getMemoryBroker();
+
     Object getGlobalJobData();
 
     IJobletEventListenerFactory getJobletEventListenerFactory();
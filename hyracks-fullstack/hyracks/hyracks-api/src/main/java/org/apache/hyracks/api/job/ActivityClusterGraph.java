@@ -48,6 +48,8 @@ public class ActivityClusterGraph implements Serializable {
 
     private long maxWarnings;
 
+    private boolean frameCompression;
+
     private int maxReattempts;
 
     private IJobletEventListenerFactory jobletEventListenerFactory;
@@ -114,6 +116,14 @@ public class ActivityClusterGraph implements Serializable {
         return maxWarnings;
     }
 
+    public void setFrameCompression(boolean frameCompression) {
+        this.frameCompression = frameCompression;
+    }
+
+    public boolean isFrameCompression() {
+        return frameCompression;
+    }
+
     public void setMaxReattempts(int maxReattempts) {
         this.maxReattempts = maxReattempts;
     }
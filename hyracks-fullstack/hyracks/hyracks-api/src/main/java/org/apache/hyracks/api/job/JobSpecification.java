@@ -79,6 +79,10 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
 
     private long maxWarnings;
 
+    private boolean frameCompression;
+
+    private String workloadClass;
+
     private IJobletEventListenerFactory jobletEventListenerFactory;
 
     private IGlobalJobDataFactory globalJobDataFactory;
@@ -270,6 +274,28 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
         return maxWarnings;
     }
 
+    /**
+     * Sets whether the frames that are sent over the network by the connectors of this job are compressed.
+     */
+    public void setFrameCompression(boolean frameCompression) {
+        this.frameCompression = frameCompression;
+    }
+
+    public boolean isFrameCompression() {
+        return frameCompression;
+    }
+
+    /**
+     * Sets the workload class of this job, which a job queue can use to share the cluster among workloads.
+     */
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
+    public String getWorkloadClass() {
+        return workloadClass;
+    }
+
     public void setMaxReattempts(int maxReattempts) {
         this.maxReattempts = maxReattempts;
     }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.resources.memory;
+
+/**
+ * Lends the memory of a node that is not part of the compile-time budgets of the operators to the operators that run
+ * out of their budget at runtime, so that they can keep working in memory instead of spilling to disk. The operators
+ * spill as before when the broker has no memory left.
+ */
+public interface IMemoryBroker {
+
+    /**
+     * Borrows up to the given amount of memory.
+     *
+     * @param bytes
+     *            the requested amount of memory in bytes
+     * @return the borrowed amount of memory in bytes, between 0 and the requested amount
+     */
+    long borrow(long bytes);
+
+    /**
+     * Gives borrowed memory back.
+     *
+     * @param bytes
+     *            the amount of memory in bytes
+     */
+    void giveBack(long bytes);
+
+    /**
+     * @return true if the broker could not lend the memory that was requested, in which case the borrowers should
+     *         give back the memory they do not need as soon as they can
+     */
+    boolean isReclaiming();
+}
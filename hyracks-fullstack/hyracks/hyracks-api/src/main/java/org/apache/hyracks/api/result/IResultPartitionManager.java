@@ -27,6 +27,17 @@ public interface IResultPartitionManager extends IResultManager {
     IFrameWriter createResultPartitionWriter(IHyracksTaskContext ctx, ResultSetId rsId, IResultMetadata metadata,
             boolean asyncMode, int partition, int nPartitions, long maxReads) throws HyracksException;
 
+    /**
+     * Creates the writer of a result partition. If the result is streamed, read once and has a single partition, the
+     * frames that are written while the partition is read are handed over to the reader and the writer waits for a
+     * slow reader instead of storing the result.
+     */
+    default IFrameWriter createResultPartitionWriter(IHyracksTaskContext ctx, ResultSetId rsId,
+            IResultMetadata metadata, boolean asyncMode, int partition, int nPartitions, long maxReads,
+            boolean streaming) throws HyracksException {
+        return createResultPartitionWriter(ctx, rsId, metadata, asyncMode, partition, nPartitions, maxReads);
+    }
+
     void registerResultPartitionLocation(JobId jobId, ResultSetId rsId, int partition, int nPartitions,
             IResultMetadata metadata, boolean emptyResult) throws HyracksException;
 
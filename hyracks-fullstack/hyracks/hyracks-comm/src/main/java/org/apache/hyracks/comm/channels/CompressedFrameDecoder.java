@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.comm.channels;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.compression.ICompressorDecompressor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.util.annotations.NotThreadSafe;
+
+/**
+ * Decodes the chunks written by a {@link CompressedFrameEncoder} back into the frames of the channel, cut into
+ * buffers of the frame size of the channel (as they would have been received without compression). The body of a
+ * record that continues in the next chunk is kept until that chunk is decoded. When the channel has no empty frame,
+ * the decoding stops and is resumed by decoding the same chunk again.
+ */
+@NotThreadSafe
+public class CompressedFrameDecoder {
+    private final ICompressorDecompressor decompressor;
+    private final IFrameChannel channel;
+    private final ByteBuffer uncompressed;
+    // the body of a record that spans chunks
+    private final ByteBuffer spanning;
+    private int spanningCLength;
+    private int spanningLength;
+    // the uncompressed record that is being appended to the frames
+    private ByteBuffer record;
+    private ByteBuffer frame;
+
+    public CompressedFrameDecoder(ICompressorDecompressor decompressor, int frameSize, IFrameChannel channel) {
+        this.decompressor = decompressor;
+        this.channel = channel;
+        uncompressed = ByteBuffer.allocate(frameSize);
+        spanning = ByteBuffer.allocate(frameSize);
+    }
+
+    /**
+     * Decodes the records of the chunk, as long as the channel has empty frames.
+     *
+     * @return true if the chunk is decoded and can be reused, false if the channel ran out of empty frames, in which
+     *         case the chunk must be decoded again once it has one
+     */
+    public boolean decode(ByteBuffer chunk) throws HyracksDataException {
+        if (!append()) {
+            return false;
+        }
+        while (true) {
+            if (spanningCLength > 0) {
+                int length = Math.min(chunk.remaining(), spanningCLength - spanning.position());
+                ByteBuffer part = chunk.duplicate();
+                part.limit(part.position() + length);
+                spanning.put(part);
+                chunk.position(part.limit());
+                if (spanning.position() < spanningCLength) {
+                    return true;
+                }
+                spanning.flip();
+                record = uncompress(spanning, spanningLength);
+                spanningCLength = 0;
+            } else {
+                if (chunk.remaining() < CompressedFrameEncoder.RECORD_HEADER_SIZE) {
+                    // the tail of the chunk is padding
+                    chunk.position(chunk.limit());
+                    return true;
+                }
+                int cLength = chunk.getInt();
+                if (cLength == 0) {
+                    chunk.position(chunk.limit());
+                    return true;
+                }
+                int length = chunk.getInt();
+                if (cLength < 0 || length > uncompressed.capacity() || cLength > length) {
+                    throw new HyracksDataException("Corrupted compressed frame record");
+                }
+                if (cLength > chunk.remaining()) {
+                    spanning.clear();
+                    spanningCLength = cLength;
+                    spanningLength = length;
+                    continue;
+                }
+                ByteBuffer body = chunk.duplicate();
+                body.limit(body.position() + cLength);
+                chunk.position(body.limit());
+                record = uncompress(body, length);
+            }
+            if (!append()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the frame that is partially filled, if any
+     */
+    public ByteBuffer flush() {
+        ByteBuffer partial = frame != null && frame.position() > 0 ? frame : null;
+        frame = null;
+        return partial;
+    }
+
+    private ByteBuffer uncompress(ByteBuffer body, int length) throws HyracksDataException {
+        if (body.remaining() == length) {
+            return body;
+        }
+        uncompressed.clear();
+        decompressor.uncompress(body, uncompressed);
+        if (uncompressed.remaining() != length) {
+            throw new HyracksDataException("Corrupted compressed frame record");
+        }
+        return uncompressed;
+    }
+
+    /**
+     * @return true if the record is appended to the frames, false if the channel ran out of empty frames
+     */
+    private boolean append() {
+        while (record != null) {
+            if (frame == null) {
+                frame = channel.getEmptyFrame();
+                if (frame == null) {
+                    return false;
+                }
+                frame.clear();
+            }
+            int length = Math.min(record.remaining(), frame.remaining());
+            ByteBuffer part = record.duplicate();
+            part.limit(part.position() + length);
+            frame.put(part);
+            record.position(record.position() + length);
+            if (!frame.hasRemaining()) {
+                frame.flip();
+                channel.frameDecoded(frame);
+                frame = null;
+            }
+            if (!record.hasRemaining()) {
+                record = null;
+            }
+        }
+        return true;
+    }
+
+    public interface IFrameChannel {
+        /**
+         * @return an empty buffer of the frame size of the channel, null if there is none at the moment
+         */
+        ByteBuffer getEmptyFrame();
+
+        void frameDecoded(ByteBuffer frame);
+    }
+}
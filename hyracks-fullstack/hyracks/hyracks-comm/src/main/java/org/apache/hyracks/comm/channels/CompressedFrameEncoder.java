@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.comm.channels;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.compression.ICompressorDecompressor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemuxPerformanceCounters;
+import org.apache.hyracks.util.annotations.NotThreadSafe;
+
+/**
+ * Writes the frames of a channel as a sequence of records into chunks of the frame size of the channel. A record is
+ * a piece of a frame, compressed or not, preceded by its compressed and uncompressed lengths. Both lengths are equal
+ * for a record that is not compressed. The body of a record continues in the next chunk when it does not fit, so a
+ * piece that does not compress costs its header only. A header never spans chunks: a chunk that has no room for it is
+ * sent as is and the decoder skips its tail (see {@link CompressedFrameDecoder}). Every chunk is sent full, so that
+ * the receiving side, which reads the stream into buffers of the chunk size, cuts it where it was cut here.
+ * When the compression does not pay off for a while, the pieces are written uncompressed for some time before the
+ * compression is tried again.
+ */
+@NotThreadSafe
+public class CompressedFrameEncoder {
+    public static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    // number of pieces over which the compression ratio is measured
+    static final int PROBE_PIECES = 8;
+    // number of pieces that are not compressed when the compression did not save enough
+    static final int BACKOFF_PIECES = 64;
+    // the compression is stopped if it saves less than 1/MIN_SAVING_DIVISOR of the bytes
+    private static final int MIN_SAVING_DIVISOR = 8;
+
+    private final ICompressorDecompressor compressor;
+    private final int chunkSize;
+    private final int maxPieceSize;
+    private final IChunkChannel channel;
+    private final MuxDemuxPerformanceCounters counters;
+    private final ByteBuffer compressed;
+    private ByteBuffer chunk;
+    private int probedPieces;
+    private long probedBytes;
+    private long probedCompressedBytes;
+    private int skippedPieces;
+
+    public CompressedFrameEncoder(ICompressorDecompressor compressor, int chunkSize, IChunkChannel channel,
+            MuxDemuxPerformanceCounters counters) {
+        this.compressor = compressor;
+        this.chunkSize = chunkSize;
+        this.maxPieceSize = chunkSize;
+        this.channel = channel;
+        this.counters = counters;
+        compressed = ByteBuffer.allocate(compressor.computeCompressedBufferSize(maxPieceSize));
+    }
+
+    public void encode(ByteBuffer frame) throws HyracksDataException {
+        while (frame.hasRemaining()) {
+            int length = Math.min(frame.remaining(), maxPieceSize);
+            ByteBuffer piece = frame.duplicate();
+            piece.limit(piece.position() + length);
+            frame.position(frame.position() + length);
+            int cLength = compress(piece);
+            ByteBuffer record = cLength < length ? compressed : piece;
+            ensureRoom(RECORD_HEADER_SIZE);
+            chunk.putInt(cLength);
+            chunk.putInt(length);
+            while (record.hasRemaining()) {
+                ensureRoom(1);
+                int n = Math.min(record.remaining(), chunk.remaining());
+                ByteBuffer part = record.duplicate();
+                part.limit(part.position() + n);
+                chunk.put(part);
+                record.position(record.position() + n);
+            }
+            counters.addUncompressedPayloadBytesWritten(length);
+        }
+    }
+
+    /**
+     * Pads the chunk that is being filled, if any, and sends it. The receiving side reads full chunks, so records
+     * that are encoded after a flush start in a new chunk.
+     */
+    public void flush() throws HyracksDataException {
+        if (chunk != null && chunk.position() > 0) {
+            if (chunk.remaining() >= Integer.BYTES) {
+                chunk.putInt(0);
+            }
+            send();
+        }
+        chunk = null;
+    }
+
+    private void send() throws HyracksDataException {
+        chunk.position(chunkSize);
+        chunk.flip();
+        channel.sendChunk(chunk);
+        // the padding goes on the wire as well
+        counters.addCompressedPayloadBytesWritten(chunkSize);
+        chunk = null;
+    }
+
+    /**
+     * @return the compressed length of the piece, the length of the piece if it is not compressed
+     */
+    private int compress(ByteBuffer piece) throws HyracksDataException {
+        int length = piece.remaining();
+        if (skippedPieces > 0) {
+            skippedPieces--;
+            return length;
+        }
+        compressed.clear();
+        compressor.compress(piece, compressed);
+        int cLength = Math.min(compressed.remaining(), length);
+        probedBytes += length;
+        probedCompressedBytes += cLength;
+        if (++probedPieces == PROBE_PIECES) {
+            if (probedBytes - probedCompressedBytes < probedBytes / MIN_SAVING_DIVISOR) {
+                skippedPieces = BACKOFF_PIECES;
+            }
+            probedPieces = 0;
+            probedBytes = 0;
+            probedCompressedBytes = 0;
+        }
+        return cLength;
+    }
+
+    private void ensureRoom(int length) throws HyracksDataException {
+        if (chunk != null && chunk.remaining() < length) {
+            send();
+        }
+        if (chunk == null) {
+            chunk = channel.getEmptyChunk();
+            chunk.clear();
+        }
+    }
+
+    public interface IChunkChannel {
+        /**
+         * @return an empty chunk of the frame size of the channel, waits until there is one
+         */
+        ByteBuffer getEmptyChunk() throws HyracksDataException;
+
+        void sendChunk(ByteBuffer chunk) throws HyracksDataException;
+    }
+}
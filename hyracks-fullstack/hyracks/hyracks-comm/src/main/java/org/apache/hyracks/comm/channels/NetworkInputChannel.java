@@ -21,6 +21,9 @@ package org.apache.hyracks.comm.channels;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Queue;
 
 import org.apache.hyracks.api.channels.IInputChannel;
@@ -31,13 +34,23 @@ import org.apache.hyracks.api.comm.ICloseableBufferAcceptor;
 import org.apache.hyracks.api.context.IHyracksCommonContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.net.protocols.muxdemux.AbstractChannelWriteInterface;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class NetworkInputChannel implements IInputChannel {
     private static final Logger LOGGER = LogManager.getLogger();
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 24;
+
+    /**
+     * The number of buffers a channel may use when the sender is faster than the round trip of the credits. The
+     * channel starts with credits for {@link #INITIAL_CREDIT_BUFFERS} buffers and gives more while it is limited by
+     * its credits rather than by its consumer.
+     */
+    public static final int DEFAULT_BUFFER_COUNT = 16;
+
+    private static final int INITIAL_CREDIT_BUFFERS = 2;
 
     private final IChannelConnectionFactory netManager;
 
@@ -49,19 +62,49 @@ public class NetworkInputChannel implements IInputChannel {
 
     private final int nBuffers;
 
+    private final boolean frameCompression;
+
     private IChannelControlBlock ccb;
 
+    private CompressedFrameDecoder decoder;
+
+    /*
+     * With frame compression, the chunks are decoded into at most nBuffers frames. A received chunk is only given
+     * back to the channel (which gives credit to the sender for it) once it is decoded, and the decoding waits for the
+     * consumer to recycle a frame when all of them are in use. This keeps the back pressure on the sender and the
+     * memory of the channel bounded.
+     */
+    private final Deque<ByteBuffer> emptyFrames;
+
+    private final Deque<ByteBuffer> pendingChunks;
+
+    private int allocatedFrames;
+
+    private int decodedFrames;
+
+    private boolean remotelyClosed;
+
+    private boolean endOfStreamNotified;
+
     private IInputChannelMonitor monitor;
 
     private Object attachment;
 
     public NetworkInputChannel(IChannelConnectionFactory netManager, SocketAddress remoteAddress,
             PartitionId partitionId, int nBuffers) {
+        this(netManager, remoteAddress, partitionId, nBuffers, false);
+    }
+
+    public NetworkInputChannel(IChannelConnectionFactory netManager, SocketAddress remoteAddress,
+            PartitionId partitionId, int nBuffers, boolean frameCompression) {
         this.netManager = netManager;
         this.remoteAddress = remoteAddress;
         this.partitionId = partitionId;
         fullQueue = new ArrayDeque<ByteBuffer>(nBuffers);
         this.nBuffers = nBuffers;
+        this.frameCompression = frameCompression;
+        emptyFrames = new ArrayDeque<>(nBuffers);
+        pendingChunks = new ArrayDeque<>(nBuffers);
     }
 
     @Override
@@ -86,8 +129,65 @@ public class NetworkInputChannel implements IInputChannel {
 
     @Override
     public void recycleBuffer(ByteBuffer buffer) {
-        buffer.clear();
-        ccb.getReadInterface().getEmptyBufferAcceptor().accept(buffer);
+        if (decoder == null) {
+            recycleChunk(buffer);
+            return;
+        }
+        decode(null, buffer);
+    }
+
+    private void recycleChunk(ByteBuffer chunk) {
+        chunk.clear();
+        ccb.getReadInterface().getEmptyBufferAcceptor().accept(chunk);
+    }
+
+    /**
+     * Decodes the pending chunks, after adding the received chunk or the recycled frame, if any, and notifies the
+     * monitor of the decoded frames and of the end of the stream once all the chunks are decoded.
+     */
+    private void decode(ByteBuffer receivedChunk, ByteBuffer recycledFrame) {
+        List<ByteBuffer> decodedChunks = new ArrayList<>(1);
+        int nFrames;
+        boolean endOfStream = false;
+        try {
+            synchronized (this) {
+                if (recycledFrame != null) {
+                    recycledFrame.clear();
+                    emptyFrames.push(recycledFrame);
+                }
+                if (receivedChunk != null) {
+                    pendingChunks.add(receivedChunk);
+                }
+                int decodedBefore = decodedFrames;
+                while (!pendingChunks.isEmpty() && decoder.decode(pendingChunks.peek())) {
+                    decodedChunks.add(pendingChunks.poll());
+                }
+                nFrames = decodedFrames - decodedBefore;
+                if (remotelyClosed && pendingChunks.isEmpty() && !endOfStreamNotified) {
+                    endOfStreamNotified = true;
+                    endOfStream = true;
+                    ByteBuffer partial = decoder.flush();
+                    if (partial != null) {
+                        partial.flip();
+                        fullQueue.add(partial);
+                        nFrames++;
+                    }
+                }
+            }
+        } catch (HyracksDataException e) {
+            LOGGER.error("Failed to decode a compressed chunk on channel: " + ccb, e);
+            monitor.notifyFailure(this, AbstractChannelWriteInterface.CONNECTION_LOST_ERROR_CODE);
+            return;
+        }
+        for (ByteBuffer chunk : decodedChunks) {
+            recycleChunk(chunk);
+        }
+        if (nFrames > 0) {
+            monitor.notifyDataAvailability(this, nFrames);
+        }
+        if (endOfStream) {
+            monitor.notifyEndOfStream(this);
+        }
     }
 
     @Override
@@ -97,15 +197,22 @@ public class NetworkInputChannel implements IInputChannel {
         } catch (Exception e) {
             throw HyracksDataException.create(e);
         }
+        if (frameCompression) {
+            ccb.setFrameCompression(true);
+            decoder = new CompressedFrameDecoder(SnappyFrameCompressorDecompressor.INSTANCE,
+                    ctx.getInitialFrameSize(), new DecodedFrameChannel(ctx.getInitialFrameSize()));
+        }
         ccb.getReadInterface().setFullBufferAcceptor(new ReadFullBufferAcceptor());
         ccb.getWriteInterface().setEmptyBufferAcceptor(new WriteEmptyBufferAcceptor());
-        ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBuffers, ctx), nBuffers,
-                ctx.getInitialFrameSize());
+        ccb.setPartitionId(partitionId);
+        ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBuffers, ctx),
+                Math.min(nBuffers, INITIAL_CREDIT_BUFFERS), nBuffers, ctx.getInitialFrameSize());
         ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_MESSAGE_SIZE);
         writeBuffer.putLong(partitionId.getJobId().getId());
         writeBuffer.putInt(partitionId.getConnectorDescriptorId().getId());
         writeBuffer.putInt(partitionId.getSenderIndex());
         writeBuffer.putInt(partitionId.getReceiverIndex());
+        writeBuffer.putInt(frameCompression ? 1 : 0);
         writeBuffer.flip();
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("Sending partition request: " + partitionId + " on channel: " + ccb);
@@ -127,13 +234,24 @@ public class NetworkInputChannel implements IInputChannel {
     private class ReadFullBufferAcceptor implements ICloseableBufferAcceptor {
         @Override
         public void accept(ByteBuffer buffer) {
-            fullQueue.add(buffer);
-            monitor.notifyDataAvailability(NetworkInputChannel.this, 1);
+            if (decoder == null) {
+                fullQueue.add(buffer);
+                monitor.notifyDataAvailability(NetworkInputChannel.this, 1);
+                return;
+            }
+            decode(buffer, null);
         }
 
         @Override
         public void close() {
-            monitor.notifyEndOfStream(NetworkInputChannel.this);
+            if (decoder == null) {
+                monitor.notifyEndOfStream(NetworkInputChannel.this);
+                return;
+            }
+            synchronized (NetworkInputChannel.this) {
+                remotelyClosed = true;
+            }
+            decode(null, null);
         }
 
         @Override
@@ -148,4 +266,28 @@ public class NetworkInputChannel implements IInputChannel {
             // do nothing
         }
     }
+
+    private class DecodedFrameChannel implements CompressedFrameDecoder.IFrameChannel {
+        private final int frameSize;
+
+        private DecodedFrameChannel(int frameSize) {
+            this.frameSize = frameSize;
+        }
+
+        @Override
+        public ByteBuffer getEmptyFrame() {
+            ByteBuffer frame = emptyFrames.poll();
+            if (frame == null && allocatedFrames < nBuffers) {
+                frame = ByteBuffer.allocate(frameSize);
+                allocatedFrames++;
+            }
+            return frame;
+        }
+
+        @Override
+        public void frameDecoded(ByteBuffer frame) {
+            fullQueue.add(frame);
+            decodedFrames++;
+        }
+    }
 }
@@ -24,13 +24,13 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Objects;
 
+import org.apache.hyracks.api.channels.IOutputChannel;
 import org.apache.hyracks.api.comm.IBufferAcceptor;
-import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.net.protocols.muxdemux.AbstractChannelWriteInterface;
 import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
 
-public class NetworkOutputChannel implements IFrameWriter {
+public class NetworkOutputChannel implements IOutputChannel {
     private final ChannelControlBlock ccb;
 
     private final int nBuffers;
@@ -43,6 +43,8 @@ public class NetworkOutputChannel implements IFrameWriter {
 
     private int allocateCounter = 0;
 
+    private CompressedFrameEncoder encoder;
+
     public NetworkOutputChannel(ChannelControlBlock ccb, int nBuffers) {
         this.ccb = ccb;
         this.nBuffers = nBuffers;
@@ -50,6 +52,7 @@ public class NetworkOutputChannel implements IFrameWriter {
         ccb.getWriteInterface().setEmptyBufferAcceptor(new WriteEmptyBufferAcceptor());
     }
 
+    @Override
     public void setFrameSize(int frameSize) {
         this.frameSize = frameSize;
     }
@@ -61,37 +64,17 @@ public class NetworkOutputChannel implements IFrameWriter {
 
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (ccb.isFrameCompression()) {
+            if (encoder == null) {
+                encoder = new CompressedFrameEncoder(SnappyFrameCompressorDecompressor.INSTANCE, frameSize,
+                        new ChunkChannel(), ccb.getPerformanceCounters());
+            }
+            encoder.encode(buffer);
+            return;
+        }
         ByteBuffer destBuffer;
         while (buffer.hasRemaining()) {
-            synchronized (this) {
-                while (true) {
-                    if (aborted) {
-                        throw new HyracksDataException("Connection has been aborted");
-                    }
-                    destBuffer = emptyStack.poll();
-                    if (destBuffer == null && allocateCounter < nBuffers) {
-                        destBuffer = ByteBuffer.allocateDirect(frameSize);
-                        allocateCounter++;
-                    }
-                    if (destBuffer != null) {
-                        break;
-                    }
-                    try {
-                        InetSocketAddress remoteAddress = ccb.getRemoteAddress();
-                        String nameBefore = Thread.currentThread().getName();
-                        try {
-                            Thread.currentThread().setName(
-                                    nameBefore + ":SendingTo(" + Objects.toString(remoteAddress) + ") over " + ccb);
-                            wait();
-                        } finally {
-                            Thread.currentThread().setName(nameBefore);
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw HyracksDataException.create(e);
-                    }
-                }
-            }
+            destBuffer = getEmptyBuffer();
             destBuffer.clear();
             if (destBuffer.capacity() < buffer.remaining()) {
                 destBuffer.put(buffer.array(), buffer.position(), destBuffer.capacity());
@@ -104,6 +87,36 @@ public class NetworkOutputChannel implements IFrameWriter {
         }
     }
 
+    private synchronized ByteBuffer getEmptyBuffer() throws HyracksDataException {
+        while (true) {
+            if (aborted) {
+                throw new HyracksDataException("Connection has been aborted");
+            }
+            ByteBuffer destBuffer = emptyStack.poll();
+            if (destBuffer == null && allocateCounter < nBuffers) {
+                destBuffer = ByteBuffer.allocateDirect(frameSize);
+                allocateCounter++;
+            }
+            if (destBuffer != null) {
+                return destBuffer;
+            }
+            try {
+                InetSocketAddress remoteAddress = ccb.getRemoteAddress();
+                String nameBefore = Thread.currentThread().getName();
+                try {
+                    Thread.currentThread()
+                            .setName(nameBefore + ":SendingTo(" + Objects.toString(remoteAddress) + ") over " + ccb);
+                    wait();
+                } finally {
+                    Thread.currentThread().setName(nameBefore);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw HyracksDataException.create(e);
+            }
+        }
+    }
+
     @Override
     public void fail() throws HyracksDataException {
         ccb.getWriteInterface().getFullBufferAcceptor().error(AbstractChannelWriteInterface.REMOTE_ERROR_CODE);
@@ -111,9 +124,13 @@ public class NetworkOutputChannel implements IFrameWriter {
 
     @Override
     public void close() throws HyracksDataException {
+        if (encoder != null) {
+            encoder.flush();
+        }
         ccb.getWriteInterface().getFullBufferAcceptor().close();
     }
 
+    @Override
     public void abort(int ecode) {
         ccb.getWriteInterface().getFullBufferAcceptor().error(ecode);
         synchronized (NetworkOutputChannel.this) {
@@ -132,9 +149,24 @@ public class NetworkOutputChannel implements IFrameWriter {
         }
     }
 
+    private class ChunkChannel implements CompressedFrameEncoder.IChunkChannel {
+        @Override
+        public ByteBuffer getEmptyChunk() throws HyracksDataException {
+            return getEmptyBuffer();
+        }
+
+        @Override
+        public void sendChunk(ByteBuffer chunk) {
+            ccb.getWriteInterface().getFullBufferAcceptor().accept(chunk);
+        }
+    }
+
     @Override
     public void flush() throws HyracksDataException {
         // At the network boundary.
-        // This frame writer always pushes its content
+        // Uncompressed frames are always pushed, compressed frames can wait in the chunk of the encoder
+        if (encoder != null) {
+            encoder.flush();
+        }
     }
 }
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.comm.channels;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.compression.ICompressorDecompressor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemuxPerformanceCounters;
+import org.junit.Test;
+
+public class CompressedFrameEncoderDecoderTest {
+    private static final int FRAME_SIZE = 256;
+
+    @Test
+    public void testRoundTrip() throws HyracksDataException {
+        Random random = new Random(0);
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            byte[] frame = new byte[FRAME_SIZE * (1 + random.nextInt(3))];
+            if (i % 10 < 5) {
+                // compresses well
+                for (int j = 0; j < frame.length; j++) {
+                    frame[j] = (byte) (j / 40);
+                }
+            } else {
+                random.nextBytes(frame);
+            }
+            frames.add(frame);
+        }
+        RunLengthCompressorDecompressor codec = new RunLengthCompressorDecompressor();
+        MuxDemuxPerformanceCounters counters = new MuxDemuxPerformanceCounters();
+        byte[] sent = encode(codec, frames, counters);
+        List<ByteBuffer> received = decode(codec, sent);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            expected.write(frame, 0, frame.length);
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        for (ByteBuffer frame : received) {
+            assertEquals(FRAME_SIZE, frame.remaining());
+            actual.write(frame.array(), frame.position(), frame.remaining());
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(expected.size(), counters.getUncompressedPayloadBytesWritten());
+        assertEquals(sent.length, counters.getCompressedPayloadBytesWritten());
+        assertTrue(counters.getCompressedPayloadBytesWritten() < counters.getUncompressedPayloadBytesWritten());
+    }
+
+    @Test
+    public void testIncompressibleFramesCostTheirHeadersOnly() throws HyracksDataException {
+        Random random = new Random(0);
+        List<byte[]> frames = new ArrayList<>();
+        int nFrames = 16;
+        for (int i = 0; i < nFrames; i++) {
+            byte[] frame = new byte[FRAME_SIZE];
+            random.nextBytes(frame);
+            frames.add(frame);
+        }
+        RunLengthCompressorDecompressor codec = new RunLengthCompressorDecompressor();
+        MuxDemuxPerformanceCounters counters = new MuxDemuxPerformanceCounters();
+        byte[] sent = encode(codec, frames, counters);
+        // the records span chunks, only the last chunk is padded
+        int recordsLength = nFrames * (FRAME_SIZE + CompressedFrameEncoder.RECORD_HEADER_SIZE);
+        assertEquals((recordsLength + FRAME_SIZE - 1) / FRAME_SIZE * FRAME_SIZE, sent.length);
+        assertEquals(sent.length, counters.getCompressedPayloadBytesWritten());
+        List<ByteBuffer> received = decode(codec, sent);
+        assertEquals(nFrames, received.size());
+        for (int i = 0; i < nFrames; i++) {
+            assertArrayEquals(frames.get(i), received.get(i).array());
+        }
+    }
+
+    @Test
+    public void testDecodingWaitsForEmptyFrames() throws HyracksDataException {
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            byte[] frame = new byte[FRAME_SIZE];
+            frame[0] = (byte) i;
+            frames.add(frame);
+        }
+        RunLengthCompressorDecompressor codec = new RunLengthCompressorDecompressor();
+        byte[] sent = encode(codec, frames, new MuxDemuxPerformanceCounters());
+        // the frames compress into a single chunk
+        assertEquals(FRAME_SIZE, sent.length);
+        List<ByteBuffer> received = new ArrayList<>();
+        List<ByteBuffer> emptyFrames = new ArrayList<>();
+        emptyFrames.add(ByteBuffer.allocate(FRAME_SIZE));
+        CompressedFrameDecoder decoder =
+                new CompressedFrameDecoder(codec, FRAME_SIZE, new CompressedFrameDecoder.IFrameChannel() {
+                    @Override
+                    public ByteBuffer getEmptyFrame() {
+                        return emptyFrames.isEmpty() ? null : emptyFrames.remove(0);
+                    }
+
+                    @Override
+                    public void frameDecoded(ByteBuffer frame) {
+                        received.add(frame);
+                    }
+                });
+        ByteBuffer chunk = ByteBuffer.wrap(sent);
+        for (int i = 0; i < frames.size() - 1; i++) {
+            // a single frame is decoded until the consumer gives it back
+            assertFalse(decoder.decode(chunk));
+            assertEquals(i + 1, received.size());
+            assertEquals(i, received.get(i).get(0));
+            assertFalse(decoder.decode(chunk));
+            assertEquals(i + 1, received.size());
+            emptyFrames.add(ByteBuffer.allocate(FRAME_SIZE));
+        }
+        assertTrue(decoder.decode(chunk));
+        assertEquals(frames.size(), received.size());
+        assertEquals(frames.size() - 1, received.get(frames.size() - 1).get(0));
+        assertNull(decoder.flush());
+    }
+
+    @Test
+    public void testStopsCompressingWhenItDoesNotPayOff() throws HyracksDataException {
+        Random random = new Random(0);
+        List<byte[]> frames = new ArrayList<>();
+        int nFrames = CompressedFrameEncoder.PROBE_PIECES + CompressedFrameEncoder.BACKOFF_PIECES + 1;
+        for (int i = 0; i < nFrames; i++) {
+            // one piece per frame
+            byte[] frame = new byte[FRAME_SIZE - CompressedFrameEncoder.RECORD_HEADER_SIZE];
+            random.nextBytes(frame);
+            frames.add(frame);
+        }
+        RunLengthCompressorDecompressor codec = new RunLengthCompressorDecompressor();
+        byte[] sent = encode(codec, frames, new MuxDemuxPerformanceCounters());
+        // the pieces are compressed again after the back off
+        assertEquals(CompressedFrameEncoder.PROBE_PIECES + 1, codec.compressed);
+        assertEquals(0, codec.uncompressed);
+        List<ByteBuffer> received = decode(codec, sent);
+        int length = 0;
+        for (ByteBuffer frame : received) {
+            length += frame.remaining();
+        }
+        assertEquals(nFrames * (FRAME_SIZE - CompressedFrameEncoder.RECORD_HEADER_SIZE), length);
+    }
+
+    @Test
+    public void testFlushSmallFrame() throws HyracksDataException {
+        RunLengthCompressorDecompressor codec = new RunLengthCompressorDecompressor();
+        List<ByteBuffer> chunks = new ArrayList<>();
+        CompressedFrameEncoder encoder =
+                new CompressedFrameEncoder(codec, FRAME_SIZE, new CompressedFrameEncoder.IChunkChannel() {
+                    @Override
+                    public ByteBuffer getEmptyChunk() {
+                        return ByteBuffer.allocate(FRAME_SIZE);
+                    }
+
+                    @Override
+                    public void sendChunk(ByteBuffer chunk) {
+                        chunks.add(chunk);
+                    }
+                }, new MuxDemuxPerformanceCounters());
+        // a frame that compresses to a small part of a chunk
+        byte[] frame = new byte[FRAME_SIZE];
+        encoder.encode(ByteBuffer.wrap(frame));
+        assertEquals(0, chunks.size());
+        encoder.flush();
+        assertEquals(1, chunks.size());
+        // the chunk is padded, so the next chunk is read into a buffer of its own
+        assertEquals(FRAME_SIZE, chunks.get(0).remaining());
+        frame[0] = 1;
+        encoder.encode(ByteBuffer.wrap(frame));
+        encoder.flush();
+        assertEquals(2, chunks.size());
+        assertEquals(FRAME_SIZE, chunks.get(1).remaining());
+        encoder.flush();
+        assertEquals(2, chunks.size());
+        byte[] sent = new byte[2 * FRAME_SIZE];
+        chunks.get(0).get(sent, 0, FRAME_SIZE);
+        chunks.get(1).get(sent, FRAME_SIZE, FRAME_SIZE);
+        List<ByteBuffer> received = decode(codec, sent);
+        assertEquals(2, received.size());
+        assertEquals(0, received.get(0).get(0));
+        assertEquals(1, received.get(1).get(0));
+    }
+
+    private static byte[] encode(ICompressorDecompressor codec, List<byte[]> frames,
+            MuxDemuxPerformanceCounters counters) throws HyracksDataException {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        CompressedFrameEncoder encoder =
+                new CompressedFrameEncoder(codec, FRAME_SIZE, new CompressedFrameEncoder.IChunkChannel() {
+                    @Override
+                    public ByteBuffer getEmptyChunk() {
+                        return ByteBuffer.allocateDirect(FRAME_SIZE);
+                    }
+
+                    @Override
+                    public void sendChunk(ByteBuffer chunk) {
+                        byte[] bytes = new byte[chunk.remaining()];
+                        chunk.get(bytes);
+                        sent.write(bytes, 0, bytes.length);
+                    }
+                }, counters);
+        for (byte[] frame : frames) {
+            encoder.encode(ByteBuffer.wrap(frame));
+        }
+        encoder.flush();
+        return sent.toByteArray();
+    }
+
+    private static List<ByteBuffer> decode(ICompressorDecompressor codec, byte[] sent) throws HyracksDataException {
+        List<ByteBuffer> received = new ArrayList<>();
+        CompressedFrameDecoder decoder = new CompressedFrameDecoder(codec, FRAME_SIZE,
+                new CompressedFrameDecoder.IFrameChannel() {
+                    @Override
+                    public ByteBuffer getEmptyFrame() {
+                        return ByteBuffer.allocate(FRAME_SIZE);
+                    }
+
+                    @Override
+                    public void frameDecoded(ByteBuffer frame) {
+                        received.add(frame);
+                    }
+                });
+        // the channel reads full buffers of the frame size, except for the last one
+        for (int i = 0; i < sent.length; i += FRAME_SIZE) {
+            assertTrue(decoder.decode(ByteBuffer.wrap(sent, i, Math.min(FRAME_SIZE, sent.length - i)).slice()));
+        }
+        ByteBuffer partial = decoder.flush();
+        if (partial != null) {
+            partial.flip();
+            received.add(partial);
+        }
+        return received;
+    }
+
+    /**
+     * Writes every run of equal bytes as its length (at most 255) and the byte.
+     */
+    private static class RunLengthCompressorDecompressor implements ICompressorDecompressor {
+        private int compressed;
+        private int uncompressed;
+
+        @Override
+        public int computeCompressedBufferSize(int uBufferSize) {
+            return 2 * uBufferSize;
+        }
+
+        @Override
+        public ByteBuffer compress(ByteBuffer uBuffer, ByteBuffer cBuffer) {
+            compressed++;
+            int start = cBuffer.position();
+            int i = uBuffer.position();
+            while (i < uBuffer.limit()) {
+                byte b = uBuffer.get(i);
+                int run = 1;
+                while (i + run < uBuffer.limit() && run < 255 && uBuffer.get(i + run) == b) {
+                    run++;
+                }
+                cBuffer.put((byte) run);
+                cBuffer.put(b);
+                i += run;
+            }
+            cBuffer.limit(cBuffer.position());
+            cBuffer.position(start);
+            return cBuffer;
+        }
+
+        @Override
+        public ByteBuffer uncompress(ByteBuffer cBuffer, ByteBuffer uBuffer) {
+            uncompressed++;
+            int start = uBuffer.position();
+            for (int i = cBuffer.position(); i < cBuffer.limit(); i += 2) {
+                for (int j = 0; j < (cBuffer.get(i) & 0xff); j++) {
+                    uBuffer.put(cBuffer.get(i + 1));
+                }
+            }
+            uBuffer.limit(uBuffer.position());
+            uBuffer.position(start);
+            return uBuffer;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.hyracks.control.cc.executor;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -362,7 +363,7 @@ public class JobExecutor {
             Task ts = tasks[i];
             TaskId tid = ts.getTaskId();
             TaskAttempt taskAttempt = taskAttempts.get(tid);
-            String nodeId = assignLocation(acg, locationMap, tid, taskAttempt);
+            String nodeId = assignLocation(acg, locationMap, ts, taskAttempt, taskAttempts, taskAttemptMap);
             taskAttempt.setNodeId(nodeId);
             taskAttempt.setStatus(TaskAttempt.TaskStatus.RUNNING, null);
             taskAttempt.setStartTime(System.currentTimeMillis());
@@ -428,7 +429,9 @@ public class JobExecutor {
     }
 
     private String assignLocation(ActivityClusterGraph acg, Map<TaskId, LValueConstraintExpression> locationMap,
-            TaskId tid, TaskAttempt taskAttempt) throws HyracksException {
+            Task task, TaskAttempt taskAttempt, Map<TaskId, TaskAttempt> taskAttempts,
+            Map<String, List<TaskAttemptDescriptor>> taskAttemptMap) throws HyracksException {
+        TaskId tid = task.getTaskId();
         ActivityId aid = tid.getActivityId();
         ActivityCluster ac = acg.getActivityMap().get(aid);
         Set<ActivityId> blockers = ac.getBlocked2BlockerMap().get(aid);
@@ -447,17 +450,18 @@ public class JobExecutor {
             LValueConstraintExpression pLocationExpr = locationMap.get(tid);
             Object location = solver.getValue(pLocationExpr);
             if (location == null) {
-                // pick any
-                nodeId = liveNodes.toArray(new String[liveNodes.size()])[random.nextInt(liveNodes.size())];
+                // pick any, preferably close to the input of the task
+                nodeId = chooseLocation(nodeManager, acg, task, liveNodes, taskAttempts, taskAttemptMap);
             } else if (location instanceof String) {
                 nodeId = (String) location;
             } else if (location instanceof String[]) {
+                List<String> choices = new ArrayList<>();
                 for (String choice : (String[]) location) {
                     if (liveNodes.contains(choice)) {
-                        nodeId = choice;
-                        break;
+                        choices.add(choice);
                     }
                 }
+                nodeId = chooseLocation(nodeManager, acg, task, choices, taskAttempts, taskAttemptMap);
                 if (nodeId == null) {
                     throw new HyracksException("No satisfiable location found for " + taskAttempt.getTaskAttemptId());
                 }
@@ -475,6 +479,88 @@ public class JobExecutor {
         return nodeId;
     }
 
+    /*
+     * Chooses among the candidate nodes the one that produces most of the input of the task, so that the task reads
+     * its input locally, and, among those, the one with the lowest load. The load of a node is the load average
+     * reported in its last heartbeat plus the tasks assigned to it so far in this round, per core. A node receives
+     * at most its even share of the tasks of the activity in this round, so that the consumers of a many-to-many
+     * exchange do not all go to the node that runs most of the producers.
+     */
+    String chooseLocation(INodeManager nodeManager, ActivityClusterGraph acg, Task task,
+            Collection<String> candidates, Map<TaskId, TaskAttempt> taskAttempts,
+            Map<String, List<TaskAttemptDescriptor>> taskAttemptMap) {
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        Map<String, Double> inputLocality = getInputLocality(acg, task, taskAttempts);
+        ActivityId aid = task.getTaskId().getActivityId();
+        int nPartitions = task.getActivityPlan().getActivityPartitionDetails().getPartitionCount();
+        int maxAssigned = (nPartitions + candidates.size() - 1) / candidates.size();
+        return TaskPlacement.choose(candidates, nodeId -> {
+            List<TaskAttemptDescriptor> tads = taskAttemptMap.get(nodeId);
+            if (tads == null) {
+                return 0;
+            }
+            int assigned = 0;
+            for (TaskAttemptDescriptor tad : tads) {
+                if (tad.getTaskAttemptId().getTaskId().getActivityId().equals(aid)) {
+                    assigned++;
+                }
+            }
+            return assigned;
+        }, maxAssigned, nodeId -> inputLocality.getOrDefault(nodeId, 0.0), nodeId -> {
+            NodeControllerState ncs = nodeManager.getNodeControllerState(nodeId);
+            List<TaskAttemptDescriptor> tads = taskAttemptMap.get(nodeId);
+            double load = (tads == null ? 0 : tads.size());
+            if (ncs == null) {
+                return load;
+            }
+            return (load + Math.max(0.0, ncs.getSystemLoadAverage())) / Math.max(1, ncs.getNProcessors());
+        }, random);
+    }
+
+    /*
+     * Computes for each node the sum of the shares of the outputs of its producer tasks that the task reads.
+     */
+    private Map<String, Double> getInputLocality(ActivityClusterGraph acg, Task task,
+            Map<TaskId, TaskAttempt> taskAttempts) {
+        Map<String, Double> inputLocality = new HashMap<>();
+        TaskId tid = task.getTaskId();
+        ActivityPartitionDetails apd = task.getActivityPlan().getActivityPartitionDetails();
+        int[] inPartitionCounts = apd.getInputPartitionCounts();
+        if (inPartitionCounts == null) {
+            return inputLocality;
+        }
+        List<IConnectorDescriptor> inConnectors = acg.getActivityInputs(tid.getActivityId());
+        int nConsumers = apd.getPartitionCount();
+        BitSet sources = new BitSet();
+        BitSet targets = new BitSet();
+        for (int i = 0; i < inPartitionCounts.length; ++i) {
+            IConnectorDescriptor conn = inConnectors.get(i);
+            ActivityId producerAid = acg.getProducerActivity(conn.getConnectorId());
+            int nProducers = inPartitionCounts[i];
+            sources.clear();
+            conn.indicateSourcePartitions(nProducers, nConsumers, tid.getPartition(), sources);
+            for (int j = sources.nextSetBit(0); j >= 0; j = sources.nextSetBit(j + 1)) {
+                TaskId producerTaskId = new TaskId(producerAid, j);
+                TaskAttempt producerAttempt = taskAttempts.get(producerTaskId);
+                String nodeId =
+                        producerAttempt != null ? producerAttempt.getNodeId() : findTaskLocation(producerTaskId);
+                if (nodeId == null) {
+                    continue;
+                }
+                int nTargets = nConsumers;
+                if (!conn.allProducersToAllConsumers()) {
+                    targets.clear();
+                    conn.indicateTargetPartitions(nProducers, nConsumers, j, targets);
+                    nTargets = Math.max(1, targets.cardinality());
+                }
+                inputLocality.merge(nodeId, 1.0 / nTargets, Double::sum);
+            }
+        }
+        return inputLocality;
+    }
+
     private String findTaskLocation(TaskId tid) {
         ActivityId aid = tid.getActivityId();
         ActivityCluster ac = jobRun.getActivityClusterGraph().getActivityMap().get(aid);
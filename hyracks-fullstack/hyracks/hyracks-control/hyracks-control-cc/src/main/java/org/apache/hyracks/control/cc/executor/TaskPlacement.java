@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.executor;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Chooses the node of a task whose location is not fixed by the constraints of the job. The task goes to the node
+ * that holds the largest share of its input, so that the task reads as much of its input as possible locally, and,
+ * among those, to the least loaded node. Ties are broken at random. The number of tasks of an activity that a node
+ * receives can be capped, so that locality does not pile up all the tasks of a many-to-many exchange on one node.
+ */
+public class TaskPlacement {
+    private static final double EPSILON = 1e-9;
+
+    private TaskPlacement() {
+    }
+
+    /**
+     * @param candidates,
+     *            the nodes that the task can run on.
+     * @param inputLocality,
+     *            the share of the input of the task that is produced on a node.
+     * @param load,
+     *            the load of a node per core.
+     * @param random,
+     *            the random generator that breaks ties.
+     * @return the chosen node, null if there is no candidate.
+     */
+    public static String choose(Collection<String> candidates, ToDoubleFunction<String> inputLocality,
+            ToDoubleFunction<String> load, Random random) {
+        return choose(candidates, candidate -> 0, Integer.MAX_VALUE, inputLocality, load, random);
+    }
+
+    /**
+     * @param candidates,
+     *            the nodes that the task can run on.
+     * @param assigned,
+     *            the number of tasks of the same activity that are already assigned to a node.
+     * @param maxAssigned,
+     *            the number of tasks of the same activity that a node can receive, ignored when every candidate has
+     *            reached it.
+     * @param inputLocality,
+     *            the share of the input of the task that is produced on a node.
+     * @param load,
+     *            the load of a node per core.
+     * @param random,
+     *            the random generator that breaks ties.
+     * @return the chosen node, null if there is no candidate.
+     */
+    public static String choose(Collection<String> candidates, ToIntFunction<String> assigned, int maxAssigned,
+            ToDoubleFunction<String> inputLocality, ToDoubleFunction<String> load, Random random) {
+        String chosen = choose(candidates, candidate -> assigned.applyAsInt(candidate) < maxAssigned, inputLocality,
+                load, random);
+        return chosen != null ? chosen : choose(candidates, candidate -> true, inputLocality, load, random);
+    }
+
+    private static String choose(Collection<String> candidates, Predicate<String> eligible,
+            ToDoubleFunction<String> inputLocality, ToDoubleFunction<String> load, Random random) {
+        String chosen = null;
+        double chosenLocality = 0;
+        double chosenLoad = 0;
+        int ties = 0;
+        for (String candidate : candidates) {
+            if (!eligible.test(candidate)) {
+                continue;
+            }
+            double candidateLocality = inputLocality.applyAsDouble(candidate);
+            double candidateLoad = load.applyAsDouble(candidate);
+            int cmp = chosen == null ? 1 : compare(candidateLocality, chosenLocality);
+            if (cmp == 0) {
+                cmp = compare(chosenLoad, candidateLoad);
+            }
+            if (cmp == 0) {
+                // replaces the chosen node with probability 1/ties, so that every tied node is equally likely
+                cmp = random.nextInt(++ties) == 0 ? 1 : -1;
+            } else if (cmp > 0) {
+                ties = 1;
+            }
+            if (cmp > 0) {
+                chosen = candidate;
+                chosenLocality = candidateLocality;
+                chosenLoad = candidateLoad;
+            }
+        }
+        return chosen;
+    }
+
+    private static int compare(double a, double b) {
+        return Math.abs(a - b) < EPSILON ? 0 : Double.compare(a, b);
+    }
+}
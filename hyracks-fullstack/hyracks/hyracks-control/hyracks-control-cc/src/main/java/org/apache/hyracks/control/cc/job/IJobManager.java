@@ -125,4 +125,14 @@ public interface IJobManager {
      * @return the maximum number of jobs to queue before rejecting new jobs
      */
     int getJobQueueCapacity();
+
+    /**
+     * @return the workload classes among which a job queue shares the cluster, with their weights and limits
+     */
+    String getJobQueueWorkloadClasses();
+
+    /**
+     * @return the time (in milliseconds) after which a queued job gains the priority of one running job
+     */
+    long getJobQueuePriorityAgingPeriod();
 }
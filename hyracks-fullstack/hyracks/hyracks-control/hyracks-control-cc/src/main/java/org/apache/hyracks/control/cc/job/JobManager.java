@@ -108,7 +108,9 @@ public class JobManager implements IJobManager {
     public void add(JobRun jobRun) throws HyracksException {
         checkJob(jobRun);
         JobSpecification job = jobRun.getJobSpecification();
-        IJobCapacityController.JobSubmissionStatus status = jobCapacityController.allocate(job);
+        // The job queue might hold the job back, e.g., to let jobs of other workloads go first.
+        IJobCapacityController.JobSubmissionStatus status = jobQueue.canExecute(jobRun)
+                ? jobCapacityController.allocate(job) : IJobCapacityController.JobSubmissionStatus.QUEUE;
         CCServiceContext serviceCtx = ccs.getContext();
         serviceCtx.notifyJobCreation(jobRun.getJobId(), job);
         switch (status) {
@@ -233,6 +235,7 @@ public class JobManager implements IJobManager {
         if (activeRunMap.remove(jobId) != null) {
             // non-active jobs have zero capacity
             releaseJobCapacity(run);
+            jobQueue.jobCompleted(run);
         }
         runMapArchive.put(jobId, run);
         runMapHistory.put(jobId, run.getExceptions());
@@ -296,6 +299,16 @@ public class JobManager implements IJobManager {
         return ccs.getCCConfig().getJobQueueCapacity();
     }
 
+    @Override
+    public String getJobQueueWorkloadClasses() {
+        return ccs.getCCConfig().getJobQueueWorkloadClasses();
+    }
+
+    @Override
+    public long getJobQueuePriorityAgingPeriod() {
+        return ccs.getCCConfig().getJobQueuePriorityAgingPeriod();
+    }
+
     private void pickJobsToRun() throws HyracksException {
         List<JobRun> selectedRuns = jobQueue.pull();
         for (JobRun run : selectedRuns) {
@@ -309,6 +322,7 @@ public class JobManager implements IJobManager {
         run.setStartTimeZoneId(ZoneId.systemDefault().getId());
         JobId jobId = run.getJobId();
         activeRunMap.put(jobId, run);
+        jobQueue.jobStarted(run);
         run.setStatus(JobStatus.RUNNING, null);
         executeJobInternal(run);
     }
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.JobStatus;
+import org.apache.hyracks.api.job.resource.IClusterCapacity;
+import org.apache.hyracks.api.job.resource.IJobCapacityController;
+import org.apache.hyracks.control.cc.job.IJobManager;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.util.StorageUtil;
+import org.apache.hyracks.util.annotations.GuardedBy;
+import org.apache.hyracks.util.annotations.NotThreadSafe;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An implementation of IJobQueue that shares the cluster among workload classes in proportion to their weights,
+ * so that long running jobs of one workload do not hold back the short jobs of another.
+ * Jobs are queued per workload class (see {@link JobSpecification#getWorkloadClass()}) and the jobs of a class are
+ * started in their order of arrival. When capacity becomes available, the next job is taken from the class with the
+ * fewest running jobs relative to its weight. A queued job gains the priority of one running job of its class per
+ * priority aging period, so that a class with a small weight is not starved. A class can further limit the number
+ * of its running jobs and the memory they require.
+ */
+@NotThreadSafe
+@GuardedBy("JobManager")
+public class FairShareJobQueue implements IJobQueue {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Map<JobId, JobRun> jobListMap = new LinkedHashMap<>();
+    // the jobs that were pulled from the queue, but that the job manager has not started yet
+    private final Set<JobId> selectedJobs = new HashSet<>();
+    private final Map<String, WorkloadClass> workloadClasses;
+    private final WorkloadClass defaultClass;
+    private final IJobManager jobManager;
+    private final IJobCapacityController jobCapacityController;
+    private final int jobQueueCapacity;
+    private final long agingPeriod;
+
+    public FairShareJobQueue(IJobManager jobManager, IJobCapacityController jobCapacityController) {
+        this.jobManager = jobManager;
+        this.jobCapacityController = jobCapacityController;
+        this.jobQueueCapacity = jobManager.getJobQueueCapacity();
+        this.agingPeriod = Math.max(1L, jobManager.getJobQueuePriorityAgingPeriod());
+        this.workloadClasses = parseWorkloadClasses(jobManager.getJobQueueWorkloadClasses());
+        this.defaultClass = workloadClasses.values().iterator().next();
+    }
+
+    @Override
+    public void add(JobRun run) throws HyracksException {
+        int size = jobListMap.size();
+        if (size >= jobQueueCapacity) {
+            throw HyracksException.create(ErrorCode.JOB_QUEUE_FULL, jobQueueCapacity);
+        }
+        jobListMap.put(run.getJobId(), run);
+        getWorkloadClass(run).jobs.put(run.getJobId(), run);
+    }
+
+    @Override
+    public JobRun remove(JobId jobId) {
+        JobRun run = jobListMap.remove(jobId);
+        if (run != null) {
+            getWorkloadClass(run).jobs.remove(jobId);
+        }
+        return run;
+    }
+
+    @Override
+    public JobRun get(JobId jobId) {
+        return jobListMap.get(jobId);
+    }
+
+    @Override
+    public List<JobRun> pull() {
+        List<JobRun> jobRuns = new ArrayList<>();
+        Set<WorkloadClass> blocked = new HashSet<>();
+        long now = System.currentTimeMillis();
+        WorkloadClass next;
+        while ((next = nextWorkloadClass(now, blocked)) != null) {
+            JobRun run = next.jobs.values().iterator().next();
+            JobSpecification job = run.getJobSpecification();
+            // Cluster maximum capacity can change over time, thus we have to re-check if the job should be rejected
+            // or not.
+            try {
+                IJobCapacityController.JobSubmissionStatus status = jobCapacityController.allocate(job);
+                // Checks if the job can be executed immediately.
+                if (status == IJobCapacityController.JobSubmissionStatus.EXECUTE) {
+                    jobRuns.add(run);
+                    remove(run.getJobId()); // Removes the selected job.
+                    selectedJobs.add(run.getJobId());
+                    next.selected++;
+                    next.selectedMemory += getRequiredMemory(job);
+                } else {
+                    // Keeps the order of the jobs of the class, but lets the jobs of the other classes try.
+                    blocked.add(next);
+                }
+            } catch (HyracksException exception) {
+                // The required capacity exceeds maximum capacity.
+                List<Exception> exceptions = new ArrayList<>();
+                exceptions.add(exception);
+                remove(run.getJobId()); // Removes the job from the queue.
+                try {
+                    // Fails the job.
+                    jobManager.prepareComplete(run, JobStatus.FAILURE_BEFORE_EXECUTION, exceptions);
+                } catch (HyracksException e) {
+                    LOGGER.log(Level.ERROR, e.getMessage(), e);
+                }
+            }
+        }
+        return jobRuns;
+    }
+
+    @Override
+    public Collection<JobRun> jobs() {
+        return Collections.unmodifiableCollection(jobListMap.values());
+    }
+
+    @Override
+    public void clear() {
+        jobListMap.clear();
+        selectedJobs.clear();
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            workloadClass.jobs.clear();
+            workloadClass.selected = 0;
+            workloadClass.selectedMemory = 0L;
+        }
+    }
+
+    @Override
+    public boolean canExecute(JobRun run) {
+        // Jobs of a class do not overtake the queued jobs of their class.
+        WorkloadClass workloadClass = getWorkloadClass(run);
+        return workloadClass.jobs.isEmpty()
+                && workloadClass.canStart(getRequiredMemory(run.getJobSpecification()));
+    }
+
+    @Override
+    public void jobStarted(JobRun run) {
+        WorkloadClass workloadClass = getWorkloadClass(run);
+        long memory = getRequiredMemory(run.getJobSpecification());
+        if (selectedJobs.remove(run.getJobId())) {
+            workloadClass.selected--;
+            workloadClass.selectedMemory -= memory;
+        }
+        workloadClass.running++;
+        workloadClass.runningMemory += memory;
+    }
+
+    @Override
+    public void jobCompleted(JobRun run) {
+        WorkloadClass workloadClass = getWorkloadClass(run);
+        workloadClass.running = Math.max(0, workloadClass.running - 1);
+        workloadClass.runningMemory =
+                Math.max(0L, workloadClass.runningMemory - getRequiredMemory(run.getJobSpecification()));
+    }
+
+    /**
+     * @return the class of the queued job that should start next, null if no queued job can start
+     */
+    private WorkloadClass nextWorkloadClass(long now, Set<WorkloadClass> blocked) {
+        WorkloadClass next = null;
+        double nextPriority = 0;
+        long nextCreateTime = 0;
+        for (WorkloadClass workloadClass : workloadClasses.values()) {
+            if (workloadClass.jobs.isEmpty() || blocked.contains(workloadClass)) {
+                continue;
+            }
+            JobRun head = workloadClass.jobs.values().iterator().next();
+            if (!workloadClass.canStart(getRequiredMemory(head.getJobSpecification()))) {
+                continue;
+            }
+            // The smaller, the sooner.
+            double waitingPeriods = (double) Math.max(0L, now - head.getCreateTime()) / agingPeriod;
+            double priority = (workloadClass.running + workloadClass.selected - waitingPeriods) / workloadClass.weight;
+            if (next == null || priority < nextPriority
+                    || (priority == nextPriority && head.getCreateTime() < nextCreateTime)) {
+                next = workloadClass;
+                nextPriority = priority;
+                nextCreateTime = head.getCreateTime();
+            }
+        }
+        return next;
+    }
+
+    private WorkloadClass getWorkloadClass(JobRun run) {
+        JobSpecification job = run.getJobSpecification();
+        String name = job == null ? null : job.getWorkloadClass();
+        WorkloadClass workloadClass = name == null ? null : workloadClasses.get(name);
+        return workloadClass == null ? defaultClass : workloadClass;
+    }
+
+    private static long getRequiredMemory(JobSpecification job) {
+        IClusterCapacity capacity = job == null ? null : job.getRequiredClusterCapacity();
+        return capacity == null ? 0L : capacity.getAggregatedMemoryByteSize();
+    }
+
+    /**
+     * Parses workload classes given as comma separated {@code <name>:<weight>[:<max jobs>[:<max memory>]]}, where a
+     * limit of 0 means no limit.
+     */
+    static Map<String, WorkloadClass> parseWorkloadClasses(String value) {
+        Map<String, WorkloadClass> classes = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] fields = entry.trim().split(":");
+            String name = fields[0].trim();
+            if (name.isEmpty() || fields.length < 2 || fields.length > 4 || classes.containsKey(name)) {
+                throw new IllegalArgumentException("invalid workload class: " + entry);
+            }
+            try {
+                double weight = Double.parseDouble(fields[1].trim());
+                int maxJobs = fields.length > 2 ? Integer.parseInt(fields[2].trim()) : 0;
+                long maxMemory = fields.length > 3 ? StorageUtil.getByteValue(fields[3].trim()) : 0L;
+                if (!(weight > 0) || maxJobs < 0 || maxMemory < 0) {
+                    throw new IllegalArgumentException("invalid workload class: " + entry);
+                }
+                classes.put(name, new WorkloadClass(weight, maxJobs, maxMemory));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid workload class: " + entry, e);
+            }
+        }
+        if (classes.isEmpty()) {
+            throw new IllegalArgumentException("no workload classes: " + value);
+        }
+        return classes;
+    }
+
+    private static class WorkloadClass {
+        private final Map<JobId, JobRun> jobs = new LinkedHashMap<>();
+        private final double weight;
+        private final int maxJobs;
+        private final long maxMemory;
+        private int running;
+        private long runningMemory;
+        // the pulled jobs that have not been started yet
+        private int selected;
+        private long selectedMemory;
+
+        private WorkloadClass(double weight, int maxJobs, long maxMemory) {
+            this.weight = weight;
+            this.maxJobs = maxJobs;
+            this.maxMemory = maxMemory;
+        }
+
+        private boolean canStart(long memory) {
+            int jobCount = running + selected;
+            if (maxJobs > 0 && jobCount >= maxJobs) {
+                return false;
+            }
+            // a job that alone needs more than the memory limit still runs, but alone
+            return maxMemory <= 0 || jobCount == 0 || runningMemory + selectedMemory + memory <= maxMemory;
+        }
+    }
+}
@@ -73,4 +73,36 @@ public interface IJobQueue {
      * Clears the job queue
      */
     void clear();
+
+    /**
+     * Checks whether a newly submitted job may bypass the queue and be executed as soon as the cluster has the
+     * capacity for it.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     * @return true if the job may be executed immediately, false if it has to wait in the queue.
+     */
+    default boolean canExecute(JobRun run) {
+        return true;
+    }
+
+    /**
+     * Notifies the job queue that a job, queued or not, has started its execution.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     */
+    default void jobStarted(JobRun run) {
+        // no-op by default
+    }
+
+    /**
+     * Notifies the job queue that a job that was started earlier has completed.
+     *
+     * @param run,
+     *            the descriptor of a job.
+     */
+    default void jobCompleted(JobRun run) {
+        // no-op by default
+    }
 }
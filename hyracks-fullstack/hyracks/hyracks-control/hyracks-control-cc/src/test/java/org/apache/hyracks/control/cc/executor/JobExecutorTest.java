@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.executor;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.application.ICCServiceContext;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.IPartitionCollector;
+import org.apache.hyracks.api.comm.IPartitionWriterFactory;
+import org.apache.hyracks.api.constraints.IConstraintAcceptor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
+import org.apache.hyracks.api.dataflow.IActivity;
+import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.TaskAttemptId;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.job.ActivityCluster;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.ActivityClusterId;
+import org.apache.hyracks.control.cc.cluster.INodeManager;
+import org.apache.hyracks.control.cc.job.ActivityPlan;
+import org.apache.hyracks.control.cc.job.Task;
+import org.apache.hyracks.control.cc.job.TaskAttempt;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class JobExecutorTest {
+
+    private static final List<String> NODES = Arrays.asList("nc1", "nc2", "nc3", "nc4");
+
+    private static final int N_PARTITIONS = 4;
+
+    private static final ActivityId PRODUCER = new ActivityId(new OperatorDescriptorId(0), 0);
+
+    private static final ActivityId CONSUMER = new ActivityId(new OperatorDescriptorId(1), 0);
+
+    private final JobExecutor executor = new JobExecutor(null, null, Collections.emptyList(), null);
+
+    private final INodeManager nodeManager = mock(INodeManager.class);
+
+    private final Map<TaskId, TaskAttempt> taskAttempts = new HashMap<>();
+
+    private final Map<String, List<TaskAttemptDescriptor>> taskAttemptMap = new HashMap<>();
+
+    @Test
+    public void testManyToManyConsumersAreSpread() {
+        ActivityClusterGraph acg = createGraph(true);
+        placeProducers("nc1", "nc1", "nc1", "nc2");
+        List<String> locations = placeConsumers(acg, NODES);
+        // The node that runs most of the producers gets the first consumer, the others go elsewhere.
+        Assert.assertEquals("nc1", locations.get(0));
+        Assert.assertEquals("nc2", locations.get(1));
+        Assert.assertEquals(new HashSet<>(NODES), new HashSet<>(locations));
+    }
+
+    @Test
+    public void testManyToManyConsumersOnFewerNodes() {
+        ActivityClusterGraph acg = createGraph(true);
+        placeProducers("nc1", "nc1", "nc1", "nc1");
+        List<String> locations = placeConsumers(acg, NODES.subList(0, 2));
+        Assert.assertEquals(2, Collections.frequency(locations, "nc1"));
+        Assert.assertEquals(2, Collections.frequency(locations, "nc2"));
+    }
+
+    @Test
+    public void testOneToOneConsumersFollowTheirProducers() {
+        ActivityClusterGraph acg = createGraph(false);
+        placeProducers("nc1", "nc2", "nc1", "nc2");
+        Assert.assertEquals(Arrays.asList("nc1", "nc2", "nc1", "nc2"), placeConsumers(acg, NODES.subList(0, 2)));
+    }
+
+    private void placeProducers(String... nodeIds) {
+        for (int i = 0; i < nodeIds.length; i++) {
+            Task task = new Task(new TaskId(PRODUCER, i),
+                    new ActivityPlan(new ActivityPartitionDetails(N_PARTITIONS, null, new int[] { N_PARTITIONS })));
+            assign(task, nodeIds[i]);
+        }
+    }
+
+    private List<String> placeConsumers(ActivityClusterGraph acg, List<String> candidates) {
+        List<String> locations = new ArrayList<>();
+        for (int i = 0; i < N_PARTITIONS; i++) {
+            Task task = new Task(new TaskId(CONSUMER, i),
+                    new ActivityPlan(new ActivityPartitionDetails(N_PARTITIONS, new int[] { N_PARTITIONS }, null)));
+            String nodeId = executor.chooseLocation(nodeManager, acg, task, candidates, taskAttempts, taskAttemptMap);
+            assign(task, nodeId);
+            locations.add(nodeId);
+        }
+        return locations;
+    }
+
+    private void assign(Task task, String nodeId) {
+        TaskAttemptId taId = new TaskAttemptId(task.getTaskId(), 0);
+        TaskAttempt taskAttempt = new TaskAttempt(null, taId, task);
+        taskAttempt.setNodeId(nodeId);
+        taskAttempts.put(task.getTaskId(), taskAttempt);
+        ActivityPartitionDetails apd = task.getActivityPlan().getActivityPartitionDetails();
+        taskAttemptMap.computeIfAbsent(nodeId, k -> new ArrayList<>()).add(new TaskAttemptDescriptor(taId,
+                apd.getPartitionCount(), apd.getInputPartitionCounts(), apd.getOutputPartitionCounts()));
+    }
+
+    private static ActivityClusterGraph createGraph(boolean allToAll) {
+        ActivityClusterGraph acg = new ActivityClusterGraph();
+        ActivityCluster ac = new ActivityCluster(acg, new ActivityClusterId(0));
+        IActivity producer = new TestActivity(PRODUCER);
+        IActivity consumer = new TestActivity(CONSUMER);
+        IConnectorDescriptor connector = new TestConnector(new ConnectorDescriptorId(0), allToAll);
+        ac.addActivity(producer);
+        ac.addActivity(consumer);
+        ac.addConnector(connector);
+        ac.connect(connector, producer, 0, consumer, 0, null);
+        acg.addActivityClusters(Collections.singletonList(ac));
+        return acg;
+    }
+
+    private static class TestActivity implements IActivity {
+        private static final long serialVersionUID = 1L;
+
+        private final ActivityId activityId;
+
+        TestActivity(ActivityId activityId) {
+            this.activityId = activityId;
+        }
+
+        @Override
+        public ActivityId getActivityId() {
+            return activityId;
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A many-to-many or a one-to-one connector.
+     */
+    private static class TestConnector implements IConnectorDescriptor {
+        private static final long serialVersionUID = 1L;
+
+        private ConnectorDescriptorId connectorId;
+
+        private final boolean allToAll;
+
+        TestConnector(ConnectorDescriptorId connectorId, boolean allToAll) {
+            this.connectorId = connectorId;
+            this.allToAll = allToAll;
+        }
+
+        @Override
+        public ConnectorDescriptorId getConnectorId() {
+            return connectorId;
+        }
+
+        @Override
+        public IFrameWriter createPartitioner(IHyracksTaskContext ctx, RecordDescriptor recordDesc,
+                IPartitionWriterFactory edwFactory, int index, int nProducerPartitions, int nConsumerPartitions) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IPartitionCollector createPartitionCollector(IHyracksTaskContext ctx, RecordDescriptor recordDesc,
+                int receiverIndex, int nProducerPartitions, int nConsumerPartitions) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void contributeSchedulingConstraints(IConstraintAcceptor constraintAcceptor, ActivityCluster ac,
+                ICCServiceContext ccServiceCtx) {
+            // no constraints
+        }
+
+        @Override
+        public void indicateTargetPartitions(int nProducerPartitions, int nConsumerPartitions, int producerIndex,
+                BitSet targetBitmap) {
+            if (allToAll) {
+                targetBitmap.set(0, nConsumerPartitions);
+            } else {
+                targetBitmap.set(producerIndex);
+            }
+        }
+
+        @Override
+        public void indicateSourcePartitions(int nProducerPartitions, int nConsumerPartitions, int consumerIndex,
+                BitSet sourceBitmap) {
+            if (allToAll) {
+                sourceBitmap.set(0, nProducerPartitions);
+            } else {
+                sourceBitmap.set(consumerIndex);
+            }
+        }
+
+        @Override
+        public boolean allProducersToAllConsumers() {
+            return allToAll;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public void setDisplayName(String displayName) {
+            // the name is fixed
+        }
+
+        @Override
+        public JsonNode toJSON() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setConnectorId(ConnectorDescriptorId cdId) {
+            connectorId = cdId;
+        }
+    }
+}
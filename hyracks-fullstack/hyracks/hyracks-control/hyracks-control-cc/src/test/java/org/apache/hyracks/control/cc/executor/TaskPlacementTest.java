@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.executor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TaskPlacementTest {
+
+    private static final List<String> NODES = Arrays.asList("nc1", "nc2", "nc3");
+
+    @Test
+    public void testInputLocality() {
+        Map<String, Double> inputLocality = new HashMap<>();
+        inputLocality.put("nc1", 0.25);
+        inputLocality.put("nc3", 0.5);
+        Map<String, Double> load = new HashMap<>();
+        load.put("nc1", 0.0);
+        load.put("nc2", 0.0);
+        load.put("nc3", 4.0);
+        // The node that produces most of the input wins, even if it is busier.
+        Assert.assertEquals("nc3", TaskPlacement.choose(NODES, n -> inputLocality.getOrDefault(n, 0.0), load::get,
+                new Random(0)));
+    }
+
+    @Test
+    public void testLoad() {
+        Map<String, Double> load = new HashMap<>();
+        load.put("nc1", 1.5);
+        load.put("nc2", 0.5);
+        load.put("nc3", 1.0);
+        Assert.assertEquals("nc2", TaskPlacement.choose(NODES, n -> 0.0, load::get, new Random(0)));
+        // Equal input shares are decided by the load.
+        Assert.assertEquals("nc2", TaskPlacement.choose(NODES, n -> 1.0 / 3, load::get, new Random(0)));
+    }
+
+    @Test
+    public void testMaxAssigned() {
+        Map<String, Integer> assigned = new HashMap<>();
+        assigned.put("nc1", 2);
+        assigned.put("nc2", 1);
+        assigned.put("nc3", 2);
+        // The node with most of the input is full, the next one that is not full wins.
+        Assert.assertEquals("nc2", TaskPlacement.choose(NODES, assigned::get, 2, n -> "nc1".equals(n) ? 1.0 : 0.0,
+                n -> 0.0, new Random(0)));
+        // The cap is ignored once every node is full.
+        Assert.assertEquals("nc1", TaskPlacement.choose(NODES, assigned::get, 1, n -> "nc1".equals(n) ? 1.0 : 0.0,
+                n -> 0.0, new Random(0)));
+    }
+
+    @Test
+    public void testTies() {
+        Set<String> chosen = new HashSet<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100; i++) {
+            chosen.add(TaskPlacement.choose(NODES, n -> 0.0, n -> 0.0, random));
+        }
+        Assert.assertEquals(new HashSet<>(NODES), chosen);
+    }
+
+    @Test
+    public void testNoCandidates() {
+        Assert.assertNull(TaskPlacement.choose(Collections.emptyList(), n -> 0.0, n -> 0.0, new Random(0)));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.resource.ClusterCapacity;
+import org.apache.hyracks.api.job.resource.IJobCapacityController;
+import org.apache.hyracks.control.cc.job.IJobManager;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FairShareJobQueueTest {
+
+    private int availableSlots;
+    private long jobIdCounter;
+
+    @Test
+    public void testWeightedShare() throws Exception {
+        FairShareJobQueue queue = createQueue("interactive:4,analytics:1", Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        queue.jobStarted(mockJobRun("analytics", 0, now));
+        queue.jobStarted(mockJobRun("analytics", 0, now));
+        JobRun analytics = mockJobRun("analytics", 0, now);
+        JobRun interactive = mockJobRun("interactive", 0, now + 1);
+        queue.add(analytics);
+        queue.add(interactive);
+
+        // The interactive job goes first although it was submitted later.
+        availableSlots = 1;
+        List<JobRun> runs = queue.pull();
+        Assert.assertEquals(1, runs.size());
+        Assert.assertSame(interactive, runs.get(0));
+        queue.jobStarted(interactive);
+        Assert.assertEquals(1, queue.jobs().size());
+
+        availableSlots = 1;
+        runs = queue.pull();
+        Assert.assertEquals(1, runs.size());
+        Assert.assertSame(analytics, runs.get(0));
+        Assert.assertTrue(queue.jobs().isEmpty());
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        FairShareJobQueue queue = createQueue("default:1,analytics:1:1", Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        JobRun running = mockJobRun("analytics", 0, now);
+        Assert.assertTrue(queue.canExecute(running));
+        queue.jobStarted(running);
+
+        // Only one analytics job runs at a time, other workloads are not limited.
+        JobRun analytics = mockJobRun("analytics", 0, now);
+        Assert.assertFalse(queue.canExecute(analytics));
+        Assert.assertTrue(queue.canExecute(mockJobRun("default", 0, now)));
+        queue.add(analytics);
+        availableSlots = 2;
+        Assert.assertTrue(queue.pull().isEmpty());
+
+        queue.jobCompleted(running);
+        List<JobRun> runs = queue.pull();
+        Assert.assertEquals(1, runs.size());
+        Assert.assertSame(analytics, runs.get(0));
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        FairShareJobQueue queue = createQueue("default:1:0:1MB", Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        JobRun big = mockJobRun(null, 768 * 1024, now);
+        queue.jobStarted(big);
+        Assert.assertTrue(queue.canExecute(mockJobRun(null, 256 * 1024, now)));
+        Assert.assertFalse(queue.canExecute(mockJobRun(null, 512 * 1024, now)));
+
+        // A job that needs more than the limit runs once the others have completed.
+        JobRun huge = mockJobRun(null, 2 * 1024 * 1024, now);
+        queue.add(huge);
+        availableSlots = 2;
+        Assert.assertTrue(queue.pull().isEmpty());
+        queue.jobCompleted(big);
+        List<JobRun> runs = queue.pull();
+        Assert.assertEquals(1, runs.size());
+        Assert.assertSame(huge, runs.get(0));
+    }
+
+    @Test
+    public void testPriorityAging() throws Exception {
+        FairShareJobQueue queue = createQueue("interactive:100,analytics:1", 1L);
+        long now = System.currentTimeMillis();
+        queue.jobStarted(mockJobRun("analytics", 0, now));
+        JobRun interactive = mockJobRun("interactive", 0, now);
+        JobRun analytics = mockJobRun("analytics", 0, now - 60000L);
+        queue.add(interactive);
+        queue.add(analytics);
+
+        // The analytics job has waited long enough to go first.
+        availableSlots = 1;
+        List<JobRun> runs = queue.pull();
+        Assert.assertEquals(1, runs.size());
+        Assert.assertSame(analytics, runs.get(0));
+    }
+
+    @Test
+    public void testUnknownWorkloadClass() throws Exception {
+        FairShareJobQueue queue = createQueue("default:1:1,analytics:1", Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        queue.jobStarted(mockJobRun(null, 0, now));
+        // Jobs of unknown workload classes belong to the first class.
+        Assert.assertFalse(queue.canExecute(mockJobRun("unknown", 0, now)));
+        Assert.assertTrue(queue.canExecute(mockJobRun("analytics", 0, now)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWorkloadClasses() {
+        createQueue("default:0", Long.MAX_VALUE);
+    }
+
+    private FairShareJobQueue createQueue(String workloadClasses, long agingPeriod) {
+        IJobManager jobManager = mock(IJobManager.class);
+        when(jobManager.getJobQueueCapacity()).thenReturn(4096);
+        when(jobManager.getJobQueueWorkloadClasses()).thenReturn(workloadClasses);
+        when(jobManager.getJobQueuePriorityAgingPeriod()).thenReturn(agingPeriod);
+        IJobCapacityController jobCapacityController = new IJobCapacityController() {
+            @Override
+            public JobSubmissionStatus allocate(JobSpecification job) {
+                if (availableSlots > 0) {
+                    availableSlots--;
+                    return JobSubmissionStatus.EXECUTE;
+                }
+                return JobSubmissionStatus.QUEUE;
+            }
+
+            @Override
+            public void release(JobSpecification job) {
+                availableSlots++;
+            }
+        };
+        return new FairShareJobQueue(jobManager, jobCapacityController);
+    }
+
+    private JobRun mockJobRun(String workloadClass, long memory, long createTime) {
+        JobSpecification job = new JobSpecification();
+        job.setWorkloadClass(workloadClass);
+        ClusterCapacity capacity = new ClusterCapacity();
+        capacity.setAggregatedMemoryByteSize(memory);
+        job.setRequiredClusterCapacity(capacity);
+        JobRun run = mock(JobRun.class);
+        when(run.getJobId()).thenReturn(new JobId(jobIdCounter++));
+        when(run.getJobSpecification()).thenReturn(job);
+        when(run.getCreateTime()).thenReturn(createTime);
+        return run;
+    }
+}
@@ -277,6 +277,17 @@ public class NodeControllerData {
         return messagingAddress;
     }
 
+    public int getNProcessors() {
+        return nProcessors;
+    }
+
+    /**
+     * @return the system load average reported in the last heartbeat of the node, negative if it is not available
+     */
+    public synchronized double getSystemLoadAverage() {
+        return systemLoadAverage[(rrdPtr + RRD_SIZE - 1) % RRD_SIZE];
+    }
+
     public NodeCapacity getCapacity() {
         return capacity;
     }
@@ -73,6 +73,8 @@ public class CCConfig extends ControllerConfig {
         CLUSTER_TOPOLOGY(STRING),
         JOB_QUEUE_CLASS(STRING, "org.apache.hyracks.control.cc.scheduler.FIFOJobQueue"),
         JOB_QUEUE_CAPACITY(POSITIVE_INTEGER, 4096),
+        JOB_QUEUE_WORKLOAD_CLASSES(STRING, "default:1"),
+        JOB_QUEUE_PRIORITY_AGING_PERIOD(LONG, 10000L),
         JOB_MANAGER_CLASS(STRING, "org.apache.hyracks.control.cc.job.JobManager"),
         ENFORCE_FRAME_WRITER_PROTOCOL(BOOLEAN, false),
         CORES_MULTIPLIER(POSITIVE_INTEGER, 3),
@@ -188,6 +190,13 @@ public class CCConfig extends ControllerConfig {
                     return "Specify the implementation class name for the job queue";
                 case JOB_QUEUE_CAPACITY:
                     return "The maximum number of jobs to queue before rejecting new jobs";
+                case JOB_QUEUE_WORKLOAD_CLASSES:
+                    return "The comma separated workload classes among which the FairShareJobQueue shares the "
+                            + "cluster, each as <name>:<weight>[:<max running jobs>[:<max memory>]] where 0 means no "
+                            + "limit; jobs without a known workload class belong to the first class";
+                case JOB_QUEUE_PRIORITY_AGING_PERIOD:
+                    return "The time (in milliseconds) after which a job queued in the FairShareJobQueue gains the "
+                            + "priority of one running job of its workload class";
                 case JOB_MANAGER_CLASS:
                     return "Specify the implementation class name for the job manager";
                 case ENFORCE_FRAME_WRITER_PROTOCOL:
@@ -436,6 +445,14 @@ public class CCConfig extends ControllerConfig {
         return getAppConfig().getInt(Option.JOB_QUEUE_CAPACITY);
     }
 
+    public String getJobQueueWorkloadClasses() {
+        return getAppConfig().getString(Option.JOB_QUEUE_WORKLOAD_CLASSES);
+    }
+
+    public long getJobQueuePriorityAgingPeriod() {
+        return getAppConfig().getLong(Option.JOB_QUEUE_PRIORITY_AGING_PERIOD);
+    }
+
     public boolean getEnforceFrameWriterProtocol() {
         return getAppConfig().getBoolean(Option.ENFORCE_FRAME_WRITER_PROTOCOL);
     }
@@ -22,6 +22,7 @@ import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG;
+import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.NONNEGATIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.POSITIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
@@ -82,6 +83,7 @@ public class NCConfig extends ControllerConfig {
         RESULT_TTL(LONG, 86400000L),
         RESULT_SWEEP_THRESHOLD(LONG, 60000L),
         RESULT_MANAGER_MEMORY(INTEGER_BYTE_UNIT, -1),
+        MEMORY_BROKER_BUDGET(LONG_BYTE_UNIT, 0L),
         @SuppressWarnings("RedundantCast") // not redundant- false positive from IDEA
         APP_CLASS(STRING, (String) null),
         NCSERVICE_PID(INTEGER, -1),
@@ -216,6 +218,9 @@ public class NCConfig extends ControllerConfig {
                             + "milliseconds";
                 case RESULT_MANAGER_MEMORY:
                     return "Memory usable for result caching at this Node Controller in bytes";
+                case MEMORY_BROKER_BUDGET:
+                    return "Memory that the operators at this Node Controller may borrow at runtime beyond their "
+                            + "compile-time budgets before they spill to disk, in bytes (0 disables borrowing)";
                 case APP_CLASS:
                     return "Application NC Main Class";
                 case NCSERVICE_PID:
@@ -569,6 +574,14 @@ public class NCConfig extends ControllerConfig {
         configManager.set(nodeId, Option.RESULT_MANAGER_MEMORY, resultManagerMemory);
     }
 
+    public long getMemoryBrokerBudget() {
+        return appConfig.getLong(Option.MEMORY_BROKER_BUDGET);
+    }
+
+    public void setMemoryBrokerBudget(long memoryBrokerBudget) {
+        configManager.set(nodeId, Option.MEMORY_BROKER_BUDGET, memoryBrokerBudget);
+    }
+
     public String getAppClass() {
         return appConfig.getString(Option.APP_CLASS);
     }
@@ -50,6 +50,7 @@ import org.apache.hyracks.api.job.profiling.counters.ICounter;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.api.resources.IDeallocatable;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.control.common.deployment.DeploymentUtils;
 import org.apache.hyracks.control.common.job.PartitionRequest;
 import org.apache.hyracks.control.common.job.PartitionState;
@@ -59,6 +60,7 @@ import org.apache.hyracks.control.common.job.profiling.om.TaskProfile;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.DefaultDeallocatableRegistry;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.JobletMemoryBroker;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -97,6 +99,8 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
 
     private final AtomicLong memoryAllocation;
 
+    private final JobletMemoryBroker memoryBroker;
+
     private JobStatus cleanupStatus;
 
     private boolean cleanupPending;
@@ -118,6 +122,7 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         this.jobId = jobId;
         this.frameManager = new FrameManager(acg.getFrameSize());
         memoryAllocation = new AtomicLong();
+        memoryBroker = new JobletMemoryBroker(nodeController.getMemoryBroker());
         this.acg = acg;
         partitionRequestMap = new HashMap<>();
         env = new OperatorEnvironmentImpl(nodeController.getId());
@@ -234,6 +239,11 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         return this;
     }
 
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
+
     @Override
     public void registerDeallocatable(IDeallocatable deallocatable) {
         deallocatableRegistry.registerDeallocatable(deallocatable);
@@ -245,6 +255,10 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
             LOGGER.trace(() -> "Freeing leaked " + stillAllocated + " bytes");
             serviceCtx.getMemoryManager().deallocate(stillAllocated);
         }
+        long stillBorrowed = memoryBroker.giveBackAll();
+        if (stillBorrowed > 0) {
+            LOGGER.trace(() -> "Giving back " + stillBorrowed + " bytes borrowed from the memory broker");
+        }
         nodeController.getExecutor().execute(() -> deallocatableRegistry.close());
     }
 
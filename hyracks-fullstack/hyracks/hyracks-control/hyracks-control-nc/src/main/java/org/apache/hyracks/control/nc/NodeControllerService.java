@@ -82,6 +82,7 @@ import org.apache.hyracks.control.nc.net.MessagingNetworkManager;
 import org.apache.hyracks.control.nc.net.NetworkManager;
 import org.apache.hyracks.control.nc.net.ResultNetworkManager;
 import org.apache.hyracks.control.nc.partitions.PartitionManager;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 import org.apache.hyracks.control.nc.resources.memory.MemoryManager;
 import org.apache.hyracks.control.nc.result.ResultPartitionManager;
 import org.apache.hyracks.control.nc.work.AbortAllJobsWork;
@@ -163,6 +164,8 @@ public class NodeControllerService implements IControllerService {
 
     private final MemoryManager memoryManager;
 
+    private final MemoryBroker memoryBroker;
+
     private final INetworkSecurityManager networkSecurityManager;
 
     private StackTraceElement[] shutdownCallStack;
@@ -221,6 +224,7 @@ public class NodeControllerService implements IControllerService {
             getNodeControllerInfosAcceptor = new MutableObject<>();
             memoryManager =
                     new MemoryManager((long) (memoryMXBean.getHeapMemoryUsage().getMax() * MEMORY_FUDGE_FACTOR));
+            memoryBroker = new MemoryBroker(ncConfig.getMemoryBrokerBudget());
         } catch (Throwable th) { // NOSONAR will be re-thrown
             CleanupUtils.close(ioManager, th);
             throw th;
@@ -236,6 +240,10 @@ public class NodeControllerService implements IControllerService {
         return serviceCtx;
     }
 
+    public MemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
+
     public ILifeCycleComponentManager getLifeCycleComponentManager() {
         return lccm;
     }
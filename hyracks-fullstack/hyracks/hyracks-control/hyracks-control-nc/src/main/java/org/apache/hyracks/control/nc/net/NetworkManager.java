@@ -47,7 +47,7 @@ public class NetworkManager implements IChannelConnectionFactory {
 
     private static final int MAX_CONNECTION_ATTEMPTS = 5;
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 24;
 
     private final PartitionManager partitionManager;
 
@@ -129,6 +129,8 @@ public class NetworkManager implements IChannelConnectionFactory {
         @Override
         public void accept(ByteBuffer buffer) {
             PartitionId pid = readInitialMessage(buffer);
+            ccb.setFrameCompression(buffer.getInt() != 0);
+            ccb.setPartitionId(pid);
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("Received initial partition request: " + pid + " on channel: " + ccb);
             }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.partitions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.channels.IOutputChannel;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.net.protocols.muxdemux.AbstractChannelWriteInterface;
+
+/**
+ * Receives a partition that is produced on this node controller. The producer copies its frames into the buffers of
+ * the channel instead of sending them through the network stack over the loopback interface. Like a
+ * {@link org.apache.hyracks.comm.channels.NetworkInputChannel}, the channel has a limited number of buffers, each
+ * holding a minimum-size piece of a frame, and the producer waits for the consumer to recycle one when they are all
+ * in use.
+ */
+public class LocalPartitionInputChannel implements IInputChannel {
+    private final BiConsumer<PartitionId, IOutputChannel> requestRegistry;
+
+    private final PartitionId pid;
+
+    private final int nBuffers;
+
+    private final Queue<ByteBuffer> fullQueue;
+
+    private final Deque<ByteBuffer> emptyStack;
+
+    private int frameSize;
+
+    private int allocateCounter;
+
+    private boolean aborted;
+
+    private IInputChannelMonitor monitor;
+
+    private Object attachment;
+
+    public LocalPartitionInputChannel(PartitionManager manager, PartitionId pid, int nBuffers) {
+        this(manager::registerPartitionRequest, pid, nBuffers);
+    }
+
+    LocalPartitionInputChannel(BiConsumer<PartitionId, IOutputChannel> requestRegistry, PartitionId pid,
+            int nBuffers) {
+        this.requestRegistry = requestRegistry;
+        this.pid = pid;
+        this.nBuffers = nBuffers;
+        fullQueue = new ArrayDeque<>(nBuffers);
+        emptyStack = new ArrayDeque<>(nBuffers);
+    }
+
+    @Override
+    public void registerMonitor(IInputChannelMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    @Override
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    @Override
+    public synchronized ByteBuffer getNextBuffer() {
+        return fullQueue.poll();
+    }
+
+    @Override
+    public void recycleBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        synchronized (this) {
+            emptyStack.push(buffer);
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void open(IHyracksCommonContext ctx) throws HyracksDataException {
+        frameSize = ctx.getInitialFrameSize();
+        requestRegistry.accept(pid, new LocalOutputChannel());
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        abort();
+    }
+
+    @Override
+    public void fail() {
+        abort();
+    }
+
+    /**
+     * Stops the producer once the consumer does not read the channel anymore, including a producer that waits for a
+     * buffer.
+     */
+    private synchronized void abort() {
+        aborted = true;
+        fullQueue.clear();
+        emptyStack.clear();
+        notifyAll();
+    }
+
+    private synchronized ByteBuffer getEmptyBuffer() throws HyracksDataException {
+        while (true) {
+            if (aborted) {
+                throw new HyracksDataException("Connection has been aborted");
+            }
+            ByteBuffer buffer = emptyStack.poll();
+            if (buffer == null && allocateCounter < nBuffers) {
+                buffer = ByteBuffer.allocate(frameSize);
+                allocateCounter++;
+            }
+            if (buffer != null) {
+                return buffer;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw HyracksDataException.create(e);
+            }
+        }
+    }
+
+    private class LocalOutputChannel implements IOutputChannel {
+        @Override
+        public void setFrameSize(int frameSize) {
+            // the frames are cut into pieces of the size of the buffers of the channel
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+            // no op
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            while (buffer.hasRemaining()) {
+                ByteBuffer destBuffer = getEmptyBuffer();
+                if (destBuffer.capacity() < buffer.remaining()) {
+                    destBuffer.put(buffer.array(), buffer.position(), destBuffer.capacity());
+                    buffer.position(buffer.position() + destBuffer.capacity());
+                } else {
+                    destBuffer.put(buffer);
+                }
+                destBuffer.flip();
+                synchronized (LocalPartitionInputChannel.this) {
+                    if (aborted) {
+                        throw new HyracksDataException("Connection has been aborted");
+                    }
+                    fullQueue.add(destBuffer);
+                }
+                monitor.notifyDataAvailability(LocalPartitionInputChannel.this, 1);
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            monitor.notifyFailure(LocalPartitionInputChannel.this, AbstractChannelWriteInterface.REMOTE_ERROR_CODE);
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            monitor.notifyEndOfStream(LocalPartitionInputChannel.this);
+        }
+
+        @Override
+        public void abort(int ecode) {
+            monitor.notifyFailure(LocalPartitionInputChannel.this, ecode);
+            LocalPartitionInputChannel.this.abort();
+        }
+
+        @Override
+        public void flush() throws HyracksDataException {
+            // the frames are always handed over to the consumer right away
+        }
+    }
+}
@@ -18,6 +18,9 @@
  */
 package org.apache.hyracks.control.nc.partitions;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,6 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IOutputChannel;
+import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.control.CcId;
 import org.apache.hyracks.api.dataflow.TaskAttemptId;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -35,7 +41,7 @@ import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.api.partitions.IPartition;
 import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.api.resources.IDeallocatable;
-import org.apache.hyracks.comm.channels.NetworkOutputChannel;
+import org.apache.hyracks.comm.channels.NetworkInputChannel;
 import org.apache.hyracks.control.common.job.PartitionDescriptor;
 import org.apache.hyracks.control.common.job.PartitionState;
 import org.apache.hyracks.control.nc.NodeControllerService;
@@ -56,7 +62,7 @@ public class PartitionManager {
 
     private final IWorkspaceFileFactory fileFactory;
 
-    private final Map<PartitionId, NetworkOutputChannel> partitionRequests = new HashMap<>();
+    private final Map<PartitionId, IOutputChannel> partitionRequests = new HashMap<>();
 
     private final Cache<JobId, JobId> failedJobsCache;
 
@@ -74,7 +80,7 @@ public class PartitionManager {
             /*
              * process pending requests
              */
-            NetworkOutputChannel writer = partitionRequests.remove(pid);
+            IOutputChannel writer = partitionRequests.remove(pid);
             if (writer != null) {
                 writer.setFrameSize(partition.getTaskContext().getInitialFrameSize());
                 partition.writeTo(writer);
@@ -104,7 +110,7 @@ public class PartitionManager {
         return availablePartitionMap.get(pid).get(0);
     }
 
-    public synchronized void registerPartitionRequest(PartitionId partitionId, NetworkOutputChannel writer) {
+    public synchronized void registerPartitionRequest(PartitionId partitionId, IOutputChannel writer) {
         if (failedJobsCache.getIfPresent(partitionId.getJobId()) != null) {
             writer.abort(AbstractChannelWriteInterface.REMOTE_ERROR_CODE);
             return;
@@ -122,6 +128,32 @@ public class PartitionManager {
         }
     }
 
+    /**
+     * Creates the channel through which a consumer on this node controller receives a partition. A partition
+     * produced by this node controller is handed over in memory, any other one is received from the network.
+     *
+     * @param pid
+     *            the id of the partition
+     * @param address
+     *            the data address of the node controller that produces the partition
+     * @param nBuffers
+     *            the number of buffers of the channel
+     * @param frameCompression
+     *            whether the sender is asked to compress the frames sent over the network
+     * @return the input channel
+     * @throws UnknownHostException
+     */
+    public IInputChannel createInputChannel(PartitionId pid, NetworkAddress address, int nBuffers,
+            boolean frameCompression) throws UnknownHostException {
+        NetworkAddress localAddress = ncs.getNetworkManager().getPublicNetworkAddress();
+        if (localAddress.getAddress().equals(address.getAddress()) && localAddress.getPort() == address.getPort()) {
+            return new LocalPartitionInputChannel(this, pid, nBuffers);
+        }
+        return new NetworkInputChannel(ncs.getNetworkManager(),
+                new InetSocketAddress(InetAddress.getByAddress(address.lookupIpAddress()), address.getPort()), pid,
+                nBuffers, frameCompression);
+    }
+
     public IWorkspaceFileFactory getFileFactory() {
         return fileFactory;
     }
@@ -135,12 +167,12 @@ public class PartitionManager {
             failedJobsCache.put(jobId, jobId);
         }
         final List<IPartition> jobPartitions = unregisterPartitions(jobId);
-        final List<NetworkOutputChannel> pendingRequests = removePendingRequests(jobId, status);
+        final List<IOutputChannel> pendingRequests = removePendingRequests(jobId, status);
         if (!jobPartitions.isEmpty() || !pendingRequests.isEmpty()) {
             ncs.getExecutor().execute(() -> {
                 jobPartitions.forEach(IDeallocatable::deallocate);
-                pendingRequests.forEach(networkOutputChannel -> networkOutputChannel
-                        .abort(AbstractChannelWriteInterface.REMOTE_ERROR_CODE));
+                pendingRequests.forEach(
+                        outputChannel -> outputChannel.abort(AbstractChannelWriteInterface.REMOTE_ERROR_CODE));
             });
         }
     }
@@ -174,15 +206,15 @@ public class PartitionManager {
         return unregisteredPartitions;
     }
 
-    private List<NetworkOutputChannel> removePendingRequests(JobId jobId, JobStatus status) {
+    private List<IOutputChannel> removePendingRequests(JobId jobId, JobStatus status) {
         if (status != JobStatus.FAILURE) {
             return Collections.emptyList();
         }
-        final List<NetworkOutputChannel> pendingRequests = new ArrayList<>();
-        final Iterator<Map.Entry<PartitionId, NetworkOutputChannel>> requestsIterator =
+        final List<IOutputChannel> pendingRequests = new ArrayList<>();
+        final Iterator<Map.Entry<PartitionId, IOutputChannel>> requestsIterator =
                 partitionRequests.entrySet().iterator();
         while (requestsIterator.hasNext()) {
-            final Map.Entry<PartitionId, NetworkOutputChannel> entry = requestsIterator.next();
+            final Map.Entry<PartitionId, IOutputChannel> entry = requestsIterator.next();
             final PartitionId partitionId = entry.getKey();
             if (partitionId.getJobId().equals(jobId)) {
                 pendingRequests.add(entry.getValue());
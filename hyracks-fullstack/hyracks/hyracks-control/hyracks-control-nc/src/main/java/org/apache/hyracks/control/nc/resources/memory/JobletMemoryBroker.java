@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+
+/**
+ * The view of a job on the memory broker of its node. It keeps track of the memory that the operators of the job
+ * borrowed, so that memory that is not given back by an operator (e.g. after a failure) is given back when the job
+ * ends.
+ */
+public class JobletMemoryBroker implements IMemoryBroker {
+
+    private final IMemoryBroker nodeBroker;
+    private final AtomicLong borrowed = new AtomicLong();
+
+    public JobletMemoryBroker(IMemoryBroker nodeBroker) {
+        this.nodeBroker = nodeBroker;
+    }
+
+    @Override
+    public long borrow(long bytes) {
+        long lent = nodeBroker.borrow(bytes);
+        borrowed.addAndGet(lent);
+        return lent;
+    }
+
+    /**
+     * Gives back memory, but never more than the job still holds. Memory that an operator gives back after
+     * {@link #giveBackAll()} was already given back to the node.
+     */
+    @Override
+    public void giveBack(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        long held = borrowed.getAndUpdate(b -> b - Math.min(b, bytes));
+        long givenBack = Math.min(held, bytes);
+        if (givenBack > 0) {
+            nodeBroker.giveBack(givenBack);
+        }
+    }
+
+    @Override
+    public boolean isReclaiming() {
+        return nodeBroker.isReclaiming();
+    }
+
+    public long getBorrowedMemory() {
+        return borrowed.get();
+    }
+
+    /**
+     * Gives back all of the memory that the job still holds.
+     *
+     * @return the amount of memory that was given back in bytes
+     */
+    public long giveBackAll() {
+        long stillBorrowed = borrowed.getAndSet(0);
+        if (stillBorrowed > 0) {
+            nodeBroker.giveBack(stillBorrowed);
+        }
+        return stillBorrowed;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+
+/**
+ * The memory broker of a node. It lends at most its capacity at any time. Once it cannot satisfy a request, it asks
+ * the borrowers to give memory back until as much memory has been given back as was missing.
+ */
+public class MemoryBroker implements IMemoryBroker {
+
+    private final long capacity;
+    private long available;
+    // the memory that was requested but could not be lent and has not been given back since
+    private volatile long missing;
+
+    public MemoryBroker(long capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.available = this.capacity;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getAvailableMemory() {
+        return available;
+    }
+
+    @Override
+    public synchronized long borrow(long bytes) {
+        if (bytes <= 0 || capacity == 0) {
+            return 0;
+        }
+        long lent = Math.min(bytes, available);
+        available -= lent;
+        // more than what is lent out cannot be given back
+        missing = lent < bytes ? Math.min(capacity - available, missing + bytes - lent) : 0;
+        return lent;
+    }
+
+    @Override
+    public synchronized void giveBack(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        available = Math.min(capacity, available + bytes);
+        missing = Math.max(0, missing - bytes);
+    }
+
+    @Override
+    public boolean isReclaiming() {
+        return missing > 0;
+    }
+}
@@ -73,11 +73,17 @@ public class ResultPartitionManager extends AbstractResultManager implements IRe
     @Override
     public IFrameWriter createResultPartitionWriter(IHyracksTaskContext ctx, ResultSetId rsId, IResultMetadata metadata,
             boolean asyncMode, int partition, int nPartitions, long maxReads) {
+        return createResultPartitionWriter(ctx, rsId, metadata, asyncMode, partition, nPartitions, maxReads, false);
+    }
+
+    @Override
+    public IFrameWriter createResultPartitionWriter(IHyracksTaskContext ctx, ResultSetId rsId, IResultMetadata metadata,
+            boolean asyncMode, int partition, int nPartitions, long maxReads, boolean streaming) {
         ResultPartitionWriter dpw;
         JobId jobId = ctx.getJobletContext().getJobId();
         synchronized (this) {
             dpw = new ResultPartitionWriter(ctx, this, jobId, rsId, asyncMode, metadata, partition, nPartitions,
-                    resultMemoryManager, fileFactory, maxReads);
+                    resultMemoryManager, fileFactory, maxReads, streaming);
             ResultSetMap rsIdMap = partitionResultStateMap.computeIfAbsent(jobId, k -> new ResultSetMap());
             ResultState[] resultStates = rsIdMap.createOrGetResultStates(rsId, nPartitions);
             resultStates[partition] = dpw.getResultState();
@@ -61,6 +61,14 @@ public class ResultPartitionWriter implements IFrameWriter {
     public ResultPartitionWriter(IHyracksTaskContext ctx, IResultPartitionManager manager, JobId jobId,
             ResultSetId rsId, boolean asyncMode, IResultMetadata metadata, int partition, int nPartitions,
             ResultMemoryManager resultMemoryManager, IWorkspaceFileFactory fileFactory, long maxReads) {
+        this(ctx, manager, jobId, rsId, asyncMode, metadata, partition, nPartitions, resultMemoryManager, fileFactory,
+                maxReads, false);
+    }
+
+    public ResultPartitionWriter(IHyracksTaskContext ctx, IResultPartitionManager manager, JobId jobId,
+            ResultSetId rsId, boolean asyncMode, IResultMetadata metadata, int partition, int nPartitions,
+            ResultMemoryManager resultMemoryManager, IWorkspaceFileFactory fileFactory, long maxReads,
+            boolean streaming) {
         this.manager = manager;
         this.jobId = jobId;
         this.resultSetId = rsId;
@@ -70,8 +78,13 @@ public class ResultPartitionWriter implements IFrameWriter {
         this.resultMemoryManager = resultMemoryManager;
 
         resultSetPartitionId = new ResultSetPartitionId(jobId, rsId, partition);
-        resultState = new ResultState(resultSetPartitionId, asyncMode, ctx.getIoManager(), fileFactory,
-                ctx.getInitialFrameSize(), maxReads);
+        // only a result that is read once can be handed over to its reader. the reader of a result set reads one
+        // partition after the other, so the partitions of a result set with several partitions are stored
+        resultState = streaming && maxReads == 1 && nPartitions == 1
+                ? new StreamingResultState(resultSetPartitionId, asyncMode, ctx.getIoManager(), fileFactory,
+                        ctx.getInitialFrameSize())
+                : new ResultState(resultSetPartitionId, asyncMode, ctx.getIoManager(), fileFactory,
+                        ctx.getInitialFrameSize(), maxReads);
     }
 
     public ResultState getResultState() {
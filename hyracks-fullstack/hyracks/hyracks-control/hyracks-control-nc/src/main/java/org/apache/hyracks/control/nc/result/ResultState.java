@@ -378,4 +378,16 @@ public class ResultState implements IStateObject {
     public synchronized boolean isExhausted() {
         return remainingReads == 0;
     }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    boolean isEOS() {
+        return eos.get();
+    }
+
+    boolean isFailed() {
+        return failed.get();
+    }
 }
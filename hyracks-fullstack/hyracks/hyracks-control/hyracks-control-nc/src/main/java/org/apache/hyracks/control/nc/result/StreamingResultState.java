@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.result;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.io.IWorkspaceFileFactory;
+import org.apache.hyracks.api.partitions.ResultSetPartitionId;
+
+/**
+ * A result state that is read once and that hands the frames written after its reader has started directly over to
+ * the reader, through a few in-memory frames. When these frames are full, the writer waits for the reader, so that a
+ * slow reader slows down the job instead of the result being materialized in the result memory or in a file. The
+ * frames that are written before the reader starts are stored as by {@link ResultState}.
+ * Only the result sets with a single partition are streamed: the reader of a result set reads one partition after
+ * the other, so the writers of the partitions that are not read yet would wait for the reader while they may share
+ * their input with the partition that is read.
+ */
+public class StreamingResultState extends ResultState {
+    private static final int STREAMING_FRAMES = 4;
+
+    private final Deque<ByteBuffer> frames = new ArrayDeque<>();
+
+    private final Deque<ByteBuffer> freeFrames = new ArrayDeque<>();
+
+    private final int maxStreamingBytes;
+
+    private int streamingBytes;
+
+    private boolean readerStarted;
+
+    private boolean readerClosed;
+
+    // the size of the result that was stored before the reader started
+    private long storedSize;
+
+    StreamingResultState(ResultSetPartitionId resultSetPartitionId, boolean asyncMode, IIOManager ioManager,
+            IWorkspaceFileFactory fileFactory, int frameSize) {
+        super(resultSetPartitionId, asyncMode, ioManager, fileFactory, frameSize, 1);
+        maxStreamingBytes = STREAMING_FRAMES * frameSize;
+    }
+
+    @Override
+    public synchronized void write(ByteBuffer buffer) throws HyracksDataException {
+        if (!readerStarted) {
+            super.write(buffer);
+        } else {
+            stream(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void write(ResultMemoryManager resultMemoryManager, ByteBuffer buffer)
+            throws HyracksDataException {
+        if (!readerStarted) {
+            super.write(resultMemoryManager, buffer);
+        } else {
+            stream(buffer);
+        }
+    }
+
+    private void stream(ByteBuffer buffer) throws HyracksDataException {
+        int length = buffer.remaining();
+        while (streamingBytes > 0 && streamingBytes + length > maxStreamingBytes && !isDone()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw HyracksDataException.create(e);
+            }
+        }
+        if (isDone()) {
+            // nobody will read the frame anymore
+            return;
+        }
+        ByteBuffer frame = freeFrames.poll();
+        if (frame == null || frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Math.max(length, getFrameSize()));
+        }
+        frame.clear();
+        frame.put(buffer.array(), buffer.position(), length);
+        frame.flip();
+        frames.add(frame);
+        streamingBytes += length;
+        notifyAll();
+    }
+
+    private boolean isDone() {
+        return readerClosed || isFailed();
+    }
+
+    @Override
+    public synchronized void readOpen() {
+        super.readOpen();
+        readerStarted = true;
+        storedSize = getSize();
+    }
+
+    @Override
+    public synchronized void readClose() throws HyracksDataException {
+        super.readClose();
+        readerClosed = true;
+        frames.clear();
+        freeFrames.clear();
+        streamingBytes = 0;
+        notifyAll();
+    }
+
+    /**
+     * Unlike {@link ResultState}, fails instead of returning an empty read when the job fails, so that the sender
+     * aborts the channel and the reader does not take a truncated result for a complete one.
+     */
+    @Override
+    public synchronized long read(long offset, ByteBuffer buffer) throws HyracksDataException {
+        checkFailed();
+        return offset < storedSize ? super.read(offset, buffer) : readStreamed(buffer);
+    }
+
+    @Override
+    public synchronized long read(ResultMemoryManager resultMemoryManager, long offset, ByteBuffer buffer)
+            throws HyracksDataException {
+        checkFailed();
+        return offset < storedSize ? super.read(resultMemoryManager, offset, buffer) : readStreamed(buffer);
+    }
+
+    private void checkFailed() throws HyracksDataException {
+        if (isFailed()) {
+            ResultSetPartitionId partitionId = getResultSetPartitionId();
+            throw HyracksDataException.create(ErrorCode.RESULT_FAILURE_EXCEPTION, partitionId.getResultSetId(),
+                    partitionId.getJobId());
+        }
+    }
+
+    private long readStreamed(ByteBuffer buffer) throws HyracksDataException {
+        long readSize = 0;
+        while (buffer.hasRemaining()) {
+            while (frames.isEmpty() && !isEOS() && !isFailed()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw HyracksDataException.create(e);
+                }
+            }
+            checkFailed();
+            if (frames.isEmpty()) {
+                break;
+            }
+            ByteBuffer frame = frames.peek();
+            int length = Math.min(frame.remaining(), buffer.remaining());
+            buffer.put(frame.array(), frame.position(), length);
+            frame.position(frame.position() + length);
+            readSize += length;
+            if (!frame.hasRemaining()) {
+                frames.poll();
+                streamingBytes -= frame.limit();
+                if (freeFrames.size() < STREAMING_FRAMES) {
+                    freeFrames.add(frame);
+                }
+                notifyAll();
+            }
+        }
+        return readSize;
+    }
+
+    @Override
+    public synchronized void closeAndDelete() {
+        super.closeAndDelete();
+        notifyAll();
+    }
+}
@@ -18,8 +18,6 @@
  */
 package org.apache.hyracks.control.nc.work;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.util.Map;
 
 import org.apache.hyracks.api.comm.NetworkAddress;
@@ -50,13 +48,10 @@ public class ReportPartitionAvailabilityWork extends AbstractWork {
             Map<JobId, Joblet> jobletMap = ncs.getJobletMap();
             Joblet ji = jobletMap.get(pid.getJobId());
             if (ji != null) {
-                PartitionChannel channel =
-                        new PartitionChannel(pid,
-                                new NetworkInputChannel(ncs.getNetworkManager(),
-                                        new InetSocketAddress(
-                                                InetAddress.getByAddress(networkAddress.lookupIpAddress()),
-                                                networkAddress.getPort()),
-                                        pid, 5));
+                PartitionChannel channel = new PartitionChannel(pid,
+                        ncs.getPartitionManager().createInputChannel(pid, networkAddress,
+                                NetworkInputChannel.DEFAULT_BUFFER_COUNT,
+                                ji.getActivityClusterGraph().isFrameCompression()));
                 ji.reportPartitionAvailability(channel);
             }
         } catch (Exception e) {
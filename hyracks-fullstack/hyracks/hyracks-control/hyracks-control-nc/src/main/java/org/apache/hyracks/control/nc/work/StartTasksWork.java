@@ -18,8 +18,6 @@
  */
 package org.apache.hyracks.control.nc.work;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
@@ -156,7 +154,7 @@ public class StartTasksWork extends AbstractWork {
                 final int partition = tid.getPartition();
                 List<IConnectorDescriptor> inputs = ac.getActivityInputMap().get(aid);
                 task = new Task(joblet, flags, taId, partitionCount, han.getDisplayName(), ncs.getExecutor(), ncs,
-                        createInputChannels(td, inputs));
+                        createInputChannels(td, inputs, acg.isFrameCompression()));
                 IOperatorNodePushable operator = han.createPushRuntime(task, rdp, partition, partitionCount);
                 List<IPartitionCollector> collectors = new ArrayList<>();
                 if (inputs != null) {
@@ -286,11 +284,13 @@ public class StartTasksWork extends AbstractWork {
      *            the task attempt id
      * @param inputs
      *            the input connector descriptors
+     * @param frameCompression
+     *            whether the senders are asked to compress the frames
      * @return a list of known channels, one for each connector
      * @throws UnknownHostException
      */
     private List<List<PartitionChannel>> createInputChannels(TaskAttemptDescriptor td,
-            List<IConnectorDescriptor> inputs) throws UnknownHostException {
+            List<IConnectorDescriptor> inputs, boolean frameCompression) throws UnknownHostException {
         NetworkAddress[][] inputAddresses = td.getInputPartitionLocations();
         List<List<PartitionChannel>> channelsForInputConnectors = new ArrayList<>();
         if (inputAddresses != null) {
@@ -301,12 +301,9 @@ public class StartTasksWork extends AbstractWork {
                         NetworkAddress networkAddress = inputAddresses[i][j];
                         PartitionId pid = new PartitionId(jobId, inputs.get(i).getConnectorId(), j,
                                 td.getTaskAttemptId().getTaskId().getPartition());
-                        PartitionChannel channel = new PartitionChannel(pid,
-                                new NetworkInputChannel(ncs.getNetworkManager(),
-                                        new InetSocketAddress(
-                                                InetAddress.getByAddress(networkAddress.lookupIpAddress()),
-                                                networkAddress.getPort()),
-                                        pid, 5));
+                        PartitionChannel channel = new PartitionChannel(pid, ncs.getPartitionManager()
+                                .createInputChannel(pid, networkAddress, NetworkInputChannel.DEFAULT_BUFFER_COUNT,
+                                        frameCompression));
                         channels.add(channel);
                     }
                 }
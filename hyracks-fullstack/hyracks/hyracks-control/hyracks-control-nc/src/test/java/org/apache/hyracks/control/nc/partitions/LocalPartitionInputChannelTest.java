@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.partitions;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.channels.IOutputChannel;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.partitions.PartitionId;
+import org.junit.Test;
+
+public class LocalPartitionInputChannelTest {
+
+    private static final int BUFFER_SIZE = 32;
+
+    private static final PartitionId PID = new PartitionId(new JobId(1), new ConnectorDescriptorId(1), 0, 0);
+
+    private final AtomicReference<IOutputChannel> request = new AtomicReference<>();
+
+    private final Monitor monitor = new Monitor();
+
+    @Test
+    public void testFramesLargerThanBuffers() throws Exception {
+        LocalPartitionInputChannel channel = open(4);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            // 4 pieces, which are all the buffers of the channel
+            byte[] frame = frame(3 * BUFFER_SIZE + 4, i);
+            sent.write(frame);
+            request.get().nextFrame(ByteBuffer.wrap(frame));
+            assertEquals(4 * (i + 1), monitor.available);
+            for (ByteBuffer buffer = channel.getNextBuffer(); buffer != null; buffer = channel.getNextBuffer()) {
+                received.write(buffer.array(), buffer.position(), buffer.remaining());
+                channel.recycleBuffer(buffer);
+            }
+        }
+        request.get().close();
+        assertTrue(monitor.endOfStream);
+        assertArrayEquals(sent.toByteArray(), received.toByteArray());
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        LocalPartitionInputChannel channel = open(2);
+        Producer producer = new Producer(frame(3 * BUFFER_SIZE, 0));
+        producer.start();
+        // the producer waits for the third piece while the consumer holds both buffers
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(2, monitor.available);
+        ByteBuffer first = channel.getNextBuffer();
+        ByteBuffer second = channel.getNextBuffer();
+        assertNotNull(second);
+        assertNull(channel.getNextBuffer());
+        channel.recycleBuffer(first);
+        producer.join();
+        assertNull(producer.failure);
+        assertEquals(3, monitor.available);
+        assertEquals(2 * BUFFER_SIZE, channel.getNextBuffer().get(0));
+        assertNull(channel.getNextBuffer());
+    }
+
+    @Test
+    public void testConsumerFailureStopsProducer() throws Exception {
+        LocalPartitionInputChannel channel = open(1);
+        Producer producer = new Producer(frame(2 * BUFFER_SIZE, 0));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        channel.fail();
+        producer.join();
+        assertNotNull(producer.failure);
+        assertNull(channel.getNextBuffer());
+    }
+
+    @Test
+    public void testConsumerCloseStopsProducer() throws Exception {
+        LocalPartitionInputChannel channel = open(1);
+        Producer producer = new Producer(frame(2 * BUFFER_SIZE, 0));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        channel.close();
+        producer.join();
+        assertNotNull(producer.failure);
+    }
+
+    @Test
+    public void testProducerAbort() throws Exception {
+        LocalPartitionInputChannel channel = open(2);
+        request.get().nextFrame(ByteBuffer.wrap(frame(BUFFER_SIZE, 0)));
+        request.get().abort(7);
+        assertEquals(7, monitor.errorCode);
+        assertFalse(monitor.endOfStream);
+        assertNull(channel.getNextBuffer());
+        try {
+            request.get().nextFrame(ByteBuffer.wrap(frame(BUFFER_SIZE, 1)));
+            throw new AssertionError("the aborted channel accepted a frame");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    private LocalPartitionInputChannel open(int nBuffers) throws HyracksDataException {
+        LocalPartitionInputChannel channel =
+                new LocalPartitionInputChannel((pid, writer) -> request.set(writer), PID, nBuffers);
+        channel.registerMonitor(monitor);
+        channel.open(new Context());
+        assertNotNull(request.get());
+        request.get().open();
+        return channel;
+    }
+
+    /**
+     * @return a frame in which every byte is its index, offset by the given number of buffers
+     */
+    private static byte[] frame(int length, int offset) {
+        byte[] frame = new byte[length];
+        for (int i = 0; i < length; i++) {
+            frame[i] = (byte) (offset * BUFFER_SIZE + i);
+        }
+        return frame;
+    }
+
+    private class Producer extends Thread {
+        private final byte[] frame;
+
+        private volatile Exception failure;
+
+        Producer(byte[] frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public void run() {
+            try {
+                request.get().nextFrame(ByteBuffer.wrap(frame));
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+    }
+
+    private static class Monitor implements IInputChannelMonitor {
+        private volatile int available;
+
+        private volatile int errorCode;
+
+        private volatile boolean endOfStream;
+
+        @Override
+        public synchronized void notifyFailure(IInputChannel channel, int errorCode) {
+            this.errorCode = errorCode;
+        }
+
+        @Override
+        public synchronized void notifyDataAvailability(IInputChannel channel, int nFrames) {
+            available += nFrames;
+        }
+
+        @Override
+        public synchronized void notifyEndOfStream(IInputChannel channel) {
+            endOfStream = true;
+        }
+    }
+
+    private static class Context implements IHyracksCommonContext {
+        @Override
+        public int getInitialFrameSize() {
+            return BUFFER_SIZE;
+        }
+
+        @Override
+        public ByteBuffer allocateFrame() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ByteBuffer allocateFrame(int bytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deallocateFrames(int bytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IIOManager getIoManager() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
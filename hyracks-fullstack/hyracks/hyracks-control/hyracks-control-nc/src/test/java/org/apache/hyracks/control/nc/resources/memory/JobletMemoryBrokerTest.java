@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JobletMemoryBrokerTest {
+
+    private static final long CAPACITY = 1000;
+
+    @Test
+    public void testGiveBackAll() {
+        MemoryBroker nodeBroker = new MemoryBroker(CAPACITY);
+        JobletMemoryBroker jobletBroker = new JobletMemoryBroker(nodeBroker);
+        assertEquals(400, jobletBroker.borrow(400));
+        jobletBroker.giveBack(100);
+        assertEquals(300, jobletBroker.getBorrowedMemory());
+        assertEquals(300, jobletBroker.giveBackAll());
+        assertEquals(0, jobletBroker.getBorrowedMemory());
+        assertEquals(CAPACITY, nodeBroker.getAvailableMemory());
+    }
+
+    @Test
+    public void testGiveBackAfterGiveBackAll() {
+        MemoryBroker nodeBroker = new MemoryBroker(CAPACITY);
+        JobletMemoryBroker jobletBroker = new JobletMemoryBroker(nodeBroker);
+        JobletMemoryBroker otherJobletBroker = new JobletMemoryBroker(nodeBroker);
+        assertEquals(400, jobletBroker.borrow(400));
+        assertEquals(500, otherJobletBroker.borrow(500));
+        // the joblet closes before its operator pools give their memory back
+        assertEquals(400, jobletBroker.giveBackAll());
+        jobletBroker.giveBack(400);
+        assertEquals(0, jobletBroker.getBorrowedMemory());
+        // the memory of the other job is still lent out
+        assertEquals(CAPACITY - 500, nodeBroker.getAvailableMemory());
+        assertEquals(400, jobletBroker.borrow(400));
+        jobletBroker.giveBack(300);
+        assertEquals(100, jobletBroker.getBorrowedMemory());
+        assertEquals(CAPACITY - 600, nodeBroker.getAvailableMemory());
+        // giving back more than the job holds only gives back what it holds
+        jobletBroker.giveBack(400);
+        assertEquals(0, jobletBroker.getBorrowedMemory());
+        assertEquals(CAPACITY - 500, nodeBroker.getAvailableMemory());
+        otherJobletBroker.giveBack(500);
+        assertEquals(CAPACITY, nodeBroker.getAvailableMemory());
+    }
+}
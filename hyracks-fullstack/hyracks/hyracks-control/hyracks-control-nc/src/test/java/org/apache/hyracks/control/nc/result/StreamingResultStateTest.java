@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.partitions.ResultSetPartitionId;
+import org.apache.hyracks.api.result.ResultSetId;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingResultStateTest {
+
+    private static final int FRAME_SIZE = 1024;
+
+    private final ResultMemoryManager resultMemoryManager = new ResultMemoryManager(1 << 20);
+
+    private StreamingResultState resultState;
+
+    @Before
+    public void setUp() {
+        resultState = new StreamingResultState(new ResultSetPartitionId(new JobId(1), new ResultSetId(0), 0), false,
+                null, null, FRAME_SIZE);
+        resultState.open();
+    }
+
+    @Test
+    public void testFramesStoredBeforeReaderStarts() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            write(i);
+        }
+        resultState.readOpen();
+        // frames written after the reader has started are handed over
+        for (int i = 6; i < 8; i++) {
+            write(i);
+        }
+        resultState.close();
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, read(i));
+        }
+        assertEquals(0, resultState.read(resultMemoryManager, 8L * FRAME_SIZE, ByteBuffer.allocate(FRAME_SIZE)));
+    }
+
+    @Test
+    public void testHandoverAfterReaderStarts() throws Exception {
+        resultState.readOpen();
+        Reader reader = new Reader(0, 3);
+        reader.start();
+        for (int i = 0; i < 3; i++) {
+            write(i);
+        }
+        resultState.close();
+        reader.join();
+        assertNull(reader.failure);
+        assertEquals(3, reader.read);
+    }
+
+    @Test
+    public void testWriterBlocksWhenStreamingFramesAreFull() throws Exception {
+        resultState.readOpen();
+        Writer writer = new Writer(6);
+        writer.start();
+        writer.join(200);
+        assertTrue(writer.isAlive());
+        assertEquals(4, writer.written);
+        assertEquals(0, read(0));
+        assertEquals(1, read(1));
+        writer.join();
+        assertNull(writer.failure);
+        resultState.close();
+        for (int i = 2; i < 6; i++) {
+            assertEquals(i, read(i));
+        }
+    }
+
+    @Test
+    public void testFailureWhileWriterIsBlocked() throws Exception {
+        resultState.readOpen();
+        Writer writer = new Writer(6);
+        writer.start();
+        writer.join(200);
+        assertTrue(writer.isAlive());
+        resultState.abort();
+        writer.join();
+        assertNull(writer.failure);
+        // the reader does not take the frames that were handed over for the complete result
+        try {
+            read(0);
+            throw new AssertionError("the failure of the job was not reported");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFailureWhileReaderWaits() throws Exception {
+        resultState.readOpen();
+        Reader reader = new Reader(0, 1);
+        reader.start();
+        reader.join(200);
+        assertTrue(reader.isAlive());
+        resultState.abort();
+        reader.join();
+        assertNotNull(reader.failure);
+        assertFalse(reader.interrupted);
+    }
+
+    @Test
+    public void testReaderCloseWhileWriterIsBlocked() throws Exception {
+        resultState.readOpen();
+        Writer writer = new Writer(6);
+        writer.start();
+        writer.join(200);
+        assertTrue(writer.isAlive());
+        resultState.readClose();
+        writer.join();
+        assertNull(writer.failure);
+    }
+
+    @Test
+    public void testInterruptedReader() throws Exception {
+        resultState.readOpen();
+        Reader reader = new Reader(0, 1);
+        reader.start();
+        reader.join(200);
+        assertTrue(reader.isAlive());
+        reader.interrupt();
+        reader.join();
+        assertNotNull(reader.failure);
+        assertTrue(reader.interrupted);
+    }
+
+    private void write(int i) throws HyracksDataException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+        frame.put(0, (byte) i);
+        resultState.write(resultMemoryManager, frame);
+    }
+
+    /**
+     * @return the first byte of the frame at the given index
+     */
+    private int read(int i) throws HyracksDataException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+        assertEquals(FRAME_SIZE, resultState.read(resultMemoryManager, (long) i * FRAME_SIZE, frame));
+        return frame.get(0);
+    }
+
+    private class Writer extends Thread {
+        private final int nFrames;
+
+        private volatile int written;
+
+        private volatile Exception failure;
+
+        Writer(int nFrames) {
+            this.nFrames = nFrames;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < nFrames; i++) {
+                    write(i);
+                    written++;
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+    }
+
+    private class Reader extends Thread {
+        private final int first;
+
+        private final int nFrames;
+
+        private volatile int read;
+
+        private volatile Exception failure;
+
+        private volatile boolean interrupted;
+
+        Reader(int first, int nFrames) {
+            this.first = first;
+            this.nFrames = nFrames;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = first; i < first + nFrames; i++) {
+                    assertEquals(i, read(i));
+                    read++;
+                }
+            } catch (Exception e) {
+                failure = e;
+                interrupted = Thread.currentThread().isInterrupted();
+            }
+        }
+    }
+}
@@ -23,16 +23,21 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyProperties;
 import org.apache.hyracks.util.string.UTF8StringUtil;
 
+/**
+ * Normalizes the first {@link #NORMALIZED_KEY_LENGTH} * 2 characters of a string, so that most comparisons of
+ * strings that share a short prefix are decided by the normalized keys.
+ */
 public class UTF8StringNormalizedKeyComputerFactory implements INormalizedKeyComputerFactory {
     private static final long serialVersionUID = 1L;
 
+    public static final int NORMALIZED_KEY_LENGTH = 4;
+
     public static final INormalizedKeyProperties PROPERTIES = new INormalizedKeyProperties() {
         private static final long serialVersionUID = 1L;
 
         @Override
         public int getNormalizedKeyLength() {
-            // TODO optimize normalize key for UTF8 to use multiple integers
-            return 1;
+            return NORMALIZED_KEY_LENGTH;
         }
 
         @Override
@@ -46,7 +51,7 @@ public class UTF8StringNormalizedKeyComputerFactory implements INormalizedKeyCom
         return new INormalizedKeyComputer() {
             @Override
             public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart) {
-                normalizedKeys[keyStart] = UTF8StringUtil.normalize(bytes, start);
+                UTF8StringUtil.normalize(bytes, start, normalizedKeys, keyStart, NORMALIZED_KEY_LENGTH);
             }
 
             @Override
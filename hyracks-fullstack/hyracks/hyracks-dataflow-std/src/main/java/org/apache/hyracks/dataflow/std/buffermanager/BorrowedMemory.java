@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.buffermanager;
+
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+
+/**
+ * Keeps track of the memory that a frame pool borrowed from the memory broker of its node. The memory is borrowed and
+ * given back in whole frames.
+ */
+class BorrowedMemory {
+
+    private static final int INITIAL_BUDGET_FRACTION = 4;
+
+    private final IMemoryBroker broker;
+    private final int frameSize;
+    private final int chunkSize;
+    private int borrowed;
+
+    BorrowedMemory(IMemoryBroker broker, int initialBudget, int frameSize) {
+        this.broker = broker;
+        this.frameSize = frameSize;
+        this.chunkSize = Math.max(1, initialBudget / INITIAL_BUDGET_FRACTION / frameSize) * frameSize;
+    }
+
+    /**
+     * @param budget
+     *            the current budget of the pool
+     * @return the borrowed amount of memory in bytes
+     */
+    int borrow(int budget) {
+        if (broker == null || budget > Integer.MAX_VALUE - chunkSize) {
+            return 0;
+        }
+        long lent = broker.borrow(chunkSize);
+        int frames = (int) (lent / frameSize);
+        if (lent > (long) frames * frameSize) {
+            broker.giveBack(lent - (long) frames * frameSize);
+        }
+        borrowed += frames * frameSize;
+        return frames * frameSize;
+    }
+
+    boolean isReclaimed() {
+        return borrowed > 0 && broker.isReclaiming();
+    }
+
+    /**
+     * @param unusedBudget
+     *            the part of the budget of the pool that is not used by any frame
+     * @return the amount of memory in bytes that was given back
+     */
+    int giveBack(long unusedBudget) {
+        int bytes = (int) (Math.min(borrowed, Math.max(0, unusedBudget)) / frameSize) * frameSize;
+        if (bytes > 0) {
+            borrowed -= bytes;
+            broker.giveBack(bytes);
+        }
+        return bytes;
+    }
+
+    int giveBackAll() {
+        int bytes = borrowed;
+        if (bytes > 0) {
+            borrowed = 0;
+            broker.giveBack(bytes);
+        }
+        return bytes;
+    }
+}
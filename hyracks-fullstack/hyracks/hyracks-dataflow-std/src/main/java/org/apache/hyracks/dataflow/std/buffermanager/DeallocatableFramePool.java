@@ -25,19 +25,30 @@ import java.util.LinkedList;
 
 import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 
 public class DeallocatableFramePool implements IDeallocatableFramePool {
 
     private final IHyracksFrameMgrContext ctx;
-    private final int memBudget;
+    private final BorrowedMemory borrowedMemory;
+    private int memBudget;
     private int allocated;
     private LinkedList<ByteBuffer> buffers;
 
     public DeallocatableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes) {
+        this(ctx, memBudgetInBytes, null);
+    }
+
+    /**
+     * @param broker
+     *            the memory broker that the pool may borrow memory from beyond the given budget, null if none
+     */
+    public DeallocatableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes, IMemoryBroker broker) {
         this.ctx = ctx;
         this.memBudget = memBudgetInBytes;
         this.allocated = 0;
         this.buffers = new LinkedList<>();
+        this.borrowedMemory = new BorrowedMemory(broker, memBudgetInBytes, ctx.getInitialFrameSize());
     }
 
     @Override
@@ -62,6 +73,33 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         return mergeExistingFrames(frameSize);
     }
 
+    @Override
+    public int borrow() {
+        int bytes = borrowedMemory.borrow(memBudget);
+        memBudget += bytes;
+        return bytes;
+    }
+
+    @Override
+    public int giveBackIfReclaimed() {
+        if (!borrowedMemory.isReclaimed()) {
+            return 0;
+        }
+        int usedMem = allocated;
+        for (ByteBuffer buffer : buffers) {
+            usedMem -= buffer.capacity();
+        }
+        int bytes = borrowedMemory.giveBack((long) memBudget - usedMem);
+        memBudget -= bytes;
+        for (Iterator<ByteBuffer> iter = buffers.iterator(); iter.hasNext() && allocated > memBudget;) {
+            ByteBuffer buffer = iter.next();
+            iter.remove();
+            ctx.deallocateFrames(buffer.capacity());
+            allocated -= buffer.capacity();
+        }
+        return bytes;
+    }
+
     private ByteBuffer mergeExistingFrames(int frameSize) throws HyracksDataException {
         int mergedSize = memBudget - allocated;
         for (Iterator<ByteBuffer> iter = buffers.iterator(); iter.hasNext();) {
@@ -124,5 +162,6 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         }
         allocated = 0;
         buffers.clear();
+        memBudget -= borrowedMemory.giveBackAll();
     }
 }
@@ -39,13 +39,29 @@ public interface IFramePool {
      */
     ByteBuffer allocateFrame(int frameSize) throws HyracksDataException;
 
+    /**
+     * Borrows memory from the memory broker of the node and adds it to the memory budget of the pool, a quarter of
+     * the initial budget (but at least one frame) at a time.
+     *
+     * @return the borrowed amount of memory in bytes, 0 if the pool has no broker or the broker has no memory left
+     */
+    int borrow();
+
+    /**
+     * Gives the borrowed memory that is not used by any frame back to the memory broker of the node if the broker
+     * reclaims memory.
+     *
+     * @return the amount of memory in bytes that was given back
+     */
+    int giveBackIfReclaimed();
+
     /**
      * Reset the counters to initial status. This method should not release the pre-allocated resources.
      */
     void reset();
 
     /**
-     * Release the pre-allocated resources.
+     * Release the pre-allocated resources and give the borrowed memory back.
      */
     void close();
 
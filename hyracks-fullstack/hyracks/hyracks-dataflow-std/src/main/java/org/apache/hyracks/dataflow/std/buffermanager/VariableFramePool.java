@@ -28,13 +28,15 @@ import java.util.List;
 
 import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 
 public class VariableFramePool implements IFramePool {
     public static final int UNLIMITED_MEMORY = -1;
 
     private final IHyracksFrameMgrContext ctx;
     private final int minFrameSize;
-    private final int memBudget;
+    private final BorrowedMemory borrowedMemory;
+    private int memBudget;
 
     private int allocateMem;
     private ArrayList<ByteBuffer> buffers; // the unused slots were sorted by size increasingly.
@@ -48,6 +50,14 @@ public class VariableFramePool implements IFramePool {
      *            the given memory budgets to allocate the frames. If it less than 0, it will be treated as unlimited budgets
      */
     public VariableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes) {
+        this(ctx, memBudgetInBytes, null);
+    }
+
+    /**
+     * @param broker
+     *            the memory broker that the pool may borrow memory from beyond the given budget, null if none
+     */
+    public VariableFramePool(IHyracksFrameMgrContext ctx, int memBudgetInBytes, IMemoryBroker broker) {
         this.ctx = ctx;
         this.minFrameSize = ctx.getInitialFrameSize();
         this.allocateMem = 0;
@@ -55,10 +65,12 @@ public class VariableFramePool implements IFramePool {
             this.memBudget = Integer.MAX_VALUE;
             this.buffers = new ArrayList<>();
             this.used = new BitSet();
+            this.borrowedMemory = new BorrowedMemory(null, memBudget, minFrameSize);
         } else {
             this.memBudget = memBudgetInBytes;
             this.buffers = new ArrayList<>(memBudgetInBytes / minFrameSize);
             this.used = new BitSet(memBudgetInBytes / minFrameSize);
+            this.borrowedMemory = new BorrowedMemory(broker, memBudgetInBytes, minFrameSize);
         }
     }
 
@@ -85,6 +97,35 @@ public class VariableFramePool implements IFramePool {
 
     }
 
+    @Override
+    public int borrow() {
+        int bytes = borrowedMemory.borrow(memBudget);
+        memBudget += bytes;
+        return bytes;
+    }
+
+    @Override
+    public int giveBackIfReclaimed() {
+        if (!borrowedMemory.isReclaimed()) {
+            return 0;
+        }
+        int usedMem = allocateMem;
+        for (int i = 0; i < buffers.size(); i++) {
+            if (!used.get(i) && buffers.get(i) != null) {
+                usedMem -= buffers.get(i).capacity();
+            }
+        }
+        int bytes = borrowedMemory.giveBack((long) memBudget - usedMem);
+        memBudget -= bytes;
+        // the biggest unused frames first
+        for (int i = buffers.size() - 1; i >= 0 && allocateMem > memBudget; i--) {
+            if (!used.get(i) && buffers.get(i) != null) {
+                deAllocateFrame(i);
+            }
+        }
+        return bytes;
+    }
+
     private boolean haveEnoughFreeSpace(int frameSize) {
         return frameSize + allocateMem <= memBudget;
     }
@@ -191,6 +232,7 @@ public class VariableFramePool implements IFramePool {
         buffers.clear();
         used.clear();
         allocateMem = 0;
+        memBudget -= borrowedMemory.giveBackAll();
     }
 
     private static Comparator<ByteBuffer> sizeByteBufferComparator = new Comparator<ByteBuffer>() {
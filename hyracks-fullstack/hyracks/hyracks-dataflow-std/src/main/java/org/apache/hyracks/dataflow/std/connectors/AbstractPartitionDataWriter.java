@@ -36,7 +36,7 @@ import org.apache.hyracks.util.trace.ITracer;
 abstract class AbstractPartitionDataWriter implements IFrameWriter {
 
     protected final int consumerPartitionCount;
-    private final IFrameWriter[] pWriters;
+    protected final IFrameWriter[] pWriters;
     private final boolean[] isOpen;
     private final FrameTupleAppender[] appenders;
     protected final FrameTupleAccessor tupleAccessor;
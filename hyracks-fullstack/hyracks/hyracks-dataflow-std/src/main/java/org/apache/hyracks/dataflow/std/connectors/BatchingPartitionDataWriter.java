@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.connectors;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.FrameConstants;
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.comm.IPartitionWriterFactory;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.util.IntSerDeUtils;
+
+/**
+ * A partitioning writer for many consumer partitions. Instead of an output frame for every consumer partition, which
+ * are sparsely filled (and mostly only written on close) when there are many consumer partitions, it copies the
+ * tuples into small blocks of a pool that is shared by all the consumer partitions. The tuples of a consumer
+ * partition are written as one frame when they fill a frame. When the pool is exhausted, the tuples of the consumer
+ * partition that has the most bytes in the pool are written. All the frames are built in one output frame, so the
+ * memory of the writer does not depend on the number of consumer partitions.
+ * The tuples of a consumer partition keep their order.
+ */
+public class BatchingPartitionDataWriter extends PartitionDataWriter {
+    // a record in a block is the tuple length followed by the tuple; the length never spans blocks
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int BLOCKS_PER_FRAME = 16;
+    private static final int NO_BLOCK = -1;
+
+    private final int blockSize;
+    private final int frameCapacity;
+    private final byte[][] blocks;
+    private final int[] nextBlocks;
+    private int allocatedBlocks;
+    private int freeBlock = NO_BLOCK;
+    private final int[] acquiredBlocks;
+    // the buffered tuples of the consumer partitions
+    private final int[] headBlocks;
+    private final int[] tailBlocks;
+    private final int[] tailOffsets;
+    private final int[] bufferedTuples;
+    private final int[] bufferedBytes;
+    private final FrameTupleAppender appender;
+    private byte[] tupleBytes = new byte[0];
+    private boolean failed = false;
+
+    /**
+     * @param memoryFrames
+     *            the number of frames of the pool, at least 2
+     */
+    public BatchingPartitionDataWriter(IHyracksTaskContext ctx, int consumerPartitionCount,
+            IPartitionWriterFactory pwFactory, RecordDescriptor recordDescriptor, ITuplePartitionComputer tpc,
+            int memoryFrames) throws HyracksDataException {
+        super(ctx, consumerPartitionCount, pwFactory, recordDescriptor, tpc);
+        int frameSize = ctx.getInitialFrameSize();
+        blockSize = frameSize / BLOCKS_PER_FRAME;
+        frameCapacity = FrameHelper.getTupleCountOffset(frameSize) - FrameConstants.TUPLE_START_OFFSET;
+        int maxBlocks = Math.max(memoryFrames, 2) * BLOCKS_PER_FRAME;
+        blocks = new byte[maxBlocks][];
+        nextBlocks = new int[maxBlocks];
+        acquiredBlocks = new int[maxBlocks];
+        headBlocks = new int[consumerPartitionCount];
+        tailBlocks = new int[consumerPartitionCount];
+        tailOffsets = new int[consumerPartitionCount];
+        bufferedTuples = new int[consumerPartitionCount];
+        bufferedBytes = new int[consumerPartitionCount];
+        Arrays.fill(headBlocks, NO_BLOCK);
+        Arrays.fill(tailBlocks, NO_BLOCK);
+        appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+    }
+
+    @Override
+    protected void appendToPartitionWriter(int tupleIndex, int partition) throws HyracksDataException {
+        int tStart = tupleAccessor.getTupleStartOffset(tupleIndex);
+        int length = tupleAccessor.getTupleEndOffset(tupleIndex) - tStart;
+        int size = length + FrameConstants.SIZE_LEN;
+        if (size > frameCapacity) {
+            // a big tuple gets a frame of its own
+            writeBuffered(partition);
+            FrameUtils.appendToWriter(pWriters[partition], appender, tupleAccessor, tupleIndex);
+            appender.write(pWriters[partition], true);
+            return;
+        }
+        if (bufferedBytes[partition] + size > frameCapacity) {
+            writeBuffered(partition);
+        }
+        int nAcquired = 0;
+        int nNeeded;
+        while ((nNeeded = getNeededBlocks(partition, length)) > nAcquired) {
+            acquiredBlocks[nAcquired++] = acquireBlock();
+        }
+        for (int i = nNeeded; i < nAcquired; i++) {
+            releaseBlock(acquiredBlocks[i]);
+        }
+        int block = tailBlocks[partition];
+        int blockOffset = getRecordOffset(partition);
+        if (blockOffset == blockSize) {
+            block = acquiredBlocks[0];
+            blockOffset = 0;
+        }
+        for (int i = 0; i < nNeeded; i++) {
+            linkBlock(partition, acquiredBlocks[i]);
+        }
+        copyIn(partition, block, blockOffset, tupleAccessor.getBuffer().array(), tStart, length);
+        bufferedTuples[partition]++;
+        bufferedBytes[partition] += size;
+    }
+
+    /**
+     * @return the offset in the tail block at which the next record of the partition starts, the block size if it
+     *         starts in a new block
+     */
+    private int getRecordOffset(int partition) {
+        int offset = tailBlocks[partition] == NO_BLOCK ? blockSize : tailOffsets[partition];
+        return blockSize - offset < LENGTH_SIZE ? blockSize : offset;
+    }
+
+    private int getNeededBlocks(int partition, int length) {
+        int missing = getRecordOffset(partition) + LENGTH_SIZE + length - blockSize;
+        return missing <= 0 ? 0 : (missing + blockSize - 1) / blockSize;
+    }
+
+    private int acquireBlock() throws HyracksDataException {
+        if (freeBlock == NO_BLOCK) {
+            if (allocatedBlocks < blocks.length) {
+                blocks[allocatedBlocks] = new byte[blockSize];
+                return allocatedBlocks++;
+            }
+            writeBuffered(getFullestPartition());
+        }
+        int block = freeBlock;
+        freeBlock = nextBlocks[block];
+        return block;
+    }
+
+    private void releaseBlock(int block) {
+        nextBlocks[block] = freeBlock;
+        freeBlock = block;
+    }
+
+    private void linkBlock(int partition, int block) {
+        nextBlocks[block] = NO_BLOCK;
+        if (tailBlocks[partition] == NO_BLOCK) {
+            headBlocks[partition] = block;
+        } else {
+            nextBlocks[tailBlocks[partition]] = block;
+        }
+        tailBlocks[partition] = block;
+    }
+
+    private int getFullestPartition() {
+        int fullest = 0;
+        for (int i = 1; i < consumerPartitionCount; i++) {
+            if (bufferedBytes[i] > bufferedBytes[fullest]) {
+                fullest = i;
+            }
+        }
+        return fullest;
+    }
+
+    private void copyIn(int partition, int block, int blockOffset, byte[] bytes, int offset, int length) {
+        IntSerDeUtils.putInt(blocks[block], blockOffset, length);
+        blockOffset += LENGTH_SIZE;
+        while (length > 0) {
+            if (blockOffset == blockSize) {
+                block = nextBlocks[block];
+                blockOffset = 0;
+            }
+            int n = Math.min(length, blockSize - blockOffset);
+            System.arraycopy(bytes, offset, blocks[block], blockOffset, n);
+            blockOffset += n;
+            offset += n;
+            length -= n;
+        }
+        tailBlocks[partition] = block;
+        tailOffsets[partition] = blockOffset;
+    }
+
+    /**
+     * Writes the buffered tuples of the partition as a frame and gives their blocks back to the pool.
+     */
+    private void writeBuffered(int partition) throws HyracksDataException {
+        int block = headBlocks[partition];
+        int blockOffset = 0;
+        for (int t = 0; t < bufferedTuples[partition]; t++) {
+            if (blockSize - blockOffset < LENGTH_SIZE) {
+                block = nextBlocks[block];
+                blockOffset = 0;
+            }
+            int length = IntSerDeUtils.getInt(blocks[block], blockOffset);
+            blockOffset += LENGTH_SIZE;
+            if (blockOffset + length <= blockSize) {
+                FrameUtils.appendToWriter(pWriters[partition], appender, blocks[block], blockOffset, length);
+                blockOffset += length;
+                continue;
+            }
+            // the tuple spans blocks
+            if (tupleBytes.length < length) {
+                tupleBytes = new byte[Math.max(length, 2 * tupleBytes.length)];
+            }
+            for (int copied = 0; copied < length;) {
+                if (blockOffset == blockSize) {
+                    block = nextBlocks[block];
+                    blockOffset = 0;
+                }
+                int n = Math.min(length - copied, blockSize - blockOffset);
+                System.arraycopy(blocks[block], blockOffset, tupleBytes, copied, n);
+                blockOffset += n;
+                copied += n;
+            }
+            FrameUtils.appendToWriter(pWriters[partition], appender, tupleBytes, 0, length);
+        }
+        if (appender.getTupleCount() > 0) {
+            appender.write(pWriters[partition], true);
+        }
+        for (block = headBlocks[partition]; block != NO_BLOCK;) {
+            int next = nextBlocks[block];
+            releaseBlock(block);
+            block = next;
+        }
+        headBlocks[partition] = NO_BLOCK;
+        tailBlocks[partition] = NO_BLOCK;
+        bufferedTuples[partition] = 0;
+        bufferedBytes[partition] = 0;
+    }
+
+    private void writeAllBuffered() throws HyracksDataException {
+        for (int i = 0; i < consumerPartitionCount; i++) {
+            if (bufferedTuples[i] > 0) {
+                writeBuffered(i);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws HyracksDataException {
+        writeAllBuffered();
+        super.flush();
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        failed = true;
+        super.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        if (!failed) {
+            try {
+                writeAllBuffered();
+            } catch (Exception e) {
+                try {
+                    fail();
+                } catch (Exception failException) {
+                    e.addSuppressed(failException);
+                }
+                try {
+                    super.close();
+                } catch (Exception closeException) {
+                    e.addSuppressed(closeException);
+                }
+                throw HyracksDataException.create(e);
+            }
+        }
+        super.close();
+    }
+}
@@ -29,7 +29,9 @@ import org.apache.hyracks.dataflow.std.base.AbstractMToNConnectorDescriptor;
 
 public class MToNPartitioningConnectorDescriptor extends AbstractMToNConnectorDescriptor {
     private static final long serialVersionUID = 1L;
+    public static final int DEFAULT_BATCHING_MEMORY_FRAMES = 32;
     protected ITuplePartitionComputerFactory tpcf;
+    private int batchingMemoryFrames = DEFAULT_BATCHING_MEMORY_FRAMES;
 
     public MToNPartitioningConnectorDescriptor(IConnectorDescriptorRegistry spec, ITuplePartitionComputerFactory tpcf) {
         super(spec);
@@ -40,9 +42,25 @@ public class MToNPartitioningConnectorDescriptor extends AbstractMToNConnectorDe
     public IFrameWriter createPartitioner(IHyracksTaskContext ctx, RecordDescriptor recordDesc,
             IPartitionWriterFactory edwFactory, int index, int nProducerPartitions, int nConsumerPartitions)
             throws HyracksDataException {
+        if (batchingMemoryFrames > 0 && nConsumerPartitions > batchingMemoryFrames) {
+            return new BatchingPartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc,
+                    tpcf.createPartitioner(ctx), batchingMemoryFrames);
+        }
         return new PartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc, tpcf.createPartitioner(ctx));
     }
 
+    /**
+     * Sets the memory of the partitioner when there are more consumer partitions than frames in this memory. Then,
+     * the tuples of all the consumer partitions are buffered in this memory instead of in a frame per consumer
+     * partition (see {@link BatchingPartitionDataWriter}). 0 keeps a frame per consumer partition.
+     *
+     * @param batchingMemoryFrames
+     *            the memory in frames
+     */
+    public void setBatchingMemoryFrames(int batchingMemoryFrames) {
+        this.batchingMemoryFrames = batchingMemoryFrames;
+    }
+
     public ITuplePartitionComputerFactory getTuplePartitionComputerFactory() {
         return tpcf;
     }
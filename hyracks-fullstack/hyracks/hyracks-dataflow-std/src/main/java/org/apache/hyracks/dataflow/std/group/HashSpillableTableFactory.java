@@ -32,6 +32,7 @@ import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
 import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
@@ -42,8 +43,9 @@ import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
 import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
+import org.apache.hyracks.dataflow.std.structures.HashTableEntryClustering;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTableType;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 import org.apache.logging.log4j.LogManager;
@@ -55,13 +57,31 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
     private static final double FUDGE_FACTOR = 1.1;
     private static final long serialVersionUID = 1L;
     private final IBinaryHashFunctionFamily[] hashFunctionFamilies;
+    private final SerializableHashTableType tableType;
+    private final boolean radixClustering;
     private static final int MIN_DATA_TABLE_FRAME_LIMT = 1;
     private static final int MIN_HASH_TABLE_FRAME_LIMT = 2;
     private static final int OUTPUT_FRAME_LIMT = 1;
     private static final int MIN_FRAME_LIMT = MIN_DATA_TABLE_FRAME_LIMT + MIN_HASH_TABLE_FRAME_LIMT + OUTPUT_FRAME_LIMT;
 
     public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies) {
+        this(hashFunctionFamilies, SerializableHashTableType.CHAINED);
+    }
+
+    public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            SerializableHashTableType tableType) {
+        this(hashFunctionFamilies, tableType, false);
+    }
+
+    /**
+     * @param radixClustering whether the tuples of a frame are clustered by their hash table entries before they are
+     *            inserted into a hash table that does not fit in the CPU caches
+     */
+    public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            SerializableHashTableType tableType, boolean radixClustering) {
         this.hashFunctionFamilies = hashFunctionFamilies;
+        this.tableType = tableType;
+        this.radixClustering = radixClustering;
     }
 
     @Override
@@ -144,13 +164,14 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             private final BitSet spilledSet = new BitSet(numPartitions);
             // This frame pool will be shared by both data table and hash table.
             private final IDeallocatableFramePool framePool =
-                    new DeallocatableFramePool(ctx, framesLimit * ctx.getInitialFrameSize());
+                    new DeallocatableFramePool(ctx, framesLimit * ctx.getInitialFrameSize(),
+                            ctx.getJobletContext().getMemoryBroker());
             // buffer manager for hash table
             private final ISimpleFrameBufferManager bufferManagerForHashTable =
                     new FramePoolBackedFrameBufferManager(framePool);
 
             private final ISerializableTable hashTableForTuplePointer =
-                    new SerializableHashTable(tableSize, ctx, bufferManagerForHashTable);
+                    tableType.create(tableSize, ctx, bufferManagerForHashTable);
 
             // buffer manager for data table
             final IPartitionedTupleBufferManager bufferManager = new VPartitionTupleBufferManager(
@@ -164,9 +185,19 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             private final FrameTupleAppender outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
 
+            private final HashTableEntryClustering clustering = radixClustering ? new HashTableEntryClustering() : null;
+            // the hash values of the tuples of the clustered frame
+            private int[] hashes = new int[0];
+
+            // allocated once the tuples are written without grouping them
+            private VSizeFrame stateFrame;
+            private FrameTupleAppender stateAppender;
+            private FrameTupleAccessor stateAccessor;
+
             @Override
             public void close() throws HyracksDataException {
                 hashTableForTuplePointer.close();
+                bufferManager.close();
                 aggregator.close();
             }
 
@@ -179,6 +210,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 // Checks whether the garbage collection is required and conducts a garbage collection if so.
                 collectGarbageInHashTableForTuplePointer(false);
                 bufferManager.clearPartition(partition);
+                framePool.giveBackIfReclaimed();
             }
 
             private boolean collectGarbageInHashTableForTuplePointer(boolean force) throws HyracksDataException {
@@ -194,6 +226,10 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 return false;
             }
 
+            private int getHash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+                return tpc.partition(accessor, tIndex, ISerializableTable.HASH_RANGE);
+            }
+
             private int getPartition(int entryInHashTable) {
                 return entryInHashTable / entriesPerPartition;
             }
@@ -208,9 +244,22 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public boolean insert(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
-                for (int i = 0; i < hashTableForTuplePointer.getTupleCount(entryInHashTable); i++) {
-                    hashTableForTuplePointer.getTuplePointer(entryInHashTable, i, pointer);
+                int hash = getHash(accessor, tIndex);
+                return insert(accessor, tIndex, ISerializableTable.getEntry(hash, tableSize), hash);
+            }
+
+            @Override
+            public boolean insert(IFrameTupleAccessor accessor, int tIndex, int entryInHashTable)
+                    throws HyracksDataException {
+                // only called for the tuples of the frame given to cluster()
+                return insert(accessor, tIndex, entryInHashTable, hashes[tIndex]);
+            }
+
+            private boolean insert(IFrameTupleAccessor accessor, int tIndex, int entryInHashTable, int hash)
+                    throws HyracksDataException {
+                int tupleCount = hashTableForTuplePointer.getTupleCount(entryInHashTable, hash);
+                for (int i = 0; i < tupleCount; i++) {
+                    hashTableForTuplePointer.getTuplePointer(entryInHashTable, hash, i, pointer);
                     bufferAccessor.reset(pointer);
                     int c = ftpcInputCompareToAggregate.compare(accessor, tIndex, bufferAccessor);
                     if (c == 0) {
@@ -218,18 +267,50 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                         return true;
                     }
                 }
-                return insertNewAggregateEntry(entryInHashTable, accessor, tIndex);
+                return insertNewAggregateEntry(entryInHashTable, hash, accessor, tIndex);
+            }
+
+            @Override
+            public HashTableEntryClustering cluster(IFrameTupleAccessor accessor) throws HyracksDataException {
+                if (clustering == null || !HashTableEntryClustering.isBeneficial(hashTableForTuplePointer)) {
+                    return null;
+                }
+                int tupleCount = accessor.getTupleCount();
+                clustering.reset(tableSize, tupleCount);
+                if (hashes.length < tupleCount) {
+                    hashes = new int[Math.max(tupleCount, 2 * hashes.length)];
+                }
+                for (int i = 0; i < tupleCount; i++) {
+                    hashes[i] = getHash(accessor, i);
+                    clustering.add(ISerializableTable.getEntry(hashes[i], tableSize));
+                }
+                clustering.cluster();
+                return clustering;
             }
 
             /**
-             * Inserts a new aggregate entry into the data table and hash table.
+             * Inserts a new aggregate entry, borrowing memory from the node if the entry does not fit so that a
+             * partition is only spilled once the node has no memory left to lend. A spilled partition gets at most
+             * one frame, so borrowing does not help it.
+             */
+            private boolean insertNewAggregateEntry(int entryInHashTable, int hash, IFrameTupleAccessor accessor,
+                    int tIndex) throws HyracksDataException {
+                initStateTupleBuilder(accessor, tIndex);
+                while (!insertStateTuple(entryInHashTable, hash)) {
+                    if (spilledSet.get(getPartition(entryInHashTable)) || framePool.borrow() == 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            /**
+             * Inserts the state tuple into the data table and hash table.
              * This insertion must be an atomic operation. We cannot have a partial success or failure.
              * So, if an insertion succeeds on the data table and the same insertion on the hash table fails, then
              * we need to revert the effect of data table insertion.
              */
-            private boolean insertNewAggregateEntry(int entryInHashTable, IFrameTupleAccessor accessor, int tIndex)
-                    throws HyracksDataException {
-                initStateTupleBuilder(accessor, tIndex);
+            private boolean insertStateTuple(int entryInHashTable, int hash) throws HyracksDataException {
                 int pid = getPartition(entryInHashTable);
 
                 // Insertion to the data table
@@ -239,11 +320,11 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 }
 
                 // Insertion to the hash table
-                boolean inserted = hashTableForTuplePointer.insert(entryInHashTable, pointer);
+                boolean inserted = hashTableForTuplePointer.insert(entryInHashTable, hash, pointer);
                 if (!inserted) {
                     // Force garbage collection on the hash table and attempt to insert again
                     if (collectGarbageInHashTableForTuplePointer(true)) {
-                        inserted = hashTableForTuplePointer.insert(entryInHashTable, pointer);
+                        inserted = hashTableForTuplePointer.insert(entryInHashTable, hash, pointer);
                     }
                     if (!inserted) {
                         // To preserve the atomicity of this method, we need to undo the effect
@@ -271,6 +352,31 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public int flushFrames(int partition, IFrameWriter writer, AggregateType type) throws HyracksDataException {
+                int count = appendPartition(partition, writer, type);
+                outputAppender.write(writer, true);
+                spilledSet.set(partition);
+                return count;
+            }
+
+            @Override
+            public int flushAllFrames(IFrameWriter writer, AggregateType type) throws HyracksDataException {
+                int count = 0;
+                for (int partition = 0; partition < numPartitions; partition++) {
+                    count += appendPartition(partition, writer, type);
+                    clear(partition);
+                }
+                if (outputAppender.getTupleCount() > 0) {
+                    outputAppender.write(writer, true);
+                }
+                spilledSet.clear();
+                return count;
+            }
+
+            /**
+             * Appends the aggregates of the partition to the output frame, which is written whenever it is full.
+             */
+            private int appendPartition(int partition, IFrameWriter writer, AggregateType type)
+                    throws HyracksDataException {
                 int count = 0;
                 for (int hashEntryPid = getFirstEntryInHashTable(partition); hashEntryPid < getLastEntryInHashTable(
                         partition); hashEntryPid++) {
@@ -278,40 +384,69 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                     for (int tid = 0; tid < hashTableForTuplePointer.getTupleCount(hashEntryPid); tid++) {
                         hashTableForTuplePointer.getTuplePointer(hashEntryPid, tid, pointer);
                         bufferAccessor.reset(pointer);
-                        outputTupleBuilder.reset();
-                        for (int k = 0; k < intermediateResultAllFields.length; k++) {
-                            outputTupleBuilder.addField(bufferAccessor.getBuffer().array(),
-                                    bufferAccessor.getAbsFieldStartOffset(intermediateResultAllFields[k]),
-                                    bufferAccessor.getFieldLength(intermediateResultAllFields[k]));
-                        }
-
-                        boolean hasOutput = false;
-                        switch (type) {
-                            case PARTIAL:
-                                hasOutput = aggregator.outputPartialResult(outputTupleBuilder, bufferAccessor,
-                                        pointer.getTupleIndex(), aggregateState);
-                                break;
-                            case FINAL:
-                                hasOutput = aggregator.outputFinalResult(outputTupleBuilder, bufferAccessor,
-                                        pointer.getTupleIndex(), aggregateState);
-                                break;
-                        }
-
-                        if (hasOutput && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
-                                outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
-                            outputAppender.write(writer, true);
-                            if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
-                                    outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
-                                throw new HyracksDataException("The output item is too large to be fit into a frame.");
-                            }
-                        }
+                        appendAggregate(bufferAccessor, pointer.getTupleIndex(), writer, type);
                     }
                 }
-                outputAppender.write(writer, true);
-                spilledSet.set(partition);
                 return count;
             }
 
+            @Override
+            public int flushWithoutGrouping(IFrameTupleAccessor accessor, IFrameWriter writer, AggregateType type)
+                    throws HyracksDataException {
+                if (stateFrame == null) {
+                    stateFrame = new VSizeFrame(ctx);
+                    stateAppender = new FrameTupleAppender();
+                    stateAccessor = new FrameTupleAccessor(outRecordDescriptor);
+                }
+                int tupleCount = accessor.getTupleCount();
+                for (int i = 0; i < tupleCount; i++) {
+                    // the state of the group is read back from a frame, as the state of the groups in the table
+                    initStateTupleBuilder(accessor, i);
+                    stateAppender.reset(stateFrame, true);
+                    if (!stateAppender.append(stateTupleBuilder.getFieldEndOffsets(),
+                            stateTupleBuilder.getByteArray(), 0, stateTupleBuilder.getSize())) {
+                        throw new HyracksDataException("The aggregate state is too large to be fit into a frame.");
+                    }
+                    stateAccessor.reset(stateFrame.getBuffer());
+                    appendAggregate(stateAccessor, 0, writer, type);
+                }
+                if (outputAppender.getTupleCount() > 0) {
+                    outputAppender.write(writer, true);
+                }
+                return tupleCount;
+            }
+
+            private void appendAggregate(IFrameTupleAccessor stateAccessor, int tIndex, IFrameWriter writer,
+                    AggregateType type) throws HyracksDataException {
+                outputTupleBuilder.reset();
+                for (int k = 0; k < intermediateResultAllFields.length; k++) {
+                    outputTupleBuilder.addField(stateAccessor.getBuffer().array(),
+                            stateAccessor.getAbsoluteFieldStartOffset(tIndex, intermediateResultAllFields[k]),
+                            stateAccessor.getFieldLength(tIndex, intermediateResultAllFields[k]));
+                }
+
+                boolean hasOutput = false;
+                switch (type) {
+                    case PARTIAL:
+                        hasOutput = aggregator.outputPartialResult(outputTupleBuilder, stateAccessor, tIndex,
+                                aggregateState);
+                        break;
+                    case FINAL:
+                        hasOutput =
+                                aggregator.outputFinalResult(outputTupleBuilder, stateAccessor, tIndex, aggregateState);
+                        break;
+                }
+
+                if (hasOutput && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                        outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                    outputAppender.write(writer, true);
+                    if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                            outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                        throw new HyracksDataException("The output item is too large to be fit into a frame.");
+                    }
+                }
+            }
+
             @Override
             public int getNumPartitions() {
                 return bufferManager.getNumPartitions();
@@ -319,7 +454,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
+                int entryInHashTable = ISerializableTable.getEntry(getHash(accessor, tIndex), tableSize);
                 int partition = getPartition(entryInHashTable);
                 return spillPolicy.selectVictimPartition(partition);
             }
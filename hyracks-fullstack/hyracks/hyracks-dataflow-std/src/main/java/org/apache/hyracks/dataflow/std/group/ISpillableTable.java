@@ -21,6 +21,7 @@ package org.apache.hyracks.dataflow.std.group;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.structures.HashTableEntryClustering;
 
 public interface ISpillableTable {
 
@@ -46,6 +47,29 @@ public interface ISpillableTable {
      */
     boolean insert(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException;
 
+    /**
+     * Insert the specific tuple into the table, given the entry of the hash table that the tuple goes to.
+     * @param accessor
+     * @param tIndex
+     * @param entry
+     * @return
+     * @throws HyracksDataException
+     */
+    default boolean insert(IFrameTupleAccessor accessor, int tIndex, int entry) throws HyracksDataException {
+        return insert(accessor, tIndex);
+    }
+
+    /**
+     * Orders the tuples of the frame by the entries of the hash table that they go to, if the order pays off for
+     * the table. The tuples are then inserted in that order by {@link #insert(IFrameTupleAccessor, int, int)}.
+     * @param accessor
+     * @return the clustered tuples, null if the tuples should be inserted in their order
+     * @throws HyracksDataException
+     */
+    default HashTableEntryClustering cluster(IFrameTupleAccessor accessor) throws HyracksDataException {
+        return null;
+    }
+
     /**
      * Flush the certain partition to writer, and return the numOfTuples that have been flushed
      * @param partition
@@ -56,6 +80,29 @@ public interface ISpillableTable {
      */
     int flushFrames(int partition, IFrameWriter writer, AggregateType type) throws HyracksDataException;
 
+    /**
+     * Flush all the partitions to writer and reset them to the initial state, so that the table takes new groups
+     * again. Unlike {@link #flushFrames(int, IFrameWriter, AggregateType)}, the partitions are not regarded as
+     * spilled afterwards. Returns the numOfTuples that have been flushed
+     * @param writer
+     * @param type
+     * @return
+     * @throws HyracksDataException
+     */
+    int flushAllFrames(IFrameWriter writer, AggregateType type) throws HyracksDataException;
+
+    /**
+     * Flush the tuples of the frame to writer as if each of them was a group of its own, without inserting them into
+     * the table, and return the numOfTuples that have been flushed
+     * @param accessor
+     * @param writer
+     * @param type
+     * @return
+     * @throws HyracksDataException
+     */
+    int flushWithoutGrouping(IFrameTupleAccessor accessor, IFrameWriter writer, AggregateType type)
+            throws HyracksDataException;
+
     /**
      * Get number of partitions
      */
@@ -43,7 +43,7 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
      * Use a random seed to avoid hash collision with the hash exchange operator.
      * See https://issues.apache.org/jira/browse/ASTERIXDB-2783 for more details.
      */
-    private static final int INIT_SEED = 573275022;
+    static final int INIT_SEED = 573275022;
 
     private static final Logger LOGGER = LogManager.getLogger();
     private final IHyracksTaskContext ctx;
@@ -58,6 +58,7 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
     private final RecordDescriptor outRecDesc;
     private final int tableSize;
     private final long fileSize;
+    private boolean streaming;
 
     public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
             int[] gbyFields, int[] fdFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
@@ -94,8 +95,25 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         this.fileSize = inputFileSize;
     }
 
+    /**
+     * @param streaming whether the groups are written downstream whenever the memory is full, rather than spilled and
+     *            merged, which is only correct if the output is aggregated again (e.g. the local step of a two-step
+     *            aggregation)
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
+        if (streaming) {
+            StreamingAggregateActivity streamingAct =
+                    new StreamingAggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
+            builder.addActivity(this, streamingAct);
+            builder.addSourceEdge(0, streamingAct, 0);
+            builder.addTargetEdge(0, streamingAct, 0);
+            return;
+        }
         AggregateActivity aggregateAct = new AggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
         MergeActivity mergeAct = new MergeActivity(new ActivityId(odId, MERGE_ACTIVITY_ID));
 
@@ -126,6 +144,24 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         }
     }
 
+    private class StreamingAggregateActivity extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public StreamingAggregateActivity(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            return new ExternalGroupStreamingOperatorNodePushable(ctx, tableSize, fileSize, gbyFields, fdFields,
+                    framesLimit, comparatorFactories, firstNormalizerFactory, partialAggregatorFactory,
+                    recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), outRecDescs[0],
+                    spillableTableFactory);
+        }
+    }
+
     private class MergeActivity extends AbstractActivityNode {
         private static final long serialVersionUID = 1L;
 
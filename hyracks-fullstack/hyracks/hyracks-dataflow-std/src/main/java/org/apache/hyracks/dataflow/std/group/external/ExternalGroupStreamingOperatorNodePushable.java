@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.AggregateType;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.structures.HashTableEntryClustering;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Hash group-by for the local step of a two-step aggregation. The global step merges the partial aggregates of a
+ * group anyway, so the local step does not need to produce each group once: when the table is full, all its groups
+ * are written downstream and the table is emptied, instead of spilling partitions to run files and reading them back.
+ * If the table holds almost as many groups as the tuples that were inserted into it, the aggregation does not pay off
+ * and the following tuples are written downstream right away, each as a group of its own.
+ */
+public class ExternalGroupStreamingOperatorNodePushable extends AbstractUnaryInputUnaryOutputOperatorNodePushable {
+    /**
+     * The maximum ratio of the groups written from a full table to the tuples inserted into it for which the tuples
+     * keep being grouped.
+     */
+    static final double MAX_GROUPS_PER_TUPLE = 0.8;
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final IHyracksTaskContext ctx;
+    private final int[] gbyFields;
+    private final int[] fdFields; // nullable
+    private final IBinaryComparator[] comparators;
+    private final INormalizedKeyComputerFactory firstNormalizerFactory;
+    private final IAggregatorDescriptorFactory aggregatorFactory;
+    private final int framesLimit;
+    private final ISpillableTableFactory spillableTableFactory;
+    private final RecordDescriptor inRecordDescriptor;
+    private final RecordDescriptor outRecordDescriptor;
+    private final int tableSize;
+    private final long fileSize;
+
+    private ISpillableTable table;
+    private FrameTupleAccessor accessor;
+    private long insertedTuples;
+    private boolean grouping;
+    private boolean isFailed;
+
+    public ExternalGroupStreamingOperatorNodePushable(IHyracksTaskContext ctx, int tableSize, long fileSize,
+            int[] gbyFields, int[] fdFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
+            RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor,
+            ISpillableTableFactory spillableTableFactory) throws HyracksDataException {
+        if (comparatorFactories.length != gbyFields.length) {
+            throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE, "mismatch in group by fields and comparators");
+        }
+        this.ctx = ctx;
+        this.framesLimit = framesLimit;
+        this.aggregatorFactory = aggregatorFactory;
+        this.gbyFields = gbyFields;
+        this.fdFields = fdFields;
+        this.comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        this.firstNormalizerFactory = firstNormalizerFactory;
+        this.spillableTableFactory = spillableTableFactory;
+        this.inRecordDescriptor = inRecordDescriptor;
+        this.outRecordDescriptor = outRecordDescriptor;
+        this.tableSize = tableSize;
+        this.fileSize = fileSize;
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        writer.open();
+        table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, gbyFields, fdFields, comparators,
+                firstNormalizerFactory == null ? null : firstNormalizerFactory.createNormalizedKeyComputer(),
+                aggregatorFactory, inRecordDescriptor, outRecordDescriptor, framesLimit,
+                ExternalGroupBuildOperatorNodePushable.INIT_SEED);
+        accessor = new FrameTupleAccessor(inRecordDescriptor);
+        insertedTuples = 0;
+        grouping = true;
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        accessor.reset(buffer);
+        if (!grouping) {
+            table.flushWithoutGrouping(accessor, writer, AggregateType.FINAL);
+            return;
+        }
+        int tupleCount = accessor.getTupleCount();
+        HashTableEntryClustering clustering = table.cluster(accessor);
+        for (int i = 0; i < tupleCount; i++) {
+            if (clustering == null) {
+                insert(i, -1);
+            } else {
+                insert(clustering.getTupleIndex(i), clustering.getEntry(i));
+            }
+        }
+        if (!grouping) {
+            // the groups of the rest of the frame are not kept for the next frames
+            table.flushAllFrames(writer, AggregateType.FINAL);
+        }
+    }
+
+    private void insert(int tIndex, int entry) throws HyracksDataException {
+        if (!insertIntoTable(tIndex, entry)) {
+            flushTable();
+            if (!insertIntoTable(tIndex, entry)) {
+                throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
+            }
+        }
+        insertedTuples++;
+    }
+
+    private boolean insertIntoTable(int tIndex, int entry) throws HyracksDataException {
+        // the entry of the tuple is only known if the tuples have been clustered
+        return entry < 0 ? table.insert(accessor, tIndex) : table.insert(accessor, tIndex, entry);
+    }
+
+    private void flushTable() throws HyracksDataException {
+        int groups = table.flushAllFrames(writer, AggregateType.FINAL);
+        if (groups > MAX_GROUPS_PER_TUPLE * insertedTuples) {
+            grouping = false;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("stopped grouping after " + groups + " groups out of " + insertedTuples + " tuples");
+            }
+        }
+        insertedTuples = 0;
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        isFailed = true;
+        writer.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (!isFailed && table != null) {
+                table.flushAllFrames(writer, AggregateType.FINAL);
+            }
+        } catch (Exception e) {
+            writer.fail();
+            throw e;
+        } finally {
+            try {
+                if (table != null) {
+                    table.close();
+                }
+            } finally {
+                table = null;
+                writer.close();
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.group.AggregateType;
 import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.structures.HashTableEntryClustering;
 
 public class ExternalHashGroupBy {
 
@@ -49,20 +50,34 @@ public class ExternalHashGroupBy {
     public void insert(ByteBuffer buffer) throws HyracksDataException {
         accessor.reset(buffer);
         int tupleCount = accessor.getTupleCount();
+        HashTableEntryClustering clustering = table.cluster(accessor);
         for (int i = 0; i < tupleCount; i++) {
-            if (!table.insert(accessor, i)) {
-                do {
-                    int partition = table.findVictimPartition(accessor, i);
-                    if (partition < 0) {
-                        throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
-                    }
-                    RunFileWriter writer = getPartitionWriterOrCreateOneIfNotExist(partition);
-                    flushPartitionToRun(partition, writer);
-                } while (!table.insert(accessor, i));
+            if (clustering == null) {
+                insert(i, -1);
+            } else {
+                insert(clustering.getTupleIndex(i), clustering.getEntry(i));
             }
         }
     }
 
+    private void insert(int tIndex, int entry) throws HyracksDataException {
+        if (!insertIntoTable(tIndex, entry)) {
+            do {
+                int partition = table.findVictimPartition(accessor, tIndex);
+                if (partition < 0) {
+                    throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
+                }
+                RunFileWriter writer = getPartitionWriterOrCreateOneIfNotExist(partition);
+                flushPartitionToRun(partition, writer);
+            } while (!insertIntoTable(tIndex, entry));
+        }
+    }
+
+    private boolean insertIntoTable(int tIndex, int entry) throws HyracksDataException {
+        // the entry of the tuple is only known if the tuples have been clustered
+        return entry < 0 ? table.insert(accessor, tIndex) : table.insert(accessor, tIndex, entry);
+    }
+
     private void flushPartitionToRun(int partition, RunFileWriter writer) throws HyracksDataException {
         try {
             spilledNumTuples[partition] += table.flushFrames(partition, writer, AggregateType.PARTIAL);
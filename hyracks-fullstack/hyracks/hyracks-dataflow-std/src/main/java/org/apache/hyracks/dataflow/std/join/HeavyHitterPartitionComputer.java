@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Sends the tuples of a heavy hitter (see {@link JoinHeavyHitters}) to the last partition and partitions the other
+ * tuples among the remaining partitions. Tuples of other keys whose hash collides with the hash of the heavy hitter
+ * also go to the last partition.
+ */
+public class HeavyHitterPartitionComputer implements ITuplePartitionComputer {
+    private final ITuplePartitionComputer partitioner;
+    private final ITuplePartitionComputer hash;
+    private final int heavyHitter;
+
+    public HeavyHitterPartitionComputer(ITuplePartitionComputer partitioner, ITuplePartitionComputer hash,
+            int heavyHitter) {
+        this.partitioner = partitioner;
+        this.hash = hash;
+        this.heavyHitter = heavyHitter;
+    }
+
+    @Override
+    public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException {
+        if (nParts == 1) {
+            return 0;
+        } else if (JoinHeavyHitters.hash(hash, accessor, tIndex) == heavyHitter) {
+            return nParts - 1;
+        }
+        return partitioner.partition(accessor, tIndex, nParts - 1);
+    }
+}
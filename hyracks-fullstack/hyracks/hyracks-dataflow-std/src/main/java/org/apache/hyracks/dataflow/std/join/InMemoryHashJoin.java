@@ -39,6 +39,7 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.TupleInFrameListAccessor;
+import org.apache.hyracks.dataflow.std.structures.HashTableEntryClustering;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.logging.log4j.LogManager;
@@ -62,6 +63,12 @@ public class InMemoryHashJoin {
     // To release frames
     private final ISimpleFrameBufferManager bufferManager;
     private final boolean isTableCapacityNotZero;
+    // orders the tuples of a frame by their hash table entries, null if not used
+    private HashTableEntryClustering clustering;
+    // the hash values of the tuples of the current frame
+    private int[] hashes = new int[0];
+    // the build tuples that the probe tuples of a batch are compared to, see joinBatch()
+    private final ProbeBatch batch = new ProbeBatch();
 
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -116,23 +123,65 @@ public class InMemoryHashJoin {
         }
         buffers.add(buffer);
         int bIndex = buffers.size() - 1;
-        for (int i = 0; i < tCount; ++i) {
-            int entry = tpcBuild.partition(accessorBuild, i, table.getTableSize());
-            storedTuplePointer.reset(bIndex, i);
-            // If an insertion fails, then tries to insert the same tuple pointer again after compacting the table.
-            if (!table.insert(entry, storedTuplePointer)) {
-                if (!compactTableAndInsertAgain(entry, storedTuplePointer)) {
-                    throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE,
-                            "Record insertion failed in in-memory hash join even after compaction.");
-                }
+        computeHashes(accessorBuild, tpcBuild, tCount);
+        if (isClusteringBeneficial()) {
+            clustering.reset(table.getTableSize(), tCount);
+            for (int i = 0; i < tCount; ++i) {
+                clustering.add(getEntry(hashes[i]));
+            }
+            clustering.cluster();
+            for (int i = 0; i < tCount; ++i) {
+                int tIndex = clustering.getTupleIndex(i);
+                insert(clustering.getEntry(i), hashes[tIndex], bIndex, tIndex);
+            }
+        } else {
+            for (int i = 0; i < tCount; ++i) {
+                insert(getEntry(hashes[i]), hashes[i], bIndex, i);
+            }
+        }
+    }
+
+    private void computeHashes(IFrameTupleAccessor accessor, ITuplePartitionComputer tpc, int tupleCount)
+            throws HyracksDataException {
+        if (hashes.length < tupleCount) {
+            hashes = new int[Math.max(tupleCount, 2 * hashes.length)];
+        }
+        for (int i = 0; i < tupleCount; ++i) {
+            hashes[i] = tpc.partition(accessor, i, ISerializableTable.HASH_RANGE);
+        }
+    }
+
+    private int getEntry(int hash) {
+        return ISerializableTable.getEntry(hash, table.getTableSize());
+    }
+
+    private void insert(int entry, int hash, int bIndex, int tIndex) throws HyracksDataException {
+        storedTuplePointer.reset(bIndex, tIndex);
+        // If an insertion fails, then tries to insert the same tuple pointer again after compacting the table.
+        if (!table.insert(entry, hash, storedTuplePointer)) {
+            if (!compactTableAndInsertAgain(entry, hash, storedTuplePointer)) {
+                throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE,
+                        "Record insertion failed in in-memory hash join even after compaction.");
             }
         }
     }
 
-    public boolean compactTableAndInsertAgain(int entry, TuplePointer tPointer) throws HyracksDataException {
+    /**
+     * Sets whether the tuples of a frame are clustered by their hash table entries before they are inserted into or
+     * looked up in the hash table. The clustering is only applied once the table does not fit in the CPU caches.
+     */
+    void setRadixClustering(boolean radixClustering) {
+        clustering = radixClustering ? new HashTableEntryClustering() : null;
+    }
+
+    private boolean isClusteringBeneficial() {
+        return clustering != null && isTableCapacityNotZero && HashTableEntryClustering.isBeneficial(table);
+    }
+
+    public boolean compactTableAndInsertAgain(int entry, int hash, TuplePointer tPointer) throws HyracksDataException {
         boolean oneMoreTry = false;
         if (compactHashTable() >= 0) {
-            oneMoreTry = table.insert(entry, tPointer);
+            oneMoreTry = table.insert(entry, hash, tPointer);
         }
         return oneMoreTry;
     }
@@ -163,12 +212,16 @@ public class InMemoryHashJoin {
      * This method assumes that the accessorProbe is already set to the current probe frame.
      */
     void join(int tid, IFrameWriter writer) throws HyracksDataException {
+        int hash = isTableCapacityNotZero ? tpcProbe.partition(accessorProbe, tid, ISerializableTable.HASH_RANGE) : -1;
+        join(tid, isTableCapacityNotZero ? getEntry(hash) : -1, hash, writer);
+    }
+
+    private void join(int tid, int entry, int hash, IFrameWriter writer) throws HyracksDataException {
         boolean matchFound = false;
         if (isTableCapacityNotZero) {
-            int entry = tpcProbe.partition(accessorProbe, tid, table.getTableSize());
-            int tupleCount = table.getTupleCount(entry);
+            int tupleCount = table.getTupleCount(entry, hash);
             for (int i = 0; i < tupleCount; i++) {
-                table.getTuplePointer(entry, i, storedTuplePointer);
+                table.getTuplePointer(entry, hash, i, storedTuplePointer);
                 int bIndex = storedTuplePointer.getFrameIndex();
                 int tIndex = storedTuplePointer.getTupleIndex();
                 accessorBuild.reset(buffers.get(bIndex));
@@ -180,18 +233,84 @@ public class InMemoryHashJoin {
             }
         }
         if (!matchFound && isLeftOuter) {
-            FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, tid,
-                    missingTupleBuild.getFieldEndOffsets(), missingTupleBuild.getByteArray(), 0,
-                    missingTupleBuild.getSize());
+            appendMissing(tid, writer);
         }
     }
 
+    private void appendMissing(int tid, IFrameWriter writer) throws HyracksDataException {
+        FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, tid, missingTupleBuild.getFieldEndOffsets(),
+                missingTupleBuild.getByteArray(), 0, missingTupleBuild.getSize());
+    }
+
+    /**
+     * Joins the tuples of the frame in batches: the hash values of all the tuples are computed first, then the table
+     * is read for the tuples of a batch, and only then are the probe tuples compared to the build tuples of their
+     * entries. This way, the reads of the hash table, of the build frames and of the probe frame are not interleaved.
+     */
     public void join(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
         accessorProbe.reset(buffer);
         int tupleCount0 = accessorProbe.getTupleCount();
-        for (int i = 0; i < tupleCount0; ++i) {
-            join(i, writer);
+        if (!isTableCapacityNotZero) {
+            for (int i = 0; i < tupleCount0; ++i) {
+                join(i, writer);
+            }
+            return;
         }
+        computeHashes(accessorProbe, tpcProbe, tupleCount0);
+        batch.reset(tupleCount0);
+        if (isClusteringBeneficial()) {
+            clustering.reset(table.getTableSize(), tupleCount0);
+            for (int i = 0; i < tupleCount0; ++i) {
+                clustering.add(getEntry(hashes[i]));
+            }
+            clustering.cluster();
+            for (int i = 0; i < tupleCount0; ++i) {
+                int tid = clustering.getTupleIndex(i);
+                addToBatch(tid, clustering.getEntry(i), hashes[tid], writer);
+            }
+        } else {
+            for (int i = 0; i < tupleCount0; ++i) {
+                addToBatch(i, getEntry(hashes[i]), hashes[i], writer);
+            }
+        }
+        joinBatch(writer);
+    }
+
+    private void addToBatch(int tid, int entry, int hash, IFrameWriter writer) throws HyracksDataException {
+        int tupleCount = table.getTupleCount(entry, hash);
+        if (!batch.hasRoom(tupleCount)) {
+            joinBatch(writer);
+            if (!batch.hasRoom(tupleCount)) {
+                // too many build tuples to batch them
+                join(tid, entry, hash, writer);
+                return;
+            }
+        }
+        for (int i = 0; i < tupleCount; i++) {
+            table.getTuplePointer(entry, hash, i, storedTuplePointer);
+            batch.addBuildTuple(storedTuplePointer);
+        }
+        batch.endProbeTuple(tid);
+    }
+
+    private void joinBatch(IFrameWriter writer) throws HyracksDataException {
+        int buildTuple = 0;
+        for (int i = 0; i < batch.probeTupleCount; i++) {
+            int tid = batch.probeTuples[i];
+            boolean matchFound = false;
+            for (; buildTuple < batch.buildTupleEnds[i]; buildTuple++) {
+                int tIndex = batch.buildTuples[2 * buildTuple + 1];
+                accessorBuild.reset(buffers.get(batch.buildTuples[2 * buildTuple]));
+                if (tpComparator.compare(accessorProbe, tid, accessorBuild, tIndex) == 0) {
+                    matchFound = true;
+                    appendToResult(tid, tIndex, writer);
+                }
+            }
+            if (!matchFound && isLeftOuter) {
+                appendMissing(tid, writer);
+            }
+        }
+        batch.clear();
     }
 
     public void resetAccessorProbe(IFrameTupleAccessor newAccessorProbe) {
@@ -228,4 +347,46 @@ public class InMemoryHashJoin {
             FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, probeSidetIx, accessorBuild, buildSidetIx);
         }
     }
+
+    /**
+     * The probe tuples of a batch, in their order, with the build tuples that the table returned for them.
+     */
+    private static class ProbeBatch {
+        private static final int MAX_BUILD_TUPLES = 1024;
+
+        private final int[] buildTuples = new int[2 * MAX_BUILD_TUPLES];
+        private int buildTupleCount;
+        private int[] probeTuples = new int[0];
+        private int[] buildTupleEnds = new int[0];
+        private int probeTupleCount;
+
+        private void reset(int maxProbeTupleCount) {
+            if (probeTuples.length < maxProbeTupleCount) {
+                probeTuples = new int[maxProbeTupleCount];
+                buildTupleEnds = new int[maxProbeTupleCount];
+            }
+            clear();
+        }
+
+        private void clear() {
+            buildTupleCount = 0;
+            probeTupleCount = 0;
+        }
+
+        private boolean hasRoom(int tupleCount) {
+            return buildTupleCount + tupleCount <= MAX_BUILD_TUPLES;
+        }
+
+        private void addBuildTuple(TuplePointer pointer) {
+            buildTuples[2 * buildTupleCount] = pointer.getFrameIndex();
+            buildTuples[2 * buildTupleCount + 1] = pointer.getTupleIndex();
+            buildTupleCount++;
+        }
+
+        private void endProbeTuple(int tid) {
+            probeTuples[probeTupleCount] = tid;
+            buildTupleEnds[probeTupleCount] = buildTupleCount;
+            probeTupleCount++;
+        }
+    }
 }
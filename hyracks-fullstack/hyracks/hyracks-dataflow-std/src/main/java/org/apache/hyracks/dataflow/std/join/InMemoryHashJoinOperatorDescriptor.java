@@ -52,7 +52,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferM
 import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTableType;
 
 public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescriptor {
     private static final long serialVersionUID = 1L;
@@ -66,6 +66,8 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
     private final int tableSize;
     // The maximum number of in-memory frames that this hash join can use.
     private final int memSizeInFrames;
+    private SerializableHashTableType tableType = SerializableHashTableType.CHAINED;
+    private boolean radixClustering = false;
 
     public InMemoryHashJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] keys0, int[] keys1,
             IBinaryHashFunctionFactory[] hashFunctionFactories0, IBinaryHashFunctionFactory[] hashFunctionFactories1,
@@ -92,6 +94,21 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
         this.memSizeInFrames = memSizeInFrames;
     }
 
+    /**
+     * Sets the implementation of the hash table that is built over the build side.
+     */
+    public void setHashTableType(SerializableHashTableType tableType) {
+        this.tableType = tableType;
+    }
+
+    /**
+     * Sets whether the tuples of a frame are clustered by their hash table entries before they access a hash table
+     * that does not fit in the CPU caches.
+     */
+    public void setRadixClustering(boolean radixClustering) {
+        this.radixClustering = radixClustering;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId hbaId = new ActivityId(odId, 0);
@@ -169,9 +186,10 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
                     ITuplePartitionComputer hpc1 =
                             new FieldHashPartitionComputerFactory(keys1, hashFunctionFactories1).createPartitioner(ctx);
                     state = new HashBuildTaskState(jobletCtx.getJobId(), new TaskId(getActivityId(), partition));
-                    ISerializableTable table = new SerializableHashTable(tableSize, jobletCtx, bufferManager);
+                    ISerializableTable table = tableType.create(tableSize, jobletCtx, bufferManager);
                     state.joiner = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(rd0), hpc0,
                             new FrameTupleAccessor(rd1), rd1, hpc1, isLeftOuter, nullWriters1, table, bufferManager);
+                    state.joiner.setRadixClustering(radixClustering);
                 }
 
                 @Override
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFamily;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A Bloom filter over the join keys of the build side of a hash join. Probe tuples whose keys are not in the filter
+ * cannot have a match and can be dropped before they are written to a spilled probe partition.
+ * {@link OptimizedHybridHashJoin} applies the filter to the probe tuples of spilled partitions. Once the build phase
+ * of a partition is complete, the filter can also be published through {@link JoinBloomFilters} to a filter below
+ * the probe-side exchange, which drops the probe tuples before they are sent to the join.
+ * The bit positions are derived from two independent hashes of the keys (double hashing). The build and the probe
+ * keys are hashed with partitioners of their own key fields using the same seeds, so equal keys set and test the
+ * same bits.
+ */
+public class JoinBloomFilter {
+    // the filter takes up 1/MEMORY_FRACTION of the join memory
+    private static final int MEMORY_FRACTION = 32;
+    private static final int NUM_HASHES = 3;
+    private static final int FIRST_SEED = 0x5bd1e995;
+    private static final int SECOND_SEED = 0x27d4eb2f;
+
+    private final ITuplePartitionComputer[] buildHashes;
+    private final ITuplePartitionComputer[] probeHashes;
+    private final long[] bits;
+    private final long numBits;
+    private long numAdded;
+
+    public JoinBloomFilter(ITuplePartitionComputerFamily buildHpcf, ITuplePartitionComputerFamily probeHpcf,
+            int sizeInBytes) {
+        buildHashes = createHashes(buildHpcf);
+        probeHashes = createHashes(probeHpcf);
+        bits = new long[Math.max(1, sizeInBytes / Long.BYTES)];
+        numBits = (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * @return the hashes of the keys of the given partitioner family that the filter is set and tested with
+     */
+    public static ITuplePartitionComputer[] createHashes(ITuplePartitionComputerFamily hpcf) {
+        return new ITuplePartitionComputer[] { hpcf.createPartitioner(FIRST_SEED),
+                hpcf.createPartitioner(SECOND_SEED) };
+    }
+
+    /**
+     * @return the number of frames of the join memory that should be given to the filter, 0 if the join memory is too
+     *         small for a filter
+     */
+    public static int getFrameCount(int memSizeInFrames) {
+        return memSizeInFrames / MEMORY_FRACTION;
+    }
+
+    public void add(IFrameTupleAccessor buildAccessor, int tIndex) throws HyracksDataException {
+        long hash = hash(buildHashes, buildAccessor, tIndex);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long bit = bitIndex(hash, i);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        numAdded++;
+    }
+
+    public boolean mightContain(IFrameTupleAccessor probeAccessor, int tIndex) throws HyracksDataException {
+        return mightContain(probeHashes, probeAccessor, tIndex);
+    }
+
+    /**
+     * Tests the keys of a tuple that has another layout than the probe tuples of the join, hashed with the hashes
+     * created by {@link #createHashes(ITuplePartitionComputerFamily)} for its key fields.
+     */
+    public boolean mightContain(ITuplePartitionComputer[] keyHashes, IFrameTupleAccessor accessor, int tIndex)
+            throws HyracksDataException {
+        long hash = hash(keyHashes, accessor, tIndex);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            long bit = bitIndex(hash, i);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the expected false positive rate of the filter for the keys that have been added so far
+     */
+    public double getFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) NUM_HASHES * numAdded / numBits), NUM_HASHES);
+    }
+
+    private long bitIndex(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return ((h1 + (long) i * h2) & Long.MAX_VALUE) % numBits;
+    }
+
+    private static long hash(ITuplePartitionComputer[] hashes, IFrameTupleAccessor accessor, int tIndex)
+            throws HyracksDataException {
+        long h1 = hashes[0].partition(accessor, tIndex, Integer.MAX_VALUE);
+        long h2 = hashes[1].partition(accessor, tIndex, Integer.MAX_VALUE);
+        // the key hashes might be correlated with the hash used for partitioning the join, mix them
+        return mix((h1 << 32) | h2);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
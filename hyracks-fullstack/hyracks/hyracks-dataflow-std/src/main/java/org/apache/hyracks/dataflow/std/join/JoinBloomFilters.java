@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+
+/**
+ * The Bloom filters of the partitions of a hash join that run on a node, published by their build phases to the
+ * operators that produce the probe side of the join. A probe tuple that is sent to a partition whose filter does not
+ * contain its keys cannot have a match in an inner join and can be dropped before it is sent. The filter of a
+ * partition is only published once its build phase is complete, and the filters of the partitions that run on other
+ * nodes are never known, so a probe tuple passes unless a complete filter of its partition rules it out.
+ */
+public class JoinBloomFilters extends AbstractStateObject {
+
+    private volatile AtomicReferenceArray<JoinBloomFilter> filters;
+
+    private JoinBloomFilters(IHyracksTaskContext ctx, int filterId) {
+        super(ctx.getJobletContext().getJobId(), new FilterId(filterId));
+    }
+
+    /**
+     * @return the filters with the given id of the job of the task, created if they do not exist yet
+     */
+    public static JoinBloomFilters get(IHyracksTaskContext ctx, int filterId) {
+        FilterId id = new FilterId(filterId);
+        synchronized (ctx.getJobletContext()) {
+            JoinBloomFilters joinFilters = (JoinBloomFilters) ctx.getStateObject(id);
+            if (joinFilters == null) {
+                joinFilters = new JoinBloomFilters(ctx, filterId);
+                ctx.setStateObject(joinFilters);
+            }
+            return joinFilters;
+        }
+    }
+
+    /**
+     * Publishes the filter of a partition of the join, which must contain the keys of all the build tuples of the
+     * partition.
+     */
+    public synchronized void publish(int partition, int nPartitions, JoinBloomFilter filter) {
+        if (filters == null) {
+            filters = new AtomicReferenceArray<>(nPartitions);
+        }
+        filters.set(partition, filter);
+    }
+
+    /**
+     * Withdraws the filter of a partition once its probe phase is over.
+     */
+    public void remove(int partition) {
+        AtomicReferenceArray<JoinBloomFilter> current = filters;
+        if (current != null) {
+            current.set(partition, null);
+        }
+    }
+
+    /**
+     * @return the number of partitions of the join, 0 if no filter has been published yet
+     */
+    public int getPartitionCount() {
+        AtomicReferenceArray<JoinBloomFilter> current = filters;
+        return current == null ? 0 : current.length();
+    }
+
+    /**
+     * @return the filter of the partition or null if it is not published on this node
+     */
+    public JoinBloomFilter getFilter(int partition) {
+        return filters.get(partition);
+    }
+
+    private static class FilterId {
+        private final int id;
+
+        private FilterId(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FilterId && ((FilterId) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(id);
+        }
+
+        @Override
+        public String toString() {
+            return "JoinBloomFilters:" + id;
+        }
+    }
+}
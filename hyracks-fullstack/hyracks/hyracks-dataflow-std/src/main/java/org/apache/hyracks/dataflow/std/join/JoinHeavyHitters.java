@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFamily;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Finds the heavy hitters of the partitions of the build side of a hybrid hash join, i.e. the join keys that make up
+ * most of the tuples of a partition. Repartitioning cannot split the tuples of a single key, so a spilled partition
+ * that is dominated by one key does not get smaller when hybrid hash join is applied to it recursively.
+ * The keys are tracked by their hashes: a sample of the build tuples is fed to a Misra-Gries summary with a few
+ * counters per partition. The counter of a key is a lower bound of its number of occurrences in the sample.
+ */
+public class JoinHeavyHitters {
+    public static final int NONE = -1;
+    // a key is a heavy hitter if it is (at least) this fraction of the sampled tuples of its partition
+    private static final double HEAVY_HITTER_FRACTION = 0.5;
+    private static final int SAMPLE_INTERVAL = 4;
+    private static final int MIN_SAMPLE_SIZE = 32;
+    private static final int NUM_COUNTERS = 4;
+    private static final int SEED = 0x7f4a7c15;
+
+    private final ITuplePartitionComputer hash;
+    private final int[] keyHashes;
+    private final int[] counts;
+    private final int[] sampleSizes;
+    private long tupleCount;
+
+    public JoinHeavyHitters(ITuplePartitionComputerFamily buildHpcf, int numOfPartitions) {
+        hash = createHash(buildHpcf);
+        keyHashes = new int[numOfPartitions * NUM_COUNTERS];
+        counts = new int[numOfPartitions * NUM_COUNTERS];
+        sampleSizes = new int[numOfPartitions];
+    }
+
+    /**
+     * @return the hash function of the keys that are tracked. The build and the probe keys are hashed with the same
+     *         seed, so equal keys get equal hashes.
+     */
+    public static ITuplePartitionComputer createHash(ITuplePartitionComputerFamily hpcf) {
+        return hpcf.createPartitioner(SEED);
+    }
+
+    public static int hash(ITuplePartitionComputer hash, IFrameTupleAccessor accessor, int tIndex)
+            throws HyracksDataException {
+        return hash.partition(accessor, tIndex, Integer.MAX_VALUE);
+    }
+
+    public void add(IFrameTupleAccessor buildAccessor, int tIndex, int pid) throws HyracksDataException {
+        if (tupleCount++ % SAMPLE_INTERVAL != 0) {
+            return;
+        }
+        int keyHash = hash(hash, buildAccessor, tIndex);
+        sampleSizes[pid]++;
+        int start = pid * NUM_COUNTERS;
+        int free = -1;
+        for (int i = start; i < start + NUM_COUNTERS; i++) {
+            if (counts[i] > 0 && keyHashes[i] == keyHash) {
+                counts[i]++;
+                return;
+            } else if (counts[i] == 0 && free < 0) {
+                free = i;
+            }
+        }
+        if (free >= 0) {
+            keyHashes[free] = keyHash;
+            counts[free] = 1;
+        } else {
+            for (int i = start; i < start + NUM_COUNTERS; i++) {
+                counts[i]--;
+            }
+        }
+    }
+
+    /**
+     * @return the hash of the heavy hitter of the partition, {@link #NONE} if the partition does not have one
+     */
+    public int getHeavyHitter(int pid) {
+        int i = getMaxCounter(pid);
+        return counts[i] >= HEAVY_HITTER_FRACTION * sampleSizes[pid] && sampleSizes[pid] >= MIN_SAMPLE_SIZE
+                ? keyHashes[i] : NONE;
+    }
+
+    private int getMaxCounter(int pid) {
+        int max = pid * NUM_COUNTERS;
+        for (int i = max + 1; i < (pid + 1) * NUM_COUNTERS; i++) {
+            if (counts[i] > counts[max]) {
+                max = i;
+            }
+        }
+        return max;
+    }
+}
@@ -48,6 +48,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedF
 import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTableType;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 
 /**
@@ -77,6 +78,7 @@ public class OptimizedHybridHashJoin {
     private final int numOfPartitions;
     private final int memSizeInFrames;
     private InMemoryHashJoin inMemJoiner; //Used for joining resident partitions
+    private IDeallocatableFramePool framePool;
     private IPartitionedTupleBufferManager bufferManager;
     private PreferToSpillFullyOccupiedFramePolicy spillPolicy;
     private final FrameTupleAccessor accessorBuild;
@@ -91,6 +93,13 @@ public class OptimizedHybridHashJoin {
     // corresponding function signature.
     private final TuplePointer tempPtr = new TuplePointer();
     private int[] probePSizeInTups;
+    // filters the probe tuples of spilled partitions by the keys of the build side, null if not used
+    private JoinBloomFilter bloomFilter;
+    private SerializableHashTableType tableType = SerializableHashTableType.CHAINED;
+    private boolean radixClustering;
+    private int bloomFilteredProbeTups;
+    // samples the keys of the build partitions to find the keys that dominate them, null if not used
+    private JoinHeavyHitters heavyHitters;
 
     public OptimizedHybridHashJoin(IHyracksJobletContext jobletCtx, int memSizeInFrames, int numOfPartitions,
             String probeRelName, String buildRelName, RecordDescriptor probeRd, RecordDescriptor buildRd,
@@ -126,8 +135,8 @@ public class OptimizedHybridHashJoin {
     }
 
     public void initBuild() throws HyracksDataException {
-        IDeallocatableFramePool framePool =
-                new DeallocatableFramePool(jobletCtx, memSizeInFrames * jobletCtx.getInitialFrameSize());
+        framePool = new DeallocatableFramePool(jobletCtx, memSizeInFrames * jobletCtx.getInitialFrameSize(),
+                jobletCtx.getMemoryBroker());
         bufferManagerForHashTable = new FramePoolBackedFrameBufferManager(framePool);
         bufferManager = new VPartitionTupleBufferManager(
                 PreferToSpillFullyOccupiedFramePolicy.createAtMostOneFrameForSpilledPartitionConstrain(spilledStatus),
@@ -142,7 +151,13 @@ public class OptimizedHybridHashJoin {
         int tupleCount = accessorBuild.getTupleCount();
         for (int i = 0; i < tupleCount; ++i) {
             if (buildPredEval == null || buildPredEval.evaluate(accessorBuild, i)) {
+                if (bloomFilter != null) {
+                    bloomFilter.add(accessorBuild, i);
+                }
                 int pid = buildHpc.partition(accessorBuild, i, numOfPartitions);
+                if (heavyHitters != null) {
+                    heavyHitters.add(accessorBuild, i, pid);
+                }
                 processTupleBuildPhase(i, pid);
                 buildPSizeInTups[pid]++;
             }
@@ -152,6 +167,10 @@ public class OptimizedHybridHashJoin {
     private void processTupleBuildPhase(int tid, int pid) throws HyracksDataException {
         // insertTuple prevents the tuple to acquire a number of frames that is > the frame limit
         while (!bufferManager.insertTuple(pid, accessorBuild, tid, tempPtr)) {
+            if (!spilledStatus.get(pid) && framePool.borrow() > 0) {
+                // the node lent more memory, no partition has to be spilled (yet)
+                continue;
+            }
             int recordSize = VPartitionTupleBufferManager.calculateActualSize(null, accessorBuild.getTupleLength(tid));
             double numFrames = (double) recordSize / (double) jobletCtx.getInitialFrameSize();
             int victimPartition;
@@ -178,6 +197,7 @@ public class OptimizedHybridHashJoin {
                 return;
             }
             spillPartition(victimPartition);
+            framePool.giveBackIfReclaimed();
         }
     }
 
@@ -215,11 +235,16 @@ public class OptimizedHybridHashJoin {
         // during this step in order to make the space.)
         // and tries to bring back as many spilled partitions as possible if there is free space.
         int inMemTupCount = makeSpaceForHashTableAndBringBackSpilledPartitions();
+        if (isBuildRelAllInMemory()) {
+            // the filter is only applied to the probe tuples of spilled partitions
+            bloomFilter = null;
+        }
 
-        ISerializableTable table = new SerializableHashTable(inMemTupCount, jobletCtx, bufferManagerForHashTable);
+        ISerializableTable table = tableType.create(inMemTupCount, jobletCtx, bufferManagerForHashTable);
         this.inMemJoiner = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(probeRd), probeHpc,
                 new FrameTupleAccessor(buildRd), buildRd, buildHpc, isLeftOuter, nonMatchWriters, table, isReversed,
                 bufferManagerForHashTable);
+        inMemJoiner.setRadixClustering(radixClustering);
 
         buildHashTable();
     }
@@ -286,7 +311,7 @@ public class OptimizedHybridHashJoin {
      */
     private int makeSpaceForHashTableAndBringBackSpilledPartitions() throws HyracksDataException {
         int frameSize = jobletCtx.getInitialFrameSize();
-        long freeSpace = (long) (memSizeInFrames - spilledStatus.cardinality()) * frameSize;
+        long freeSpace = framePool.getMemoryBudgetBytes() - (long) spilledStatus.cardinality() * frameSize;
 
         int inMemTupCount = 0;
         for (int p = spilledStatus.nextClearBit(0); p >= 0 && p < numOfPartitions; p =
@@ -306,6 +331,11 @@ public class OptimizedHybridHashJoin {
         int currentInMemTupCount = inMemTupCount;
         // Spill some partitions if there is no free space.
         while (currentFreeSpace < 0) {
+            int borrowed = framePool.borrow();
+            if (borrowed > 0) {
+                currentFreeSpace += borrowed;
+                continue;
+            }
             pidToSpill = selectSinglePartitionToSpill(currentFreeSpace, currentInMemTupCount, frameSize);
             if (pidToSpill >= 0) {
                 numberOfTuplesToBeSpilled = buildPSizeInTups[pidToSpill];
@@ -356,7 +386,7 @@ public class OptimizedHybridHashJoin {
      */
     private int selectSinglePartitionToSpill(long currentFreeSpace, int currentInMemTupCount, int frameSize) {
         long spaceAfterSpill;
-        long minSpaceAfterSpill = (long) memSizeInFrames * frameSize;
+        long minSpaceAfterSpill = framePool.getMemoryBudgetBytes();
         int minSpaceAfterSpillPartID = -1;
         int nextAvailablePidToSpill = -1;
         for (int p = spilledStatus.nextClearBit(0); p >= 0 && p < numOfPartitions; p =
@@ -475,7 +505,9 @@ public class OptimizedHybridHashJoin {
         accessorProbe.reset(buffer);
         int tupleCount = accessorProbe.getTupleCount();
         inMemJoiner.resetAccessorProbe(accessorProbe);
-        if (isBuildRelAllInMemory()) {
+        if (isBuildRelAllInMemory() && probePredEval == null) {
+            inMemJoiner.join(buffer, writer);
+        } else if (isBuildRelAllInMemory()) {
             for (int i = 0; i < tupleCount; ++i) {
                 // NOTE: probePredEval is guaranteed to be 'null' for outer join and in case of role reversal
                 if (probePredEval == null || probePredEval.evaluate(accessorProbe, i)) {
@@ -489,6 +521,11 @@ public class OptimizedHybridHashJoin {
                     int pid = probeHpc.partition(accessorProbe, i, numOfPartitions);
                     if (buildPSizeInTups[pid] > 0 || isLeftOuter) { //Tuple has potential match from previous phase
                         if (spilledStatus.get(pid)) { //pid is Spilled
+                            if (bloomFilter != null && !bloomFilter.mightContain(accessorProbe, i)) {
+                                // the tuple has no match and does not need to be spilled
+                                bloomFilteredProbeTups++;
+                                continue;
+                            }
                             processTupleProbePhase(i, pid);
                         } else { //pid is Resident
                             inMemJoiner.join(i, writer);
@@ -557,10 +594,12 @@ public class OptimizedHybridHashJoin {
     }
 
     public void releaseResource() throws HyracksDataException {
+        bloomFilter = null;
         inMemJoiner.closeTable();
         closeAllSpilledPartitions(probeRFWriters, probeRelName);
         bufferManager.close();
         inMemJoiner = null;
+        framePool = null;
         bufferManager = null;
         bufferManagerForHashTable = null;
     }
@@ -599,6 +638,52 @@ public class OptimizedHybridHashJoin {
         return max;
     }
 
+    /**
+     * Sets the Bloom filter that is built over the keys of the build side and drops the probe tuples of spilled
+     * partitions that cannot have a match. Must be called before {@link #initBuild()}. Since non-matching probe tuples
+     * are dropped, the filter cannot be used for outer joins.
+     */
+    public void setBloomFilter(JoinBloomFilter bloomFilter) {
+        if (isLeftOuter && bloomFilter != null) {
+            throw new IllegalStateException();
+        }
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Sets the implementation of the hash table that is built over the memory-resident build partitions. Must be
+     * called before {@link #closeBuild()}.
+     */
+    public void setHashTableType(SerializableHashTableType tableType) {
+        this.tableType = tableType;
+    }
+
+    /**
+     * Sets whether the memory-resident build and probe tuples are clustered by their hash table entries. Must be
+     * called before {@link #closeBuild()}.
+     */
+    public void setRadixClustering(boolean radixClustering) {
+        this.radixClustering = radixClustering;
+    }
+
+    /**
+     * Sets the sketch that finds the heavy hitters of the build partitions. Must be called before {@link #build}.
+     */
+    public void setHeavyHitters(JoinHeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * @return the hash of the heavy hitter of the build partition, {@link JoinHeavyHitters#NONE} if it has none
+     */
+    public int getHeavyHitter(int pid) {
+        return heavyHitters == null ? JoinHeavyHitters.NONE : heavyHitters.getHeavyHitter(pid);
+    }
+
+    public int getBloomFilteredProbeTupleCount() {
+        return bloomFilteredProbeTups;
+    }
+
     public BitSet getPartitionStatus() {
         return spilledStatus;
     }
@@ -41,6 +41,7 @@ import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
 import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
 import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFamily;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
@@ -62,6 +63,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTableType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -142,6 +144,10 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
     private boolean forceNLJ = false;
     private boolean forceRoleReversal = false;
 
+    private SerializableHashTableType tableType = SerializableHashTableType.CHAINED;
+    private boolean radixClustering = false;
+    private int bloomFilterId = -1;
+
     private static final Logger LOGGER = LogManager.getLogger();
 
     public OptimizedHybridHashJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSizeInFrames,
@@ -181,6 +187,30 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 predEvalFactory0, predEvalFactory1, false, null);
     }
 
+    /**
+     * Sets the implementation of the hash tables that are built over the build side.
+     */
+    public void setHashTableType(SerializableHashTableType tableType) {
+        this.tableType = tableType;
+    }
+
+    /**
+     * Sets whether the tuples of a frame are clustered by their hash table entries before they access a hash table
+     * that does not fit in the CPU caches.
+     */
+    public void setRadixClustering(boolean radixClustering) {
+        this.radixClustering = radixClustering;
+    }
+
+    /**
+     * Publishes the Bloom filter of each partition to the {@link JoinBloomFilters} with the given id once its build
+     * phase is complete, so that the probe tuples without a match can be dropped before they are sent to the join.
+     * Only used by inner joins.
+     */
+    public void setBloomFilterId(int bloomFilterId) {
+        this.bloomFilterId = bloomFilterId;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId buildAid = new ActivityId(odId, BUILD_AND_PARTITION_ACTIVITY_ID);
@@ -281,12 +311,13 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 private BuildAndPartitionTaskState state = new BuildAndPartitionTaskState(
                         ctx.getJobletContext().getJobId(), new TaskId(getActivityId(), partition));
 
-                ITuplePartitionComputer probeHpc =
-                        new FieldHashPartitionComputerFamily(probeKeys, propHashFunctionFactories)
-                                .createPartitioner(INIT_SEED);
-                ITuplePartitionComputer buildHpc =
-                        new FieldHashPartitionComputerFamily(buildKeys, buildHashFunctionFactories)
-                                .createPartitioner(INIT_SEED);
+                ITuplePartitionComputerFamily probeHpcf =
+                        new FieldHashPartitionComputerFamily(probeKeys, propHashFunctionFactories);
+                ITuplePartitionComputerFamily buildHpcf =
+                        new FieldHashPartitionComputerFamily(buildKeys, buildHashFunctionFactories);
+                ITuplePartitionComputer probeHpc = probeHpcf.createPartitioner(INIT_SEED);
+                ITuplePartitionComputer buildHpc = buildHpcf.createPartitioner(INIT_SEED);
+                JoinBloomFilter bloomFilter;
                 boolean failed = false;
 
                 @Override
@@ -295,11 +326,22 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                         throw new HyracksDataException("Not enough memory is assigend for Hybrid Hash Join.");
                     }
                     state.memForJoin = memSizeInFrames - 2;
-                    state.numOfPartitions =
-                            getNumberOfPartitions(state.memForJoin, inputsize0, fudgeFactor, nPartitions);
-                    state.hybridHJ = new OptimizedHybridHashJoin(ctx.getJobletContext(), state.memForJoin,
+                    // the Bloom filter drops the probe tuples without a match before they are spilled, its memory is
+                    // given back to the joins of the spilled partitions
+                    int bloomFilterFrames = isLeftOuter ? 0 : JoinBloomFilter.getFrameCount(state.memForJoin);
+                    int memForBuild = state.memForJoin - bloomFilterFrames;
+                    state.numOfPartitions = getNumberOfPartitions(memForBuild, inputsize0, fudgeFactor, nPartitions);
+                    state.hybridHJ = new OptimizedHybridHashJoin(ctx.getJobletContext(), memForBuild,
                             state.numOfPartitions, PROBE_REL, BUILD_REL, probeRd, buildRd, probeHpc, buildHpc,
                             probePredEval, buildPredEval, isLeftOuter, nonMatchWriterFactories);
+                    state.hybridHJ.setHashTableType(tableType);
+                    state.hybridHJ.setRadixClustering(radixClustering);
+                    state.hybridHJ.setHeavyHitters(new JoinHeavyHitters(buildHpcf, state.numOfPartitions));
+                    if (bloomFilterFrames > 0) {
+                        int bloomFilterSize = bloomFilterFrames * ctx.getInitialFrameSize();
+                        bloomFilter = new JoinBloomFilter(buildHpcf, probeHpcf, bloomFilterSize);
+                        state.hybridHJ.setBloomFilter(bloomFilter);
+                    }
 
                     state.hybridHJ.initBuild();
                     if (LOGGER.isTraceEnabled()) {
@@ -319,6 +361,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                         if (!failed) {
                             state.hybridHJ.closeBuild();
                             ctx.setStateObject(state);
+                            if (bloomFilterId >= 0 && bloomFilter != null) {
+                                JoinBloomFilters.get(ctx, bloomFilterId).publish(partition, nPartitions, bloomFilter);
+                            }
                             if (LOGGER.isTraceEnabled()) {
                                 LOGGER.trace("OptimizedHybridHashJoin closed its build phase");
                             }
@@ -424,6 +469,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void close() throws HyracksDataException {
+                    if (bloomFilterId >= 0) {
+                        JoinBloomFilters.get(ctx, bloomFilterId).remove(partition);
+                    }
                     if (failed) {
                         try {
                             // Clear temp files if fail() was called.
@@ -462,7 +510,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             }
                             int bSize = state.hybridHJ.getBuildPartitionSizeInTup(pid);
                             int pSize = state.hybridHJ.getProbePartitionSizeInTup(pid);
-                            joinPartitionPair(bReader, pReader, bSize, pSize, 1);
+                            joinPartitionPair(bReader, pReader, bSize, pSize, 1,
+                                    state.hybridHJ.getHeavyHitter(pid));
                         }
                     } catch (Exception e) {
                         if (state.hybridHJ != null) {
@@ -487,13 +536,15 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 private void logProbeComplete() {
                     if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("OptimizedHybridHashJoin closed its probe phase");
+                        LOGGER.debug("OptimizedHybridHashJoin closed its probe phase, the Bloom filter dropped "
+                                + state.hybridHJ.getBloomFilteredProbeTupleCount() + " probe tuples");
                     }
                 }
 
                 //The buildSideReader should be always the original buildSideReader, so should the probeSideReader
                 private void joinPartitionPair(RunFileReader buildSideReader, RunFileReader probeSideReader,
-                        int buildSizeInTuple, int probeSizeInTuple, int level) throws HyracksDataException {
+                        int buildSizeInTuple, int probeSizeInTuple, int level, int heavyHitter)
+                        throws HyracksDataException {
                     ITuplePartitionComputer probeHpc =
                             new FieldHashPartitionComputerFamily(probeKeys, propHashFunctionFactories)
                                     .createPartitioner(level);
@@ -568,7 +619,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             }
                             applyHybridHashJoin((int) buildPartSize, PROBE_REL, BUILD_REL, probeKeys, buildKeys,
                                     probeRd, buildRd, probeHpc, buildHpc, probeSideReader, buildSideReader, level,
-                                    beforeMax, probComp);
+                                    beforeMax, probComp, heavyHitter);
 
                         } else { //Case 2.2 - Recursive HHJ (with Role-Reversal)
                             if (LOGGER.isDebugEnabled()) {
@@ -578,7 +629,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                             applyHybridHashJoin((int) probePartSize, BUILD_REL, PROBE_REL, buildKeys, probeKeys,
                                     buildRd, probeRd, buildHpc, probeHpc, buildSideReader, probeSideReader, level,
-                                    beforeMax, buildComp);
+                                    beforeMax, buildComp, heavyHitter);
 
                         }
                     }
@@ -588,18 +639,34 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                         final int[] probeKeys, final int[] buildKeys, final RecordDescriptor probeRd,
                         final RecordDescriptor buildRd, final ITuplePartitionComputer probeHpc,
                         final ITuplePartitionComputer buildHpc, RunFileReader probeSideReader,
-                        RunFileReader buildSideReader, final int level, final long beforeMax, ITuplePairComparator comp)
-                        throws HyracksDataException {
+                        RunFileReader buildSideReader, final int level, final long beforeMax, ITuplePairComparator comp,
+                        int heavyHitter) throws HyracksDataException {
 
                     boolean isReversed = probeKeys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
                             && buildKeys == OptimizedHybridHashJoinOperatorDescriptor.this.probeKeys;
                     assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
                     OptimizedHybridHashJoin rHHj;
                     int n = getNumberOfPartitions(state.memForJoin, tableSize, fudgeFactor, nPartitions);
+                    ITuplePartitionComputer rProbeHpc = probeHpc;
+                    ITuplePartitionComputer rBuildHpc = buildHpc;
+                    int heavyHitterPid = -1;
+                    if (heavyHitter != JoinHeavyHitters.NONE) {
+                        // Repartitioning cannot split the tuples of the heavy hitter. They go to a partition of their
+                        // own that is joined by NLJ, so that the rest of the tuples can still be joined by HHJ.
+                        n = Math.min(n + 1, state.memForJoin);
+                        heavyHitterPid = n - 1;
+                        rProbeHpc = new HeavyHitterPartitionComputer(probeHpc,
+                                JoinHeavyHitters.createHash(createHashFamily(probeKeys)), heavyHitter);
+                        rBuildHpc = new HeavyHitterPartitionComputer(buildHpc,
+                                JoinHeavyHitters.createHash(createHashFamily(buildKeys)), heavyHitter);
+                    }
                     rHHj = new OptimizedHybridHashJoin(jobletCtx, state.memForJoin, n, PROBE_REL, BUILD_REL, probeRd,
-                            buildRd, probeHpc, buildHpc, null, null, isLeftOuter, nonMatchWriterFactories); //checked-confirmed
+                            buildRd, rProbeHpc, rBuildHpc, null, null, isLeftOuter, nonMatchWriterFactories); //checked-confirmed
 
                     rHHj.setIsReversed(isReversed);
+                    rHHj.setHashTableType(tableType);
+                    rHHj.setRadixClustering(radixClustering);
+                    rHHj.setHeavyHitters(new JoinHeavyHitters(createHashFamily(buildKeys), n));
                     try {
                         buildSideReader.open();
                         try {
@@ -633,77 +700,67 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     }
 
                     try {
-                        int maxAfterBuildSize = rHHj.getMaxBuildPartitionSize();
-                        int maxAfterProbeSize = rHHj.getMaxProbePartitionSize();
-                        int afterMax = Math.max(maxAfterBuildSize, maxAfterProbeSize);
+                        // the partition of the heavy hitter is not expected to get smaller
+                        int afterMax = 0;
+                        for (int rPid = 0; rPid < n; rPid++) {
+                            if (rPid != heavyHitterPid) {
+                                afterMax = Math.max(afterMax, Math.max(rHHj.getBuildPartitionSizeInTup(rPid),
+                                        rHHj.getProbePartitionSizeInTup(rPid)));
+                            }
+                        }
 
                         BitSet rPStatus = rHHj.getPartitionStatus();
-                        if (!forceNLJ && (afterMax < (NLJ_SWITCH_THRESHOLD * beforeMax))) {
-                            //Case 2.1.1 - Keep applying HHJ
-                            if (LOGGER.isDebugEnabled()) {
+                        boolean keepApplyingHHJ = !forceNLJ && (afterMax < (NLJ_SWITCH_THRESHOLD * beforeMax));
+                        if (LOGGER.isDebugEnabled()) {
+                            if (keepApplyingHHJ) {
+                                //Case 2.1.1 - Keep applying HHJ
                                 LOGGER.debug("\t\t>>>Case 2.1.1 - KEEP APPLYING RecursiveHHJ WITH "
                                         + "(isLeftOuter || build<probe) - [Level " + level + "]");
-                            }
-                            for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
-                                RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
-                                RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
-                                int rbSizeInTuple = rHHj.getBuildPartitionSizeInTup(rPid);
-                                int rpSizeInTuple = rHHj.getProbePartitionSizeInTup(rPid);
-
-                                if (rbrfw == null || rprfw == null) {
-                                    if (isLeftOuter && rprfw != null) {
-                                        // For the outer join, we don't reverse the role.
-                                        appendNullToProbeTuples(rprfw);
-                                    }
-                                    if (rbrfw != null) {
-                                        rbrfw.close();
-                                    }
-                                    if (rprfw != null) {
-                                        rprfw.close();
-                                    }
-                                    continue;
-                                }
-
-                                if (isReversed) {
-                                    joinPartitionPair(rprfw, rbrfw, rpSizeInTuple, rbSizeInTuple, level + 1);
-                                } else {
-                                    joinPartitionPair(rbrfw, rprfw, rbSizeInTuple, rpSizeInTuple, level + 1);
-                                }
-                            }
-
-                        } else { //Case 2.1.2 - Switch to NLJ
-                            if (LOGGER.isDebugEnabled()) {
+                            } else {
+                                //Case 2.1.2 - Switch to NLJ
                                 LOGGER.debug("\t\t>>>Case 2.1.2 - SWITCHED to NLJ RecursiveHHJ WITH "
                                         + "(isLeftOuter || build<probe) - [Level " + level + "]");
                             }
-                            for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
-                                RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
-                                RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
-
-                                if (rbrfw == null || rprfw == null) {
-                                    if (isLeftOuter && rprfw != null) {
-                                        // For the outer join, we don't reverse the role.
-                                        appendNullToProbeTuples(rprfw);
-                                    }
-                                    if (rbrfw != null) {
-                                        rbrfw.close();
-                                    }
-                                    if (rprfw != null) {
-                                        rprfw.close();
-                                    }
-                                    continue;
+                            if (heavyHitterPid >= 0 && rPStatus.get(heavyHitterPid)) {
+                                LOGGER.debug("\t\t>>>Case 2.1.3 - NLJ for the heavy hitter partition - [Level "
+                                        + level + "]");
+                            }
+                        }
+                        for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
+                            RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
+                            RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
+
+                            if (rbrfw == null || rprfw == null) {
+                                if (isLeftOuter && rprfw != null) {
+                                    // For the outer join, we don't reverse the role.
+                                    appendNullToProbeTuples(rprfw);
+                                }
+                                if (rbrfw != null) {
+                                    rbrfw.close();
                                 }
+                                if (rprfw != null) {
+                                    rprfw.close();
+                                }
+                                continue;
+                            }
 
-                                int buildSideInTups = rHHj.getBuildPartitionSizeInTup(rPid);
-                                int probeSideInTups = rHHj.getProbePartitionSizeInTup(rPid);
-                                // NLJ order is outer + inner, the order is reversed from the other joins
-                                if (isLeftOuter || probeSideInTups < buildSideInTups) {
-                                    //checked-modified
-                                    applyNestedLoopJoin(probeRd, buildRd, memSizeInFrames, rprfw, rbrfw);
+                            int buildSideInTups = rHHj.getBuildPartitionSizeInTup(rPid);
+                            int probeSideInTups = rHHj.getProbePartitionSizeInTup(rPid);
+                            if (keepApplyingHHJ && rPid != heavyHitterPid) {
+                                if (isReversed) {
+                                    joinPartitionPair(rprfw, rbrfw, probeSideInTups, buildSideInTups, level + 1,
+                                            rHHj.getHeavyHitter(rPid));
                                 } else {
-                                    //checked-modified
-                                    applyNestedLoopJoin(buildRd, probeRd, memSizeInFrames, rbrfw, rprfw);
+                                    joinPartitionPair(rbrfw, rprfw, buildSideInTups, probeSideInTups, level + 1,
+                                            rHHj.getHeavyHitter(rPid));
                                 }
+                            } else if (isLeftOuter || probeSideInTups < buildSideInTups) {
+                                // NLJ order is outer + inner, the order is reversed from the other joins
+                                //checked-modified
+                                applyNestedLoopJoin(probeRd, buildRd, memSizeInFrames, rprfw, rbrfw);
+                            } else {
+                                //checked-modified
+                                applyNestedLoopJoin(buildRd, probeRd, memSizeInFrames, rbrfw, rprfw);
                             }
                         }
                     } catch (Exception e) {
@@ -715,6 +772,12 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     }
                 }
 
+                private ITuplePartitionComputerFamily createHashFamily(int[] keys) {
+                    return new FieldHashPartitionComputerFamily(keys,
+                            keys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
+                                    ? buildHashFunctionFactories : propHashFunctionFactories);
+                }
+
                 private void appendNullToProbeTuples(RunFileReader probReader) throws HyracksDataException {
                     if (nullResultAppender == null) {
                         nullResultAppender = new FrameTupleAppender(new VSizeFrame(jobletCtx));
@@ -749,11 +812,12 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             new DeallocatableFramePool(jobletCtx, state.memForJoin * jobletCtx.getInitialFrameSize());
                     ISimpleFrameBufferManager bufferManager = new FramePoolBackedFrameBufferManager(framePool);
 
-                    ISerializableTable table = new SerializableHashTable(tabSize, jobletCtx, bufferManager);
+                    ISerializableTable table = tableType.create(tabSize, jobletCtx, bufferManager);
                     InMemoryHashJoin joiner = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(probeRDesc),
                             hpcRepProbe, new FrameTupleAccessor(buildRDesc), buildRDesc, hpcRepBuild, isLeftOuter,
                             nonMatchWriter, table, isReversed, bufferManager);
                     joiner.setComparator(comp);
+                    joiner.setRadixClustering(radixClustering);
                     try {
                         bReader.open();
                         rPartbuff.reset();
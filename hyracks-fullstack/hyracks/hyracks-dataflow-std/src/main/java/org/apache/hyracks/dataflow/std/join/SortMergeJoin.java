@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksJobletContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.BufferInfo;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+
+/**
+ * Merge joins an outer input with an inner input that are both sorted on their join keys. The inner input is cached
+ * in a run file and read once in the order of the outer input. The inner tuples that have the same key (a run) are
+ * kept in memory, so that they can be joined with all the outer tuples of that key. A run that does not fit in
+ * memory is spilled: it is read again from the run file for each outer tuple of its key.
+ * The order of the keys is given by the key comparators, the join condition by the tuple pair comparator: an outer
+ * tuple and an inner tuple whose keys compare equal are only joined if the join condition holds.
+ */
+public class SortMergeJoin {
+    // Note: Min memory budget should not exceed {@code AbstractJoinPOperator.MIN_FRAME_LIMIT_FOR_JOIN}
+    // 1 frame for the inner input, 1 frame for the key of the run, 1 frame for reading a spilled run,
+    // 1 frame for the output and 1 frame for the run
+    private static final int MIN_FRAME_BUDGET = 5;
+
+    private final FrameTupleAccessor accessorOuter;
+    private final FrameTupleAccessor accessorInner;
+    private final FrameTupleAccessor accessorRun;
+    private final FrameTupleAccessor accessorRunKey;
+    private final FrameTuplePairComparator keyComparator;
+    private final FrameTuplePairComparator innerKeyComparator;
+    private ITuplePairComparator tpComparator;
+    private final FrameTupleAppender appender;
+    private final FrameTupleAppender runKeyAppender;
+    private final IFrame outBuffer;
+    private final IFrame innerBuffer;
+    private final IFrame runBuffer;
+    private final IFrame runKeyBuffer;
+    private final VariableFrameMemoryManager runBufferMngr;
+    private final BufferInfo tempInfo = new BufferInfo(null, -1, -1);
+    private final RunFileWriter runFileWriter;
+    private final boolean isLeftOuter;
+    private final ArrayTupleBuilder missingTupleBuilder;
+
+    private RunFileReader innerReader;
+    private RunFileReader runReader;
+    private long innerFramePosition;
+    private int innerTupleIndex;
+    private boolean innerExhausted;
+    // the run of the inner tuples that have the same key
+    private boolean hasRun;
+    private boolean runSpilled;
+    private long runStartPosition;
+    private int runStartTupleIndex;
+    private long runEndPosition;
+    private int runEndTupleIndex;
+
+    public SortMergeJoin(IHyracksJobletContext jobletContext, RecordDescriptor outerRecordDescriptor,
+            RecordDescriptor innerRecordDescriptor, int[] keysOuter, int[] keysInner, IBinaryComparator[] comparators,
+            IBinaryComparator[] innerComparators, int memBudgetInFrames, boolean isLeftOuter,
+            IMissingWriter[] missingWriters) throws HyracksDataException {
+        this.accessorOuter = new FrameTupleAccessor(outerRecordDescriptor);
+        this.accessorInner = new FrameTupleAccessor(innerRecordDescriptor);
+        this.accessorRun = new FrameTupleAccessor(innerRecordDescriptor);
+        this.accessorRunKey = new FrameTupleAccessor(innerRecordDescriptor);
+        this.keyComparator = new FrameTuplePairComparator(keysOuter, keysInner, comparators);
+        this.innerKeyComparator = new FrameTuplePairComparator(keysInner, keysInner, innerComparators);
+        this.appender = new FrameTupleAppender();
+        this.runKeyAppender = new FrameTupleAppender();
+        this.outBuffer = new VSizeFrame(jobletContext);
+        this.innerBuffer = new VSizeFrame(jobletContext);
+        this.runBuffer = new VSizeFrame(jobletContext);
+        this.runKeyBuffer = new VSizeFrame(jobletContext);
+        this.appender.reset(outBuffer, true);
+
+        if (memBudgetInFrames < MIN_FRAME_BUDGET) {
+            throw new HyracksDataException(ErrorCode.INSUFFICIENT_MEMORY);
+        }
+        int runBufferMngrMemBudgetInFrames = memBudgetInFrames - MIN_FRAME_BUDGET + 1;
+        int runBufferMngrMemBudgetInBytes = jobletContext.getInitialFrameSize() * runBufferMngrMemBudgetInFrames;
+        this.runBufferMngr = new VariableFrameMemoryManager(
+                new VariableFramePool(jobletContext, runBufferMngrMemBudgetInBytes), FrameFreeSlotPolicyFactory
+                        .createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, runBufferMngrMemBudgetInFrames));
+
+        this.isLeftOuter = isLeftOuter;
+        if (isLeftOuter) {
+            int innerFieldCount = accessorInner.getFieldCount();
+            missingTupleBuilder = new ArrayTupleBuilder(innerFieldCount);
+            DataOutput out = missingTupleBuilder.getDataOutput();
+            for (int i = 0; i < innerFieldCount; i++) {
+                missingWriters[i].writeMissing(out);
+                missingTupleBuilder.addFieldEndOffset();
+            }
+        } else {
+            missingTupleBuilder = null;
+        }
+
+        FileReference file =
+                jobletContext.createManagedWorkspaceFile(this.getClass().getSimpleName() + this.toString());
+        runFileWriter = new RunFileWriter(file, jobletContext.getIoManager());
+        runFileWriter.open();
+    }
+
+    public void cache(ByteBuffer buffer) throws HyracksDataException {
+        accessorInner.reset(buffer);
+        if (accessorInner.getTupleCount() > 0) {
+            runFileWriter.nextFrame(buffer);
+        }
+    }
+
+    /**
+     * Must be called before starting to join to set the right comparator with the right context.
+     *
+     * @param comparator the comparator to use for evaluating the join condition of the outer and the inner tuples
+     */
+    public void setComparator(ITuplePairComparator comparator) {
+        tpComparator = comparator;
+    }
+
+    public void join(ByteBuffer outerBuffer, IFrameWriter writer) throws HyracksDataException {
+        if (innerReader == null) {
+            innerReader = runFileWriter.createReader();
+            innerReader.open();
+            nextInnerFrame();
+        }
+        accessorOuter.reset(outerBuffer);
+        int outerTupleCount = accessorOuter.getTupleCount();
+        for (int i = 0; i < outerTupleCount; i++) {
+            if (hasRun) {
+                int c = keyComparator.compare(accessorOuter, i, accessorRunKey, 0);
+                if (c == 0) {
+                    joinWithRun(i, writer);
+                    continue;
+                } else if (c < 0) {
+                    appendMissing(i, writer);
+                    continue;
+                }
+                hasRun = false;
+            }
+            // skip the inner tuples that are smaller than the outer tuple
+            int c = 1;
+            while (!innerExhausted
+                    && (c = keyComparator.compare(accessorOuter, i, accessorInner, innerTupleIndex)) > 0) {
+                nextInnerTuple();
+            }
+            if (innerExhausted || c < 0) {
+                appendMissing(i, writer);
+                continue;
+            }
+            loadRun();
+            joinWithRun(i, writer);
+        }
+    }
+
+    private void nextInnerTuple() throws HyracksDataException {
+        if (++innerTupleIndex >= accessorInner.getTupleCount()) {
+            nextInnerFrame();
+        }
+    }
+
+    private void nextInnerFrame() throws HyracksDataException {
+        innerFramePosition = innerReader.position();
+        innerExhausted = !innerReader.nextFrame(innerBuffer);
+        if (!innerExhausted) {
+            accessorInner.reset(innerBuffer.getBuffer());
+            innerTupleIndex = 0;
+        }
+    }
+
+    /**
+     * Reads the run of inner tuples that starts at the current inner tuple. The run is kept in memory, as long as it
+     * fits, in the inner frames that contain it.
+     */
+    private void loadRun() throws HyracksDataException {
+        runKeyAppender.reset(runKeyBuffer, true);
+        // the appender grows the empty frame to fit a large tuple
+        if (!runKeyAppender.append(accessorInner, innerTupleIndex)) {
+            throw HyracksDataException.create(ErrorCode.TUPLE_CANNOT_FIT_INTO_EMPTY_FRAME,
+                    accessorInner.getTupleLength(innerTupleIndex));
+        }
+        accessorRunKey.reset(runKeyBuffer.getBuffer());
+        hasRun = true;
+        runSpilled = false;
+        runBufferMngr.reset();
+        runStartPosition = innerFramePosition;
+        runStartTupleIndex = innerTupleIndex;
+        addInnerFrameToRun();
+        nextInnerTuple();
+        while (!innerExhausted && innerKeyComparator.compare(accessorInner, innerTupleIndex, accessorRunKey, 0) == 0) {
+            if (innerTupleIndex == 0) {
+                addInnerFrameToRun();
+            }
+            nextInnerTuple();
+        }
+        if (!innerExhausted && innerTupleIndex > 0) {
+            // the run ends in the middle of the current inner frame
+            runEndTupleIndex = innerTupleIndex;
+        }
+    }
+
+    private void addInnerFrameToRun() throws HyracksDataException {
+        runEndPosition = innerFramePosition;
+        runEndTupleIndex = accessorInner.getTupleCount();
+        if (!runSpilled && runBufferMngr.insertFrame(innerBuffer.getBuffer()) < 0) {
+            // the run is read from the run file from now on
+            runSpilled = true;
+            runBufferMngr.reset();
+        }
+    }
+
+    private void joinWithRun(int outerTupleId, IFrameWriter writer) throws HyracksDataException {
+        boolean matchFound = false;
+        if (!runSpilled) {
+            int runFrameCount = runBufferMngr.getNumFrames();
+            for (int i = 0; i < runFrameCount; i++) {
+                BufferInfo runBufferInfo = runBufferMngr.getFrame(i, tempInfo);
+                accessorRun.reset(runBufferInfo.getBuffer(), runBufferInfo.getStartOffset(),
+                        runBufferInfo.getLength());
+                int start = i == 0 ? runStartTupleIndex : 0;
+                int end = i == runFrameCount - 1 ? runEndTupleIndex : accessorRun.getTupleCount();
+                matchFound |= joinWithRunFrame(outerTupleId, start, end, writer);
+            }
+        } else {
+            if (runReader == null) {
+                runReader = runFileWriter.createReader();
+                runReader.open();
+            }
+            runReader.seek(runStartPosition);
+            int start = runStartTupleIndex;
+            long position;
+            do {
+                position = runReader.position();
+                runReader.nextFrame(runBuffer);
+                accessorRun.reset(runBuffer.getBuffer());
+                int end = position == runEndPosition ? runEndTupleIndex : accessorRun.getTupleCount();
+                matchFound |= joinWithRunFrame(outerTupleId, start, end, writer);
+                start = 0;
+            } while (position != runEndPosition);
+        }
+        if (!matchFound) {
+            appendMissing(outerTupleId, writer);
+        }
+    }
+
+    private boolean joinWithRunFrame(int outerTupleId, int start, int end, IFrameWriter writer)
+            throws HyracksDataException {
+        boolean matchFound = false;
+        for (int j = start; j < end; j++) {
+            if (tpComparator.compare(accessorOuter, outerTupleId, accessorRun, j) == 0) {
+                matchFound = true;
+                FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, outerTupleId, accessorRun, j);
+            }
+        }
+        return matchFound;
+    }
+
+    private void appendMissing(int outerTupleId, IFrameWriter writer) throws HyracksDataException {
+        if (isLeftOuter) {
+            FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, outerTupleId,
+                    missingTupleBuilder.getFieldEndOffsets(), missingTupleBuilder.getByteArray(), 0,
+                    missingTupleBuilder.getSize());
+        }
+    }
+
+    public void closeCache() throws HyracksDataException {
+        try {
+            closeReaders();
+        } finally {
+            runFileWriter.close();
+        }
+    }
+
+    public void completeJoin(IFrameWriter writer) throws HyracksDataException {
+        try {
+            closeReaders();
+        } finally {
+            runFileWriter.eraseClosed();
+        }
+        appender.write(writer, true);
+    }
+
+    private void closeReaders() throws HyracksDataException {
+        try {
+            if (innerReader != null) {
+                innerReader.close();
+            }
+        } finally {
+            if (runReader != null) {
+                runReader.close();
+            }
+        }
+    }
+
+    public void releaseMemory() throws HyracksDataException {
+        runBufferMngr.reset();
+    }
+}
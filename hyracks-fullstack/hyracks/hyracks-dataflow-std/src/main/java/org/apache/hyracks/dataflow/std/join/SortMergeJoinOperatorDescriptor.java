@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksJobletContext;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
+import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+
+/**
+ * Joins two inputs that are sorted (in ascending order of the key comparators) on their join keys. Input 1 is
+ * cached first, then input 0 is streamed and merged with it, see {@link SortMergeJoin}. The output of the join keeps
+ * the order of input 0.
+ */
+public class SortMergeJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+    private static final int JOIN_CACHE_ACTIVITY_ID = 0;
+    private static final int SM_JOIN_ACTIVITY_ID = 1;
+
+    private static final long serialVersionUID = 1L;
+    private final int[] keys0;
+    private final int[] keys1;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final IBinaryComparatorFactory[] comparatorFactories1;
+    private final ITuplePairComparatorFactory tuplePairComparatorFactory;
+    private final int memSize;
+    private final boolean isLeftOuter;
+    private final IMissingWriterFactory[] nonMatchWriterFactories;
+
+    /**
+     * @param keys0 the join keys of input 0
+     * @param keys1 the join keys of input 1
+     * @param comparatorFactories the comparators of the keys of input 0 with the keys of input 1
+     * @param comparatorFactories1 the comparators of the keys of input 1 with each other
+     * @param tuplePairComparatorFactory the join condition
+     */
+    public SortMergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSize, int[] keys0, int[] keys1,
+            IBinaryComparatorFactory[] comparatorFactories, IBinaryComparatorFactory[] comparatorFactories1,
+            ITuplePairComparatorFactory tuplePairComparatorFactory, RecordDescriptor recordDescriptor,
+            boolean isLeftOuter, IMissingWriterFactory[] nonMatchWriterFactories) {
+        super(spec, 2, 1);
+        this.memSize = memSize;
+        this.keys0 = keys0;
+        this.keys1 = keys1;
+        this.comparatorFactories = comparatorFactories;
+        this.comparatorFactories1 = comparatorFactories1;
+        this.tuplePairComparatorFactory = tuplePairComparatorFactory;
+        this.outRecDescs[0] = recordDescriptor;
+        this.isLeftOuter = isLeftOuter;
+        this.nonMatchWriterFactories = nonMatchWriterFactories;
+    }
+
+    public SortMergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSize, int[] keys0, int[] keys1,
+            IBinaryComparatorFactory[] comparatorFactories, IBinaryComparatorFactory[] comparatorFactories1,
+            ITuplePairComparatorFactory tuplePairComparatorFactory, RecordDescriptor recordDescriptor) {
+        this(spec, memSize, keys0, keys1, comparatorFactories, comparatorFactories1, tuplePairComparatorFactory,
+                recordDescriptor, false, null);
+    }
+
+    @Override
+    public void contributeActivities(IActivityGraphBuilder builder) {
+        ActivityId jcaId = new ActivityId(getOperatorId(), JOIN_CACHE_ACTIVITY_ID);
+        ActivityId smjAid = new ActivityId(getOperatorId(), SM_JOIN_ACTIVITY_ID);
+        JoinCacheActivityNode jc = new JoinCacheActivityNode(jcaId, smjAid);
+        SortMergeJoinActivityNode smj = new SortMergeJoinActivityNode(smjAid);
+
+        builder.addActivity(this, jc);
+        builder.addSourceEdge(1, jc, 0);
+
+        builder.addActivity(this, smj);
+        builder.addSourceEdge(0, smj, 0);
+
+        builder.addTargetEdge(0, smj, 0);
+        builder.addBlockingEdge(jc, smj);
+    }
+
+    public static class JoinCacheTaskState extends AbstractStateObject {
+        private SortMergeJoin joiner;
+
+        private JoinCacheTaskState(JobId jobId, TaskId taskId) {
+            super(jobId, taskId);
+        }
+    }
+
+    private static IBinaryComparator[] createComparators(IBinaryComparatorFactory[] factories) {
+        IBinaryComparator[] comparators = new IBinaryComparator[factories.length];
+        for (int i = 0; i < factories.length; i++) {
+            comparators[i] = factories[i].createBinaryComparator();
+        }
+        return comparators;
+    }
+
+    private class JoinCacheActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        private final ActivityId smjAid;
+
+        public JoinCacheActivityNode(ActivityId id, ActivityId smjAid) {
+            super(id);
+            this.smjAid = smjAid;
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            final IHyracksJobletContext jobletCtx = ctx.getJobletContext();
+            final RecordDescriptor rd0 = recordDescProvider.getInputRecordDescriptor(smjAid, 0);
+            final RecordDescriptor rd1 = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+
+            final IMissingWriter[] nonMatchWriters =
+                    isLeftOuter ? new IMissingWriter[nonMatchWriterFactories.length] : null;
+            if (isLeftOuter) {
+                for (int i = 0; i < nonMatchWriterFactories.length; i++) {
+                    nonMatchWriters[i] = nonMatchWriterFactories[i].createMissingWriter();
+                }
+            }
+
+            return new AbstractUnaryInputSinkOperatorNodePushable() {
+                private JoinCacheTaskState state;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    state = new JoinCacheTaskState(jobletCtx.getJobId(), new TaskId(getActivityId(), partition));
+                    state.joiner = new SortMergeJoin(jobletCtx, rd0, rd1, keys0, keys1,
+                            createComparators(comparatorFactories), createComparators(comparatorFactories1), memSize,
+                            isLeftOuter, nonMatchWriters);
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.cache(buffer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    state.joiner.closeCache();
+                    ctx.setStateObject(state);
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    // No variables to update.
+                }
+            };
+        }
+    }
+
+    private class SortMergeJoinActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public SortMergeJoinActivityNode(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions) {
+            return new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
+                private JoinCacheTaskState state;
+                boolean failed = false;
+
+                @Override
+                public void open() throws HyracksDataException {
+                    writer.open();
+                    state = (JoinCacheTaskState) ctx.getStateObject(
+                            new TaskId(new ActivityId(getOperatorId(), JOIN_CACHE_ACTIVITY_ID), partition));
+                    state.joiner.setComparator(tuplePairComparatorFactory.createTuplePairComparator(ctx));
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    state.joiner.join(buffer, writer);
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                    if (failed) {
+                        try {
+                            state.joiner.closeCache();
+                        } finally {
+                            writer.close();
+                        }
+                        return;
+                    }
+                    try {
+                        try {
+                            state.joiner.completeJoin(writer);
+                        } finally {
+                            state.joiner.releaseMemory();
+                        }
+                    } catch (Exception e) {
+                        state.joiner.closeCache();
+                        writer.fail();
+                        throw e;
+                    } finally {
+                        writer.close();
+                    }
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                    failed = true;
+                    writer.fail();
+                }
+            };
+        }
+    }
+}
@@ -53,15 +53,23 @@ public class ResultWriterOperatorDescriptor extends AbstractSingleActivityOperat
 
     private final IResultSerializerFactory resultSerializerFactory;
     private final long maxReads;
+    private final boolean streaming;
 
     public ResultWriterOperatorDescriptor(IOperatorDescriptorRegistry spec, ResultSetId rsId, IResultMetadata metadata,
             boolean asyncMode, IResultSerializerFactory resultSerializerFactory, long maxReads) throws IOException {
+        this(spec, rsId, metadata, asyncMode, resultSerializerFactory, maxReads, false);
+    }
+
+    public ResultWriterOperatorDescriptor(IOperatorDescriptorRegistry spec, ResultSetId rsId, IResultMetadata metadata,
+            boolean asyncMode, IResultSerializerFactory resultSerializerFactory, long maxReads, boolean streaming)
+            throws IOException {
         super(spec, 1, 0);
         this.rsId = rsId;
         this.metadata = metadata;
         this.asyncMode = asyncMode;
         this.resultSerializerFactory = resultSerializerFactory;
         this.maxReads = maxReads;
+        this.streaming = streaming;
     }
 
     @Override
@@ -90,7 +98,7 @@ public class ResultWriterOperatorDescriptor extends AbstractSingleActivityOperat
             public void open() throws HyracksDataException {
                 try {
                     resultPartitionWriter = resultPartitionManager.createResultPartitionWriter(ctx, rsId, metadata,
-                            asyncMode, partition, nPartitions, maxReads);
+                            asyncMode, partition, nPartitions, maxReads, streaming);
                     resultPartitionWriter.open();
                     resultSerializer.init();
                 } catch (HyracksException e) {
@@ -143,7 +151,8 @@ public class ResultWriterOperatorDescriptor extends AbstractSingleActivityOperat
                 sb.append("\"rsId\": \"").append(rsId).append("\", ");
                 sb.append("\"metadata\": ").append(metadata).append(", ");
                 sb.append("\"asyncMode\": ").append(asyncMode).append(", ");
-                sb.append("\"maxReads\": ").append(maxReads).append(" }");
+                sb.append("\"maxReads\": ").append(maxReads).append(", ");
+                sb.append("\"streaming\": ").append(streaming).append(" }");
                 return sb.toString();
             }
 
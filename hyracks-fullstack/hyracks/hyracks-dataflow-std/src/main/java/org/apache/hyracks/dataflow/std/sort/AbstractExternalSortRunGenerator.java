@@ -29,6 +29,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.IFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
 import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
 
@@ -37,6 +38,7 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
     protected final IHyracksTaskContext ctx;
     protected final IFrameSorter frameSorter;
     protected final int maxSortFrames;
+    private final IFramePool framePool;
 
     public AbstractExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
@@ -57,16 +59,25 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit)
             throws HyracksDataException {
+        this(ctx, sortFields, keyNormalizerFactories, comparatorFactories, recordDesc, alg, policy, framesLimit,
+                outputLimit, 1);
+    }
+
+    public AbstractExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit,
+            int sortThreads) throws HyracksDataException {
         super();
         this.ctx = ctx;
         maxSortFrames = framesLimit - 1;
 
         IFrameFreeSlotPolicy freeSlotPolicy = FrameFreeSlotPolicyFactory.createFreeSlotPolicy(policy, maxSortFrames);
-        IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
-                new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize()), freeSlotPolicy);
+        framePool = new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize(),
+                ctx.getJobletContext().getMemoryBroker());
+        IFrameBufferManager bufferManager = new VariableFrameMemoryManager(framePool, freeSlotPolicy);
         if (alg == Algorithm.MERGE_SORT) {
             frameSorter = new FrameSorterMergeSort(ctx, bufferManager, maxSortFrames, sortFields,
-                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
+                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit, sortThreads);
         } else {
             frameSorter = new FrameSorterQuickSort(ctx, bufferManager, maxSortFrames, sortFields,
                     keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
@@ -76,7 +87,17 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
         if (!frameSorter.insertFrame(buffer)) {
+            // borrow memory from the node before resorting to a run file
+            while (framePool.borrow() > 0) {
+                frameSorter.setMaxSortMemory(framePool.getMemoryBudgetBytes());
+                if (frameSorter.insertFrame(buffer)) {
+                    return;
+                }
+            }
             flushFramesToRun();
+            if (framePool.giveBackIfReclaimed() > 0) {
+                frameSorter.setMaxSortMemory(framePool.getMemoryBudgetBytes());
+            }
             if (!frameSorter.insertFrame(buffer)) {
                 throw new HyracksDataException("The given frame is too big to insert into the sorting memory.");
             }
@@ -69,13 +69,15 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     protected final IFrame outputFrame;
     protected final int outputLimit;
 
-    protected final long maxSortMemory;
+    protected long maxSortMemory;
     protected long totalMemoryUsed;
     protected int[] tPointers;
     protected final int[] tmpPointer;
     protected int tupleCount;
 
-    private final FrameTupleAccessor fta2;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final RecordDescriptor recordDescriptor;
+    protected final TuplePointerComparator pointerComparator;
     private final BufferInfo info = new BufferInfo(null, -1, -1);
 
     public AbstractFrameSorter(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
@@ -125,7 +127,10 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         this.outputAppender = new FrameTupleAppender();
         this.outputFrame = new VSizeFrame(ctx);
         this.outputLimit = outputLimit;
-        this.fta2 = new FrameTupleAccessor(recordDescriptor);
+        this.comparatorFactories = comparatorFactories;
+        this.recordDescriptor = recordDescriptor;
+        this.pointerComparator =
+                new TuplePointerComparator(comparators, inputTupleAccessor, new FrameTupleAccessor(recordDescriptor));
         this.tmpPointer = new int[ptrSize];
     }
 
@@ -156,6 +161,11 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         return false;
     }
 
+    @Override
+    public void setMaxSortMemory(long maxSortMemory) {
+        this.maxSortMemory = maxSortMemory;
+    }
+
     protected long getRequiredMemory(FrameTupleAccessor frameAccessor) {
         return (long) frameAccessor.getBuffer().capacity() + ptrSize * frameAccessor.getTupleCount() * Integer.BYTES;
     }
@@ -242,43 +252,74 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     }
 
     protected final int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
-        if (nkcs != null) {
-            int cmpNormalizedKey =
-                    NormalizedKeyUtils.compareNormalizeKeys(tPointers1, tp1 * ptrSize + ID_NORMALIZED_KEY, tPointers2,
-                            tp2 * ptrSize + ID_NORMALIZED_KEY, normalizedKeyTotalLength);
-            if (cmpNormalizedKey != 0 || normalizedKeysDecisive) {
-                return cmpNormalizedKey;
-            }
+        return pointerComparator.compare(tPointers1, tp1, tPointers2, tp2);
+    }
+
+    /**
+     * @return a new comparator of tuple pointers that has its own comparators and accessors, so that it can be used
+     *         by another thread while this sorter is sorting
+     */
+    protected TuplePointerComparator createPointerComparator() {
+        IBinaryComparator[] threadComparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            threadComparators[i] = comparatorFactories[i].createBinaryComparator();
         }
+        return new TuplePointerComparator(threadComparators, new FrameTupleAccessor(recordDescriptor),
+                new FrameTupleAccessor(recordDescriptor));
+    }
+
+    protected final class TuplePointerComparator {
+        private final IBinaryComparator[] comparators;
+        private final FrameTupleAccessor fta1;
+        private final FrameTupleAccessor fta2;
+        private final BufferInfo info = new BufferInfo(null, -1, -1);
 
-        int i1 = tPointers1[tp1 * ptrSize + ID_FRAME_ID];
-        int j1 = tPointers1[tp1 * ptrSize + ID_TUPLE_START];
-        int i2 = tPointers2[tp2 * ptrSize + ID_FRAME_ID];
-        int j2 = tPointers2[tp2 * ptrSize + ID_TUPLE_START];
-
-        bufferManager.getFrame(i1, info);
-        byte[] b1 = info.getBuffer().array();
-        inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-
-        bufferManager.getFrame(i2, info);
-        byte[] b2 = info.getBuffer().array();
-        fta2.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-        for (int f = 0; f < comparators.length; ++f) {
-            int fIdx = sortFields[f];
-            int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
-            int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
-            int s1 = j1 + inputTupleAccessor.getFieldSlotsLength() + f1Start;
-            int l1 = f1End - f1Start;
-            int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
-            int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
-            int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
-            int l2 = f2End - f2Start;
-            int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
-            if (c != 0) {
-                return c;
+        private TuplePointerComparator(IBinaryComparator[] comparators, FrameTupleAccessor fta1,
+                FrameTupleAccessor fta2) {
+            this.comparators = comparators;
+            this.fta1 = fta1;
+            this.fta2 = fta2;
+        }
+
+        public int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
+            if (nkcs != null) {
+                int cmpNormalizedKey =
+                        NormalizedKeyUtils.compareNormalizeKeys(tPointers1, tp1 * ptrSize + ID_NORMALIZED_KEY,
+                                tPointers2, tp2 * ptrSize + ID_NORMALIZED_KEY, normalizedKeyTotalLength);
+                if (cmpNormalizedKey != 0 || normalizedKeysDecisive) {
+                    return cmpNormalizedKey;
+                }
+            }
+
+            int i1 = tPointers1[tp1 * ptrSize + ID_FRAME_ID];
+            int j1 = tPointers1[tp1 * ptrSize + ID_TUPLE_START];
+            int i2 = tPointers2[tp2 * ptrSize + ID_FRAME_ID];
+            int j2 = tPointers2[tp2 * ptrSize + ID_TUPLE_START];
+
+            bufferManager.getFrame(i1, info);
+            byte[] b1 = info.getBuffer().array();
+            fta1.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
+
+            bufferManager.getFrame(i2, info);
+            byte[] b2 = info.getBuffer().array();
+            fta2.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
+            for (int f = 0; f < comparators.length; ++f) {
+                int fIdx = sortFields[f];
+                int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
+                int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
+                int s1 = j1 + fta1.getFieldSlotsLength() + f1Start;
+                int l1 = f1End - f1Start;
+                int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
+                int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
+                int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
+                int l2 = f2End - f2Start;
+                int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
+                if (c != 0) {
+                    return c;
+                }
             }
+            return 0;
         }
-        return 0;
     }
 
     @Override
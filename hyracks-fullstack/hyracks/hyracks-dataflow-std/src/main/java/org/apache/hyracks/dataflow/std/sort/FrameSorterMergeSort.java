@@ -18,16 +18,34 @@
  */
 package org.apache.hyracks.dataflow.std.sort;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.util.ExceptionUtils;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
 
+/**
+ * Sorts the tuple pointers with a stable merge sort. With a parallelism greater than one, large batches of tuples are
+ * split into segments that are sorted by concurrent threads of the task's executor and the sorted segments are then
+ * merged pairwise, the merges of each level of the merge tree running concurrently as well.
+ */
 public class FrameSorterMergeSort extends AbstractFrameSorter {
 
+    // below this number of tuples per thread, handing the segments to other threads does not pay off
+    static final int MIN_TUPLES_PER_THREAD = 1 << 13;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private TuplePointerComparator[] threadComparators;
     private int[] tPointersTemp;
 
     public FrameSorterMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
@@ -42,8 +60,18 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
             int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
             IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor, int outputLimit)
             throws HyracksDataException {
+        this(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories, comparatorFactories,
+                recordDescriptor, outputLimit, 1);
+    }
+
+    public FrameSorterMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
+            int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor, int outputLimit,
+            int parallelism) throws HyracksDataException {
         super(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories, comparatorFactories,
                 recordDescriptor, outputLimit);
+        this.executor = ctx.getExecutorService();
+        this.parallelism = Math.max(1, parallelism);
     }
 
     @Override
@@ -51,7 +79,12 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
         if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
             tPointersTemp = new int[tPointers.length];
         }
-        sort(0, tupleCount);
+        int threads = executor == null ? 1 : Math.min(parallelism, tupleCount / MIN_TUPLES_PER_THREAD);
+        if (threads > 1) {
+            parallelSort(threads);
+        } else {
+            sort(0, tupleCount);
+        }
     }
 
     @Override
@@ -63,9 +96,26 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
     public void close() {
         super.close();
         tPointersTemp = null;
+        threadComparators = null;
     }
 
     void sort(int offset, int length) throws HyracksDataException {
+        if (sort(pointerComparator, tPointers, tPointersTemp, offset, length) != tPointers) {
+            int[] tmp = tPointersTemp;
+            tPointersTemp = tPointers;
+            tPointers = tmp;
+        }
+    }
+
+    /**
+     * Bottom-up merge sort of a range of tuple pointers, the two arrays exchange their roles after each phase
+     *
+     * @return the array that holds the sorted range
+     */
+    private int[] sort(TuplePointerComparator comparator, int[] src, int[] dest, int offset, int length)
+            throws HyracksDataException {
+        int[] from = src;
+        int[] to = dest;
         int step = 1;
         int end = offset + length;
         /** bottom-up merge */
@@ -74,46 +124,128 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
             for (int i = offset; i < end; i += 2 * step) {
                 int next = i + step;
                 if (next < end) {
-                    merge(i, next, step, Math.min(step, end - next));
+                    merge(comparator, from, to, i, next, step, Math.min(step, end - next));
                 } else {
-                    copy(tPointers, i, tPointersTemp, i, end - i);
+                    copy(from, i, to, i, end - i);
                 }
             }
             /** prepare next phase merge */
             step *= 2;
-            int[] tmp = tPointersTemp;
-            tPointersTemp = tPointers;
-            tPointers = tmp;
+            int[] tmp = to;
+            to = from;
+            from = tmp;
         }
+        return from;
+    }
+
+    private void parallelSort(int threads) throws HyracksDataException {
+        if (threadComparators == null || threadComparators.length < threads) {
+            threadComparators = new TuplePointerComparator[threads];
+            threadComparators[0] = pointerComparator;
+            for (int i = 1; i < threads; i++) {
+                threadComparators[i] = createPointerComparator();
+            }
+        }
+        int[] bounds = new int[threads + 1];
+        for (int i = 0; i <= threads; i++) {
+            bounds[i] = (int) ((long) tupleCount * i / threads);
+        }
+        // sorts the segments concurrently, each sorted segment ends up in tPointers
+        int[] src = tPointers;
+        int[] dest = tPointersTemp;
+        runInParallel(threads, t -> {
+            int length = bounds[t + 1] - bounds[t];
+            if (sort(threadComparators[t], src, dest, bounds[t], length) != src) {
+                copy(dest, bounds[t], src, bounds[t], length);
+            }
+        });
+        // merges the sorted segments pairwise, one level of the merge tree at a time
+        for (int width = 1; width < threads; width *= 2) {
+            int segmentsPerMerge = 2 * width;
+            int[] from = tPointers;
+            int[] to = tPointersTemp;
+            runInParallel((threads + segmentsPerMerge - 1) / segmentsPerMerge, m -> {
+                int start1 = bounds[m * segmentsPerMerge];
+                int start2 = bounds[Math.min(m * segmentsPerMerge + segmentsPerMerge / 2, threads)];
+                int end = bounds[Math.min((m + 1) * segmentsPerMerge, threads)];
+                if (start2 < end) {
+                    merge(threadComparators[m], from, to, start1, start2, start2 - start1, end - start2);
+                } else {
+                    copy(from, start1, to, start1, end - start1);
+                }
+            });
+            tPointers = to;
+            tPointersTemp = from;
+        }
+    }
+
+    /**
+     * Runs the tasks 0..n-1, task 0 on the calling thread and the others on the executor, and waits for all of them
+     */
+    private void runInParallel(int n, SortTask task) throws HyracksDataException {
+        List<Future<Void>> futures = new ArrayList<>(n - 1);
+        Throwable failure = null;
+        try {
+            for (int i = 1; i < n; i++) {
+                int taskId = i;
+                futures.add(executor.submit(() -> {
+                    task.run(taskId);
+                    return null;
+                }));
+            }
+            task.run(0);
+        } catch (Throwable th) { // NOSONAR: the other tasks must be waited for in any case
+            failure = th;
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failure = ExceptionUtils.suppress(failure, e);
+            } catch (ExecutionException e) {
+                failure = ExceptionUtils.suppress(failure, e.getCause());
+            }
+        }
+        if (failure != null) {
+            throw HyracksDataException.create(failure);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SortTask {
+        void run(int taskId) throws HyracksDataException;
     }
 
     /**
      * Merge two subarrays into one
      */
-    private void merge(int start1, int start2, int len1, int len2) throws HyracksDataException {
+    private void merge(TuplePointerComparator comparator, int[] src, int[] dest, int start1, int start2, int len1,
+            int len2) throws HyracksDataException {
         int targetPos = start1;
         int pos1 = start1;
         int pos2 = start2;
         int end1 = start1 + len1 - 1;
         int end2 = start2 + len2 - 1;
         while (pos1 <= end1 && pos2 <= end2) {
-            int cmp = compare(pos1, pos2);
+            int cmp = comparator.compare(src, pos1, src, pos2);
             if (cmp <= 0) {
-                copy(tPointers, pos1, tPointersTemp, targetPos);
+                copy(src, pos1, dest, targetPos);
                 pos1++;
             } else {
-                copy(tPointers, pos2, tPointersTemp, targetPos);
+                copy(src, pos2, dest, targetPos);
                 pos2++;
             }
             targetPos++;
         }
         if (pos1 <= end1) {
             int rest = end1 - pos1 + 1;
-            copy(tPointers, pos1, tPointersTemp, targetPos, rest);
+            copy(src, pos1, dest, targetPos, rest);
         }
         if (pos2 <= end2) {
             int rest = end2 - pos2 + 1;
-            copy(tPointers, pos2, tPointersTemp, targetPos, rest);
+            copy(src, pos2, dest, targetPos, rest);
         }
     }
 
@@ -41,11 +41,33 @@ public class HybridTopKSortRunGenerator extends HeapSortRunGenerator {
     private static final int SWITCH_TO_FRAME_SORTER_THRESHOLD = 2;
     private IFrameSorter frameSorter = null;
     private int tupleSorterFlushedTimes = 0;
+    private final int thresholdId;
+    private TopKThreshold threshold;
 
     public HybridTopKSortRunGenerator(IHyracksTaskContext ctx, int frameLimit, int topK, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor) {
+        this(ctx, frameLimit, topK, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor, -1);
+    }
+
+    /**
+     * @param thresholdId
+     *            the id of the {@link TopKThreshold} that the greatest of the top k tuples is published to, -1 if
+     *            it is not published
+     */
+    public HybridTopKSortRunGenerator(IHyracksTaskContext ctx, int frameLimit, int topK, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int thresholdId) {
         super(ctx, frameLimit, topK, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor);
+        this.thresholdId = thresholdId;
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        if (thresholdId >= 0) {
+            threshold = TopKThreshold.get(ctx, thresholdId);
+        }
     }
 
     @Override
@@ -82,6 +104,10 @@ public class HybridTopKSortRunGenerator extends HeapSortRunGenerator {
                     }
                 }
             }
+            if (threshold != null) {
+                // the tuples of the flushed runs are not greater than the published threshold either
+                tupleSorter.publishThreshold(threshold);
+            }
             if (isBadK) {
                 tupleSorterFlushedTimes++;
                 if (tupleSorterFlushedTimes > SWITCH_TO_FRAME_SORTER_THRESHOLD) {
@@ -29,4 +29,13 @@ public interface IFrameSorter extends ISorter {
 
     boolean insertFrame(ByteBuffer inputBuffer) throws HyracksDataException;
 
+    /**
+     * Changes the amount of memory that the sorter may use for the frames and the tuple pointers, e.g. after the
+     * frame pool of the sorter borrowed memory or gave memory back.
+     *
+     * @param maxSortMemory
+     *            the new amount of memory in bytes
+     */
+    void setMaxSortMemory(long maxSortMemory);
+
 }
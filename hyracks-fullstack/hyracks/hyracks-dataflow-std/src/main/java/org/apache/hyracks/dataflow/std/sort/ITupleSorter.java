@@ -27,4 +27,9 @@ public interface ITupleSorter extends ISorter {
 
     boolean insertTuple(IFrameTupleAccessor frameTupleAccessor, int index) throws HyracksDataException;
 
+    /**
+     * Offers the greatest of the kept tuples to the threshold once the sorter keeps as many tuples as it may keep.
+     */
+    void publishThreshold(TopKThreshold threshold) throws HyracksDataException;
+
 }
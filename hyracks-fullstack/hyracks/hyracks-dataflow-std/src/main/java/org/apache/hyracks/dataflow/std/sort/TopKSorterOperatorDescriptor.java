@@ -37,6 +37,7 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
 
     private static final long serialVersionUID = 1L;
     private final int topK;
+    private int thresholdId = -1;
 
     public TopKSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int topK, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
@@ -47,13 +48,20 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
                 comparatorFactories, recordDescriptor);
     }
 
-    private TopKSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int topK, int[] sortFields,
+    public TopKSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int topK, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor) {
         super(spec, framesLimit, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor);
         this.topK = topK;
     }
 
+    /**
+     * Publishes the greatest of the top k tuples to the {@link TopKThreshold} with the given id while sorting.
+     */
+    public void setThresholdId(int thresholdId) {
+        this.thresholdId = thresholdId;
+    }
+
     @Override
     public SortActivity getSortActivity(ActivityId id) {
         return new SortActivity(id) {
@@ -64,7 +72,7 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
                     IRecordDescriptorProvider recordDescProvider) {
                 final boolean profile = ctx.getJobFlags().contains(JobFlag.PROFILE_RUNTIME);
                 IRunGenerator runGen = new HybridTopKSortRunGenerator(ctx, framesLimit, topK, sortFields,
-                        keyNormalizerFactories, comparatorFactories, outRecDescs[0]);
+                        keyNormalizerFactories, comparatorFactories, outRecDescs[0], thresholdId);
                 return profile ? TimedRunGenerator.time(runGen, ctx, "TopKSort (Sort)") : runGen;
 
             }
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+
+/**
+ * The greatest of the top k tuples that a top-k sort has seen so far, published to the operators that produce the
+ * input of the sort. Since the sort already holds k tuples that are not greater than the threshold, a tuple that is
+ * greater than the threshold can never be part of the top k and can be dropped as early as possible. This holds for
+ * the top k of any partition, so the partitions of a job on a node share one threshold, which only ever decreases.
+ */
+public class TopKThreshold extends AbstractStateObject {
+
+    private volatile Value value;
+
+    private TopKThreshold(IHyracksTaskContext ctx, int thresholdId) {
+        super(ctx.getJobletContext().getJobId(), new ThresholdId(thresholdId));
+    }
+
+    /**
+     * @return the threshold with the given id of the job of the task, created if it does not exist yet
+     */
+    public static TopKThreshold get(IHyracksTaskContext ctx, int thresholdId) {
+        ThresholdId id = new ThresholdId(thresholdId);
+        synchronized (ctx.getJobletContext()) {
+            TopKThreshold threshold = (TopKThreshold) ctx.getStateObject(id);
+            if (threshold == null) {
+                threshold = new TopKThreshold(ctx, thresholdId);
+                ctx.setStateObject(threshold);
+            }
+            return threshold;
+        }
+    }
+
+    public boolean isSet() {
+        return value != null;
+    }
+
+    /**
+     * Lowers the threshold to the given key fields if they are less than the current threshold.
+     */
+    public synchronized void offer(byte[] bytes, int[] fieldStarts, int[] fieldLengths,
+            IBinaryComparator[] comparators) throws HyracksDataException {
+        Value current = value;
+        if (current != null && current.compare(bytes, fieldStarts, fieldLengths, comparators) >= 0) {
+            return;
+        }
+        int length = 0;
+        for (int fieldLength : fieldLengths) {
+            length += fieldLength;
+        }
+        byte[] copy = new byte[length];
+        int[] starts = new int[fieldStarts.length];
+        int offset = 0;
+        for (int i = 0; i < fieldStarts.length; i++) {
+            System.arraycopy(bytes, fieldStarts[i], copy, offset, fieldLengths[i]);
+            starts[i] = offset;
+            offset += fieldLengths[i];
+        }
+        value = new Value(copy, starts, Arrays.copyOf(fieldLengths, fieldLengths.length));
+    }
+
+    /**
+     * @return true if the threshold is set and the key fields of the tuple are greater than the threshold
+     */
+    public boolean isAbove(IFrameTupleAccessor accessor, int tIndex, int[] keyFields,
+            IBinaryComparator[] comparators) throws HyracksDataException {
+        Value current = value;
+        if (current == null) {
+            return false;
+        }
+        byte[] bytes = accessor.getBuffer().array();
+        for (int i = 0; i < keyFields.length; i++) {
+            int c = comparators[i].compare(bytes, accessor.getAbsoluteFieldStartOffset(tIndex, keyFields[i]),
+                    accessor.getFieldLength(tIndex, keyFields[i]), current.bytes, current.fieldStarts[i],
+                    current.fieldLengths[i]);
+            if (c != 0) {
+                return c > 0;
+            }
+        }
+        return false;
+    }
+
+    private static class Value {
+        private final byte[] bytes;
+        private final int[] fieldStarts;
+        private final int[] fieldLengths;
+
+        private Value(byte[] bytes, int[] fieldStarts, int[] fieldLengths) {
+            this.bytes = bytes;
+            this.fieldStarts = fieldStarts;
+            this.fieldLengths = fieldLengths;
+        }
+
+        /**
+         * @return the comparison of this value with the given key fields
+         */
+        private int compare(byte[] otherBytes, int[] otherStarts, int[] otherLengths, IBinaryComparator[] comparators)
+                throws HyracksDataException {
+            for (int i = 0; i < fieldStarts.length; i++) {
+                int c = comparators[i].compare(bytes, fieldStarts[i], fieldLengths[i], otherBytes, otherStarts[i],
+                        otherLengths[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static class ThresholdId {
+        private final int id;
+
+        private ThresholdId(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ThresholdId && ((ThresholdId) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(id);
+        }
+
+        @Override
+        public String toString() {
+            return "TopKThreshold:" + id;
+        }
+    }
+}
@@ -128,6 +128,8 @@ public class TupleSorterHeapSort implements ITupleSorter {
     private boolean isSorted;
 
     private final int[] nmk;
+    private final int[] thresholdFieldStarts;
+    private final int[] thresholdFieldLengths;
 
     public TupleSorterHeapSort(IHyracksTaskContext ctx, IDeletableTupleBufferManager bufferManager, int topK,
             int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
@@ -175,6 +177,8 @@ public class TupleSorterHeapSort implements ITupleSorter {
         this.newEntry = new HeapEntry();
         this.isSorted = false;
         this.nmk = new int[runningNormalizedKeyTotalLength];
+        this.thresholdFieldStarts = new int[sortFields.length];
+        this.thresholdFieldLengths = new int[sortFields.length];
     }
 
     @Override
@@ -209,6 +213,21 @@ public class TupleSorterHeapSort implements ITupleSorter {
         return true;
     }
 
+    @Override
+    public void publishThreshold(TopKThreshold threshold) throws HyracksDataException {
+        if (topK <= 0 || heap.getNumEntries() < topK) {
+            return;
+        }
+        heap.peekMax(maxEntry);
+        bufferAccessor2.reset(maxEntry.tuplePointer);
+        for (int f = 0; f < sortFields.length; f++) {
+            thresholdFieldStarts[f] = bufferAccessor2.getAbsFieldStartOffset(sortFields[f]);
+            thresholdFieldLengths[f] = bufferAccessor2.getFieldLength(sortFields[f]);
+        }
+        threshold.offer(bufferAccessor2.getBuffer().array(), thresholdFieldStarts, thresholdFieldLengths,
+                comparators);
+    }
+
     private int[] getPNK(IFrameTupleAccessor fta, int tIx) {
         if (nkcs == null) {
             return nmk;
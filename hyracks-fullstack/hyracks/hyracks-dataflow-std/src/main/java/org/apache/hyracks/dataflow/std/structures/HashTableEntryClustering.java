@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.util.Arrays;
+
+/**
+ * Orders a batch of tuples (e.g. the tuples of a frame) by the hash table entries they go to, so that the batch
+ * accesses a hash table that does not fit in the CPU caches from its first to its last entry instead of at random.
+ * The tuples are radix partitioned by the high bits of their entries in two passes: {@link #add(int)} computes the
+ * histogram of the clusters and {@link #cluster()} scatters the tuples into their clusters. The clustering is stable,
+ * the tuples that go to the same entry keep their order.
+ */
+public class HashTableEntryClustering {
+    // the hash tables that are smaller than this are expected to fit in the CPU caches and are not clustered
+    private static final long CACHE_SIZE = 1024 * 1024;
+    private static final int RADIX_BITS = 8;
+
+    private final int[] histogram = new int[(1 << RADIX_BITS) + 1];
+    private int[] entries = new int[0];
+    private int[] clusteredEntries = new int[0];
+    private int[] clusteredTuples = new int[0];
+    private int shift;
+    private int tupleCount;
+
+    /**
+     * @return true if the table is too large to fit in the CPU caches and clustering the accesses pays off
+     */
+    public static boolean isBeneficial(ISerializableTable table) {
+        return table.getCurrentByteSize() > CACHE_SIZE;
+    }
+
+    /**
+     * Starts a new batch of tuples.
+     *
+     * @param tableSize the number of entries of the hash table
+     * @param maxTupleCount the maximum number of tuples of the batch
+     */
+    public void reset(int tableSize, int maxTupleCount) {
+        int entryBits = Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, tableSize - 1));
+        shift = Math.max(0, entryBits - RADIX_BITS);
+        tupleCount = 0;
+        Arrays.fill(histogram, 0);
+        if (entries.length < maxTupleCount) {
+            entries = new int[maxTupleCount];
+            clusteredEntries = new int[maxTupleCount];
+            clusteredTuples = new int[maxTupleCount];
+        }
+    }
+
+    /**
+     * Adds the next tuple of the batch, the tuples are numbered from 0 in the order they are added.
+     */
+    public void add(int entry) {
+        entries[tupleCount++] = entry;
+        histogram[(entry >>> shift) + 1]++;
+    }
+
+    public void cluster() {
+        // the histogram is shifted by one, so the prefix sums give the first position of each cluster
+        for (int i = 1; i < histogram.length; i++) {
+            histogram[i] += histogram[i - 1];
+        }
+        for (int i = 0; i < tupleCount; i++) {
+            int position = histogram[entries[i] >>> shift]++;
+            clusteredEntries[position] = entries[i];
+            clusteredTuples[position] = i;
+        }
+    }
+
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    /**
+     * @return the index of the i-th tuple in the clustered order
+     */
+    public int getTupleIndex(int i) {
+        return clusteredTuples[i];
+    }
+
+    /**
+     * @return the hash table entry of the i-th tuple in the clustered order
+     */
+    public int getEntry(int i) {
+        return clusteredEntries[i];
+    }
+}
@@ -24,12 +24,46 @@ import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
 
 public interface ISerializableTable {
 
+    /**
+     * The number of partitions a tuple partition computer is asked for to compute the hash value of a tuple. The
+     * entry of the tuple is its hash value modulo the table size (see {@link #getEntry(int, int)}).
+     */
+    int HASH_RANGE = Integer.MAX_VALUE;
+
+    static int getEntry(int hash, int tableSize) {
+        return hash % tableSize;
+    }
+
     boolean insert(int entry, TuplePointer tuplePointer) throws HyracksDataException;
 
+    /**
+     * Inserts the tuple pointer with the hash value of its tuple. A table may keep (a part of) the hash value to skip
+     * the tuples of other hash values when the entry is read with {@link #getTupleCount(int, int)} and
+     * {@link #getTuplePointer(int, int, int, TuplePointer)}, without the caller having to compare them. By default,
+     * the hash value is ignored.
+     *
+     * @param entry
+     *            the entry of the hash value
+     * @param hash
+     *            the hash value of the tuple, computed with {@link #HASH_RANGE}
+     */
+    default boolean insert(int entry, int hash, TuplePointer tuplePointer) throws HyracksDataException {
+        return insert(entry, tuplePointer);
+    }
+
     void delete(int entry);
 
     boolean getTuplePointer(int entry, int offset, TuplePointer tuplePointer);
 
+    /**
+     * Like {@link #getTuplePointer(int, int, TuplePointer)}, but only for the tuples of the entry that were inserted
+     * with the given hash value, if the table keeps the hash values. The tuples that are returned must still be
+     * compared by the caller.
+     */
+    default boolean getTuplePointer(int entry, int hash, int offset, TuplePointer tuplePointer) {
+        return getTuplePointer(entry, offset, tuplePointer);
+    }
+
     /**
      * Returns the byte size of entire frames that are currently allocated to the table.
      */
@@ -39,6 +73,14 @@ public interface ISerializableTable {
 
     int getTupleCount(int entry);
 
+    /**
+     * @return the number of tuples of the entry that {@link #getTuplePointer(int, int, int, TuplePointer)} returns
+     *         for the hash value
+     */
+    default int getTupleCount(int entry, int hash) {
+        return getTupleCount(entry);
+    }
+
     void reset();
 
     void close();
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
+import org.apache.hyracks.dataflow.std.structures.SimpleSerializableHashTable.IntSerDeBuffer;
+
+/**
+ * A hash table that uses open addressing with linear probing instead of the chained slots of
+ * {@link SerializableHashTable}. Each slot is stored in the frames of the table as
+ * [hash], [frameIndex], [tupleIndex]. The hash value of the tuple is kept inline: its entry, i.e. the hash value
+ * modulo the table size, tells the slots of an entry from the slots of other entries in the same run, and the whole
+ * hash value lets a lookup with {@link #getTuplePointer(int, int, int, TuplePointer)} skip the tuples of the entry
+ * that have other hash values without the caller reading and comparing them in the content frames. A tuple pointer
+ * inserted without its hash value keeps its entry as its hash value, and is only found by the lookups without a hash
+ * value. Looking up an entry scans a contiguous run of slots, where the chained table reads a header slot and a
+ * content slot before it gets to the tuple pointers.
+ * The table is sized for the given table size at a load factor of at most {@link #MAX_LOAD_FACTOR} and doubles its
+ * capacity when it gets full. Its frames are acquired from the buffer manager on their first use, so an insertion
+ * fails if the buffer manager runs out of frames. Unless it grows, the table never takes more memory than
+ * {@link SerializableHashTable#getExpectedTableByteSize(long, int)} for its table size. Deleted slots are reclaimed
+ * right away by shifting the following slots back, so the table never needs a garbage collection.
+ * Since consecutive calls of {@link #getTuplePointer(int, int, TuplePointer)} for the same entry continue the scan
+ * of the previous call, the tuple pointers of an entry should be read in order.
+ */
+public class OpenAddressingHashTable implements ISerializableTable {
+
+    private static final int INT_SIZE = 4;
+    // [hash], [frameIndex], [tupleIndex]
+    private static final int SLOT_SIZE = 3;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int INVALID_VALUE = 0xFFFFFFFF;
+    // the hash value of the lookups that return all the tuples of an entry
+    private static final int ANY_HASH = INVALID_VALUE;
+
+    private final ISimpleFrameBufferManager bufferManager;
+    private final int tableSize;
+    private final int frameSize;
+    private final int slotsPerFrame;
+    private IntSerDeBuffer[] frames;
+    private int capacity;
+    private int allocatedFrames;
+    private int tupleCount;
+    // the state of the last scan, consecutive reads of the same entry continue from there
+    private int scanEntry = INVALID_VALUE;
+    private int scanHash;
+    private int scanSlot;
+    private int scanOffset;
+    private int scanCount;
+
+    public OpenAddressingHashTable(int tableSize, IHyracksFrameMgrContext ctx,
+            ISimpleFrameBufferManager bufferManager) {
+        this.tableSize = tableSize;
+        this.bufferManager = bufferManager;
+        this.frameSize = ctx.getInitialFrameSize();
+        this.slotsPerFrame = frameSize / (SLOT_SIZE * INT_SIZE);
+        int expectedCapacity = (int) Math.min(MAX_CAPACITY, (long) Math.ceil(tableSize / MAX_LOAD_FACTOR));
+        init(Math.max(2, Integer.highestOneBit(Math.max(1, expectedCapacity - 1)) << 1));
+    }
+
+    private void init(int newCapacity) {
+        capacity = newCapacity;
+        frames = new IntSerDeBuffer[(capacity + slotsPerFrame - 1) / slotsPerFrame];
+    }
+
+    @Override
+    public boolean insert(int entry, TuplePointer tuplePointer) throws HyracksDataException {
+        return insert(entry, entry, tuplePointer);
+    }
+
+    @Override
+    public boolean insert(int entry, int hash, TuplePointer tuplePointer) throws HyracksDataException {
+        if (tupleCount + 1 > capacity * MAX_LOAD_FACTOR && !grow()) {
+            return false;
+        }
+        if (!insert(frames, capacity - 1, entry, hash, tuplePointer.getFrameIndex(), tuplePointer.getTupleIndex())) {
+            return false;
+        }
+        tupleCount++;
+        scanEntry = INVALID_VALUE;
+        return true;
+    }
+
+    private boolean insert(IntSerDeBuffer[] targetFrames, int mask, int entry, int hash, int frameIndex,
+            int tupleIndex) throws HyracksDataException {
+        int slot = home(entry, mask);
+        while (getHash(targetFrames, slot) != INVALID_VALUE) {
+            slot = (slot + 1) & mask;
+        }
+        int frameIdx = slot / slotsPerFrame;
+        IntSerDeBuffer frame = targetFrames[frameIdx];
+        if (frame == null) {
+            ByteBuffer newFrame = bufferManager.acquireFrame(frameSize);
+            if (newFrame == null) {
+                return false;
+            }
+            frame = new IntSerDeBuffer(newFrame);
+            targetFrames[frameIdx] = frame;
+            allocatedFrames++;
+        }
+        int offset = (slot % slotsPerFrame) * SLOT_SIZE;
+        frame.writeInt(offset, hash);
+        frame.writeInt(offset + 1, frameIndex);
+        frame.writeInt(offset + 2, tupleIndex);
+        return true;
+    }
+
+    /**
+     * Doubles the capacity of the table. The old frames are released once all slots are moved to the new frames,
+     * so the table needs up to three times its current frames while growing.
+     */
+    private boolean grow() throws HyracksDataException {
+        if (capacity >= MAX_CAPACITY) {
+            return false;
+        }
+        IntSerDeBuffer[] oldFrames = frames;
+        int oldCapacity = capacity;
+        int oldAllocatedFrames = allocatedFrames;
+        int newCapacity = capacity << 1;
+        IntSerDeBuffer[] newFrames = new IntSerDeBuffer[(newCapacity + slotsPerFrame - 1) / slotsPerFrame];
+        allocatedFrames = 0;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int hash = getHash(oldFrames, slot);
+            if (hash != INVALID_VALUE) {
+                IntSerDeBuffer frame = oldFrames[slot / slotsPerFrame];
+                int offset = (slot % slotsPerFrame) * SLOT_SIZE;
+                if (!insert(newFrames, newCapacity - 1, entryOf(hash), hash, frame.getInt(offset + 1),
+                        frame.getInt(offset + 2))) {
+                    releaseFrames(newFrames);
+                    allocatedFrames = oldAllocatedFrames;
+                    return false;
+                }
+            }
+        }
+        int newAllocatedFrames = allocatedFrames;
+        releaseFrames(oldFrames);
+        frames = newFrames;
+        capacity = newCapacity;
+        allocatedFrames = newAllocatedFrames;
+        scanEntry = INVALID_VALUE;
+        return true;
+    }
+
+    @Override
+    public void delete(int entry) {
+        int mask = capacity - 1;
+        int slot = home(entry, mask);
+        int h;
+        while ((h = getHash(frames, slot)) != INVALID_VALUE) {
+            if (entryOf(h) == entry) {
+                // the next slot of the run is shifted into this slot, so it is checked again
+                remove(slot);
+                tupleCount--;
+            } else {
+                slot = (slot + 1) & mask;
+            }
+        }
+        scanEntry = INVALID_VALUE;
+    }
+
+    /**
+     * Removes the given slot and shifts back the following slots of its run that would not be found anymore.
+     */
+    private void remove(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        int h;
+        while ((h = getHash(frames, next)) != INVALID_VALUE) {
+            int home = home(entryOf(h), mask);
+            // the slot can move to the hole if its home is not (cyclically) between the hole and the slot
+            boolean canMove = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+            if (canMove) {
+                copySlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        frames[hole / slotsPerFrame].writeInvalidVal((hole % slotsPerFrame) * SLOT_SIZE, SLOT_SIZE);
+    }
+
+    private void copySlot(int from, int to) {
+        IntSerDeBuffer fromFrame = frames[from / slotsPerFrame];
+        IntSerDeBuffer toFrame = frames[to / slotsPerFrame];
+        int fromOffset = (from % slotsPerFrame) * SLOT_SIZE;
+        int toOffset = (to % slotsPerFrame) * SLOT_SIZE;
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            toFrame.writeInt(toOffset + i, fromFrame.getInt(fromOffset + i));
+        }
+    }
+
+    @Override
+    public boolean getTuplePointer(int entry, int offset, TuplePointer tuplePointer) {
+        return getTuplePointer(entry, ANY_HASH, offset, tuplePointer);
+    }
+
+    @Override
+    public boolean getTuplePointer(int entry, int hash, int offset, TuplePointer tuplePointer) {
+        int mask = capacity - 1;
+        int slot;
+        int current;
+        boolean sameScan = scanEntry == entry && scanHash == hash;
+        if (sameScan && offset > scanOffset) {
+            slot = (scanSlot + 1) & mask;
+            current = scanOffset + 1;
+        } else {
+            slot = home(entry, mask);
+            current = 0;
+        }
+        int h;
+        while ((h = getHash(frames, slot)) != INVALID_VALUE) {
+            if (matches(h, entry, hash)) {
+                if (current == offset) {
+                    IntSerDeBuffer frame = frames[slot / slotsPerFrame];
+                    int slotOffset = (slot % slotsPerFrame) * SLOT_SIZE;
+                    tuplePointer.reset(frame.getInt(slotOffset + 1), frame.getInt(slotOffset + 2));
+                    if (!sameScan) {
+                        scanCount = -1;
+                    }
+                    scanEntry = entry;
+                    scanHash = hash;
+                    scanSlot = slot;
+                    scanOffset = offset;
+                    return true;
+                }
+                current++;
+            }
+            slot = (slot + 1) & mask;
+        }
+        tuplePointer.reset(INVALID_VALUE, INVALID_VALUE);
+        return false;
+    }
+
+    @Override
+    public int getTupleCount(int entry) {
+        return getTupleCount(entry, ANY_HASH);
+    }
+
+    @Override
+    public int getTupleCount(int entry, int hash) {
+        if (scanEntry == entry && scanHash == hash && scanCount >= 0) {
+            return scanCount;
+        }
+        int mask = capacity - 1;
+        int slot = home(entry, mask);
+        int count = 0;
+        int h;
+        while ((h = getHash(frames, slot)) != INVALID_VALUE) {
+            if (matches(h, entry, hash)) {
+                count++;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // the next read of the entry starts a new scan
+        scanEntry = entry;
+        scanHash = hash;
+        scanSlot = (home(entry, mask) - 1) & mask;
+        scanOffset = -1;
+        scanCount = count;
+        return count;
+    }
+
+    @Override
+    public int getCurrentByteSize() {
+        return allocatedFrames * frameSize;
+    }
+
+    @Override
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    @Override
+    public void reset() {
+        for (IntSerDeBuffer frame : frames) {
+            if (frame != null) {
+                frame.resetFrame();
+            }
+        }
+        tupleCount = 0;
+        scanEntry = INVALID_VALUE;
+    }
+
+    @Override
+    public void close() {
+        releaseFrames(frames);
+        allocatedFrames = 0;
+        tupleCount = 0;
+        scanEntry = INVALID_VALUE;
+    }
+
+    private void releaseFrames(IntSerDeBuffer[] toRelease) {
+        for (int i = 0; i < toRelease.length; i++) {
+            if (toRelease[i] != null) {
+                bufferManager.releaseFrame(toRelease[i].getByteBuffer());
+                toRelease[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isGarbageCollectionNeeded() {
+        return false;
+    }
+
+    @Override
+    public int collectGarbage(ITuplePointerAccessor bufferAccessor, ITuplePartitionComputer tpc)
+            throws HyracksDataException {
+        // Deleted slots are reclaimed right away.
+        return -1;
+    }
+
+    @Override
+    public String printInfo() {
+        return "tableSize: " + tableSize + ", capacity: " + capacity + ", tupleCount: " + tupleCount
+                + ", allocated frames: " + allocatedFrames + ", byte size: " + getCurrentByteSize();
+    }
+
+    @Override
+    public int getTableSize() {
+        return tableSize;
+    }
+
+    private int getHash(IntSerDeBuffer[] targetFrames, int slot) {
+        IntSerDeBuffer frame = targetFrames[slot / slotsPerFrame];
+        return frame == null ? INVALID_VALUE : frame.getInt((slot % slotsPerFrame) * SLOT_SIZE);
+    }
+
+    private int entryOf(int hash) {
+        return ISerializableTable.getEntry(hash, tableSize);
+    }
+
+    private boolean matches(int slotHash, int entry, int hash) {
+        // the tuples of other hash values are skipped without reading their content frames
+        return hash == ANY_HASH ? entryOf(slotHash) == entry : slotHash == hash;
+    }
+
+    private static int home(int entry, int mask) {
+        // entries are usually consecutive numbers, spread them over the table
+        int h = entry * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
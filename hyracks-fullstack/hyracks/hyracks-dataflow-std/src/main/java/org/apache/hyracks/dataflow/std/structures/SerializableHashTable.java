@@ -389,7 +389,8 @@ public class SerializableHashTable extends SimpleSerializableHashTable {
             throws HyracksDataException {
         // Finds the original hash value. We assume that bufferAccessor and tpc is already assigned.
         bufferAccessor.reset(hashedTuple);
-        int entry = tpc.partition(bufferAccessor, hashedTuple.getTupleIndex(), tableSize);
+        int entry = ISerializableTable.getEntry(
+                tpc.partition(bufferAccessor, hashedTuple.getTupleIndex(), ISerializableTable.HASH_RANGE), tableSize);
 
         // Finds the location of the hash value in the header frame arrays.
         int headerFrameIndex = getHeaderFrameIndex(entry);
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+
+/**
+ * The implementations of {@link ISerializableTable} that the hash joins and the hash group-by can use.
+ */
+public enum SerializableHashTableType {
+    /**
+     * {@link SerializableHashTable}
+     */
+    CHAINED {
+        @Override
+        public ISerializableTable create(int tableSize, IHyracksFrameMgrContext ctx,
+                ISimpleFrameBufferManager bufferManager) throws HyracksDataException {
+            return new SerializableHashTable(tableSize, ctx, bufferManager);
+        }
+    },
+    /**
+     * {@link OpenAddressingHashTable}
+     */
+    OPEN_ADDRESSING {
+        @Override
+        public ISerializableTable create(int tableSize, IHyracksFrameMgrContext ctx,
+                ISimpleFrameBufferManager bufferManager) {
+            return new OpenAddressingHashTable(tableSize, ctx, bufferManager);
+        }
+    };
+
+    public abstract ISerializableTable create(int tableSize, IHyracksFrameMgrContext ctx,
+            ISimpleFrameBufferManager bufferManager) throws HyracksDataException;
+}
@@ -23,11 +23,14 @@ import static org.apache.hyracks.dataflow.std.buffermanager.Common.BUDGET;
 import static org.apache.hyracks.dataflow.std.buffermanager.Common.MIN_FRAME_SIZE;
 import static org.apache.hyracks.dataflow.std.buffermanager.Common.commonFrameManager;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -83,4 +86,45 @@ public class DeletableFramePoolTest extends AbstractFramePoolTest {
         testAllocateNewBuffer(set, BUDGET);
     }
 
+    @Test
+    public void testBorrowAndGiveBack() throws HyracksDataException {
+        MemoryBroker broker = new MemoryBroker(4 * MIN_FRAME_SIZE);
+        pool = new DeallocatableFramePool(commonFrameManager, BUDGET, broker);
+        testAllocateAllSpacesWithMinFrames();
+        assertNull(pool.allocateFrame(MIN_FRAME_SIZE));
+        // a quarter of the budget at a time
+        assertEquals(3 * MIN_FRAME_SIZE, pool.borrow());
+        ByteBuffer[] borrowed = new ByteBuffer[3];
+        for (int i = 0; i < borrowed.length; i++) {
+            borrowed[i] = pool.allocateFrame(MIN_FRAME_SIZE);
+            assertNotNull(borrowed[i]);
+        }
+        // the broker has one frame left and reclaims the rest
+        assertEquals(MIN_FRAME_SIZE, pool.borrow());
+        assertEquals(0, pool.borrow());
+        assertEquals(BUDGET + 4 * MIN_FRAME_SIZE, pool.getMemoryBudgetBytes());
+
+        // only the memory that is not used by any frame is given back
+        assertEquals(MIN_FRAME_SIZE, pool.giveBackIfReclaimed());
+        for (ByteBuffer buffer : borrowed) {
+            getPool().deAllocateBuffer(buffer);
+        }
+        assertEquals(3 * MIN_FRAME_SIZE, pool.giveBackIfReclaimed());
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(4 * MIN_FRAME_SIZE, broker.getAvailableMemory());
+        assertNull(pool.allocateFrame(MIN_FRAME_SIZE));
+    }
+
+    @Test
+    public void testCloseGivesBack() throws HyracksDataException {
+        MemoryBroker broker = new MemoryBroker(BUDGET);
+        pool = new DeallocatableFramePool(commonFrameManager, BUDGET, broker);
+        assertEquals(3 * MIN_FRAME_SIZE, pool.borrow());
+        // nothing is given back unless the broker reclaims memory
+        assertEquals(0, pool.giveBackIfReclaimed());
+        pool.close();
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(BUDGET, broker.getAvailableMemory());
+    }
+
 }
@@ -33,6 +33,7 @@ import java.nio.ByteBuffer;
 import java.util.Set;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -115,4 +116,41 @@ public class VariableFramePoolTest extends AbstractFramePoolTest {
         assertEquals(5 * MIN_FRAME_SIZE, buffer.capacity());
         pool.reset();
     }
+
+    @Test
+    public void testBorrowAndGiveBack() throws HyracksDataException {
+        MemoryBroker broker = new MemoryBroker(4 * MIN_FRAME_SIZE);
+        pool = new VariableFramePool(commonFrameManager, BUDGET, broker);
+        testAllocateAllSpacesWithMinFrames();
+        assertNull(pool.allocateFrame(MIN_FRAME_SIZE));
+        // a quarter of the budget at a time
+        assertEquals(3 * MIN_FRAME_SIZE, pool.borrow());
+        assertNotNull(pool.allocateFrame(3 * MIN_FRAME_SIZE));
+        // the broker has one frame left and reclaims the rest
+        assertEquals(MIN_FRAME_SIZE, pool.borrow());
+        assertEquals(0, pool.borrow());
+        assertEquals(BUDGET + 4 * MIN_FRAME_SIZE, pool.getMemoryBudgetBytes());
+
+        // only the memory that is not used by any frame is given back
+        assertEquals(MIN_FRAME_SIZE, pool.giveBackIfReclaimed());
+        pool.reset();
+        assertEquals(3 * MIN_FRAME_SIZE, pool.giveBackIfReclaimed());
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(4 * MIN_FRAME_SIZE, broker.getAvailableMemory());
+        testAllocateAllSpacesWithMinFrames();
+        assertNull(pool.allocateFrame(MIN_FRAME_SIZE));
+        pool.close();
+    }
+
+    @Test
+    public void testCloseGivesBack() throws HyracksDataException {
+        MemoryBroker broker = new MemoryBroker(BUDGET);
+        pool = new VariableFramePool(commonFrameManager, BUDGET, broker);
+        assertEquals(3 * MIN_FRAME_SIZE, pool.borrow());
+        // nothing is given back unless the broker reclaims memory
+        assertEquals(0, pool.giveBackIfReclaimed());
+        pool.close();
+        assertEquals(BUDGET, pool.getMemoryBudgetBytes());
+        assertEquals(BUDGET, broker.getAvailableMemory());
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.OpenAddressingHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.junit.Test;
+
+public class InMemoryHashJoinTest {
+    private static final int FRAME_SIZE = 256;
+    private static final int TABLE_SIZE = 16;
+    private static final int NUM_BUILD_KEYS = 1000;
+    private static final int NUM_PROBE_KEYS = 2000;
+    private static final IBinaryHashFunctionFamily[] HASH_FAMILIES =
+            new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE };
+
+    private final ISerializerDeserializer[] fieldsSerDer = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+    private final RecordDescriptor recordDescriptor = new RecordDescriptor(fieldsSerDer);
+    private final RecordDescriptor outputRecordDescriptor =
+            new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE });
+    private final IHyracksFrameMgrContext ctx = new FrameManager(FRAME_SIZE);
+
+    @Test
+    public void testOpenAddressingHashTableComparesMatchesOnly() throws HyracksDataException {
+        ISimpleFrameBufferManager bufferManager = createBufferManager();
+        CountingComparator comparator = new CountingComparator();
+        assertEquals(NUM_BUILD_KEYS, join(new OpenAddressingHashTable(TABLE_SIZE, ctx, bufferManager), comparator));
+        // the full hash values of two different keys are rarely equal
+        assertTrue(comparator.count < NUM_BUILD_KEYS + NUM_BUILD_KEYS / 10);
+    }
+
+    @Test
+    public void testSerializableHashTableComparesWholeEntries() throws HyracksDataException {
+        ISimpleFrameBufferManager bufferManager = createBufferManager();
+        CountingComparator comparator = new CountingComparator();
+        assertEquals(NUM_BUILD_KEYS, join(new SerializableHashTable(TABLE_SIZE, ctx, bufferManager), comparator));
+        // every probe tuple is compared to all the build tuples of its entry
+        assertTrue(comparator.count > (long) NUM_PROBE_KEYS * NUM_BUILD_KEYS / TABLE_SIZE / 2);
+    }
+
+    private ISimpleFrameBufferManager createBufferManager() {
+        return new FramePoolBackedFrameBufferManager(new DeallocatableFramePool(ctx, FRAME_SIZE * 1024));
+    }
+
+    private int join(ISerializableTable table, CountingComparator comparator) throws HyracksDataException {
+        ITuplePartitionComputer tpc =
+                new FieldHashPartitionComputerFamily(new int[] { 0 }, HASH_FAMILIES).createPartitioner(0);
+        FrameTupleAccessor accessorBuild = new FrameTupleAccessor(recordDescriptor);
+        FrameTupleAccessor accessorProbe = new FrameTupleAccessor(recordDescriptor);
+        InMemoryHashJoin join = new InMemoryHashJoin(ctx, accessorProbe, tpc, accessorBuild, recordDescriptor, tpc,
+                false, null, table, null);
+        join.setComparator(comparator);
+        ResultCounter counter = new ResultCounter();
+        for (ByteBuffer buffer : createFrames(NUM_BUILD_KEYS)) {
+            join.build(buffer);
+        }
+        for (ByteBuffer buffer : createFrames(NUM_PROBE_KEYS)) {
+            join.join(buffer, counter);
+        }
+        join.completeJoin(counter);
+        join.closeTable();
+        return counter.count;
+    }
+
+    private List<ByteBuffer> createFrames(int numKeys) throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        FrameTupleAppender appender = new FrameTupleAppender();
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(recordDescriptor.getFieldCount());
+        for (int key = 0; key < numKeys; key++) {
+            tupleBuilder.reset();
+            tupleBuilder.addField(fieldsSerDer[0], key);
+            tupleBuilder.addField(fieldsSerDer[1], key);
+            if (frames.isEmpty() || !appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(),
+                    0, tupleBuilder.getSize())) {
+                frames.add(ByteBuffer.allocate(FRAME_SIZE));
+                appender.reset(new FixedSizeFrame(frames.get(frames.size() - 1)), true);
+                assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                        tupleBuilder.getSize()));
+            }
+        }
+        return frames;
+    }
+
+    private static class CountingComparator implements ITuplePairComparator {
+        private long count;
+
+        @Override
+        public int compare(IFrameTupleAccessor outerRef, int outerIndex, IFrameTupleAccessor innerRef, int innerIndex)
+                throws HyracksDataException {
+            count++;
+            return Integer.compare(getKey(outerRef, outerIndex), getKey(innerRef, innerIndex));
+        }
+    }
+
+    private static int getKey(IFrameTupleAccessor accessor, int tIndex) {
+        return accessor.getBuffer().getInt(accessor.getAbsoluteFieldStartOffset(tIndex, 0));
+    }
+
+    private class ResultCounter implements IFrameWriter {
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(outputRecordDescriptor);
+        private int count;
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                assertEquals(getKey(accessor, i),
+                        accessor.getBuffer().getInt(accessor.getAbsoluteFieldStartOffset(i, 2)));
+                count++;
+            }
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.junit.Test;
+
+public class JoinBloomFilterTest {
+    private static final int FRAME_SIZE = 128 * 1024;
+    private static final int NUM_KEYS = 1000;
+    private static final IBinaryHashFunctionFamily[] HASH_FAMILIES =
+            new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE };
+
+    private final ISerializerDeserializer[] fieldsSerDer =
+            new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE };
+    private final RecordDescriptor recordDescriptor = new RecordDescriptor(fieldsSerDer);
+
+    @Test
+    public void testFilter() throws HyracksDataException {
+        // the key is the first field of the build tuples and the second field of the probe tuples
+        JoinBloomFilter filter =
+                new JoinBloomFilter(new FieldHashPartitionComputerFamily(new int[] { 0 }, HASH_FAMILIES),
+                        new FieldHashPartitionComputerFamily(new int[] { 1 }, HASH_FAMILIES), 1024);
+        FrameTupleAccessor build = createTuples(0, 2 * NUM_KEYS, 2, true);
+        for (int i = 0; i < build.getTupleCount(); i++) {
+            filter.add(build, i);
+        }
+        FrameTupleAccessor matching = createTuples(0, 2 * NUM_KEYS, 2, false);
+        for (int i = 0; i < matching.getTupleCount(); i++) {
+            assertTrue(filter.mightContain(matching, i));
+        }
+        FrameTupleAccessor nonMatching = createTuples(1, 2 * NUM_KEYS, 2, false);
+        int falsePositives = 0;
+        for (int i = 0; i < nonMatching.getTupleCount(); i++) {
+            if (filter.mightContain(nonMatching, i)) {
+                falsePositives++;
+            }
+        }
+        double expectedRate = filter.getFalsePositiveRate();
+        assertTrue(expectedRate < 0.05);
+        assertTrue(falsePositives < 2 * expectedRate * NUM_KEYS);
+    }
+
+    @Test
+    public void testFilterWithKeyHashes() throws HyracksDataException {
+        JoinBloomFilter filter =
+                new JoinBloomFilter(new FieldHashPartitionComputerFamily(new int[] { 0 }, HASH_FAMILIES),
+                        new FieldHashPartitionComputerFamily(new int[] { 1 }, HASH_FAMILIES), 1024);
+        FrameTupleAccessor build = createTuples(0, 2 * NUM_KEYS, 2, true);
+        for (int i = 0; i < build.getTupleCount(); i++) {
+            filter.add(build, i);
+        }
+        // tuples that have the key in the first field, as the build tuples, are tested with hashes of their own
+        ITuplePartitionComputer[] keyHashes =
+                JoinBloomFilter.createHashes(new FieldHashPartitionComputerFamily(new int[] { 0 }, HASH_FAMILIES));
+        FrameTupleAccessor matching = createTuples(0, 2 * NUM_KEYS, 2, true);
+        for (int i = 0; i < matching.getTupleCount(); i++) {
+            assertTrue(filter.mightContain(keyHashes, matching, i));
+        }
+        FrameTupleAccessor nonMatching = createTuples(1, 2 * NUM_KEYS, 2, true);
+        int falsePositives = 0;
+        for (int i = 0; i < nonMatching.getTupleCount(); i++) {
+            if (filter.mightContain(keyHashes, nonMatching, i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2 * filter.getFalsePositiveRate() * NUM_KEYS);
+    }
+
+    @Test
+    public void testFrameCount() {
+        assertEquals(0, JoinBloomFilter.getFrameCount(31));
+        assertEquals(1, JoinBloomFilter.getFrameCount(32));
+    }
+
+    private FrameTupleAccessor createTuples(int from, int to, int step, boolean keyFirst)
+            throws HyracksDataException {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE);
+        FrameTupleAppender appender = new FrameTupleAppender();
+        appender.reset(new FixedSizeFrame(buffer), true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(recordDescriptor.getFieldCount());
+        for (int key = from; key < to; key += step) {
+            tupleBuilder.reset();
+            tupleBuilder.addField(fieldsSerDer[0], keyFirst ? key : -key);
+            tupleBuilder.addField(fieldsSerDer[1], keyFirst ? -key : key);
+            assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize()));
+        }
+        FrameTupleAccessor accessor = new FrameTupleAccessor(recordDescriptor);
+        accessor.reset(buffer);
+        return accessor;
+    }
+}
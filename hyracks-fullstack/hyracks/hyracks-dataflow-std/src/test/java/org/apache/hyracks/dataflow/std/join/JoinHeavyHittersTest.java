@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFamily;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.junit.Test;
+
+public class JoinHeavyHittersTest {
+    private static final int FRAME_SIZE = 128 * 1024;
+    private static final int NUM_TUPLES = 4000;
+    private static final int NUM_PARTITIONS = 4;
+    private static final int HOT_KEY = 42;
+    private static final IBinaryHashFunctionFamily[] HASH_FAMILIES =
+            new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE };
+    private static final ITuplePartitionComputerFamily HPCF =
+            new FieldHashPartitionComputerFamily(new int[] { 0 }, HASH_FAMILIES);
+
+    private final ISerializerDeserializer[] fieldsSerDer =
+            new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE };
+    private final RecordDescriptor recordDescriptor = new RecordDescriptor(fieldsSerDer);
+
+    @Test
+    public void testHeavyHitter() throws HyracksDataException {
+        // two thirds of the tuples have the hot key, the others have distinct keys
+        FrameTupleAccessor accessor = createTuples(true);
+        ITuplePartitionComputer partitioner = HPCF.createPartitioner(0);
+        JoinHeavyHitters heavyHitters = new JoinHeavyHitters(HPCF, NUM_PARTITIONS);
+        for (int i = 0; i < accessor.getTupleCount(); i++) {
+            heavyHitters.add(accessor, i, partitioner.partition(accessor, i, NUM_PARTITIONS));
+        }
+        int hotPartition = partitioner.partition(accessor, 1, NUM_PARTITIONS);
+        int hotKeyHash = JoinHeavyHitters.hash(JoinHeavyHitters.createHash(HPCF), accessor, 1);
+        for (int pid = 0; pid < NUM_PARTITIONS; pid++) {
+            assertEquals(pid == hotPartition ? hotKeyHash : JoinHeavyHitters.NONE, heavyHitters.getHeavyHitter(pid));
+        }
+    }
+
+    @Test
+    public void testNoHeavyHitter() throws HyracksDataException {
+        FrameTupleAccessor accessor = createTuples(false);
+        ITuplePartitionComputer partitioner = HPCF.createPartitioner(0);
+        JoinHeavyHitters heavyHitters = new JoinHeavyHitters(HPCF, NUM_PARTITIONS);
+        for (int i = 0; i < accessor.getTupleCount(); i++) {
+            heavyHitters.add(accessor, i, partitioner.partition(accessor, i, NUM_PARTITIONS));
+        }
+        for (int pid = 0; pid < NUM_PARTITIONS; pid++) {
+            assertEquals(JoinHeavyHitters.NONE, heavyHitters.getHeavyHitter(pid));
+        }
+    }
+
+    @Test
+    public void testHeavyHitterPartitionComputer() throws HyracksDataException {
+        FrameTupleAccessor accessor = createTuples(true);
+        ITuplePartitionComputer hash = JoinHeavyHitters.createHash(HPCF);
+        ITuplePartitionComputer partitioner = new HeavyHitterPartitionComputer(HPCF.createPartitioner(0), hash,
+                JoinHeavyHitters.hash(hash, accessor, 1));
+        int[] partitionSizes = new int[NUM_PARTITIONS];
+        for (int i = 0; i < accessor.getTupleCount(); i++) {
+            int pid = partitioner.partition(accessor, i, NUM_PARTITIONS);
+            if (isHot(i)) {
+                assertEquals(NUM_PARTITIONS - 1, pid);
+            }
+            partitionSizes[pid]++;
+        }
+        // the other keys are spread over the remaining partitions
+        for (int pid = 0; pid < NUM_PARTITIONS - 1; pid++) {
+            assertTrue(partitionSizes[pid] > 0);
+        }
+        assertEquals(0, partitioner.partition(accessor, 0, 1));
+    }
+
+    private FrameTupleAccessor createTuples(boolean skewed) throws HyracksDataException {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE);
+        FrameTupleAppender appender = new FrameTupleAppender();
+        appender.reset(new FixedSizeFrame(buffer), true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(recordDescriptor.getFieldCount());
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            tupleBuilder.reset();
+            // the hot key is not among the other keys
+            tupleBuilder.addField(fieldsSerDer[0], skewed && isHot(i) ? HOT_KEY : -i - 1);
+            assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize()));
+        }
+        FrameTupleAccessor accessor = new FrameTupleAccessor(recordDescriptor);
+        accessor.reset(buffer);
+        return accessor;
+    }
+
+    private static boolean isHot(int i) {
+        return i % 3 != 0;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HashTableEntryClusteringTest {
+
+    @Test
+    public void testCluster() {
+        HashTableEntryClustering clustering = new HashTableEntryClustering();
+        Random random = new Random(0);
+        for (int tableSize : new int[] { 1, 7, 256, 1000, 1 << 20, Integer.MAX_VALUE }) {
+            int tupleCount = 500;
+            int[] entries = new int[tupleCount];
+            clustering.reset(tableSize, tupleCount);
+            for (int i = 0; i < tupleCount; i++) {
+                // few distinct entries, so that the order of the tuples of an entry is checked
+                entries[i] = random.nextInt(Math.min(tableSize, 50)) * (tableSize / Math.min(tableSize, 50));
+                clustering.add(entries[i]);
+            }
+            clustering.cluster();
+            assertEquals(tupleCount, clustering.getTupleCount());
+            BitSet seen = new BitSet(tupleCount);
+            for (int i = 0; i < tupleCount; i++) {
+                int tIndex = clustering.getTupleIndex(i);
+                assertEquals(entries[tIndex], clustering.getEntry(i));
+                seen.set(tIndex);
+                if (i > 0) {
+                    int previous = clustering.getTupleIndex(i - 1);
+                    int clusterBits = Math.max(0, 32 - Integer.numberOfLeadingZeros(tableSize - 1) - 8);
+                    // the clusters are in order of the entries, the tuples of an entry keep their order
+                    assertTrue((entries[previous] >>> clusterBits) <= (entries[tIndex] >>> clusterBits));
+                    if (entries[previous] == entries[tIndex]) {
+                        assertTrue(previous < tIndex);
+                    }
+                }
+            }
+            assertEquals(tupleCount, seen.cardinality());
+        }
+    }
+
+    @Test
+    public void testReuse() {
+        HashTableEntryClustering clustering = new HashTableEntryClustering();
+        clustering.reset(1024, 3);
+        clustering.add(1000);
+        clustering.add(10);
+        clustering.add(500);
+        clustering.cluster();
+        clustering.reset(1024, 2);
+        clustering.add(20);
+        clustering.add(5);
+        clustering.cluster();
+        assertEquals(2, clustering.getTupleCount());
+        assertEquals(5, clustering.getEntry(0));
+        assertEquals(1, clustering.getTupleIndex(0));
+        assertEquals(20, clustering.getEntry(1));
+        assertEquals(0, clustering.getTupleIndex(1));
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
+import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OpenAddressingHashTableTest {
+
+    private static final int NUM_PART = 101;
+    private static final int NUM = 10000;
+    private final TuplePointer pointer = new TuplePointer(0, 0);
+    private IHyracksFrameMgrContext ctx;
+    private ISimpleFrameBufferManager bufferManager;
+
+    @Before
+    public void setup() throws HyracksDataException {
+        ctx = new FrameManager(256);
+        IDeallocatableFramePool framePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 2048);
+        bufferManager = new FramePoolBackedFrameBufferManager(framePool);
+    }
+
+    @Test
+    public void testInsert() throws Exception {
+        OpenAddressingHashTable table = new OpenAddressingHashTable(NUM_PART, ctx, bufferManager);
+        insert(table);
+        assertEquals(NUM, table.getTupleCount());
+        for (int i = 0; i < NUM_PART; i++) {
+            assertEquals(expectedPointers(i), getPointers(table, i));
+        }
+        assertFalse(table.getTuplePointer(0, table.getTupleCount(0), pointer));
+        table.close();
+        assertEquals(0, table.getCurrentByteSize());
+    }
+
+    @Test
+    public void testBatchDeletePartition() throws Exception {
+        OpenAddressingHashTable table = new OpenAddressingHashTable(NUM_PART, ctx, bufferManager);
+        insert(table);
+        for (int i = 0; i < NUM_PART; i += 2) {
+            table.delete(i);
+            assertEquals(0, table.getTupleCount(i));
+            assertFalse(table.getTuplePointer(i, 0, pointer));
+        }
+        // the remaining entries are still found after their runs have been shifted
+        for (int i = 1; i < NUM_PART; i += 2) {
+            assertEquals(expectedPointers(i), getPointers(table, i));
+        }
+        for (int i = 0; i < NUM_PART; i += 2) {
+            for (int j = i; j < NUM; j += NUM_PART) {
+                pointer.reset(j, j);
+                assertTrue(table.insert(i, pointer));
+            }
+        }
+        for (int i = 0; i < NUM_PART; i++) {
+            assertEquals(expectedPointers(i), getPointers(table, i));
+        }
+        table.close();
+    }
+
+    @Test
+    public void testRandomInsertAndDelete() throws Exception {
+        final int tableSize = 1000;
+        OpenAddressingHashTable table = new OpenAddressingHashTable(tableSize, ctx, bufferManager);
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < tableSize; i++) {
+            expected.add(new HashSet<>());
+        }
+        Random random = new Random(0);
+        int count = 0;
+        for (int i = 0; i < 100000; i++) {
+            int entry = random.nextInt(tableSize);
+            if (random.nextInt(10) == 0) {
+                table.delete(entry);
+                count -= expected.get(entry).size();
+                expected.get(entry).clear();
+            } else {
+                pointer.reset(i, i);
+                assertTrue(table.insert(entry, pointer));
+                expected.get(entry).add(i);
+                count++;
+            }
+        }
+        assertEquals(count, table.getTupleCount());
+        for (int i = 0; i < tableSize; i++) {
+            assertEquals(expected.get(i), getPointers(table, i));
+        }
+        table.close();
+    }
+
+    @Test
+    public void testLookupByHash() throws Exception {
+        final int tableSize = 7;
+        final int hashesPerEntry = 5;
+        OpenAddressingHashTable table = new OpenAddressingHashTable(tableSize, ctx, bufferManager);
+        for (int i = 0; i < NUM; i++) {
+            int hash = i % (tableSize * hashesPerEntry);
+            pointer.reset(hash, i);
+            assertTrue(table.insert(ISerializableTable.getEntry(hash, tableSize), hash, pointer));
+        }
+        for (int hash = 0; hash < tableSize * hashesPerEntry; hash++) {
+            int entry = ISerializableTable.getEntry(hash, tableSize);
+            int tupleCount = table.getTupleCount(entry, hash);
+            for (int i = 0; i < tupleCount; i++) {
+                assertTrue(table.getTuplePointer(entry, hash, i, pointer));
+                assertEquals(hash, pointer.getFrameIndex());
+            }
+            assertFalse(table.getTuplePointer(entry, hash, tupleCount, pointer));
+            int expected = 0;
+            for (int i = hash; i < NUM; i += tableSize * hashesPerEntry) {
+                expected++;
+            }
+            assertEquals(expected, tupleCount);
+        }
+        // a lookup without the hash still returns all the tuples of the entry
+        int total = 0;
+        for (int i = 0; i < tableSize; i++) {
+            total += table.getTupleCount(i);
+        }
+        assertEquals(NUM, total);
+        table.close();
+    }
+
+    @Test
+    public void testInsertFailsWithoutFrames() throws Exception {
+        IDeallocatableFramePool framePool = new DeallocatableFramePool(ctx, ctx.getInitialFrameSize() * 2);
+        OpenAddressingHashTable table =
+                new OpenAddressingHashTable(NUM, ctx, new FramePoolBackedFrameBufferManager(framePool));
+        int inserted = 0;
+        for (int i = 0; i < NUM; i++) {
+            pointer.reset(i, i);
+            if (!table.insert(i, pointer)) {
+                break;
+            }
+            inserted++;
+        }
+        assertTrue(inserted > 0 && inserted < NUM);
+        assertEquals(inserted, table.getTupleCount());
+        assertEquals(2 * ctx.getInitialFrameSize(), table.getCurrentByteSize());
+        table.close();
+    }
+
+    private void insert(OpenAddressingHashTable table) throws HyracksDataException {
+        for (int i = 0; i < NUM; i++) {
+            pointer.reset(i, i);
+            assertTrue(table.insert(i % NUM_PART, pointer));
+        }
+    }
+
+    private static Set<Integer> expectedPointers(int entry) {
+        Set<Integer> pointers = new HashSet<>();
+        for (int i = entry; i < NUM; i += NUM_PART) {
+            pointers.add(i);
+        }
+        return pointers;
+    }
+
+    private Set<Integer> getPointers(OpenAddressingHashTable table, int entry) {
+        Set<Integer> pointers = new HashSet<>();
+        for (int i = 0; i < table.getTupleCount(entry); i++) {
+            assertTrue(table.getTuplePointer(entry, i, pointer));
+            assertEquals(pointer.getFrameIndex(), pointer.getTupleIndex());
+            pointers.add(pointer.getFrameIndex());
+        }
+        assertEquals(table.getTupleCount(entry), pointers.size());
+        return pointers;
+    }
+}
@@ -19,9 +19,14 @@
 package org.apache.hyracks.tests.integration;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksJobletContext;
@@ -32,16 +37,21 @@ import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.dataflow.std.join.JoinBloomFilter;
 import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoin;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -146,6 +156,151 @@ public class OptimizedHybridHashJoinTest {
         testJoin(memSizeInFrames, numOfPartitions, frame);
     }
 
+    @Test
+    public void SmallRecords_BloomFilterDropsSpilledProbeTuples() throws HyracksDataException {
+        probeRd = new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+        buildRd = new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+        memSizeInFrames = 5;
+        numOfPartitions = 5;
+        int numKeys = 30000;
+        // the build side has the even keys, so half of the probe tuples have no match
+        List<VSizeFrame> buildFrames = generateIntFrames(numKeys, 2);
+        List<VSizeFrame> probeFrames = generateIntFrames(numKeys, 1);
+        int[] withoutFilter = joinSpilling(buildFrames, probeFrames, false);
+        Assert.assertEquals(0, hhj.getBloomFilteredProbeTupleCount());
+        int[] withFilter = joinSpilling(buildFrames, probeFrames, true);
+        Assert.assertTrue(hhj.getBloomFilteredProbeTupleCount() > 0);
+        // the join results are unchanged while fewer probe tuples are spilled
+        Assert.assertEquals(numKeys / 2, withoutFilter[0]);
+        Assert.assertEquals(numKeys / 2, withFilter[0]);
+        Assert.assertTrue(withoutFilter[1] > 0);
+        Assert.assertEquals(withoutFilter[1] - hhj.getBloomFilteredProbeTupleCount(), withFilter[1]);
+    }
+
+    /**
+     * @return the number of join results, including those of the spilled partitions, and the number of spilled probe
+     *         tuples
+     */
+    private int[] joinSpilling(List<VSizeFrame> buildFrames, List<VSizeFrame> probeFrames, boolean useBloomFilter)
+            throws HyracksDataException {
+        hhj = new OptimizedHybridHashJoin(ctx, memSizeInFrames, numOfPartitions, probeRelName, buildRelName, probeRd,
+                buildRd, probeHpc, buildHpc, null, null, isLeftOuter, null);
+        if (useBloomFilter) {
+            hhj.setBloomFilter(new JoinBloomFilter(new FieldHashPartitionComputerFamily(buildKeys,
+                    buildHashFunctionFactories), new FieldHashPartitionComputerFamily(probeKeys,
+                            propHashFunctionFactories), frameSize));
+        }
+        hhj.initBuild();
+        for (VSizeFrame frame : buildFrames) {
+            hhj.build(frame.getBuffer());
+        }
+        hhj.closeBuild();
+        BitSet spilledStatus = hhj.getPartitionStatus();
+        Assert.assertTrue(spilledStatus.cardinality() > 0);
+        TupleCountingWriter writer = new TupleCountingWriter();
+        hhj.initProbe((outerRef, outerIndex, innerRef, innerIndex) -> Integer.compare(getKey(outerRef, outerIndex),
+                getKey(innerRef, innerIndex)));
+        for (VSizeFrame frame : probeFrames) {
+            hhj.probe(frame.getBuffer(), writer);
+        }
+        hhj.completeProbe(writer);
+        hhj.releaseResource();
+        int results = writer.tupleCount;
+        int spilledProbeTuples = 0;
+        for (int pid = spilledStatus.nextSetBit(0); pid >= 0; pid = spilledStatus.nextSetBit(pid + 1)) {
+            spilledProbeTuples += hhj.getProbePartitionSizeInTup(pid);
+            results += joinSpilledPartition(hhj.getBuildRFReader(pid), hhj.getProbeRFReader(pid));
+        }
+        return new int[] { results, spilledProbeTuples };
+    }
+
+    private int joinSpilledPartition(RunFileReader buildReader, RunFileReader probeReader)
+            throws HyracksDataException {
+        Set<Integer> buildKeySet = new HashSet<>();
+        for (int key : readKeys(buildReader, buildRd)) {
+            buildKeySet.add(key);
+        }
+        int results = 0;
+        for (int key : readKeys(probeReader, probeRd)) {
+            if (buildKeySet.contains(key)) {
+                results++;
+            }
+        }
+        return results;
+    }
+
+    private List<Integer> readKeys(RunFileReader reader, RecordDescriptor rd) throws HyracksDataException {
+        List<Integer> keys = new ArrayList<>();
+        if (reader == null) {
+            return keys;
+        }
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAccessor accessor = new FrameTupleAccessor(rd);
+        reader.open();
+        try {
+            while (reader.nextFrame(frame)) {
+                accessor.reset(frame.getBuffer());
+                for (int i = 0; i < accessor.getTupleCount(); i++) {
+                    keys.add(getKey(accessor, i));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return keys;
+    }
+
+    private static int getKey(IFrameTupleAccessor accessor, int tIndex) {
+        return IntegerPointable.getInteger(accessor.getBuffer().array(), accessor.getAbsoluteFieldStartOffset(tIndex,
+                0));
+    }
+
+    private List<VSizeFrame> generateIntFrames(int numKeys, int step) throws HyracksDataException {
+        List<VSizeFrame> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(1);
+        FrameTupleAppender appender = new FrameTupleAppender();
+        VSizeFrame frame = null;
+        for (int key = 0; key < numKeys; key += step) {
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, key);
+            if (frame == null || !appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frame = new VSizeFrame(ctx, ctx.getInitialFrameSize());
+                frames.add(frame);
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        return frames;
+    }
+
+    private static class TupleCountingWriter implements IFrameWriter {
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(
+                new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                        IntegerSerializerDeserializer.INSTANCE }));
+        private int tupleCount;
+
+        @Override
+        public void open() {
+            // no-op
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) {
+            accessor.reset(buffer);
+            tupleCount += accessor.getTupleCount();
+        }
+
+        @Override
+        public void fail() {
+            // no-op
+        }
+
+        @Override
+        public void close() {
+            // no-op
+        }
+    }
+
     private void testJoin(int memSizeInFrames, int numOfPartitions, VSizeFrame frame) throws HyracksDataException {
 
         hhj = new OptimizedHybridHashJoin(ctx, memSizeInFrames, numOfPartitions, probeRelName, buildRelName, probeRd,
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IMissingWriter;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.IntegerBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.join.JoinComparatorFactory;
+import org.apache.hyracks.dataflow.std.join.SortMergeJoin;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+public class SortMergeJoinTest {
+    private static final int FRAME_SIZE = 32768;
+    private static final int MISSING = Integer.MIN_VALUE;
+    private static final RecordDescriptor OUTER_RD = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    private static final RecordDescriptor INNER_RD = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    private static final RecordDescriptor OUTPUT_RD =
+            new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE });
+
+    private final IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+    private final Random rnd = new Random(17);
+
+    @Test
+    public void testInnerJoin() throws HyracksDataException {
+        testJoin(randomKeys(20000, 5000), randomKeys(20000, 5000), 5, false);
+    }
+
+    @Test
+    public void testLeftOuterJoin() throws HyracksDataException {
+        testJoin(randomKeys(20000, 5000), randomKeys(20000, 5000), 5, true);
+    }
+
+    @Test
+    public void testSpilledRun() throws HyracksDataException {
+        // the run of the key 7 spans many frames and does not fit in 5 frames
+        List<Integer> innerKeys = new ArrayList<>();
+        innerKeys.add(1);
+        for (int i = 0; i < 30000; i++) {
+            innerKeys.add(7);
+        }
+        innerKeys.add(9);
+        List<Integer> outerKeys = new ArrayList<>();
+        for (int key : new int[] { 0, 1, 7, 7, 7, 8, 9, 10 }) {
+            outerKeys.add(key);
+        }
+        testJoin(outerKeys, innerKeys, 5, false);
+        testJoin(outerKeys, innerKeys, 5, true);
+        testJoin(outerKeys, innerKeys, 100, true);
+    }
+
+    private List<Integer> randomKeys(int count, int maxKey) {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(rnd.nextInt(maxKey));
+        }
+        keys.sort(null);
+        return keys;
+    }
+
+    private void testJoin(List<Integer> outerKeys, List<Integer> innerKeys, int memSizeInFrames, boolean isLeftOuter)
+            throws HyracksDataException {
+        IBinaryComparator[] comparators =
+                new IBinaryComparator[] { IntegerBinaryComparatorFactory.INSTANCE.createBinaryComparator() };
+        IMissingWriter missingWriter = out -> {
+            try {
+                out.writeInt(MISSING);
+            } catch (Exception e) {
+                throw HyracksDataException.create(e);
+            }
+        };
+        SortMergeJoin joiner = new SortMergeJoin(ctx.getJobletContext(), OUTER_RD, INNER_RD, new int[] { 0 },
+                new int[] { 0 }, comparators, comparators, memSizeInFrames, isLeftOuter,
+                new IMissingWriter[] { missingWriter, missingWriter });
+        for (ByteBuffer buffer : createFrames(innerKeys)) {
+            joiner.cache(buffer);
+        }
+        joiner.closeCache();
+        ITuplePairComparatorFactory joinCondition =
+                new JoinComparatorFactory(IntegerBinaryComparatorFactory.INSTANCE, 0, 0);
+        joiner.setComparator(joinCondition.createTuplePairComparator(ctx));
+        ResultChecker checker = new ResultChecker(innerKeys.size());
+        for (ByteBuffer buffer : createFrames(outerKeys)) {
+            joiner.join(buffer, checker);
+        }
+        joiner.completeJoin(checker);
+        joiner.releaseMemory();
+
+        long expectedCount = 0;
+        long expectedSum = 0;
+        int innerStart = 0;
+        for (int i = 0; i < outerKeys.size(); i++) {
+            int key = outerKeys.get(i);
+            while (innerStart < innerKeys.size() && innerKeys.get(innerStart) < key) {
+                innerStart++;
+            }
+            int matches = 0;
+            for (int j = innerStart; j < innerKeys.size() && innerKeys.get(j) == key; j++) {
+                matches++;
+                expectedSum += (long) i * innerKeys.size() + j;
+            }
+            if (matches == 0 && isLeftOuter) {
+                matches++;
+                expectedSum += (long) i * innerKeys.size() - 1;
+            }
+            expectedCount += matches;
+        }
+        assertEquals(expectedCount, checker.count);
+        assertEquals(expectedSum, checker.sum);
+    }
+
+    // the second field of a tuple is its position in its input
+    private List<ByteBuffer> createFrames(List<Integer> keys) throws HyracksDataException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        for (int i = 0; i < keys.size(); i++) {
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, keys.get(i));
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                buffers.add(copy(frame.getBuffer()));
+                appender.reset(frame, true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        buffers.add(copy(frame.getBuffer()));
+        return buffers;
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.capacity());
+        copy.put(buffer.array(), 0, buffer.capacity());
+        copy.flip();
+        return copy;
+    }
+
+    private static class ResultChecker implements IFrameWriter {
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(OUTPUT_RD);
+        private final int innerSize;
+        private long count;
+        private long sum;
+        private int lastOuterPosition = -1;
+
+        private ResultChecker(int innerSize) {
+            this.innerSize = innerSize;
+        }
+
+        @Override
+        public void open() {
+            // Nothing to open
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                int outerKey = getField(i, 0);
+                int outerPosition = getField(i, 1);
+                int innerKey = getField(i, 2);
+                int innerPosition = getField(i, 3);
+                if (innerPosition == MISSING) {
+                    innerPosition = -1;
+                } else {
+                    assertEquals(outerKey, innerKey);
+                }
+                // the join keeps the order of the outer input
+                assertTrue(lastOuterPosition <= outerPosition);
+                lastOuterPosition = outerPosition;
+                count++;
+                sum += (long) outerPosition * innerSize + innerPosition;
+            }
+        }
+
+        private int getField(int tIndex, int fIdx) {
+            return IntegerPointable.getInteger(accessor.getBuffer().array(),
+                    accessor.getAbsoluteFieldStartOffset(tIndex, fIdx));
+        }
+
+        @Override
+        public void fail() {
+            // Nothing to fail
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+    }
+}
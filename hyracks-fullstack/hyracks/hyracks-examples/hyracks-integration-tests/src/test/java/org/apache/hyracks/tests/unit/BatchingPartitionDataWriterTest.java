@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.connectors.BatchingPartitionDataWriter;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+public class BatchingPartitionDataWriterTest {
+    private static final int FRAME_SIZE = 512;
+    private static final ISerializerDeserializer[] SER_DES = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() };
+    private static final RecordDescriptor RECORD_DESC = new RecordDescriptor(SER_DES);
+    private static final ITuplePartitionComputer PARTITIONER =
+            (accessor, tIndex, nParts) -> getKey(accessor, tIndex) % nParts;
+
+    @Test
+    public void testManyConsumers() throws HyracksDataException {
+        testPartitioning(300, 4, 20000, 30, false);
+    }
+
+    @Test
+    public void testBigTuples() throws HyracksDataException {
+        testPartitioning(40, 2, 3000, 3 * FRAME_SIZE, false);
+    }
+
+    @Test
+    public void testFlush() throws HyracksDataException {
+        testPartitioning(100, 3, 5000, 200, true);
+    }
+
+    private void testPartitioning(int nConsumers, int memoryFrames, int nTuples, int maxLength, boolean flush)
+            throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        List<List<String>> expected = new ArrayList<>();
+        List<List<String>> received = new ArrayList<>();
+        List<ReceivingWriter> writers = new ArrayList<>();
+        for (int i = 0; i < nConsumers; i++) {
+            expected.add(new ArrayList<>());
+            received.add(new ArrayList<>());
+            writers.add(new ReceivingWriter(received.get(i)));
+        }
+        BatchingPartitionDataWriter writer = new BatchingPartitionDataWriter(ctx, nConsumers, writers::get,
+                RECORD_DESC, PARTITIONER, memoryFrames);
+        writer.open();
+        Random random = new Random(0);
+        FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        for (int i = 0; i < nTuples; i++) {
+            int key = random.nextInt(Integer.MAX_VALUE);
+            String value = random.nextInt(50) == 0 ? randomString(random, maxLength) : randomString(random, 20);
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, key);
+            tb.addField(SER_DES[1], value);
+            FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            expected.get(key % nConsumers).add(key + value);
+            if (flush && i == nTuples / 2) {
+                appender.write(writer, true);
+                writer.flush();
+                for (int p = 0; p < nConsumers; p++) {
+                    assertEquals(expected.get(p), received.get(p));
+                }
+            }
+        }
+        appender.write(writer, true);
+        writer.close();
+        for (int p = 0; p < nConsumers; p++) {
+            assertTrue(writers.get(p).closed);
+            assertEquals(expected.get(p), received.get(p));
+        }
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static int getKey(IFrameTupleAccessor accessor, int tIndex) {
+        int offset = accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength();
+        return accessor.getBuffer().getInt(offset);
+    }
+
+    private static class ReceivingWriter implements IFrameWriter {
+        private final List<String> tuples;
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESC);
+        private boolean closed;
+
+        private ReceivingWriter(List<String> tuples) {
+            this.tuples = tuples;
+        }
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            assertTrue(accessor.getTupleCount() > 0);
+            ByteBufferInputStream bbis = new ByteBufferInputStream();
+            DataInputStream in = new DataInputStream(bbis);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                bbis.setByteBuffer(buffer, accessor.getTupleStartOffset(i) + accessor.getFieldSlotsLength());
+                tuples.add(IntegerSerializerDeserializer.INSTANCE.deserialize(in)
+                        + (String) SER_DES[1].deserialize(in));
+            }
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -19,15 +19,19 @@
 
 package org.apache.hyracks.tests.unit;
 
+import java.util.List;
+
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
 import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.junit.Test;
 
 public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
 
@@ -44,8 +48,25 @@ public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
                         new UTF8StringNormalizedKeyComputerFactory() },
                 ComparatorFactories, RecordDesc, Algorithm.MERGE_SORT, EnumFreeSlotPolicy.LAST_FIT, frameLimit,
                 Integer.MAX_VALUE);
+        ExternalSortRunGenerator runGeneratorWithThreads = new ExternalSortRunGenerator(ctx, SortFields,
+                new INormalizedKeyComputerFactory[] { new IntegerNormalizedKeyComputerFactory() }, ComparatorFactories,
+                RecordDesc, Algorithm.MERGE_SORT, EnumFreeSlotPolicy.LAST_FIT, frameLimit, Integer.MAX_VALUE, 3);
 
         return new AbstractSortRunGenerator[] { runGenerator, runGeneratorWithOneNormalizeKey,
-                runGeneratorWithNormalizeKeys };
+                runGeneratorWithNormalizeKeys, runGeneratorWithThreads };
+    }
+
+    @Test
+    public void testRunsLargeEnoughToBeSortedByThreads() throws HyracksDataException {
+        int pageSize = 32768;
+        int frameLimit = 64;
+        int numRuns = 2;
+        int minRecordSize = 4;
+        int maxRecordSize = 16;
+        List<List<GeneratedRunFileReader>> maxSizes =
+                testSortRecords(pageSize, frameLimit, numRuns, minRecordSize, maxRecordSize, null);
+        for (List<GeneratedRunFileReader> maxSize : maxSizes) {
+            assertMaxFrameSizesAreAllEqualsTo(maxSize, pageSize);
+        }
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.data.marshalling.FloatSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldGroupAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupStreamingOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+public class ExternalStreamingGroupbyTest {
+
+    private static final int FRAME_SIZE = 4096;
+    private static final int FRAME_LIMIT = 8;
+    private static final int TABLE_SIZE = 101;
+    private static final int NUM_TUPLES = 20000;
+
+    RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() });
+
+    RecordDescriptor outputRec = new RecordDescriptor(new ISerializerDeserializer[] {
+            new UTF8StringSerializerDeserializer(), // key
+            IntegerSerializerDeserializer.INSTANCE, // sum
+            IntegerSerializerDeserializer.INSTANCE, // count
+            FloatSerializerDeserializer.INSTANCE, // avg
+    });
+
+    IAggregatorDescriptorFactory partialAggrInPlace = new MultiFieldsAggregatorFactory(
+            new IFieldAggregateDescriptorFactory[] { new IntSumFieldAggregatorFactory(0, false),
+                    new CountFieldAggregatorFactory(false), new AvgFieldGroupAggregatorFactory(0, false) });
+
+    int[] keyFields = new int[] { 1 };
+
+    class PartialResultWriter implements IFrameWriter {
+        final Map<String, int[]> sumAndCount = new HashMap<>();
+        final FrameTupleAccessor resultAccessor = new FrameTupleAccessor(outputRec);
+        final ByteBufferInputStream bbis = new ByteBufferInputStream();
+        final DataInputStream di = new DataInputStream(bbis);
+        int numTuples;
+        boolean closed;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            resultAccessor.reset(buffer);
+            for (int tid = 0; tid < resultAccessor.getTupleCount(); tid++) {
+                bbis.setByteBuffer(buffer, resultAccessor.getAbsoluteFieldStartOffset(tid, 0));
+                String key = (String) outputRec.getFields()[0].deserialize(di);
+                bbis.setByteBuffer(buffer, resultAccessor.getAbsoluteFieldStartOffset(tid, 1));
+                int sum = (int) outputRec.getFields()[1].deserialize(di);
+                bbis.setByteBuffer(buffer, resultAccessor.getAbsoluteFieldStartOffset(tid, 2));
+                int count = (int) outputRec.getFields()[2].deserialize(di);
+                // the partial aggregates of a group are merged as the global step would do
+                int[] total = sumAndCount.computeIfAbsent(key, k -> new int[2]);
+                total[0] += sum;
+                total[1] += count;
+                numTuples++;
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void testGroupsAreWrittenWhenTableIsFull() throws HyracksDataException {
+        // blocks of 2000 tuples with 100 keys each, so that the tuples are grouped well but the groups do not fit in
+        // the table: some groups are written more than once
+        PartialResultWriter writer = aggregate(i -> "key" + ((i / 2000) * 100 + i % 100));
+        assertTrue(writer.numTuples > NUM_TUPLES / 20);
+        assertTrue(writer.numTuples < NUM_TUPLES / 10);
+    }
+
+    @Test
+    public void testGroupingStopsWhenFewTuplesAreGrouped() throws HyracksDataException {
+        PartialResultWriter writer = aggregate(i -> "key" + i);
+        assertEquals(NUM_TUPLES, writer.numTuples);
+    }
+
+    @Test
+    public void testGroupsInMemoryAreWrittenOnce() throws HyracksDataException {
+        PartialResultWriter writer = aggregate(i -> "key" + (i % 5));
+        assertEquals(5, writer.numTuples);
+    }
+
+    private PartialResultWriter aggregate(KeyGenerator keyGenerator) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        ExternalGroupStreamingOperatorNodePushable operator = new ExternalGroupStreamingOperatorNodePushable(ctx,
+                TABLE_SIZE, FRAME_LIMIT * FRAME_SIZE, keyFields, null, FRAME_LIMIT,
+                new IBinaryComparatorFactory[] { UTF8StringBinaryComparatorFactory.INSTANCE },
+                new UTF8StringNormalizedKeyComputerFactory(), partialAggrInPlace, inRecordDesc, outputRec,
+                new HashSpillableTableFactory(
+                        new IBinaryHashFunctionFamily[] { UTF8StringBinaryHashFunctionFamily.INSTANCE }));
+        PartialResultWriter writer = new PartialResultWriter();
+        operator.setOutputFrameWriter(0, writer, outputRec);
+
+        Map<String, int[]> expected = new HashMap<>();
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(inRecordDesc.getFieldCount());
+        operator.open();
+        try {
+            for (int i = 0; i < NUM_TUPLES; i++) {
+                String key = keyGenerator.getKey(i);
+                int[] total = expected.computeIfAbsent(key, k -> new int[2]);
+                total[0] += i;
+                total[1]++;
+                tb.reset();
+                tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+                tb.addField(new UTF8StringSerializerDeserializer(), key);
+                if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                    operator.nextFrame(frame.getBuffer());
+                    appender.reset(frame, true);
+                    assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+                }
+            }
+            operator.nextFrame(frame.getBuffer());
+        } finally {
+            operator.close();
+        }
+
+        assertTrue(writer.closed);
+        assertEquals(expected.size(), writer.sumAndCount.size());
+        expected.forEach((key, total) -> {
+            assertEquals(total[0], writer.sumAndCount.get(key)[0]);
+            assertEquals(total[1], writer.sumAndCount.get(key)[1]);
+        });
+        return writer;
+    }
+
+    @FunctionalInterface
+    private interface KeyGenerator {
+        String getKey(int i);
+    }
+}
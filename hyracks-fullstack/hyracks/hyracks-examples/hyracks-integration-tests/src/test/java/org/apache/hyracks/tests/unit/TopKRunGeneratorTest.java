@@ -33,6 +33,7 @@ import org.apache.hyracks.api.comm.FixedSizeFrame;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
@@ -43,6 +44,7 @@ import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedK
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.HeapSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.HybridTopKSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.TopKThreshold;
 import org.junit.Test;
 
 public class TopKRunGeneratorTest {
@@ -144,6 +146,37 @@ public class TopKRunGeneratorTest {
         testInMemoryOnly(ctx, topK, ORDER.REVERSE, sorter);
     }
 
+    @Test
+    public void testHybridTopKPublishesThreshold() throws HyracksDataException {
+        int topK = SORT_FRAME_LIMIT;
+        int thresholdId = 0;
+        IHyracksTaskContext ctx = AbstractRunGeneratorTest.testUtils.create(PAGE_SIZE);
+        AbstractSortRunGenerator sorter = new HybridTopKSortRunGenerator(ctx, SORT_FRAME_LIMIT, topK, SortFields, null,
+                ComparatorFactories, RecordDesc, thresholdId);
+        Map<Integer, String> keyValuePair = new TreeMap<>(Collections.reverseOrder());
+        AbstractRunGeneratorTest.prepareData(ctx, new ArrayList<>(), PAGE_SIZE * NUM_PAGES * 4 / 5, 64, 64, null,
+                keyValuePair);
+        ByteBuffer buffer = prepareSortedData(keyValuePair);
+        TopKThreshold threshold = TopKThreshold.get(ctx, thresholdId);
+        assertFalse(threshold.isSet());
+        doSort(sorter, buffer);
+        assertTrue(threshold.isSet());
+
+        // the threshold is the greatest of the top k keys
+        int maxTopKKey = Collections.max(getTopKAnswer(keyValuePair, topK).keySet());
+        IBinaryComparator[] comparators = new IBinaryComparator[ComparatorFactories.length];
+        for (int i = 0; i < comparators.length; i++) {
+            comparators[i] = ComparatorFactories[i].createBinaryComparator();
+        }
+        FrameTupleAccessor accessor = new FrameTupleAccessor(RecordDesc);
+        accessor.reset(buffer);
+        assertEquals(keyValuePair.size(), accessor.getTupleCount());
+        for (int i = 0; i < accessor.getTupleCount(); i++) {
+            int key = accessor.getBuffer().getInt(accessor.getAbsoluteFieldStartOffset(i, 0));
+            assertEquals(key > maxTopKKey, threshold.isAbove(accessor, i, SortFields, comparators));
+        }
+    }
+
     private void testInMemoryOnly(IHyracksTaskContext ctx, int topK, ORDER order, AbstractSortRunGenerator sorter)
             throws HyracksDataException {
         Map<Integer, String> keyValuePair = null;
@@ -281,6 +281,7 @@ public class HttpUtil {
         public static final String ADM = "adm";
         public static final String JSON = "json";
         public static final String CSV = "csv";
+        public static final String ARROW = "arrow";
         public static final String APPLICATION_ADM = "application/x-adm";
         public static final String APPLICATION_JSON = "application/json";
         public static final String APPLICATION_X_WWW_FORM_URLENCODED = "application/x-www-form-urlencoded";
@@ -290,6 +291,7 @@ public class HttpUtil {
         public static final String TEXT_PLAIN = "text/plain";
         public static final String APPLICATION_ZIP = "application/zip";
         public static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
+        public static final String APPLICATION_ARROW_STREAM = "application/vnd.apache.arrow.stream";
 
         private ContentType() {
         }
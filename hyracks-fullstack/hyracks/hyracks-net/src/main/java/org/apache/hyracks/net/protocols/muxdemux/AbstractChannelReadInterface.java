@@ -80,4 +80,19 @@ public abstract class AbstractChannelReadInterface implements IChannelReadInterf
     public void setBufferFactory(IBufferFactory bufferFactory, int limit, int frameSize) {
         this.bufferFactory = bufferFactory;
     }
+
+    @Override
+    public void setBufferFactory(IBufferFactory bufferFactory, int initialLimit, int limit, int frameSize) {
+        setBufferFactory(bufferFactory, limit, frameSize);
+    }
+
+    @Override
+    public int getCreditWindow() {
+        return 0;
+    }
+
+    @Override
+    public long getIdleTime() {
+        return 0;
+    }
 }
@@ -50,6 +50,12 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
     protected boolean ecodeSent;
     protected ByteBuffer currentWriteBuffer;
     private final ICloseableBufferAcceptor fba;
+    // the times are only read without holding the ChannelControlBlock to report the state of the channel
+    private volatile long backPressureTime;
+    private volatile long idleTime;
+    private volatile long stateChangeTime;
+    private volatile boolean backPressured;
+    private volatile boolean idle;
 
     public AbstractChannelWriteInterface(IChannelControlBlock ccb) {
         this.ccb = ccb;
@@ -60,6 +66,8 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
         eos = false;
         eosSent = false;
         ecodeSent = false;
+        stateChangeTime = System.nanoTime();
+        idle = true;
     }
 
     @Override
@@ -88,6 +96,7 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
     @Override
     @GuardedBy("ChannelControlBlock")
     public void adjustChannelWritability() {
+        updateTimes();
         boolean writable = computeWritability();
         if (writable) {
             if (!channelWritabilityState) {
@@ -101,6 +110,20 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
         channelWritabilityState = writable;
     }
 
+    @GuardedBy("ChannelControlBlock")
+    private void updateTimes() {
+        long now = System.nanoTime();
+        if (backPressured) {
+            backPressureTime += now - stateChangeTime;
+        } else if (idle) {
+            idleTime += now - stateChangeTime;
+        }
+        stateChangeTime = now;
+        boolean dataPresent = !ecodeSent && (currentWriteBuffer != null || !wiFullQueue.isEmpty());
+        backPressured = dataPresent && credits <= 0;
+        idle = !dataPresent && !eos;
+    }
+
     @Override
     @GuardedBy("ChannelControlBlock")
     public void addCredits(int credit) {
@@ -122,6 +145,16 @@ public abstract class AbstractChannelWriteInterface implements IChannelWriteInte
         return credits;
     }
 
+    @Override
+    public long getBackPressureTime() {
+        return backPressured ? backPressureTime + System.nanoTime() - stateChangeTime : backPressureTime;
+    }
+
+    @Override
+    public long getIdleTime() {
+        return idle ? idleTime + System.nanoTime() - stateChangeTime : idleTime;
+    }
+
     protected boolean isPendingCloseWrite() {
         return eos && !eosSent && !ecodeSent;
     }
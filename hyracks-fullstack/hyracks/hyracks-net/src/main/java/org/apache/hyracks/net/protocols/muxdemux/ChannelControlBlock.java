@@ -20,6 +20,7 @@ package org.apache.hyracks.net.protocols.muxdemux;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hyracks.api.comm.IChannelControlBlock;
@@ -28,6 +29,7 @@ import org.apache.hyracks.api.comm.IChannelReadInterface;
 import org.apache.hyracks.api.comm.IChannelWriteInterface;
 import org.apache.hyracks.api.exceptions.NetException;
 import org.apache.hyracks.api.network.ISocketChannel;
+import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.net.protocols.muxdemux.MultiplexedConnection.WriterState;
 import org.apache.hyracks.util.JSONUtil;
 import org.apache.hyracks.util.annotations.GuardedBy;
@@ -57,6 +59,16 @@ public class ChannelControlBlock implements IChannelControlBlock {
 
     private final AtomicBoolean remoteCloseAck;
 
+    private volatile boolean frameCompression;
+
+    private volatile PartitionId partitionId;
+
+    // the time credits were sent while no data had been received since credits were last sent, 0 if data was received
+    private volatile long creditsSentTime;
+
+    // the credits the read interface was given by the credit controller in addition to its initial credits
+    private int acquiredCredits;
+
     ChannelControlBlock(ChannelSet cSet, int channelId, IChannelInterfaceFactory interfaceFactory) {
         this.cSet = cSet;
         this.channelId = channelId;
@@ -112,6 +124,50 @@ public class ChannelControlBlock implements IChannelControlBlock {
         wi.adjustChannelWritability();
     }
 
+    @GuardedBy("MultiplexConnection")
+    void creditsSent(long now) {
+        if (creditsSentTime == 0) {
+            creditsSentTime = now;
+        }
+    }
+
+    void dataReceived(long now) {
+        long sentTime = creditsSentTime;
+        if (sentTime != 0) {
+            creditsSentTime = 0;
+            getCreditController().addRoundTripSample(now - sentTime);
+        }
+    }
+
+    /**
+     * Tries to give the remote side credits for one more buffer of {@code bufferSize} bytes, in addition to the
+     * {@code window} bytes it is already credited with. Must be called by the read interface.
+     *
+     * @return {@code true} if the credits may be given
+     */
+    boolean acquireCredits(int window, int bufferSize) {
+        CreditController creditController = getCreditController();
+        synchronized (creditController) {
+            if (creditController.acquire(window, bufferSize)) {
+                acquiredCredits += bufferSize;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    void releaseCredits() {
+        CreditController creditController = getCreditController();
+        synchronized (creditController) {
+            creditController.release(acquiredCredits);
+            acquiredCredits = 0;
+        }
+    }
+
+    private CreditController getCreditController() {
+        return cSet.getMultiplexedConnection().getCreditController();
+    }
+
     synchronized void reportRemoteEOS() {
         ri.flush();
         ri.getFullBufferAcceptor().close();
@@ -164,6 +220,25 @@ public class ChannelControlBlock implements IChannelControlBlock {
         cSet.markPendingWrite(channelId);
     }
 
+    @Override
+    public void setFrameCompression(boolean frameCompression) {
+        this.frameCompression = frameCompression;
+    }
+
+    @Override
+    public boolean isFrameCompression() {
+        return frameCompression;
+    }
+
+    @Override
+    public void setPartitionId(PartitionId partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public MuxDemuxPerformanceCounters getPerformanceCounters() {
+        return cSet.getMultiplexedConnection().getMuxDemux().getPerformanceCounters();
+    }
+
     @Override
     public String toString() {
         return "Channel:" + channelId + "[localClose: " + localClose + " localCloseAck: " + localCloseAck
@@ -178,12 +253,20 @@ public class ChannelControlBlock implements IChannelControlBlock {
     public JsonNode getState() {
         final ObjectNode state = JSONUtil.createObject();
         state.put("id", channelId);
+        if (partitionId != null) {
+            state.put("partition", partitionId.toString());
+        }
         state.put("localClose", localClose.get());
         state.put("localCloseAck", localCloseAck.get());
         state.put("remoteClose", remoteClose.get());
         state.put("remoteCloseAck", remoteCloseAck.get());
         state.put("readCredits", ri.getCredits());
         state.put("writeCredits", wi.getCredits());
+        state.put("readCreditWindow", ri.getCreditWindow());
+        state.put("readIdleTimeMs", TimeUnit.NANOSECONDS.toMillis(ri.getIdleTime()));
+        state.put("writeBackPressureTimeMs", TimeUnit.NANOSECONDS.toMillis(wi.getBackPressureTime()));
+        state.put("writeIdleTimeMs", TimeUnit.NANOSECONDS.toMillis(wi.getIdleTime()));
+        state.put("frameCompression", frameCompression);
         state.put("completelyClosed", completelyClosed());
         return state;
     }
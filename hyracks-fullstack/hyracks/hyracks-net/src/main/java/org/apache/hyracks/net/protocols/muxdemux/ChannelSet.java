@@ -103,6 +103,7 @@ public class ChannelSet {
     private void freeChannel(ChannelControlBlock channel) {
         int idx = channel.getChannelId();
         ccbArray[idx] = null;
+        channel.releaseCredits();
         allocationBitmap.clear(idx);
         pendingChannelWriteBitmap.clear(idx);
         pendingChannelCreditsBitmap.clear(idx);
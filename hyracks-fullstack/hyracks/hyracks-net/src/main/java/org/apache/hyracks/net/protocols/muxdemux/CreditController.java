@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.net.protocols.muxdemux;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.util.JSONUtil;
+import org.apache.hyracks.util.StorageUtil;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Decides when a channel of a {@link MultiplexedConnection} may give credits for more buffers than it was opened
+ * with. The controller estimates the round trip time of a credit (from sending credits to receiving data on them)
+ * and the rate at which the connection delivers data. A channel that has run out of credits while its consumer kept
+ * up may grow its credit window by one buffer as long as the window is smaller than twice the bandwidth-delay product
+ * of the connection; growing the windows makes the delivery rate, and so the product, grow until the connection is
+ * saturated. The buffers added this way are taken from a budget that all the channels of the connection share, which
+ * bounds the memory used by connections with many channels.
+ */
+public class CreditController {
+
+    public static final int DEFAULT_CREDIT_BUDGET = StorageUtil.getIntSizeInBytes(8, StorageUtil.StorageUnit.MEGABYTE);
+
+    private static final long RATE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // the estimates give up 1/16th of their distance to a new sample that does not improve them
+    private static final int DECAY_SHIFT = 4;
+
+    private static final int WINDOW_GAIN = 2;
+
+    private final int budget;
+
+    private int budgetInUse;
+
+    private long roundTripTime;
+
+    private double deliveryRate;
+
+    private long periodStart;
+
+    private long periodBytes;
+
+    public CreditController(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Adds the time between sending credits to a channel and receiving data on the channel. The time includes the
+     * time the sender had no data to send, so the estimate follows shorter samples right away and longer ones slowly.
+     */
+    synchronized void addRoundTripSample(long nanos) {
+        if (roundTripTime == 0 || nanos < roundTripTime) {
+            roundTripTime = nanos;
+        } else {
+            roundTripTime += (nanos - roundTripTime) >> DECAY_SHIFT;
+        }
+    }
+
+    /**
+     * Adds payload bytes read from the connection. The delivery rate is measured over periods and, as the rate is
+     * limited by the credits of the channels while they grow, follows higher rates right away and lower ones slowly.
+     */
+    synchronized void addBytesRead(long bytes, long now) {
+        if (periodStart == 0) {
+            periodStart = now;
+        }
+        periodBytes += bytes;
+        long elapsed = now - periodStart;
+        if (elapsed >= RATE_PERIOD_NANOS) {
+            double rate = (double) periodBytes / elapsed;
+            if (rate > deliveryRate) {
+                deliveryRate = rate;
+            } else {
+                deliveryRate -= (deliveryRate - rate) / (1 << DECAY_SHIFT);
+            }
+            periodStart = now;
+            periodBytes = 0;
+        }
+    }
+
+    /**
+     * Tries to take the bytes of one more buffer for a channel whose credit window is {@code window} bytes.
+     *
+     * @return {@code true} if the channel may grow its window by {@code bufferSize} bytes
+     */
+    synchronized boolean acquire(int window, int bufferSize) {
+        if (roundTripTime == 0 || deliveryRate == 0 || budgetInUse + bufferSize > budget) {
+            return false;
+        }
+        if (window >= WINDOW_GAIN * deliveryRate * roundTripTime) {
+            return false;
+        }
+        budgetInUse += bufferSize;
+        return true;
+    }
+
+    synchronized void release(int bytes) {
+        budgetInUse -= bytes;
+    }
+
+    synchronized ObjectNode getState() {
+        final ObjectNode state = JSONUtil.createObject();
+        state.put("roundTripTimeUs", TimeUnit.NANOSECONDS.toMicros(roundTripTime));
+        state.put("deliveryRateBytesPerSec", (long) (deliveryRate * TimeUnit.SECONDS.toNanos(1)));
+        state.put("creditBudget", budget);
+        state.put("creditBudgetInUse", budgetInUse);
+        return state;
+    }
+}
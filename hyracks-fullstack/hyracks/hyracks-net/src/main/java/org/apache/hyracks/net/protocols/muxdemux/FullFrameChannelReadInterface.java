@@ -40,6 +40,13 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
     private int frameSize;
     private long recycledBuffers = 0;
     private long flushedBuffers = 0;
+    // the number of buffers the remote side is credited with, and the number it may grow to
+    private volatile int window;
+    private int maxWindow;
+    // the credits given to the remote side on which no data has been received yet
+    private long outstandingCredits;
+    private volatile long idleTime;
+    private volatile long idleStartTime;
 
     public FullFrameChannelReadInterface(IChannelControlBlock ccb) {
         this.ccb = ccb;
@@ -56,6 +63,13 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
                 }
                 riEmptyStack.push(buffer);
                 recycledBuffers++;
+                if (bufferFactory != null && recycledBuffers == flushedBuffers) {
+                    idleStartTime = System.nanoTime();
+                    if (outstandingCredits <= 0 && window < maxWindow) {
+                        growWindow();
+                    }
+                }
+                outstandingCredits += delta;
                 ccb.addPendingCredits(delta);
             }
         };
@@ -92,6 +106,7 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
                         currentReadBuffer.limit(currentReadBuffer.capacity());
                     }
                     size -= len;
+                    outstandingCredits -= len;
                     if (len < rSize) {
                         return size;
                     }
@@ -99,6 +114,10 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
                     return size;
                 }
                 if (currentReadBuffer.remaining() <= 0) {
+                    if (idleStartTime != 0) {
+                        idleTime += System.nanoTime() - idleStartTime;
+                        idleStartTime = 0;
+                    }
                     flush();
                     flushedBuffers++;
                 }
@@ -106,11 +125,46 @@ public class FullFrameChannelReadInterface extends AbstractChannelReadInterface
         }
     }
 
+    /**
+     * Called when the consumer has consumed all the received buffers while the remote side has no credits left, i.e.
+     * when the channel is limited by its credits rather than by its consumer.
+     */
+    @GuardedBy("bufferRecycleLock")
+    private void growWindow() {
+        if (((ChannelControlBlock) ccb).acquireCredits(window * frameSize, frameSize)) {
+            window++;
+            outstandingCredits += frameSize;
+            ccb.addPendingCredits(frameSize);
+        }
+    }
+
     @Override
     public void setBufferFactory(IBufferFactory bufferFactory, int limit, int frameSize) {
+        setBufferFactory(bufferFactory, limit, limit, frameSize);
+    }
+
+    @Override
+    public void setBufferFactory(IBufferFactory bufferFactory, int initialLimit, int limit, int frameSize) {
         this.frameSize = frameSize;
         super.setBufferFactory(bufferFactory, limit, frameSize);
-        ccb.addPendingCredits(limit * frameSize);
+        synchronized (bufferRecycleLock) {
+            window = initialLimit;
+            maxWindow = limit;
+            outstandingCredits += initialLimit * frameSize;
+            idleStartTime = System.nanoTime();
+        }
+        ccb.addPendingCredits(initialLimit * frameSize);
+    }
+
+    @Override
+    public int getCreditWindow() {
+        return window;
+    }
+
+    @Override
+    public long getIdleTime() {
+        long startTime = idleStartTime;
+        return startTime != 0 && !ccb.isRemotelyClosed() ? idleTime + System.nanoTime() - startTime : idleTime;
     }
 
     private void logStats() {
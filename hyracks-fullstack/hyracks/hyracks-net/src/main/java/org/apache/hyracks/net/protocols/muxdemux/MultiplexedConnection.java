@@ -59,6 +59,8 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
 
     private final ChannelSet cSet;
 
+    private final CreditController creditController;
+
     private final ReaderState readerState;
 
     private final WriterState writerState;
@@ -77,12 +79,21 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
         this.muxDemux = muxDemux;
         pendingWriteEventsCounter = new EventCounter();
         cSet = new ChannelSet(this, pendingWriteEventsCounter);
+        creditController = new CreditController(CreditController.DEFAULT_CREDIT_BUDGET);
         readerState = new ReaderState();
         writerState = new WriterState();
         lastChannelWritten = -1;
         connectionFailure = false;
     }
 
+    MuxDemux getMuxDemux() {
+        return muxDemux;
+    }
+
+    CreditController getCreditController() {
+        return creditController;
+    }
+
     int getConnectionAttempts() {
         return nConnectionAttempts;
     }
@@ -281,6 +292,7 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
                     }
                     writerState.command.setData(effectiveCredits);
                     writerState.reset(null, 0, null);
+                    ccb.creditsSent(System.nanoTime());
                     if (!writerState.performPendingWrite(sc)) {
                         return;
                     }
@@ -392,6 +404,7 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
                         ccb = readerState.getCCBInCommand();
                         readerState.pendingReadSize = readerState.command.getData();
                         readerState.ccb = ccb;
+                        ccb.dataReceived(System.nanoTime());
                         break;
                     }
                     case ERROR: {
@@ -416,7 +429,9 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
             if (readerState.pendingReadSize > 0) {
                 ++chunksRead;
                 int newPendingReadSize = readerState.ccb.read(sc, readerState.pendingReadSize);
-                muxDemux.getPerformanceCounters().addPayloadBytesRead(readerState.pendingReadSize - newPendingReadSize);
+                int payloadBytesRead = readerState.pendingReadSize - newPendingReadSize;
+                muxDemux.getPerformanceCounters().addPayloadBytesRead(payloadBytesRead);
+                creditController.addBytesRead(payloadBytesRead, System.nanoTime());
                 readerState.pendingReadSize = newPendingReadSize;
                 if (readerState.pendingReadSize > 0) {
                     return;
@@ -469,6 +484,7 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
         final ObjectNode state = JSONUtil.createObject();
         state.put("remoteAddress", getRemoteAddress().toString());
         final ArrayNode channels = cSet.getState();
+        state.set("credits", creditController.getState());
         state.set("channels", channels);
         return Optional.of(state);
     }
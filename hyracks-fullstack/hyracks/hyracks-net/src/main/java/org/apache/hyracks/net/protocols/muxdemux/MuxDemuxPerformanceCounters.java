@@ -29,11 +29,17 @@ public class MuxDemuxPerformanceCounters {
 
     private final AtomicLong signalingBytesWritten;
 
+    private final AtomicLong uncompressedPayloadBytesWritten;
+
+    private final AtomicLong compressedPayloadBytesWritten;
+
     public MuxDemuxPerformanceCounters() {
         payloadBytesRead = new AtomicLong();
         payloadBytesWritten = new AtomicLong();
         signalingBytesRead = new AtomicLong();
         signalingBytesWritten = new AtomicLong();
+        uncompressedPayloadBytesWritten = new AtomicLong();
+        compressedPayloadBytesWritten = new AtomicLong();
     }
 
     public void addPayloadBytesRead(long delta) {
@@ -67,4 +73,28 @@ public class MuxDemuxPerformanceCounters {
     public long getSignalingBytesWritten() {
         return signalingBytesWritten.get();
     }
+
+    /**
+     * @param delta
+     *            number of payload bytes given to the frame compression of the channels
+     */
+    public void addUncompressedPayloadBytesWritten(long delta) {
+        uncompressedPayloadBytesWritten.addAndGet(delta);
+    }
+
+    public long getUncompressedPayloadBytesWritten() {
+        return uncompressedPayloadBytesWritten.get();
+    }
+
+    /**
+     * @param delta
+     *            number of payload bytes that the frame compression of the channels produced for them
+     */
+    public void addCompressedPayloadBytesWritten(long delta) {
+        compressedPayloadBytesWritten.addAndGet(delta);
+    }
+
+    public long getCompressedPayloadBytesWritten() {
+        return compressedPayloadBytesWritten.get();
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.net.tests;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hyracks.api.comm.IBufferFactory;
+import org.apache.hyracks.api.comm.IChannelReadInterface;
+import org.apache.hyracks.api.comm.ICloseableBufferAcceptor;
+import org.apache.hyracks.ipc.sockets.PlainSocketChannelFactory;
+import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
+import org.apache.hyracks.net.protocols.muxdemux.FullFrameChannelInterfaceFactory;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemux;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class AdaptiveCreditTest {
+
+    private static final int FRAME_SIZE = 4096;
+    private static final int FRAME_COUNT = 20000;
+    private static final int INITIAL_BUFFER_COUNT = 1;
+    private static final int BUFFER_COUNT = 8;
+
+    @Test
+    public void testWindowGrowsForFastConsumer() throws Exception {
+        final AtomicReference<ChannelControlBlock> receiverChannel = new AtomicReference<>();
+        final BlockingQueue<ByteBuffer> fullBuffers = new LinkedBlockingQueue<>();
+        final CountDownLatch eos = new CountDownLatch(1);
+        MuxDemux receiver = new MuxDemux(new InetSocketAddress("127.0.0.1", 0), channel -> {
+            receiverChannel.set(channel);
+            channel.getWriteInterface().setEmptyBufferAcceptor(buffer -> {
+            });
+            channel.getReadInterface().setFullBufferAcceptor(new ICloseableBufferAcceptor() {
+                @Override
+                public void accept(ByteBuffer buffer) {
+                    fullBuffers.add(buffer);
+                }
+
+                @Override
+                public void close() {
+                    eos.countDown();
+                }
+
+                @Override
+                public void error(int ecode) {
+                }
+            });
+            channel.getReadInterface().setBufferFactory(new BufferFactory(), INITIAL_BUFFER_COUNT, BUFFER_COUNT,
+                    FRAME_SIZE);
+        }, 1, 5, FullFrameChannelInterfaceFactory.INSTANCE, PlainSocketChannelFactory.INSTANCE);
+        receiver.start();
+        MuxDemux sender = new MuxDemux(new InetSocketAddress("127.0.0.1", 0), channel -> {
+        }, 1, 5, FullFrameChannelInterfaceFactory.INSTANCE, PlainSocketChannelFactory.INSTANCE);
+        sender.start();
+
+        ChannelControlBlock channel = sender.connect(receiver.getLocalAddress()).openChannel();
+        channel.getWriteInterface().setEmptyBufferAcceptor(buffer -> {
+        });
+        channel.getReadInterface().setFullBufferAcceptor(new ICloseableBufferAcceptor() {
+            @Override
+            public void accept(ByteBuffer buffer) {
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void error(int ecode) {
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < FRAME_COUNT; i++) {
+                    ByteBuffer buffer = fullBuffers.take();
+                    Assert.assertEquals(i, buffer.getInt(0));
+                    buffer.clear();
+                    receiverChannel.get().getReadInterface().getEmptyBufferAcceptor().accept(buffer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        ICloseableBufferAcceptor fba = channel.getWriteInterface().getFullBufferAcceptor();
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE);
+            buffer.putInt(0, i);
+            fba.accept(buffer);
+        }
+        fba.close();
+        Assert.assertTrue(eos.await(1, TimeUnit.MINUTES));
+        consumer.join();
+
+        IChannelReadInterface readInterface = receiverChannel.get().getReadInterface();
+        Assert.assertTrue(readInterface.getCreditWindow() > INITIAL_BUFFER_COUNT);
+        Assert.assertTrue(readInterface.getCreditWindow() <= BUFFER_COUNT);
+        JsonNode channelState = receiver.getState().get("incomingConnections").get(0).get("channels").get(0);
+        Assert.assertEquals(readInterface.getCreditWindow(), channelState.get("readCreditWindow").asInt());
+        Assert.assertTrue(channelState.has("readIdleTimeMs"));
+        Assert.assertTrue(channelState.has("writeBackPressureTimeMs"));
+    }
+
+    private static class BufferFactory implements IBufferFactory {
+        private int counter = 0;
+
+        @Override
+        public ByteBuffer createBuffer() {
+            if (counter >= BUFFER_COUNT) {
+                return null;
+            }
+            counter++;
+            return ByteBuffer.allocate(FRAME_SIZE);
+        }
+
+        @Override
+        public int getCreatedBuffersCount() {
+            return counter;
+        }
+    }
+}
@@ -31,8 +31,11 @@ import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.resources.IDeallocatable;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.JobletMemoryBroker;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 
 public class TestJobletContext implements IHyracksJobletContext {
 
@@ -42,6 +45,7 @@ public class TestJobletContext implements IHyracksJobletContext {
     private final WorkspaceFileFactory fileFactory;
     private final long jobStartTime;
     private final String jobStartTimeZoneId;
+    private final JobletMemoryBroker memoryBroker;
 
     TestJobletContext(int frameSize, INCServiceContext serviceContext, JobId jobId) throws HyracksException {
         this.serviceContext = serviceContext;
@@ -50,6 +54,7 @@ public class TestJobletContext implements IHyracksJobletContext {
         this.frameManger = new FrameManager(frameSize);
         this.jobStartTime = System.currentTimeMillis();
         this.jobStartTimeZoneId = ZoneId.systemDefault().getId();
+        this.memoryBroker = new JobletMemoryBroker(new MemoryBroker(0));
     }
 
     @Override
@@ -102,6 +107,11 @@ public class TestJobletContext implements IHyracksJobletContext {
         return new CounterContext(jobId.toString());
     }
 
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
+
     @Override
     public void registerDeallocatable(final IDeallocatable deallocatable) {
         Runtime.getRuntime().addShutdownHook(new Thread() {
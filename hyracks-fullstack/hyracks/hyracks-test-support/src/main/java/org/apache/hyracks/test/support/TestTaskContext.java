@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.hyracks.api.context.IHyracksJobletContext;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
@@ -47,6 +48,11 @@ import org.apache.hyracks.util.IThreadStatsCollector;
 import org.apache.hyracks.util.ThreadStats;
 
 public class TestTaskContext implements IHyracksTaskContext {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, TestTaskContext.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
     private final TestJobletContext jobletContext;
     private final TaskAttemptId taskId;
     private int partitionCount;
@@ -161,7 +167,7 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     @Override
     public ExecutorService getExecutorService() {
-        return null;
+        return EXECUTOR;
     }
 
     @Override
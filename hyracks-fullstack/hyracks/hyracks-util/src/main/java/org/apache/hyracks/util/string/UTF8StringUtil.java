@@ -257,6 +257,28 @@ public class UTF8StringUtil {
         return (int) (nk >> 1); // make it always positive.
     }
 
+    /**
+     * Normalizes the first {@code 2 * length} characters of the string into {@code length} integers, two characters
+     * per integer. Compared as unsigned integers, the normalized keys order the strings like {@link #compareTo}; the
+     * characters that a shorter string lacks are 0.
+     */
+    public static void normalize(byte[] bytes, int start, int[] normalizedKeys, int keyStart, int length) {
+        int utfLen = getUTFLength(bytes, start);
+        int offset = start + getNumBytesToStoreLength(utfLen);
+        int end = offset + utfLen;
+        for (int i = 0; i < length; ++i) {
+            int nk = 0;
+            for (int j = 0; j < 2; ++j) {
+                nk <<= 16;
+                if (offset < end) {
+                    nk |= charAt(bytes, offset);
+                    offset += charSize(bytes, offset);
+                }
+            }
+            normalizedKeys[keyStart + i] = nk;
+        }
+    }
+
     public static int compareTo(byte[] thisBytes, int thisStart, byte[] thatBytes, int thatStart) {
         return compareTo(thisBytes, thisStart, thatBytes, thatStart, false, false);
     }
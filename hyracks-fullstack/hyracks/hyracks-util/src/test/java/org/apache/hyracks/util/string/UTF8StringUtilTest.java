@@ -83,6 +83,32 @@ public class UTF8StringUtilTest {
         testCompare(STRING_LEN_MEDIUM, STRING_UTF8_MIX, OPTION.STANDARD);
     }
 
+    @Test
+    public void testMultiIntegerNormalize() throws Exception {
+        String[] strings = new String[] { "", "a", "ab", "abcdefg", "abcdefgh", "abcdefgi", "abcdefghij", "abcdefghik",
+                "b", "\u00e9t\u00e9", "\u7684", "\u79bb", STRING_UTF8_3, STRING_UTF8_MIX, STRING_LEN_MEDIUM };
+        int length = 4;
+        for (String str1 : strings) {
+            for (String str2 : strings) {
+                int[] keys1 = new int[length];
+                int[] keys2 = new int[length];
+                normalize(writeStringToBytes(str1), 0, keys1, 0, length);
+                normalize(writeStringToBytes(str2), 0, keys2, 0, length);
+                int cmp = 0;
+                for (int i = 0; i < length && cmp == 0; i++) {
+                    cmp = Integer.compareUnsigned(keys1[i], keys2[i]);
+                }
+                String prefix1 = str1.substring(0, Math.min(str1.length(), 2 * length));
+                String prefix2 = str2.substring(0, Math.min(str2.length(), 2 * length));
+                // the normalized keys order the strings by their prefixes, the ties are decided by the strings
+                assertTrue(isSameSign(prefix1.compareTo(prefix2), cmp));
+                if (cmp != 0) {
+                    assertTrue(isSameSign(str1.compareTo(str2), cmp));
+                }
+            }
+        }
+    }
+
     public boolean isSameSign(int r1, int r2) {
         if (r1 > 0) {
             return r2 > 0;